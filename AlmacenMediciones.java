@@ -0,0 +1,168 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Almacén en memoria de las mediciones recibidas de equipos de adquisición externos.
+ * Cada equipo tiene una serie circular de capacidad fija guardada en arreglos
+ * primitivos (marcas de tiempo y valores), así que una ingesta grande no crea un
+ * objeto por medición y, al llenarse la serie, las más antiguas se sobrescriben.
+ * Las estadísticas (total, mínimo, máximo y promedio) abarcan todo lo recibido,
+ * no solo lo retenido.
+ * Cumple con SRP: Solo guarda y resume mediciones; el parseo lo hace IngestaMediciones
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class AlmacenMediciones {
+    
+    private final ConcurrentHashMap<String, Serie> series = new ConcurrentHashMap<>();
+    private final int capacidad;
+    private final LongAdder aceptadas = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    
+    /**
+     * Constructor del almacén
+     * @param capacidad mediciones retenidas por equipo
+     */
+    public AlmacenMediciones(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La serie de cada equipo debe retener al menos una medición");
+        }
+        this.capacidad = capacidad;
+    }
+    
+    /**
+     * Crea el almacén con la capacidad de la propiedad "servidor.ingesta.retencion" (por defecto 100000)
+     * @return almacén configurado
+     */
+    public static AlmacenMediciones desdePropiedades() {
+        return new AlmacenMediciones(Integer.getInteger("servidor.ingesta.retencion", 100_000));
+    }
+    
+    /**
+     * Agrega un lote de mediciones a la serie de un equipo
+     * @param id ID del equipo
+     * @param marcas marcas de tiempo en milisegundos
+     * @param valores valores medidos
+     * @param cantidad mediciones válidas al inicio de los arreglos
+     */
+    public void agregar(String id, long[] marcas, double[] valores, int cantidad) {
+        if (cantidad > 0) {
+            series.computeIfAbsent(id, clave -> new Serie()).agregar(marcas, valores, cantidad);
+            aceptadas.add(cantidad);
+        }
+    }
+    
+    /**
+     * Registra el resultado de una ingesta terminada para las métricas
+     * @param lineasRechazadas líneas que no se pudieron interpretar
+     * @param bytesCuerpo bytes del cuerpo recibido
+     */
+    public void registrarIngesta(long lineasRechazadas, long bytesCuerpo) {
+        rechazadas.add(lineasRechazadas);
+        bytes.add(bytesCuerpo);
+    }
+    
+    /**
+     * Resume en JSON la serie de un equipo
+     * @param id ID del equipo
+     * @return objeto JSON con total, retenidas, última medición y estadísticas
+     */
+    public String resumenJSON(String id) {
+        Serie serie = series.get(id);
+        return serie != null ? serie.resumenJSON(id) : new Serie().resumenJSON(id);
+    }
+    
+    /** @return mediciones aceptadas desde el arranque */
+    public long getAceptadas() { return aceptadas.sum(); }
+    
+    /** @return líneas rechazadas por formato inválido desde el arranque */
+    public long getRechazadas() { return rechazadas.sum(); }
+    
+    /** @return bytes de cuerpo ingeridos desde el arranque */
+    public long getBytes() { return bytes.sum(); }
+    
+    /**
+     * Serie circular de un equipo; sus arreglos se reservan con la primera medición
+     */
+    private final class Serie {
+        
+        private long[] marcas;
+        private double[] valores;
+        private int siguiente;
+        private long total;
+        private double suma;
+        private double minimo = Double.POSITIVE_INFINITY;
+        private double maximo = Double.NEGATIVE_INFINITY;
+        
+        synchronized void agregar(long[] nuevasMarcas, double[] nuevosValores, int cantidad) {
+            if (marcas == null) {
+                marcas = new long[capacidad];
+                valores = new double[capacidad];
+            }
+            for (int i = 0; i < cantidad; i++) {
+                double valor = nuevosValores[i];
+                suma += valor;
+                minimo = Math.min(minimo, valor);
+                maximo = Math.max(maximo, valor);
+            }
+            total += cantidad;
+            // Si el lote es mayor que la serie solo se conserva su final
+            int desde = Math.max(0, cantidad - capacidad);
+            int restantes = cantidad - desde;
+            while (restantes > 0) {
+                int tramo = Math.min(restantes, capacidad - siguiente);
+                System.arraycopy(nuevasMarcas, desde, marcas, siguiente, tramo);
+                System.arraycopy(nuevosValores, desde, valores, siguiente, tramo);
+                siguiente = (siguiente + tramo) % capacidad;
+                desde += tramo;
+                restantes -= tramo;
+            }
+        }
+        
+        synchronized String resumenJSON(String id) {
+            StringBuilder json = new StringBuilder(192);
+            json.append("{\"id\":\"").append(id).append("\",\"total\":").append(total)
+                .append(",\"retenidas\":").append(Math.min(total, capacidad));
+            if (total > 0) {
+                int ultima = (siguiente + capacidad - 1) % capacidad;
+                json.append(",\"ultimaMarca\":").append(marcas[ultima])
+                    .append(",\"ultimoValor\":").append(numero(valores[ultima]))
+                    .append(",\"minimo\":").append(numero(minimo))
+                    .append(",\"maximo\":").append(numero(maximo))
+                    .append(",\"promedio\":").append(numero(suma / total));
+            }
+            return json.append('}').toString();
+        }
+    }
+    
+    private static String numero(double valor) {
+        return Double.isFinite(valor) ? Double.toString(valor) : "null";
+    }
+}
@@ -0,0 +1,488 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * Archivos estáticos servidos desde un directorio del disco bajo un prefijo de ruta
+ * (por ejemplo el frontend HTML/CSS/JS o datos exportados).
+ * Los archivos grandes se envían con FileChannel.transferTo (sendfile), sin copiarlos
+ * al heap; los pequeños se guardan en una caché LRU acotada en bytes, junto con su
+ * variante gzip si son comprimibles, y se validan contra el tamaño y la fecha del disco.
+ * Responde ETag fuerte y Last-Modified con revalidación 304, y un solo rango de bytes
+ * con 206 (o 416 si no se puede satisfacer). Solo sirve archivos dentro del directorio:
+ * se rechazan los segmentos ocultos ("." y "..") y los enlaces que salen de él.
+ * Los valores se toman de propiedades de sistema: servidor.archivos.dir,
+ * servidor.archivos.prefijo, servidor.archivos.cache.bytes y servidor.archivos.cache.archivo.max
+ * Cumple con SRP: Solo resuelve rutas a archivos y arma sus respuestas
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class ArchivosEstaticos {
+    
+    private static final String INDICE = "index.html";
+    private static final String SUFIJO_GZIP = "-gzip";
+    private static final String TIPO_BINARIO = "application/octet-stream";
+    private static final long[] INSATISFACIBLE = new long[0];
+    private static final DateTimeFormatter FECHA_HTTP =
+        DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+    private static final RespuestaHttp.Encabezado ACEPTA_RANGOS = new RespuestaHttp.Encabezado("Accept-Ranges", "bytes");
+    private static final RespuestaHttp.Encabezado CACHE_REVALIDAR =
+        new RespuestaHttp.Encabezado("Cache-Control", "no-cache");
+    private static final Map<String, String> TIPOS = Map.ofEntries(
+        Map.entry("html", "text/html; charset=UTF-8"),
+        Map.entry("htm", "text/html; charset=UTF-8"),
+        Map.entry("css", "text/css; charset=UTF-8"),
+        Map.entry("js", "text/javascript; charset=UTF-8"),
+        Map.entry("mjs", "text/javascript; charset=UTF-8"),
+        Map.entry("json", "application/json; charset=UTF-8"),
+        Map.entry("map", "application/json; charset=UTF-8"),
+        Map.entry("ndjson", "application/x-ndjson; charset=UTF-8"),
+        Map.entry("csv", "text/csv; charset=UTF-8"),
+        Map.entry("txt", "text/plain; charset=UTF-8"),
+        Map.entry("xml", "application/xml; charset=UTF-8"),
+        Map.entry("svg", "image/svg+xml; charset=UTF-8"),
+        Map.entry("png", "image/png"),
+        Map.entry("jpg", "image/jpeg"),
+        Map.entry("jpeg", "image/jpeg"),
+        Map.entry("gif", "image/gif"),
+        Map.entry("webp", "image/webp"),
+        Map.entry("ico", "image/x-icon"),
+        Map.entry("woff", "font/woff"),
+        Map.entry("woff2", "font/woff2"),
+        Map.entry("wasm", "application/wasm"),
+        Map.entry("pdf", "application/pdf"),
+        Map.entry("zip", "application/zip"),
+        Map.entry("gz", "application/gzip"),
+        Map.entry("mp4", "video/mp4"),
+        Map.entry("webm", "video/webm"));
+    
+    private final Path raiz;
+    private final String prefijo;
+    private final CompresorGzip compresor;
+    private final int maxArchivoCache;
+    private final long maxBytesCache;
+    private final LinkedHashMap<Path, Entrada> cache;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private long bytesCache;
+    
+    /**
+     * Constructor con configuración explícita
+     * @param raiz directorio servido, o null para desactivar los archivos estáticos
+     * @param prefijo prefijo de ruta bajo el que se sirve (ej: /archivos); "/" o vacío para la raíz
+     * @param compresor compresor que decide y genera la variante gzip
+     * @param maxArchivoCache tamaño máximo de un archivo que se guarda en la caché
+     * @param maxBytesCache bytes máximos entre todos los archivos de la caché
+     * @throws IOException si el directorio no existe
+     */
+    public ArchivosEstaticos(Path raiz, String prefijo, CompresorGzip compresor,
+                             int maxArchivoCache, long maxBytesCache) throws IOException {
+        if (raiz != null && !Files.isDirectory(raiz)) {
+            throw new IOException("No es un directorio: " + raiz);
+        }
+        // Ruta real: los enlaces simbólicos de cada archivo se comparan contra ella
+        this.raiz = raiz != null ? raiz.toRealPath() : null;
+        String sinBarra = prefijo.endsWith("/") ? prefijo.substring(0, prefijo.length() - 1) : prefijo;
+        this.prefijo = sinBarra.isEmpty() || sinBarra.startsWith("/") ? sinBarra : "/" + sinBarra;
+        this.compresor = compresor;
+        this.maxArchivoCache = maxArchivoCache;
+        this.maxBytesCache = maxBytesCache;
+        // accessOrder = true: la iteración va del menos al más recientemente usado
+        this.cache = new LinkedHashMap<>(64, 0.75f, true);
+    }
+    
+    /**
+     * Crea los archivos estáticos a partir de las propiedades de sistema. Sin
+     * servidor.archivos.dir, o si no es un directorio, quedan desactivados
+     * @param compresor compresor del servidor
+     * @return archivos estáticos configurados (por defecto bajo /archivos, caché de 16 MB
+     *         con archivos de hasta 64 KB)
+     */
+    public static ArchivosEstaticos desdePropiedades(CompresorGzip compresor) {
+        String directorio = System.getProperty("servidor.archivos.dir", "");
+        String prefijo = System.getProperty("servidor.archivos.prefijo", "/archivos");
+        int maxArchivo = Integer.getInteger("servidor.archivos.cache.archivo.max", 64 * 1024);
+        long maxBytes = Long.getLong("servidor.archivos.cache.bytes", 16L * 1024 * 1024);
+        try {
+            return new ArchivosEstaticos(directorio.isEmpty() ? null : Paths.get(directorio),
+                                         prefijo, compresor, maxArchivo, maxBytes);
+        } catch (IOException | InvalidPathException e) {
+            System.err.println("Archivos estáticos desactivados: " + e.getMessage());
+            try {
+                return new ArchivosEstaticos(null, prefijo, compresor, maxArchivo, maxBytes);
+            } catch (IOException imposible) {
+                throw new IllegalStateException(imposible);
+            }
+        }
+    }
+    
+    /**
+     * Sirve el archivo que corresponde a la ruta, si existe dentro del directorio.
+     * Un directorio se sirve con su index.html
+     * @param solicitud solicitud GET con sus encabezados
+     * @return respuesta 200, 206, 304 o 416, o null si la ruta no es un archivo servible
+     */
+    public RespuestaHttp servir(SolicitudHttp solicitud) {
+        if (raiz == null || !"GET".equals(solicitud.getMetodo())) {
+            return null;
+        }
+        Path archivo = resolver(solicitud.getRuta());
+        if (archivo == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+            if (atributos.isDirectory()) {
+                archivo = archivo.resolve(INDICE).toRealPath();
+                if (!archivo.startsWith(raiz)) {
+                    return null;
+                }
+                atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+            }
+            if (!atributos.isRegularFile()) {
+                return null;
+            }
+            RespuestaHttp respuesta = responder(solicitud, archivo, atributos);
+            solicitud.setPatronRuta(getPatron());
+            return respuesta;
+        } catch (IOException e) {
+            // Inexistente, sin permiso de lectura o borrado a mitad de la solicitud
+            return null;
+        }
+    }
+    
+    /**
+     * Convierte la ruta de la solicitud en un archivo dentro del directorio.
+     * Cada segmento se decodifica por separado, así que un "%2F" no puede
+     * introducir separadores, y se rechazan los segmentos ocultos, incluidos "." y ".."
+     * @return ruta real del archivo, o null si está fuera del prefijo o del directorio
+     */
+    private Path resolver(String ruta) {
+        int consulta = ruta.indexOf('?');
+        String camino = consulta < 0 ? ruta : ruta.substring(0, consulta);
+        if (!camino.startsWith(prefijo + "/")) {
+            return null;
+        }
+        try {
+            Path candidato = raiz;
+            for (String segmento : camino.substring(prefijo.length() + 1).split("/")) {
+                if (segmento.isEmpty()) {
+                    continue;
+                }
+                String nombre = decodificar(segmento);
+                if (nombre == null || nombre.startsWith(".") || nombre.indexOf('/') >= 0
+                        || nombre.indexOf('\\') >= 0 || nombre.indexOf('\0') >= 0) {
+                    return null;
+                }
+                candidato = candidato.resolve(nombre);
+            }
+            // Los enlaces simbólicos se siguen y el destino debe seguir dentro del directorio
+            Path real = candidato.toRealPath();
+            return real.startsWith(raiz) ? real : null;
+        } catch (IOException | InvalidPathException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Decodifica las secuencias %XX de un segmento como bytes UTF-8
+     * @return segmento decodificado, o null si una secuencia es inválida
+     */
+    private static String decodificar(String segmento) {
+        if (segmento.indexOf('%') < 0) {
+            return segmento;
+        }
+        byte[] bytes = segmento.getBytes(StandardCharsets.UTF_8);
+        int escritos = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '%') {
+                bytes[escritos++] = bytes[i];
+                continue;
+            }
+            if (i + 2 >= bytes.length) {
+                return null;
+            }
+            int alto = Character.digit(bytes[i + 1], 16);
+            int bajo = Character.digit(bytes[i + 2], 16);
+            if (alto < 0 || bajo < 0) {
+                return null;
+            }
+            bytes[escritos++] = (byte) (alto << 4 | bajo);
+            i += 2;
+        }
+        return new String(bytes, 0, escritos, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Arma la respuesta de un archivo regular: 304 si la copia del cliente sigue
+     * vigente, 416 o 206 si pidió un rango, y si no 200 con el archivo completo
+     */
+    private RespuestaHttp responder(SolicitudHttp solicitud, Path archivo, BasicFileAttributes atributos)
+            throws IOException {
+        long longitud = atributos.size();
+        long modificacion = atributos.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(longitud) + "-" + Long.toHexString(modificacion) + "\"";
+        String ultimaModificacion = FECHA_HTTP.format(Instant.ofEpochMilli(modificacion));
+        String tipo = tipoContenido(archivo.getFileName().toString());
+        
+        Entrada entrada = longitud <= maxArchivoCache ? obtener(archivo, longitud, modificacion, tipo) : null;
+        boolean comprimible = entrada != null && entrada.gzip != null;
+        long[] rango = rangoPedido(solicitud, etag, ultimaModificacion, longitud);
+        // Los rangos se cuentan sobre el archivo original, nunca sobre su variante gzip
+        boolean gzip = comprimible && rango == null && compresor.aceptaGzip(solicitud);
+        String etagEnviado = gzip ? etag.substring(0, etag.length() - 1) + SUFIJO_GZIP + "\"" : etag;
+        
+        RespuestaHttp respuesta;
+        if (noModificado(solicitud, etag, modificacion)) {
+            respuesta = new RespuestaHttp(304);
+        } else if (rango == INSATISFACIBLE) {
+            respuesta = new RespuestaHttp(416).agregarEncabezado("Content-Range", "bytes */" + longitud);
+        } else if (rango != null) {
+            long cantidad = rango[1] - rango[0] + 1;
+            respuesta = new RespuestaHttp(206).agregarEncabezado("Content-Type", tipo)
+                .agregarEncabezado("Content-Range", "bytes " + rango[0] + "-" + rango[1] + "/" + longitud);
+            if (entrada != null) {
+                respuesta.conCuerpo(Arrays.copyOfRange(entrada.contenido, (int) rango[0], (int) (rango[0] + cantidad)));
+            } else {
+                respuesta.conCuerpoDeArchivo(abrir(archivo, rango[0], cantidad));
+            }
+        } else {
+            respuesta = new RespuestaHttp(200).agregarEncabezado("Content-Type", tipo);
+            if (gzip) {
+                respuesta.agregarEncabezado(RespuestaHttp.GZIP).conCuerpo(entrada.gzip);
+            } else if (entrada != null) {
+                respuesta.conCuerpo(entrada.contenido);
+            } else {
+                respuesta.conCuerpoDeArchivo(abrir(archivo, 0, longitud));
+            }
+        }
+        respuesta.agregarEncabezado("ETag", etagEnviado)
+                 .agregarEncabezado("Last-Modified", ultimaModificacion)
+                 .agregarEncabezado(ACEPTA_RANGOS)
+                 .agregarEncabezado(CACHE_REVALIDAR);
+        if (comprimible && (gzip || respuesta.getCodigo() != 200)) {
+            // En un 200 sin gzip el Vary lo agrega el compresor del servidor
+            respuesta.agregarEncabezado(RespuestaHttp.VARY_ENCODING);
+        }
+        return respuesta;
+    }
+    
+    private static CuerpoArchivo abrir(Path archivo, long inicio, long cantidad) throws IOException {
+        return new CuerpoArchivo(FileChannel.open(archivo, StandardOpenOption.READ), inicio, cantidad);
+    }
+    
+    /**
+     * If-None-Match tiene prioridad (comparación débil, aceptando la variante gzip);
+     * If-Modified-Since solo se evalúa sin él y se ignora si la fecha es inválida
+     * o posterior al reloj del servidor (RFC 9110, sección 13.1.3)
+     */
+    private static boolean noModificado(SolicitudHttp solicitud, String etag, long modificacion) {
+        String ifNoneMatch = solicitud.getEncabezado("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String candidato : ifNoneMatch.split(",")) {
+                String valor = candidato.trim();
+                if (valor.startsWith("W/")) {
+                    valor = valor.substring(2);
+                }
+                valor = valor.replace(SUFIJO_GZIP + "\"", "\"");
+                if (valor.equals("*") || valor.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String ifModifiedSince = solicitud.getEncabezado("If-Modified-Since");
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            long desde = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                                      .toEpochSecond();
+            return desde <= System.currentTimeMillis() / 1000 && modificacion / 1000 <= desde;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Interpreta un encabezado "Range: bytes=inicio-fin", "bytes=inicio-" o "bytes=-sufijo".
+     * Varios rangos, un rango mal formado o un If-Range que ya no coincide se ignoran
+     * y se responde el archivo completo, como permite RFC 7233
+     * @return inicio y fin inclusivos, null para responder completo o INSATISFACIBLE
+     */
+    private static long[] rangoPedido(SolicitudHttp solicitud, String etag, String ultimaModificacion, long longitud) {
+        String rango = solicitud.getEncabezado("Range");
+        if (rango == null || !rango.startsWith("bytes=")) {
+            return null;
+        }
+        String ifRange = solicitud.getEncabezado("If-Range");
+        if (ifRange != null && !ifRange.trim().equals(etag) && !ifRange.trim().equals(ultimaModificacion)) {
+            return null;
+        }
+        String especificacion = rango.substring(6).trim();
+        int guion = especificacion.indexOf('-');
+        if (guion < 0 || especificacion.indexOf(',') >= 0) {
+            return null;
+        }
+        try {
+            String desde = especificacion.substring(0, guion).trim();
+            String hasta = especificacion.substring(guion + 1).trim();
+            long inicio;
+            long fin = longitud - 1;
+            if (desde.isEmpty()) {
+                long sufijo = Long.parseLong(hasta);
+                if (sufijo <= 0) {
+                    return sufijo == 0 ? INSATISFACIBLE : null;
+                }
+                inicio = Math.max(0, longitud - sufijo);
+            } else {
+                inicio = Long.parseLong(desde);
+                if (!hasta.isEmpty()) {
+                    long ultimo = Long.parseLong(hasta);
+                    if (ultimo < inicio) {
+                        return null;
+                    }
+                    fin = Math.min(ultimo, fin);
+                }
+            }
+            return inicio >= longitud ? INSATISFACIBLE : new long[] { inicio, fin };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Obtiene el contenido de la caché o lo lee del disco si falta o cambió.
+     * La lectura ocurre fuera del bloqueo para no serializar a los demás hilos
+     * @return entrada vigente, o null si el archivo cambió mientras se leía
+     */
+    private Entrada obtener(Path archivo, long longitud, long modificacion, String tipo) throws IOException {
+        synchronized (this) {
+            Entrada entrada = cache.get(archivo);
+            if (entrada != null && entrada.longitud == longitud && entrada.modificacion == modificacion) {
+                aciertos.increment();
+                return entrada;
+            }
+        }
+        fallos.increment();
+        
+        byte[] contenido = Files.readAllBytes(archivo);
+        if (contenido.length != longitud) {
+            return null; // Se está escribiendo: se envía desde el disco sin guardarlo
+        }
+        byte[] gzip = compresor.esComprimible(tipo, contenido.length)
+            ? CompresorGzip.gzip(contenido, Deflater.BEST_COMPRESSION) : null;
+        Entrada nueva = new Entrada(longitud, modificacion, contenido, gzip);
+        guardar(archivo, nueva);
+        return nueva;
+    }
+    
+    private synchronized void guardar(Path archivo, Entrada nueva) {
+        if (nueva.getTamano() > maxBytesCache) {
+            return;
+        }
+        Entrada anterior = cache.put(archivo, nueva);
+        if (anterior != null) {
+            bytesCache -= anterior.getTamano();
+        }
+        bytesCache += nueva.getTamano();
+        
+        Iterator<Map.Entry<Path, Entrada>> menosUsadas = cache.entrySet().iterator();
+        while (bytesCache > maxBytesCache && menosUsadas.hasNext()) {
+            Entrada desalojada = menosUsadas.next().getValue();
+            if (desalojada != nueva) {
+                bytesCache -= desalojada.getTamano();
+                menosUsadas.remove();
+            }
+        }
+    }
+    
+    /**
+     * Tipo MIME según la extensión; lo desconocido se sirve como binario
+     */
+    private static String tipoContenido(String nombre) {
+        int punto = nombre.lastIndexOf('.');
+        String tipo = punto < 0 ? null : TIPOS.get(nombre.substring(punto + 1).toLowerCase(Locale.ROOT));
+        return tipo != null ? tipo : TIPO_BINARIO;
+    }
+    
+    /** @return true si hay un directorio configurado */
+    public boolean isActivo() { return raiz != null; }
+    
+    /** @return patrón con el que se agrupan las rutas de archivos en métricas y registros */
+    public String getPatron() { return prefijo + "/{archivo}"; }
+    
+    /** @return consultas atendidas desde la caché */
+    public long getAciertos() { return aciertos.sum(); }
+    
+    /** @return consultas que tuvieron que leer el archivo */
+    public long getFallos() { return fallos.sum(); }
+    
+    /** @return bytes ocupados por los archivos guardados */
+    public synchronized long getBytesCache() { return bytesCache; }
+    
+    /**
+     * Contenido de un archivo pequeño, válido mientras no cambien su tamaño ni su fecha
+     */
+    private static final class Entrada {
+        private final long longitud;
+        private final long modificacion;
+        private final byte[] contenido;
+        private final byte[] gzip;
+        
+        private Entrada(long longitud, long modificacion, byte[] contenido, byte[] gzip) {
+            this.longitud = longitud;
+            this.modificacion = modificacion;
+            this.contenido = contenido;
+            this.gzip = gzip;
+        }
+        
+        int getTamano() {
+            return contenido.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
@@ -37,4 +37,23 @@ public interface Buscable<T> {
     List<T> buscarPorNombre(String nombre);
     List<T> obtenerTodos();
     int obtenerCantidad();
+    
+    /**
+     * Obtiene una página de elementos en orden de ID, sin copiar la colección completa
+     * @param limite elementos por página (ver Pagina.normalizarLimite)
+     * @param cursor cursor de una página anterior, o null para la primera
+     * @return página con los cursores para seguir recorriendo
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    Pagina<T> obtenerPagina(int limite, String cursor);
+    
+    /**
+     * Busca por nombre parcial y entrega los resultados por páginas, en orden de ID
+     * @param nombre nombre o parte del nombre
+     * @param limite elementos por página
+     * @param cursor cursor de una página anterior, o null para la primera
+     * @return página con los cursores para seguir recorriendo
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    Pagina<T> buscarPorNombre(String nombre, int limite, String cursor);
 }
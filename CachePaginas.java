@@ -0,0 +1,151 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+
+/**
+ * Caché de páginas renderizadas, indexada por clave de ruta y validada con la
+ * versión del catálogo. Una entrada de otra versión se considera vencida y se
+ * vuelve a generar, así que no hace falta invalidar explícitamente.
+ * Guarda el cuerpo ya codificado en UTF-8 y, si es comprimible, su variante gzip.
+ * El tamaño total está acotado en bytes y se desalojan las entradas menos usadas (LRU).
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class CachePaginas {
+    
+    private final long maxBytes;
+    private final CompresorGzip compresor;
+    private final LinkedHashMap<String, Entrada> entradas;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private long bytesUsados;
+    
+    /**
+     * Constructor de la caché
+     * @param maxBytes bytes máximos entre todos los cuerpos guardados
+     * @param compresor compresor que decide y genera la variante gzip
+     */
+    public CachePaginas(long maxBytes, CompresorGzip compresor) {
+        this.maxBytes = maxBytes;
+        this.compresor = compresor;
+        // accessOrder = true: la iteración va de la menos a la más recientemente usada
+        this.entradas = new LinkedHashMap<>(64, 0.75f, true);
+    }
+    
+    /**
+     * Obtiene la página de la caché o la genera si falta o es de otra versión.
+     * La generación ocurre fuera del bloqueo para no serializar a los demás hilos
+     * @param clave clave de la página, normalmente su ruta
+     * @param version versión del catálogo leída antes de generar
+     * @param generador produce el HTML en UTF-8 cuando hace falta, o null si el
+     *                  cuerpo no debe guardarse (por ejemplo, un error)
+     * @return entrada con el cuerpo precodificado, o null si el generador devolvió null
+     */
+    public Entrada obtener(String clave, long version, Supplier<byte[]> generador) {
+        synchronized (this) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada != null && entrada.version == version) {
+                aciertos.increment();
+                return entrada;
+            }
+        }
+        fallos.increment();
+        
+        byte[] cuerpo = generador.get();
+        if (cuerpo == null) {
+            return null;
+        }
+        byte[] gzip = compresor.esComprimible(RespuestaHttp.TIPO_HTML.getValor(), cuerpo.length)
+            ? CompresorGzip.gzip(cuerpo, Deflater.BEST_COMPRESSION) : null;
+        Entrada nueva = new Entrada(version, cuerpo, gzip);
+        guardar(clave, nueva);
+        return nueva;
+    }
+    
+    private synchronized void guardar(String clave, Entrada nueva) {
+        if (nueva.getTamano() > maxBytes) {
+            return;
+        }
+        Entrada anterior = entradas.get(clave);
+        if (anterior != null && anterior.version > nueva.version) {
+            return; // Otro hilo ya guardó una versión más reciente
+        }
+        if (anterior != null) {
+            bytesUsados -= anterior.getTamano();
+        }
+        entradas.put(clave, nueva);
+        bytesUsados += nueva.getTamano();
+        
+        Iterator<Map.Entry<String, Entrada>> menosUsadas = entradas.entrySet().iterator();
+        while (bytesUsados > maxBytes && menosUsadas.hasNext()) {
+            Entrada desalojada = menosUsadas.next().getValue();
+            if (desalojada != nueva) {
+                bytesUsados -= desalojada.getTamano();
+                menosUsadas.remove();
+            }
+        }
+    }
+    
+    /** @return solicitudes atendidas desde la caché */
+    public long getAciertos() { return aciertos.sum(); }
+    
+    /** @return solicitudes que tuvieron que generar la página */
+    public long getFallos() { return fallos.sum(); }
+    
+    /** @return bytes ocupados por los cuerpos guardados */
+    public synchronized long getBytesUsados() { return bytesUsados; }
+    
+    /**
+     * Página renderizada de una versión concreta del catálogo
+     */
+    public static final class Entrada {
+        private final long version;
+        private final byte[] cuerpo;
+        private final byte[] gzip;
+        
+        private Entrada(long version, byte[] cuerpo, byte[] gzip) {
+            this.version = version;
+            this.cuerpo = cuerpo;
+            this.gzip = gzip;
+        }
+        
+        public long getVersion() { return version; }
+        public byte[] getCuerpo() { return cuerpo; }
+        
+        /** @return cuerpo comprimido, o null si la página no es comprimible */
+        public byte[] getGzip() { return gzip; }
+        
+        int getTamano() {
+            return cuerpo.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
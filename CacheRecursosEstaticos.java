@@ -0,0 +1,118 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caché de recursos estáticos precodificados, indexados por su ruta lógica
+ * y por su ruta con huella de contenido.
+ * Responde con ETag fuerte y revalidación 304 sin cuerpo, y entrega la
+ * variante gzip precomprimida a los clientes que la aceptan.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class CacheRecursosEstaticos {
+    
+    private static final RespuestaHttp.Encabezado CACHE_INMUTABLE =
+        new RespuestaHttp.Encabezado("Cache-Control", "public, max-age=31536000, immutable");
+    private static final RespuestaHttp.Encabezado CACHE_REVALIDAR =
+        new RespuestaHttp.Encabezado("Cache-Control", "no-cache");
+    
+    private final Map<String, RecursoEstatico> recursos;
+    private final CompresorGzip compresor;
+    
+    /**
+     * Constructor de la caché vacía
+     * @param compresor compresor usado para negociar la variante gzip
+     */
+    public CacheRecursosEstaticos(CompresorGzip compresor) {
+        this.recursos = new HashMap<>();
+        this.compresor = compresor;
+    }
+    
+    /**
+     * Registra un recurso bajo su ruta lógica y su ruta con huella.
+     * Debe llamarse antes de empezar a atender solicitudes.
+     * @param recurso recurso a registrar
+     */
+    public void registrar(RecursoEstatico recurso) {
+        recursos.put(recurso.getRuta(), recurso);
+        recursos.put(recurso.getRutaConHuella(), recurso);
+    }
+    
+    /**
+     * Obtiene la ruta con huella de un recurso para enlazarlo desde HTML
+     * @param ruta ruta lógica del recurso
+     * @return ruta con huella, o la misma ruta si no está registrado
+     */
+    public String rutaConHuella(String ruta) {
+        RecursoEstatico recurso = recursos.get(ruta);
+        return recurso != null ? recurso.getRutaConHuella() : ruta;
+    }
+    
+    /**
+     * Sirve un recurso si la ruta corresponde a uno registrado
+     * @param solicitud solicitud HTTP con sus encabezados
+     * @return respuesta 200 o 304, o null si la ruta no es un recurso estático
+     */
+    public RespuestaHttp servir(SolicitudHttp solicitud) {
+        // La consulta (ej: ?v=1) no forma parte de la ruta del recurso
+        String ruta = solicitud.getRuta();
+        int consulta = ruta.indexOf('?');
+        if (consulta >= 0) {
+            ruta = ruta.substring(0, consulta);
+        }
+        RecursoEstatico recurso = recursos.get(ruta);
+        if (recurso == null) {
+            return null;
+        }
+        
+        // La ruta con huella nunca cambia de contenido; la lógica debe revalidarse
+        RespuestaHttp.Encabezado cacheControl = ruta.equals(recurso.getRutaConHuella())
+            ? CACHE_INMUTABLE : CACHE_REVALIDAR;
+        boolean comprimible = compresor.esComprimible(recurso.getTipoContenido(), recurso.getContenido().length);
+        boolean gzip = comprimible && compresor.aceptaGzip(solicitud);
+        
+        RespuestaHttp respuesta;
+        if (recurso.coincideEtag(solicitud.getEncabezado("If-None-Match"))) {
+            respuesta = new RespuestaHttp(304);
+        } else {
+            respuesta = new RespuestaHttp(200)
+                .agregarEncabezado(recurso.getEncabezadoTipo())
+                .conCuerpo(gzip ? recurso.getContenidoGzip() : recurso.getContenido());
+            if (gzip) {
+                respuesta.agregarEncabezado(RespuestaHttp.GZIP);
+            }
+        }
+        respuesta.agregarEncabezado(gzip ? recurso.getEncabezadoEtagGzip() : recurso.getEncabezadoEtag())
+                 .agregarEncabezado(cacheControl);
+        if (comprimible) {
+            respuesta.agregarEncabezado(RespuestaHttp.VARY_ENCODING);
+        }
+        return respuesta;
+    }
+}
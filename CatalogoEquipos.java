@@ -24,6 +24,10 @@
 //======================================================================================================
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -31,22 +35,32 @@ import java.util.stream.Collectors;
  * Cumple con SRP: Solo gestiona la colección de equipos
  * Cumple con OCP: Extensible sin modificar código existente
  * Cumple con DIP: Implementa abstracción ServicioEquipos
+ * Lleva una versión que aumenta con cada cambio visible, para que las vistas
+ * cacheadas sepan cuándo dejar de ser válidas, y cuenta las búsquedas para las métricas.
+ * La lista es de copia en escritura: las lecturas, mucho más frecuentes que las altas,
+ * recorren una instantánea sin bloquearse aunque se agreguen equipos a la vez
  * 
  * @author Daniel López - 242159
  * @version 2.0 - Refactorizado para SOLID
  */
-public class CatalogoEquipos implements ServicioEquipos {
+public class CatalogoEquipos implements ServicioEquipos, ObservadorCambios {
     
     private static CatalogoEquipos instancia;
-    private final List<Equipo> equipos;
+    private final CopyOnWriteArrayList<Equipo> equipos;
     private final EquipoFactory factory;
+    private final AtomicLong version;
+    private volatile long ultimaModificacion;
+    private final LongAdder busquedasPorId = new LongAdder();
+    private final LongAdder busquedasPorNombre = new LongAdder();
     
     /**
      * Constructor privado para implementar Singleton
      */
     private CatalogoEquipos() {
-        this.equipos = new ArrayList<>();
+        this.equipos = new CopyOnWriteArrayList<>();
         this.factory = new EquipoFactory();
+        this.version = new AtomicLong();
+        this.ultimaModificacion = System.currentTimeMillis();
     }
     
     /**
@@ -62,8 +76,11 @@ public class CatalogoEquipos implements ServicioEquipos {
     
     @Override
     public void agregarEquipo(Equipo equipo) {
-        if (equipo != null && !equipos.contains(equipo)) {
-            equipos.add(equipo);
+        if (equipo != null && equipos.addIfAbsent(equipo)) {
+            if (equipo instanceof EquipoBase) {
+                ((EquipoBase) equipo).setObservadorCambios(this);
+            }
+            marcarModificado();
         }
     }
     
@@ -74,6 +91,7 @@ public class CatalogoEquipos implements ServicioEquipos {
     
     @Override
     public Equipo buscarPorId(String id) {
+        busquedasPorId.increment();
         return equipos.stream()
                      .filter(equipo -> equipo.getId().equalsIgnoreCase(id))
                      .findFirst()
@@ -82,6 +100,7 @@ public class CatalogoEquipos implements ServicioEquipos {
     
     @Override
     public List<Equipo> buscarPorNombre(String nombre) {
+        busquedasPorNombre.increment();
         if (nombre == null || nombre.trim().isEmpty()) {
             return new ArrayList<>();
         }
@@ -92,6 +111,78 @@ public class CatalogoEquipos implements ServicioEquipos {
                      .collect(Collectors.toList());
     }
     
+    @Override
+    public Pagina<Equipo> obtenerPagina(int limite, String cursor) {
+        return paginar(equipo -> true, OrdenEquipos.ID, limite, cursor);
+    }
+    
+    @Override
+    public Pagina<Equipo> buscarPorNombre(String nombre, int limite, String cursor) {
+        busquedasPorNombre.increment();
+        if (nombre == null || nombre.trim().isEmpty()) {
+            return new Pagina<>(List.of(), 0, null, null);
+        }
+        String buscado = nombre.toLowerCase().trim();
+        return paginar(equipo -> equipo.getNombre().toLowerCase().contains(buscado), OrdenEquipos.ID, limite, cursor);
+    }
+    
+    @Override
+    public Pagina<Equipo> obtenerPaginaPorConsumo(int limite, String cursor) {
+        return paginar(equipo -> true, OrdenEquipos.CONSUMO, limite, cursor);
+    }
+    
+    /**
+     * Recorre una instantánea del catálogo una sola vez y conserva en un montículo
+     * acotado los limite + 1 equipos más cercanos al cursor en la dirección pedida;
+     * el que sobra indica que hay otra página. Cuesta O(n log limite) sin copiar la lista
+     */
+    private Pagina<Equipo> paginar(Predicate<Equipo> filtro, OrdenEquipos orden, int limite, String cursor) {
+        int tamano = Pagina.normalizarLimite(limite);
+        CursorPagina posicion = cursor == null || cursor.isEmpty() ? null : CursorPagina.decodificar(cursor);
+        if (posicion != null && !posicion.getOrden().equals(orden.getNombre())) {
+            throw new IllegalArgumentException("El cursor pertenece a otro orden");
+        }
+        boolean haciaAtras = posicion != null && posicion.isHaciaAtras();
+        Comparator<Equipo> comparador = orden.getComparador();
+        // La cabeza del montículo es el equipo más lejano al cursor, el primero en descartarse
+        PriorityQueue<Equipo> cercanos = new PriorityQueue<>(tamano + 2,
+                haciaAtras ? comparador : comparador.reversed());
+        int total = 0;
+        boolean hayDelOtroLado = false;
+        
+        for (Equipo equipo : equipos) {
+            if (filtro.test(equipo)) {
+                total++;
+                int lado = posicion == null ? 1 : orden.compararConCursor(equipo, posicion);
+                if (haciaAtras ? lado < 0 : lado > 0) {
+                    cercanos.add(equipo);
+                    if (cercanos.size() > tamano + 1) {
+                        cercanos.poll();
+                    }
+                } else {
+                    hayDelOtroLado = true;
+                }
+            }
+        }
+        
+        boolean hayMas = cercanos.size() > tamano;
+        if (hayMas) {
+            cercanos.poll();
+        }
+        List<Equipo> elementos = new ArrayList<>(cercanos);
+        elementos.sort(comparador);
+        if (elementos.isEmpty()) {
+            return new Pagina<>(elementos, total, null, null);
+        }
+        Equipo primero = elementos.get(0);
+        Equipo ultimo = elementos.get(elementos.size() - 1);
+        boolean haySiguiente = haciaAtras ? hayDelOtroLado : hayMas;
+        boolean hayAnterior = haciaAtras ? hayMas : hayDelOtroLado;
+        return new Pagina<>(elementos, total,
+                            haySiguiente ? orden.cursor(ultimo, false) : null,
+                            hayAnterior ? orden.cursor(primero, true) : null);
+    }
+    
     @Override
     public int obtenerCantidad() {
         return equipos.size();
@@ -99,17 +190,73 @@ public class CatalogoEquipos implements ServicioEquipos {
     
     @Override
     public void ordenarPorConsumo() {
-        Collections.sort(equipos);
+        ordenar(Comparator.naturalOrder());
     }
     
+    /**
+     * Ordena el catálogo; la versión solo cambia si el orden cambió,
+     * para que ordenar repetidamente no invalide las vistas cacheadas
+     * @param comparador criterio de orden
+     */
     @Override
     public void ordenar(Comparator<? super Equipo> comparador) {
-        equipos.sort(comparador);
+        if (!estaOrdenado(comparador)) {
+            equipos.sort(comparador);
+            marcarModificado();
+        }
     }
     
     @Override
     public void inicializar() {
         cargarEquiposIniciales();
+        marcarModificado();
+    }
+    
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+    
+    @Override
+    public long getUltimaModificacion() {
+        return ultimaModificacion;
+    }
+    
+    /**
+     * @return búsquedas por ID realizadas, incluidas las de la vista de detalles
+     */
+    public long getBusquedasPorId() {
+        return busquedasPorId.sum();
+    }
+    
+    /**
+     * @return búsquedas por nombre realizadas
+     */
+    public long getBusquedasPorNombre() {
+        return busquedasPorNombre.sum();
+    }
+    
+    @Override
+    public void equipoModificado(Equipo equipo) {
+        marcarModificado();
+    }
+    
+    /**
+     * Avanza la versión y después el instante del cambio: quien vea el instante nuevo
+     * ve también la versión nueva
+     */
+    private void marcarModificado() {
+        version.incrementAndGet();
+        ultimaModificacion = System.currentTimeMillis();
+    }
+    
+    private boolean estaOrdenado(Comparator<? super Equipo> comparador) {
+        for (int i = 1; i < equipos.size(); i++) {
+            if (comparador.compare(equipos.get(i - 1), equipos.get(i)) > 0) {
+                return false;
+            }
+        }
+        return true;
     }
     
     @Override
@@ -0,0 +1,131 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codificador de bloques de cabecera HPACK (RFC 7541).
+ * Usa un índice cuando la cabecera ya está en la tabla, agrega a la tabla
+ * dinámica las cabeceras que se repiten entre respuestas y codifica cada
+ * cadena literal con Huffman solo si así ocupa menos.
+ * Cumple con SRP: Solo codifica cabeceras, no arma los marcos HTTP/2
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class CodificadorHpack {
+    
+    private final TablaHpack tabla = new TablaHpack(TablaHpack.TAMANO_PREDETERMINADO);
+    private int tamanoMinimoPendiente = -1;
+    private boolean actualizacionPendiente;
+    
+    /**
+     * Ajusta la tabla al SETTINGS_HEADER_TABLE_SIZE del cliente. El cambio se
+     * anuncia al inicio del siguiente bloque
+     * @param tamanoCliente tamaño máximo que acepta el decodificador del cliente
+     */
+    public void setTamanoMaximo(int tamanoCliente) {
+        int nuevo = Math.min(tamanoCliente, TablaHpack.TAMANO_PREDETERMINADO);
+        if (nuevo == tabla.getTamanoMaximo()) {
+            return;
+        }
+        tamanoMinimoPendiente = tamanoMinimoPendiente < 0 ? nuevo : Math.min(tamanoMinimoPendiente, nuevo);
+        actualizacionPendiente = true;
+        tabla.setTamanoMaximo(nuevo);
+    }
+    
+    /**
+     * Empieza un bloque nuevo; si el tamaño de la tabla cambió, el bloque
+     * comienza con las actualizaciones de tamaño (el mínimo alcanzado y el final)
+     * @param salida destino del bloque
+     */
+    public void iniciarBloque(SalidaHtml salida) {
+        if (!actualizacionPendiente) {
+            return;
+        }
+        if (tamanoMinimoPendiente < tabla.getTamanoMaximo()) {
+            escribirEntero(salida, 0x20, 5, tamanoMinimoPendiente);
+        }
+        escribirEntero(salida, 0x20, 5, tabla.getTamanoMaximo());
+        actualizacionPendiente = false;
+        tamanoMinimoPendiente = -1;
+    }
+    
+    /**
+     * Codifica una cabecera
+     * @param nombre nombre en minúsculas
+     * @param valor valor de la cabecera
+     * @param indexar false para valores que cambian en cada respuesta, como content-length
+     * @param salida destino del bloque
+     */
+    public void codificar(String nombre, String valor, boolean indexar, SalidaHtml salida) {
+        int indice = tabla.buscar(nombre, valor);
+        if (indice > 0) {
+            escribirEntero(salida, 0x80, 7, indice);
+            return;
+        }
+        if (indexar) {
+            escribirEntero(salida, 0x40, 6, -indice);
+            tabla.agregar(nombre, valor);
+        } else {
+            escribirEntero(salida, 0x00, 4, -indice);
+        }
+        if (indice == 0) {
+            escribirCadena(salida, nombre);
+        }
+        escribirCadena(salida, valor);
+    }
+    
+    private static void escribirCadena(SalidaHtml salida, String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.ISO_8859_1);
+        int longitudHuffman = HuffmanHpack.longitudCodificada(bytes);
+        if (longitudHuffman < bytes.length) {
+            escribirEntero(salida, 0x80, 7, longitudHuffman);
+            HuffmanHpack.codificar(bytes, salida);
+        } else {
+            escribirEntero(salida, 0x00, 7, bytes.length);
+            salida.escribir(bytes);
+        }
+    }
+    
+    /**
+     * Escribe un entero con prefijo de N bits (RFC 7541, sección 5.1)
+     * @param banderas bits altos del primer byte
+     */
+    private static void escribirEntero(SalidaHtml salida, int banderas, int bitsPrefijo, int valor) {
+        int mascara = (1 << bitsPrefijo) - 1;
+        if (valor < mascara) {
+            salida.escribirByte(banderas | valor);
+            return;
+        }
+        salida.escribirByte(banderas | mascara);
+        int resto = valor - mascara;
+        while (resto >= 0x80) {
+            salida.escribirByte((resto & 0x7F) | 0x80);
+            resto >>>= 7;
+        }
+        salida.escribirByte(resto);
+    }
+}
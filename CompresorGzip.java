@@ -0,0 +1,153 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresión gzip de respuestas con negociación por Accept-Encoding.
+ * Las respuestas menores al umbral no se comprimen. El contenido estable no pasa
+ * por aquí: la caché de páginas y los recursos estáticos guardan su variante gzip
+ * ya comprimida.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class CompresorGzip {
+    
+    private final int umbralBytes;
+    
+    /**
+     * Constructor del compresor
+     * @param umbralBytes tamaño mínimo de cuerpo para comprimir
+     */
+    public CompresorGzip(int umbralBytes) {
+        this.umbralBytes = umbralBytes;
+    }
+    
+    /**
+     * Indica si el cliente acepta gzip según Accept-Encoding, respetando q=0
+     * @param solicitud solicitud HTTP
+     * @return true si se puede responder con Content-Encoding: gzip
+     */
+    public boolean aceptaGzip(SolicitudHttp solicitud) {
+        String aceptadas = solicitud.getEncabezado("Accept-Encoding");
+        if (aceptadas == null) {
+            return false;
+        }
+        boolean comodin = false;
+        for (String parte : aceptadas.split(",")) {
+            String[] elementos = parte.split(";");
+            String codificacion = elementos[0].trim().toLowerCase();
+            boolean permitida = calidad(elementos) > 0;
+            if (codificacion.equals("gzip") || codificacion.equals("x-gzip")) {
+                return permitida;
+            }
+            if (codificacion.equals("*")) {
+                comodin = permitida;
+            }
+        }
+        return comodin;
+    }
+    
+    /**
+     * Indica si un cuerpo vale la pena comprimirlo
+     * @param tipoContenido valor de Content-Type
+     * @param longitud bytes del cuerpo
+     * @return true si es texto y supera el umbral
+     */
+    public boolean esComprimible(String tipoContenido, int longitud) {
+        if (tipoContenido == null || longitud < umbralBytes) {
+            return false;
+        }
+        String tipo = tipoContenido.toLowerCase();
+        return tipo.startsWith("text/") || tipo.contains("json")
+               || tipo.contains("javascript") || tipo.contains("xml");
+    }
+    
+    /**
+     * Comprime la respuesta si el cliente lo acepta y el cuerpo es comprimible
+     * @param solicitud solicitud HTTP con Accept-Encoding
+     * @param respuesta respuesta generada
+     * @return la misma respuesta, con cuerpo gzip si corresponde
+     */
+    public RespuestaHttp comprimir(SolicitudHttp solicitud, RespuestaHttp respuesta) {
+        byte[] cuerpo = respuesta.getCuerpo();
+        if (respuesta.getCodigo() != 200 || respuesta.getEncabezado("Content-Encoding") != null
+                || !esComprimible(respuesta.getEncabezado("Content-Type"), cuerpo.length)) {
+            return respuesta;
+        }
+        
+        respuesta.agregarEncabezado(RespuestaHttp.VARY_ENCODING);
+        if (!aceptaGzip(solicitud)) {
+            return respuesta;
+        }
+        
+        return respuesta.agregarEncabezado(RespuestaHttp.GZIP)
+                        .conCuerpo(gzip(cuerpo, Deflater.DEFAULT_COMPRESSION));
+    }
+    
+    /**
+     * Comprime datos en formato gzip
+     * @param datos bytes a comprimir
+     * @param nivel nivel de Deflater (0-9 o DEFAULT_COMPRESSION)
+     * @return bytes comprimidos
+     */
+    public static byte[] gzip(byte[] datos, int nivel) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(64, datos.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida, 8192) {
+            {
+                def.setLevel(nivel);
+            }
+        }) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+    
+    /**
+     * Obtiene el valor q de un elemento de Accept-Encoding
+     */
+    private static double calidad(String[] elementos) {
+        for (int i = 1; i < elementos.length; i++) {
+            String parametro = elementos[i].trim();
+            if (parametro.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parametro.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+    
+    public int getUmbralBytes() { return umbralBytes; }
+}
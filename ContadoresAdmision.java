@@ -0,0 +1,69 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores del control de admisión, compartidos por los motores de E/S
+ * Cumple con SRP: Solo acumula los eventos, no decide cuándo ocurren
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class ContadoresAdmision {
+    
+    private final LongAdder descartadasPorCarga = new LongAdder();
+    private final LongAdder expiradas = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+    
+    /**
+     * Registra una conexión descartada con 503 por sobrecarga
+     */
+    public void registrarDescarte() {
+        descartadasPorCarga.increment();
+    }
+    
+    /**
+     * Registra una solicitud rechazada según su código: 408 cuenta como
+     * expirada y el resto (400, 414, 431) como rechazada
+     * @param codigo código HTTP con el que se respondió
+     */
+    public void registrarRechazo(int codigo) {
+        if (codigo == 408) {
+            expiradas.increment();
+        } else {
+            rechazadas.increment();
+        }
+    }
+    
+    /** @return conexiones descartadas con 503 por sobrecarga */
+    public long getDescartadasPorCarga() { return descartadasPorCarga.sum(); }
+    
+    /** @return solicitudes cuya cabecera no llegó completa a tiempo */
+    public long getExpiradas() { return expiradas.sum(); }
+    
+    /** @return solicitudes mal formadas o que excedieron los límites de tamaño */
+    public long getRechazadas() { return rechazadas.sum(); }
+}
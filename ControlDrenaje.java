@@ -0,0 +1,199 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lleva la cuenta de las solicitudes en curso y coordina el drenaje al detener el servidor:
+ * una vez iniciado se espera a que terminen las solicitudes en curso hasta un plazo,
+ * y al finalizar las que sigan abiertas se cuentan como abortadas.
+ * Las solicitudes HTTP/1.1 cuentan desde que se parsean hasta que se envía su respuesta,
+ * y en HTTP/2 cada flujo abierto cuenta como una solicitud.
+ * Cumple con SRP: Solo cuenta y espera, los motores deciden qué conexiones cerrar
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class ControlDrenaje {
+    
+    private static final int ACTIVO = 0;
+    private static final int DRENANDO = 1;
+    private static final int FINALIZADO = 2;
+    
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final LongAdder drenadas = new LongAdder();
+    private final LongAdder inactivasCerradas = new LongAdder();
+    private final LongAdder enColaRechazadas = new LongAdder();
+    private volatile int estado = ACTIVO;
+    private long inicioDrenaje;
+    private Resumen resumen;
+    
+    /**
+     * Registra el inicio de una solicitud
+     */
+    public void iniciarSolicitud() {
+        ajustarEnCurso(1);
+    }
+    
+    /**
+     * Registra que una solicitud terminó de responderse
+     */
+    public void terminarSolicitud() {
+        ajustarEnCurso(-1);
+    }
+    
+    /**
+     * Ajusta las solicitudes en curso en varias unidades a la vez, como cuando
+     * una sesión HTTP/2 abre o termina varios flujos en una misma lectura.
+     * Tras finalizar el drenaje los ajustes se ignoran: esas solicitudes ya se contaron como abortadas
+     * @param delta solicitudes iniciadas (positivo) o terminadas (negativo)
+     */
+    public void ajustarEnCurso(int delta) {
+        if (delta == 0 || estado == FINALIZADO) {
+            return;
+        }
+        int restantes = enCurso.addAndGet(delta);
+        if (delta < 0 && estado == DRENANDO) {
+            drenadas.add(-delta);
+            if (restantes <= 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Registra una conexión persistente cerrada por estar inactiva durante el drenaje
+     */
+    public void registrarInactivaCerrada() {
+        inactivasCerradas.increment();
+    }
+    
+    /**
+     * Registra una conexión aceptada que seguía en cola sin atender y se rechazó con 503
+     */
+    public void registrarEnColaRechazada() {
+        enColaRechazadas.increment();
+    }
+    
+    /**
+     * Inicia el drenaje: desde ahora las solicitudes que terminan cuentan como drenadas
+     */
+    public synchronized void iniciar() {
+        if (estado == ACTIVO) {
+            inicioDrenaje = System.currentTimeMillis();
+            estado = DRENANDO;
+        }
+    }
+    
+    /**
+     * Espera a que terminen las solicitudes en curso
+     * @param plazoMs espera máxima en milisegundos
+     * @return true si no quedó ninguna en curso antes del plazo
+     */
+    public synchronized boolean esperar(long plazoMs) {
+        long limite = System.currentTimeMillis() + plazoMs;
+        long restante = plazoMs;
+        try {
+            while (enCurso.get() > 0 && restante > 0) {
+                wait(restante);
+                restante = limite - System.currentTimeMillis();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return enCurso.get() <= 0;
+    }
+    
+    /**
+     * Finaliza el drenaje: las solicitudes que siguen en curso se cuentan como abortadas,
+     * porque el llamador está por forzar el cierre de sus conexiones.
+     * Llamadas posteriores devuelven el mismo resumen
+     * @return resumen del drenaje
+     */
+    public synchronized Resumen finalizar() {
+        if (resumen == null) {
+            iniciar();
+            estado = FINALIZADO;
+            resumen = new Resumen(drenadas.sum(), Math.max(0, enCurso.get()), inactivasCerradas.sum(),
+                                  enColaRechazadas.sum(), System.currentTimeMillis() - inicioDrenaje);
+        }
+        return resumen;
+    }
+    
+    /**
+     * @return true si ya se inició el drenaje
+     */
+    public boolean isDrenando() {
+        return estado != ACTIVO;
+    }
+    
+    /** @return solicitudes en curso en este momento */
+    public int getEnCurso() { return Math.max(0, enCurso.get()); }
+    
+    /**
+     * Resultado de un drenaje, para informarlo al detener el servidor
+     */
+    public static final class Resumen {
+        
+        private final long drenadas;
+        private final long abortadas;
+        private final long inactivasCerradas;
+        private final long enColaRechazadas;
+        private final long duracionMs;
+        
+        Resumen(long drenadas, long abortadas, long inactivasCerradas, long enColaRechazadas, long duracionMs) {
+            this.drenadas = drenadas;
+            this.abortadas = abortadas;
+            this.inactivasCerradas = inactivasCerradas;
+            this.enColaRechazadas = enColaRechazadas;
+            this.duracionMs = duracionMs;
+        }
+        
+        /** @return solicitudes que terminaron de responderse durante el drenaje */
+        public long getDrenadas() { return drenadas; }
+        
+        /** @return solicitudes cortadas al forzar el cierre al vencer el plazo */
+        public long getAbortadas() { return abortadas; }
+        
+        /** @return conexiones persistentes inactivas cerradas al iniciar el drenaje */
+        public long getInactivasCerradas() { return inactivasCerradas; }
+        
+        /** @return conexiones aceptadas que esperaban en la cola del pool, rechazadas con 503 */
+        public long getEnColaRechazadas() { return enColaRechazadas; }
+        
+        /** @return duración del drenaje en milisegundos */
+        public long getDuracionMs() { return duracionMs; }
+        
+        @Override
+        public String toString() {
+            return "Drenaje en " + duracionMs + " ms: " + drenadas + " solicitudes completadas, "
+                   + abortadas + " abortadas, " + inactivasCerradas + " conexiones inactivas cerradas, "
+                   + enColaRechazadas + " en cola rechazadas";
+        }
+    }
+}
@@ -38,109 +38,180 @@ public class ControladorWeb {
         servicioEquipos.inicializar();
     }
     
+    /**
+     * Obtiene los validadores condicionales de las respuestas JSON. Todas dependen
+     * solo del catálogo, así que quien las sirva puede responder 304 con ellos
+     * antes de serializar nada
+     * @return ETag y Last-Modified del catálogo actual
+     */
+    public ValidadorCondicional obtenerValidador() {
+        return ValidadorCondicional.de(servicioEquipos);
+    }
+    
     /**
      * Obtiene todos los equipos en formato JSON
-     * @return String respuesta JSON con todos los equipos
+     * @return respuesta JSON con todos los equipos
      */
-    public String obtenerTodosLosEquiposJSON() {
+    public Resultado obtenerTodosLosEquiposJSON() {
         try {
             List<Equipo> equipos = servicioEquipos.obtenerTodos();
-            return generadorRespuesta.generarRespuestaLista("Equipos obtenidos correctamente", equipos);
+            return exito(generadorRespuesta.generarRespuestaLista("Equipos obtenidos correctamente", equipos));
+        } catch (Exception e) {
+            return error(500, "Error al obtener equipos: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Obtiene una página de equipos en orden de ID
+     * @param limite equipos por página
+     * @param cursor cursor "next" o "prev" de una respuesta anterior, o null para la primera
+     * @return respuesta JSON con la página y sus cursores
+     */
+    public Resultado obtenerPaginaEquiposJSON(int limite, String cursor) {
+        try {
+            Pagina<Equipo> pagina = servicioEquipos.obtenerPagina(limite, cursor);
+            return exito(generadorRespuesta.generarRespuestaPagina("Equipos obtenidos correctamente", pagina));
+        } catch (IllegalArgumentException e) {
+            return error(400, "Cursor inválido: " + e.getMessage());
         } catch (Exception e) {
-            return generadorRespuesta.generarRespuestaError("Error al obtener equipos: " + e.getMessage());
+            return error(500, "Error al obtener equipos: " + e.getMessage());
         }
     }
     
     /**
      * Busca un equipo por ID y retorna JSON
      * @param id identificador del equipo
-     * @return String respuesta JSON
+     * @return respuesta JSON
      */
-    public String buscarEquipoPorIdJSON(String id) {
+    public Resultado buscarEquipoPorIdJSON(String id) {
         try {
             if (id == null || id.trim().isEmpty()) {
-                return generadorRespuesta.generarRespuestaError("ID no puede estar vacío");
+                return error(400, "ID no puede estar vacío");
             }
             
             Equipo equipo = servicioEquipos.buscarPorId(id.trim());
             if (equipo != null) {
-                return generadorRespuesta.generarRespuestaExito("Equipo encontrado", equipo.toJSON());
+                return exito(generadorRespuesta.generarRespuestaExito("Equipo encontrado", equipo.toJSON()));
             } else {
-                return generadorRespuesta.generarRespuestaError("No se encontró equipo con ID: " + id);
+                return error(404, "No se encontró equipo con ID: " + id);
             }
         } catch (Exception e) {
-            return generadorRespuesta.generarRespuestaError("Error en búsqueda por ID: " + e.getMessage());
+            return error(500, "Error en búsqueda por ID: " + e.getMessage());
         }
     }
     
     /**
      * Busca equipos por nombre y retorna JSON
      * @param nombre nombre o parte del nombre a buscar
-     * @return String respuesta JSON
+     * @return respuesta JSON
      */
-    public String buscarEquiposPorNombreJSON(String nombre) {
+    public Resultado buscarEquiposPorNombreJSON(String nombre) {
         try {
             if (nombre == null || nombre.trim().isEmpty()) {
-                return generadorRespuesta.generarRespuestaError("Nombre no puede estar vacío");
+                return error(400, "Nombre no puede estar vacío");
             }
             
             List<Equipo> equipos = servicioEquipos.buscarPorNombre(nombre.trim());
             
             if (!equipos.isEmpty()) {
-                return generadorRespuesta.generarRespuestaLista("Se encontraron equipos", equipos);
+                return exito(generadorRespuesta.generarRespuestaLista("Se encontraron equipos", equipos));
+            } else {
+                return error(404, "No se encontraron equipos con nombre: " + nombre);
+            }
+        } catch (Exception e) {
+            return error(500, "Error en búsqueda por nombre: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Busca equipos por nombre y retorna una página de resultados en JSON
+     * @param nombre nombre o parte del nombre a buscar
+     * @param limite equipos por página
+     * @param cursor cursor "next" o "prev" de una respuesta anterior, o null para la primera
+     * @return respuesta JSON con la página y sus cursores
+     */
+    public Resultado buscarEquiposPorNombreJSON(String nombre, int limite, String cursor) {
+        try {
+            if (nombre == null || nombre.trim().isEmpty()) {
+                return error(400, "Nombre no puede estar vacío");
+            }
+            
+            Pagina<Equipo> pagina = servicioEquipos.buscarPorNombre(nombre.trim(), limite, cursor);
+            if (pagina.getTotal() > 0) {
+                return exito(generadorRespuesta.generarRespuestaPagina("Se encontraron equipos", pagina));
             } else {
-                return generadorRespuesta.generarRespuestaError("No se encontraron equipos con nombre: " + nombre);
+                return error(404, "No se encontraron equipos con nombre: " + nombre);
             }
+        } catch (IllegalArgumentException e) {
+            return error(400, "Cursor inválido: " + e.getMessage());
         } catch (Exception e) {
-            return generadorRespuesta.generarRespuestaError("Error en búsqueda por nombre: " + e.getMessage());
+            return error(500, "Error en búsqueda por nombre: " + e.getMessage());
         }
     }
     
     /**
-     * Ordena los equipos por consumo eléctrico y retorna JSON
-     * @return String respuesta JSON con equipos ordenados
+     * Obtiene los equipos ordenados por consumo eléctrico en JSON. Ordena una copia:
+     * el catálogo compartido no cambia de orden ni de versión
+     * @return respuesta JSON con equipos ordenados
      */
-    public String ordenarPorConsumoJSON() {
+    public Resultado obtenerEquiposPorConsumoJSON() {
         try {
-            servicioEquipos.ordenarPorConsumo();
             List<Equipo> equipos = servicioEquipos.obtenerTodos();
-            return generadorRespuesta.generarRespuestaLista("Equipos ordenados por consumo eléctrico", equipos);
+            equipos.sort(OrdenEquipos.CONSUMO.getComparador());
+            return exito(generadorRespuesta.generarRespuestaLista("Equipos ordenados por consumo eléctrico", equipos));
+        } catch (Exception e) {
+            return error(500, "Error al ordenar equipos: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Obtiene una página de equipos ordenados por consumo eléctrico, sin reordenar el catálogo
+     * @param limite equipos por página
+     * @param cursor cursor "next" o "prev" de una respuesta anterior, o null para la primera
+     * @return respuesta JSON con la página y sus cursores
+     */
+    public Resultado obtenerPaginaPorConsumoJSON(int limite, String cursor) {
+        try {
+            Pagina<Equipo> pagina = servicioEquipos.obtenerPaginaPorConsumo(limite, cursor);
+            return exito(generadorRespuesta.generarRespuestaPagina("Equipos ordenados por consumo eléctrico", pagina));
+        } catch (IllegalArgumentException e) {
+            return error(400, "Cursor inválido: " + e.getMessage());
         } catch (Exception e) {
-            return generadorRespuesta.generarRespuestaError("Error al ordenar equipos: " + e.getMessage());
+            return error(500, "Error al ordenar equipos: " + e.getMessage());
         }
     }
     
     /**
      * Obtiene detalles completos de un equipo
      * @param id identificador del equipo
-     * @return String respuesta JSON con detalles
+     * @return respuesta JSON con detalles
      */
-    public String obtenerDetallesEquipoJSON(String id) {
+    public Resultado obtenerDetallesEquipoJSON(String id) {
         try {
             if (id == null || id.trim().isEmpty()) {
-                return generadorRespuesta.generarRespuestaError("ID no puede estar vacío");
+                return error(400, "ID no puede estar vacío");
             }
             
             Equipo equipo = servicioEquipos.buscarPorId(id.trim());
             if (equipo != null) {
                 String detalles = equipo.mostrarDetalles().replace("\"", "\\\"").replace("\n", "\\n");
-                return String.format(
+                return exito(String.format(
                     "{\"success\":true,\"message\":\"Detalles del equipo\",\"data\":{\"detalles\":\"%s\",\"equipo\":%s}}",
                     detalles, equipo.toJSON()
-                );
+                ));
             } else {
-                return generadorRespuesta.generarRespuestaError("No se encontró equipo con ID: " + id);
+                return error(404, "No se encontró equipo con ID: " + id);
             }
         } catch (Exception e) {
-            return generadorRespuesta.generarRespuestaError("Error al obtener detalles: " + e.getMessage());
+            return error(500, "Error al obtener detalles: " + e.getMessage());
         }
     }
     
     /**
      * Obtiene estadísticas del catálogo
-     * @return String respuesta JSON con estadísticas
+     * @return respuesta JSON con estadísticas
      */
-    public String obtenerEstadisticasJSON() {
+    public Resultado obtenerEstadisticasJSON() {
         try {
             int totalEquipos = servicioEquipos.obtenerCantidad();
             List<Equipo> equipos = servicioEquipos.obtenerTodos();
@@ -156,9 +227,40 @@ public class ControladorWeb {
                 totalEquipos, consumoTotal, consumoPromedio
             );
             
-            return generadorRespuesta.generarRespuestaExito("Estadísticas del catálogo", estadisticas);
+            return exito(generadorRespuesta.generarRespuestaExito("Estadísticas del catálogo", estadisticas));
         } catch (Exception e) {
-            return generadorRespuesta.generarRespuestaError("Error al obtener estadísticas: " + e.getMessage());
+            return error(500, "Error al obtener estadísticas: " + e.getMessage());
+        }
+    }
+    
+    /** @return resultado 200 con el JSON dado */
+    private static Resultado exito(String json) {
+        return new Resultado(200, json);
+    }
+    
+    /** @return resultado con el código dado y el mensaje de error del generador */
+    private Resultado error(int codigo, String mensaje) {
+        return new Resultado(codigo, generadorRespuesta.generarRespuestaError(mensaje));
+    }
+    
+    /**
+     * Respuesta del controlador con el código HTTP que le corresponde: 400 si la
+     * entrada es inválida, 404 si no hay resultados y 500 si falló la consulta
+     */
+    public static final class Resultado {
+        
+        private final int codigo;
+        private final String json;
+        
+        Resultado(int codigo, String json) {
+            this.codigo = codigo;
+            this.json = json;
         }
+        
+        /** @return código HTTP de la respuesta */
+        public int getCodigo() { return codigo; }
+        
+        /** @return cuerpo JSON de la respuesta */
+        public String getJson() { return json; }
     }
 }
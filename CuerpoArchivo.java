@@ -0,0 +1,149 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Cuerpo de respuesta que es un tramo de un archivo en disco. Sobre HTTP/1.1 se
+ * envía con FileChannel.transferTo, que en Linux usa sendfile: los bytes pasan de
+ * la caché de páginas del sistema al socket sin copiarse al heap de Java.
+ * HTTP/2 necesita enmarcarlos en marcos DATA, así que allí se leen por bloques.
+ * El archivo se cierra al enviar el último byte o al abortar la respuesta.
+ * Cumple con SRP: Solo mueve el tramo del archivo hacia la conexión
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class CuerpoArchivo {
+    
+    private static final int TAMANO_COPIA = 64 * 1024;
+    
+    private final FileChannel archivo;
+    private final long longitud;
+    private long posicion;
+    private long restantes;
+    private ByteBuffer copia;
+    
+    /**
+     * Constructor del cuerpo; toma posesión del canal abierto
+     * @param archivo canal del archivo abierto para lectura
+     * @param inicio primer byte del tramo
+     * @param longitud bytes del tramo
+     */
+    public CuerpoArchivo(FileChannel archivo, long inicio, long longitud) {
+        this.archivo = archivo;
+        this.longitud = longitud;
+        this.posicion = inicio;
+        this.restantes = longitud;
+    }
+    
+    /**
+     * Envía tanto del tramo como acepte el destino. En un canal bloqueante envía
+     * todo; en uno no bloqueante se detiene cuando el socket no acepta más
+     * @param destino canal del cliente
+     * @return true si el tramo terminó de enviarse
+     * @throws IOException si falla la lectura del archivo o la escritura al cliente
+     */
+    public boolean transferir(WritableByteChannel destino) throws IOException {
+        while (restantes > 0) {
+            long enviados = archivo.transferTo(posicion, restantes, destino);
+            if (enviados <= 0) {
+                if (posicion >= archivo.size()) {
+                    // El archivo se truncó después de anunciar su Content-Length
+                    throw new IOException("El archivo terminó antes de lo anunciado");
+                }
+                if (destino instanceof SelectableChannel && ((SelectableChannel) destino).isBlocking()) {
+                    // Un hilo virtual usa el socket en modo no bloqueante por debajo y sendfile
+                    // no espera: ese tramo se copia y la escritura bloqueante estaciona al hilo
+                    copiar(destino);
+                    continue;
+                }
+                return false;
+            }
+            posicion += enviados;
+            restantes -= enviados;
+        }
+        cerrar();
+        return true;
+    }
+    
+    private void copiar(WritableByteChannel destino) throws IOException {
+        if (copia == null) {
+            copia = ByteBuffer.allocate(TAMANO_COPIA);
+        }
+        if (!leerBloque(copia)) {
+            return;
+        }
+        while (copia.hasRemaining()) {
+            destino.write(copia);
+        }
+    }
+    
+    /**
+     * Lee el siguiente bloque del tramo, para los protocolos que enmarcan el cuerpo
+     * @param bloque buffer de heap que se limpia y se llena
+     * @return true si se leyó algo, false si el tramo ya terminó
+     * @throws IOException si falla la lectura o el archivo se truncó
+     */
+    public boolean leerBloque(ByteBuffer bloque) throws IOException {
+        if (restantes == 0) {
+            cerrar();
+            return false;
+        }
+        bloque.clear();
+        if (bloque.remaining() > restantes) {
+            bloque.limit((int) restantes);
+        }
+        int leidos = archivo.read(bloque, posicion);
+        if (leidos <= 0) {
+            throw new IOException("El archivo terminó antes de lo anunciado");
+        }
+        bloque.flip();
+        posicion += leidos;
+        restantes -= leidos;
+        return true;
+    }
+    
+    /**
+     * Cierra el archivo; se puede llamar más de una vez
+     */
+    public void cerrar() {
+        try {
+            archivo.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar archivo: " + e.getMessage());
+        }
+    }
+    
+    /** @return bytes del tramo completo */
+    public long getLongitud() { return longitud; }
+    
+    /** @return bytes del tramo ya enviados */
+    public long getEnviados() { return longitud - restantes; }
+}
@@ -0,0 +1,68 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+/**
+ * Cuerpo de respuesta que se genera por fragmentos acotados en lugar de
+ * construirse completo en memoria. Se envía con Transfer-Encoding: chunked.
+ * Cumple con ISP: Solo define la producción incremental del contenido
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface CuerpoEnStreaming {
+    
+    /**
+     * Escribe el siguiente fragmento del cuerpo en el destino
+     * @param destino buffer vacío donde se escribe el fragmento
+     * @return true si quedan más fragmentos, false si este fue el último
+     */
+    boolean escribirFragmento(SalidaHtml destino);
+    
+    /**
+     * Indica si el siguiente fragmento se puede escribir sin esperar. Los cuerpos
+     * que dependen de eventos externos (como un flujo de mediciones) devuelven false
+     * mientras no haya datos; los motores bloqueantes simplemente esperan dentro de
+     * escribirFragmento, y el motor NIO aparca la conexión hasta recibir el aviso
+     * @return true si escribirFragmento no se bloqueará
+     */
+    default boolean estaListo() {
+        return true;
+    }
+    
+    /**
+     * Registra un aviso para cuando estaListo() pase a true. Se invoca una sola vez,
+     * desde el hilo que produjo los datos
+     * @param aviso acción a ejecutar
+     */
+    default void alEstarListo(Runnable aviso) {
+    }
+    
+    /**
+     * Libera los recursos del cuerpo cuando la conexión se corta antes de terminarlo
+     */
+    default void cerrar() {
+    }
+}
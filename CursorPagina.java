@@ -0,0 +1,92 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición dentro de un listado ordenado: el orden, la dirección y la clave de
+ * orden más el ID del último elemento visto. Como la página siguiente se pide
+ * "después de esta clave" y no "desde la posición N", las altas concurrentes no
+ * hacen que se repitan ni se salten elementos ya listados.
+ * Se entrega al cliente codificado en Base64 URL, sin relleno, para que viaje en
+ * la cadena de consulta sin escaparse
+ * Cumple con SRP: Solo codifica y valida cursores
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public final class CursorPagina {
+    
+    private static final String VERSION = "1";
+    private static final char SEPARADOR = '\u0000';
+    
+    private final String orden;
+    private final boolean haciaAtras;
+    private final String clave;
+    private final String id;
+    
+    private CursorPagina(String orden, boolean haciaAtras, String clave, String id) {
+        this.orden = orden;
+        this.haciaAtras = haciaAtras;
+        this.clave = clave;
+        this.id = id;
+    }
+    
+    /**
+     * Codifica un cursor
+     * @param orden nombre del orden del listado
+     * @param haciaAtras true si pide los elementos anteriores a la posición
+     * @param clave clave de orden del elemento de referencia
+     * @param id ID del elemento de referencia, que desempata claves iguales
+     * @return cursor opaco
+     */
+    public static String codificar(String orden, boolean haciaAtras, String clave, String id) {
+        String texto = VERSION + SEPARADOR + orden + SEPARADOR + (haciaAtras ? "a" : "s")
+                       + SEPARADOR + clave + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodifica un cursor recibido del cliente
+     * @param cursor cursor opaco
+     * @return posición del cursor
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static CursorPagina decodificar(String cursor) {
+        String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                              .split(String.valueOf(SEPARADOR), -1);
+        if (partes.length != 5 || !VERSION.equals(partes[0])
+                || !("a".equals(partes[2]) || "s".equals(partes[2]))) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return new CursorPagina(partes[1], "a".equals(partes[2]), partes[3], partes[4]);
+    }
+    
+    public String getOrden() { return orden; }
+    public boolean isHaciaAtras() { return haciaAtras; }
+    public String getClave() { return clave; }
+    public String getId() { return id; }
+}
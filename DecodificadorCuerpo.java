@@ -0,0 +1,225 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodificador incremental del enmarcado del cuerpo de una solicitud HTTP/1.1:
+ * Content-Length o Transfer-Encoding: chunked. Recibe los bytes tal como llegan
+ * del socket, en tramos de cualquier tamaño, y entrega al receptor solo los datos
+ * del cuerpo; nunca consume bytes de la solicitud siguiente de la misma conexión.
+ * Sin receptor el cuerpo simplemente se descarta.
+ * Cumple con SRP: Solo interpreta el enmarcado y aplica el tamaño máximo;
+ * qué se hace con el contenido lo decide el receptor
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class DecodificadorCuerpo {
+    
+    /** Longitud máxima de una línea de tamaño de fragmento o de un trailer */
+    private static final int LINEA_MAXIMA = 1024;
+    
+    private enum Estado { DATOS, TAMANO, EXTENSION, FIN_FRAGMENTO, TRAILERS, TERMINADO }
+    
+    private final ReceptorCuerpo receptor;
+    private final boolean fragmentado;
+    private final long maximo;
+    private Estado estado;
+    private long restantes;
+    private long recibidos;
+    private long tamano;
+    private int digitos;
+    private int longitudLinea;
+    
+    private DecodificadorCuerpo(ReceptorCuerpo receptor, boolean fragmentado, long longitud, long maximo) {
+        this.receptor = receptor;
+        this.fragmentado = fragmentado;
+        this.maximo = maximo;
+        this.restantes = longitud;
+        this.estado = fragmentado ? Estado.TAMANO : Estado.DATOS;
+        if (!fragmentado && longitud == 0) {
+            terminar();
+        }
+    }
+    
+    /**
+     * Crea el decodificador según los encabezados de la solicitud
+     * @param solicitud solicitud cuyo cuerpo se va a leer
+     * @param receptor destino de los datos, o null para descartarlos
+     * @param maximo bytes de cuerpo admitidos
+     * @return decodificador listo; ya terminado si la solicitud no tiene cuerpo
+     * @throws SolicitudRechazadaException 413 si el Content-Length excede el máximo,
+     *         501 si la codificación de transferencia no es chunked y 400 si el
+     *         enmarcado es ambiguo o inválido
+     */
+    public static DecodificadorCuerpo de(SolicitudHttp solicitud, ReceptorCuerpo receptor, long maximo) {
+        String transferencia = solicitud.getEncabezado("Transfer-Encoding");
+        if (transferencia != null) {
+            if (solicitud.getEncabezado("Content-Length") != null) {
+                // Ambos encabezados a la vez permiten desincronizar la conexión (request smuggling)
+                throw new SolicitudRechazadaException(400, "Content-Length y Transfer-Encoding a la vez");
+            }
+            if (!transferencia.trim().equalsIgnoreCase("chunked")) {
+                throw new SolicitudRechazadaException(501, "Transfer-Encoding no soportado: " + transferencia);
+            }
+            return new DecodificadorCuerpo(receptor, true, 0, maximo);
+        }
+        long longitud = solicitud.getLongitudContenido();
+        if (longitud > maximo) {
+            throw new SolicitudRechazadaException(413, "Cuerpo de " + longitud + " bytes, máximo " + maximo);
+        }
+        return new DecodificadorCuerpo(receptor, false, longitud, maximo);
+    }
+    
+    /**
+     * Consume del buffer los bytes que pertenecen al cuerpo, desde su posición
+     * actual. Se detiene al terminar el cuerpo y deja el resto sin tocar
+     * @param entrada bytes recibidos del socket
+     * @throws SolicitudRechazadaException 413 si los fragmentos exceden el máximo, 400 si el enmarcado es inválido
+     */
+    public void consumir(ByteBuffer entrada) {
+        while (entrada.hasRemaining() && estado != Estado.TERMINADO) {
+            if (estado == Estado.DATOS) {
+                entregar(entrada);
+            } else {
+                avanzarEnmarcado(entrada.get());
+            }
+        }
+    }
+    
+    private void entregar(ByteBuffer entrada) {
+        int cantidad = (int) Math.min(restantes, entrada.remaining());
+        if (receptor != null) {
+            receptor.recibir(entrada.slice(entrada.position(), cantidad));
+        }
+        entrada.position(entrada.position() + cantidad);
+        restantes -= cantidad;
+        recibidos += cantidad;
+        if (restantes == 0) {
+            if (fragmentado) {
+                estado = Estado.FIN_FRAGMENTO;
+            } else {
+                terminar();
+            }
+        }
+    }
+    
+    /**
+     * Avanza un byte por las líneas de tamaño, los CRLF entre fragmentos y los trailers
+     */
+    private void avanzarEnmarcado(byte b) {
+        if (b != '\n' && ++longitudLinea > LINEA_MAXIMA) {
+            throw new SolicitudRechazadaException(400, "Línea de fragmento demasiado larga");
+        }
+        switch (estado) {
+            case TAMANO:
+                int valor = Character.digit(b, 16);
+                if (valor >= 0) {
+                    if (tamano > (Long.MAX_VALUE >> 4)) {
+                        throw new SolicitudRechazadaException(413, "Fragmento demasiado grande");
+                    }
+                    tamano = (tamano << 4) | valor;
+                    digitos++;
+                } else if (b == ';' || b == ' ' || b == '\t') {
+                    estado = Estado.EXTENSION;
+                } else if (b == '\n') {
+                    iniciarFragmento();
+                } else if (b != '\r') {
+                    throw new SolicitudRechazadaException(400, "Tamaño de fragmento inválido");
+                }
+                break;
+            case EXTENSION:
+                // Las extensiones de fragmento se ignoran
+                if (b == '\n') {
+                    iniciarFragmento();
+                }
+                break;
+            case FIN_FRAGMENTO:
+                if (b == '\n') {
+                    longitudLinea = 0;
+                    estado = Estado.TAMANO;
+                } else if (b != '\r') {
+                    throw new SolicitudRechazadaException(400, "Falta el CRLF tras el fragmento");
+                }
+                break;
+            case TRAILERS:
+                if (b == '\n') {
+                    // Los trailers se ignoran; una línea vacía cierra el cuerpo
+                    if (longitudLinea <= 1) {
+                        terminar();
+                    }
+                    longitudLinea = 0;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private void iniciarFragmento() {
+        if (digitos == 0) {
+            throw new SolicitudRechazadaException(400, "Tamaño de fragmento vacío");
+        }
+        if (tamano > maximo - recibidos) {
+            throw new SolicitudRechazadaException(413, "El cuerpo excede el máximo de " + maximo + " bytes");
+        }
+        restantes = tamano;
+        estado = tamano == 0 ? Estado.TRAILERS : Estado.DATOS;
+        tamano = 0;
+        digitos = 0;
+        longitudLinea = 0;
+    }
+    
+    private void terminar() {
+        estado = Estado.TERMINADO;
+        if (receptor != null) {
+            receptor.terminar();
+        }
+    }
+    
+    /**
+     * Indica si el cuerpo ya llegó completo
+     * @return true al terminar el cuerpo
+     */
+    public boolean isTerminado() {
+        return estado == Estado.TERMINADO;
+    }
+    
+    /**
+     * Bytes que se pueden leer del socket sin pasar al inicio de la solicitud
+     * siguiente. Dentro del enmarcado de los fragmentos solo se sabe que falta al menos uno
+     * @return bytes que se pueden pedir en la próxima lectura, 0 si ya terminó
+     */
+    public long getPendientes() {
+        if (estado == Estado.TERMINADO) {
+            return 0;
+        }
+        return estado == Estado.DATOS ? restantes : 1;
+    }
+    
+    /** @return bytes de cuerpo recibidos hasta ahora, sin el enmarcado */
+    public long getRecibidos() { return recibidos; }
+}
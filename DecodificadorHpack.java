@@ -0,0 +1,151 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+/**
+ * Decodificador de bloques de cabecera HPACK (RFC 7541).
+ * Interpreta las representaciones indexadas y literales, las actualizaciones
+ * de tamaño de la tabla dinámica y las cadenas con o sin código Huffman.
+ * Un bloque se decodifica completo aunque la solicitud se vaya a rechazar,
+ * para que la tabla dinámica siga sincronizada con la del cliente.
+ * Cumple con SRP: Solo decodifica cabeceras, no valida su significado HTTP
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class DecodificadorHpack {
+    
+    /** Enteros mayores a 2^28 no caben en ningún bloque razonable */
+    private static final int ENTERO_MAXIMO = 1 << 28;
+    
+    private final TablaHpack tabla;
+    private final int tamanoMaximoPermitido;
+    private final SalidaHtml texto = new SalidaHtml(256);
+    private int posicion;
+    
+    /**
+     * Constructor del decodificador
+     * @param tamanoMaximoPermitido tamaño de tabla anunciado al cliente en SETTINGS_HEADER_TABLE_SIZE
+     */
+    public DecodificadorHpack(int tamanoMaximoPermitido) {
+        this.tabla = new TablaHpack(tamanoMaximoPermitido);
+        this.tamanoMaximoPermitido = tamanoMaximoPermitido;
+    }
+    
+    /**
+     * Decodifica un bloque de cabecera completo
+     * @param bloque bytes del bloque
+     * @param desde posición del primer byte
+     * @param longitud longitud del bloque
+     * @param receptor recibe cada nombre y valor en el orden del bloque
+     * @throws ErrorHttp2Exception con COMPRESION si el bloque está mal formado
+     */
+    public void decodificar(byte[] bloque, int desde, int longitud, BiConsumer<String, String> receptor) {
+        posicion = desde;
+        int fin = desde + longitud;
+        boolean inicioBloque = true;
+        while (posicion < fin) {
+            int primero = bloque[posicion] & 0xFF;
+            if ((primero & 0x80) != 0) {
+                // Campo indexado
+                int indice = leerEntero(bloque, fin, 7);
+                receptor.accept(tabla.getNombre(indice), tabla.getValor(indice));
+            } else if ((primero & 0x40) != 0) {
+                // Literal con indexación incremental
+                String[] campo = leerLiteral(bloque, fin, 6);
+                tabla.agregar(campo[0], campo[1]);
+                receptor.accept(campo[0], campo[1]);
+            } else if ((primero & 0x20) != 0) {
+                // Actualización de tamaño: solo al inicio del bloque
+                int tamano = leerEntero(bloque, fin, 5);
+                if (!inicioBloque || tamano > tamanoMaximoPermitido) {
+                    throw new ErrorHttp2Exception(ErrorHttp2Exception.COMPRESION, "Actualización de tamaño inválida");
+                }
+                tabla.setTamanoMaximo(tamano);
+                continue;
+            } else {
+                // Literal sin indexar (0000) o nunca indexado (0001)
+                String[] campo = leerLiteral(bloque, fin, 4);
+                receptor.accept(campo[0], campo[1]);
+            }
+            inicioBloque = false;
+        }
+    }
+    
+    private String[] leerLiteral(byte[] bloque, int fin, int bitsPrefijo) {
+        int indiceNombre = leerEntero(bloque, fin, bitsPrefijo);
+        String nombre = indiceNombre == 0 ? leerCadena(bloque, fin) : tabla.getNombre(indiceNombre);
+        return new String[] { nombre, leerCadena(bloque, fin) };
+    }
+    
+    /**
+     * Lee un entero con prefijo de N bits (RFC 7541, sección 5.1)
+     */
+    private int leerEntero(byte[] bloque, int fin, int bitsPrefijo) {
+        int mascara = (1 << bitsPrefijo) - 1;
+        int valor = bloque[posicion++] & mascara;
+        if (valor < mascara) {
+            return valor;
+        }
+        int desplazamiento = 0;
+        int b;
+        do {
+            if (posicion >= fin) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.COMPRESION, "Entero HPACK incompleto");
+            }
+            b = bloque[posicion++] & 0xFF;
+            valor += (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+            if (valor > ENTERO_MAXIMO || desplazamiento > 28) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.COMPRESION, "Entero HPACK demasiado grande");
+            }
+        } while ((b & 0x80) != 0);
+        return valor;
+    }
+    
+    /**
+     * Lee una cadena literal: bit H (Huffman) y longitud con prefijo de 7 bits
+     */
+    private String leerCadena(byte[] bloque, int fin) {
+        if (posicion >= fin) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.COMPRESION, "Cadena HPACK incompleta");
+        }
+        boolean huffman = (bloque[posicion] & 0x80) != 0;
+        int longitud = leerEntero(bloque, fin, 7);
+        if (longitud > fin - posicion) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.COMPRESION, "Cadena HPACK fuera del bloque");
+        }
+        int inicio = posicion;
+        posicion += longitud;
+        if (!huffman) {
+            return new String(bloque, inicio, longitud, StandardCharsets.ISO_8859_1);
+        }
+        texto.reiniciar();
+        HuffmanHpack.decodificar(bloque, inicio, longitud, texto);
+        return new String(texto.comoByteBuffer().array(), 0, texto.tamano(), StandardCharsets.ISO_8859_1);
+    }
+}
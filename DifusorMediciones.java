@@ -0,0 +1,238 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Reparte las mediciones de los equipos entre los clientes suscritos a su flujo.
+ * Cada equipo tiene un único bucle de adquisición, compartido por todos sus
+ * suscriptores, que mide a la tasa más alta pedida entre ellos; cada suscriptor
+ * toma de ese bucle solo las muestras que le tocan según su propia tasa. El bucle
+ * se replanifica cuando cambia la tasa más alta y se detiene cuando el equipo se
+ * queda sin suscriptores, así que cien clientes mirando un equipo cuestan una
+ * medición por período y no cien.
+ * Cumple con SRP: Solo adquiere y reparte mediciones; el envío lo hace el motor HTTP
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class DifusorMediciones {
+    
+    /** Tasa máxima que puede pedir un suscriptor, en mediciones por segundo */
+    public static final double TASA_MAXIMA = 50;
+    /** Tasa mínima que puede pedir un suscriptor, en mediciones por segundo */
+    public static final double TASA_MINIMA = 0.1;
+    
+    private final ConcurrentHashMap<String, Canal> canales = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService adquisicion;
+    private final int capacidadBuffer;
+    private final long latidoNanos;
+    private final AtomicInteger suscriptores = new AtomicInteger();
+    private final LongAdder adquiridas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+    
+    /**
+     * Constructor del difusor
+     * @param capacidadBuffer muestras que cada suscriptor puede tener sin enviar
+     * @param latidoMs silencio máximo antes de enviar un comentario de latido
+     */
+    public DifusorMediciones(int capacidadBuffer, long latidoMs) {
+        if (capacidadBuffer < 1) {
+            throw new IllegalArgumentException("El buffer por suscriptor debe tener al menos una muestra");
+        }
+        this.capacidadBuffer = capacidadBuffer;
+        this.latidoNanos = TimeUnit.MILLISECONDS.toNanos(latidoMs);
+        this.adquisicion = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "difusor-mediciones");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+    
+    /**
+     * Crea el difusor con las propiedades servidor.sse.buffer (muestras por
+     * suscriptor, por defecto 64) y servidor.sse.latido.ms (por defecto 15000)
+     * @return difusor configurado
+     */
+    public static DifusorMediciones desdePropiedades() {
+        return new DifusorMediciones(Integer.getInteger("servidor.sse.buffer", 64),
+                                     Long.getLong("servidor.sse.latido.ms", 15_000));
+    }
+    
+    /**
+     * Suscribe un cliente al flujo de un equipo, arrancando su bucle de adquisición
+     * si es el primero o acelerándolo si pide una tasa mayor
+     * @param id ID canónico del equipo
+     * @param medible equipo que realiza las mediciones
+     * @param tasa mediciones por segundo pedidas; se acota a [TASA_MINIMA, TASA_MAXIMA]
+     * @param activo indica si el servidor sigue atendiendo; al volverse false el flujo termina
+     * @return suscripción que sirve como cuerpo de la respuesta
+     */
+    public SuscripcionMediciones suscribir(String id, Medible medible, double tasa, BooleanSupplier activo) {
+        double acotada = Math.max(TASA_MINIMA, Math.min(TASA_MAXIMA, tasa));
+        SuscripcionMediciones suscripcion = new SuscripcionMediciones(this, id, (long) (1e9 / acotada),
+                                                                      capacidadBuffer, latidoNanos, activo);
+        // compute serializa altas y bajas del mismo equipo: nunca quedan dos bucles para él
+        canales.compute(id, (clave, canal) -> {
+            Canal destino = canal != null ? canal : new Canal(medible);
+            destino.agregar(suscripcion);
+            return destino;
+        });
+        suscriptores.incrementAndGet();
+        return suscripcion;
+    }
+    
+    /**
+     * Quita una suscripción; el bucle del equipo se detiene si era la última
+     * @param suscripcion suscripción que terminó o cuya conexión se cortó
+     */
+    void desuscribir(SuscripcionMediciones suscripcion) {
+        canales.computeIfPresent(suscripcion.getId(), (clave, canal) -> canal.quitar(suscripcion) ? null : canal);
+        suscriptores.decrementAndGet();
+    }
+    
+    /**
+     * Cuenta una muestra descartada por el buffer lleno de un suscriptor
+     */
+    void registrarDescarte() {
+        descartadas.increment();
+    }
+    
+    /**
+     * Detiene todos los bucles de adquisición; los flujos abiertos terminan
+     * cuando el servidor deja de estar activo
+     */
+    public void cerrar() {
+        adquisicion.shutdownNow();
+    }
+    
+    /** @return clientes suscritos a algún flujo */
+    public int getSuscriptores() { return suscriptores.get(); }
+    
+    /** @return equipos con un bucle de adquisición en marcha */
+    public int getCanales() { return canales.size(); }
+    
+    /** @return mediciones realizadas por los bucles de adquisición */
+    public long getAdquiridas() { return adquiridas.sum(); }
+    
+    /** @return muestras descartadas por buffers de suscriptores llenos */
+    public long getDescartadas() { return descartadas.sum(); }
+    
+    /**
+     * Muestra de una medición, compartida por todos los suscriptores del equipo
+     */
+    static final class Muestra {
+        final long secuencia;
+        final long marcaMs;
+        final double valor;
+        
+        Muestra(long secuencia, long marcaMs, double valor) {
+            this.secuencia = secuencia;
+            this.marcaMs = marcaMs;
+            this.valor = valor;
+        }
+    }
+    
+    /**
+     * Bucle de adquisición de un equipo. Sus altas y bajas llegan siempre dentro
+     * de compute sobre el mapa de canales, que las serializa
+     */
+    private final class Canal implements Runnable {
+        
+        private final Medible medible;
+        private final List<SuscripcionMediciones> suscripciones = new CopyOnWriteArrayList<>();
+        private final AtomicLong secuencia = new AtomicLong();
+        private ScheduledFuture<?> tarea;
+        private volatile long periodoNanos;
+        
+        Canal(Medible medible) {
+            this.medible = medible;
+        }
+        
+        void agregar(SuscripcionMediciones suscripcion) {
+            suscripciones.add(suscripcion);
+            replanificar();
+        }
+        
+        /**
+         * @return true si el canal quedó sin suscriptores y su bucle se detuvo
+         */
+        boolean quitar(SuscripcionMediciones suscripcion) {
+            suscripciones.remove(suscripcion);
+            if (suscripciones.isEmpty()) {
+                tarea.cancel(false);
+                return true;
+            }
+            replanificar();
+            return false;
+        }
+        
+        /**
+         * Ajusta el período del bucle al del suscriptor más rápido. Al cambiarlo
+         * mide de inmediato, para que el suscriptor nuevo no espere un período completo
+         */
+        private void replanificar() {
+            long periodo = Long.MAX_VALUE;
+            for (SuscripcionMediciones suscripcion : suscripciones) {
+                periodo = Math.min(periodo, suscripcion.getPeriodoNanos());
+            }
+            if (tarea != null && periodo == periodoNanos) {
+                return;
+            }
+            if (tarea != null) {
+                tarea.cancel(false);
+            }
+            periodoNanos = periodo;
+            tarea = adquisicion.scheduleAtFixedRate(this, 0, periodo, TimeUnit.NANOSECONDS);
+        }
+        
+        @Override
+        public void run() {
+            double valor;
+            try {
+                valor = medible.realizarMedicion();
+            } catch (RuntimeException e) {
+                // Una excepción cancelaría el bucle planificado; se pierde solo esta muestra
+                return;
+            }
+            adquiridas.increment();
+            Muestra muestra = new Muestra(secuencia.incrementAndGet(), System.currentTimeMillis(), valor);
+            long ahora = System.nanoTime();
+            for (SuscripcionMediciones suscripcion : suscripciones) {
+                suscripcion.ofrecer(muestra, ahora, periodoNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Ejecutor que atiende cada conexión en su propio hilo virtual.
+ * La concurrencia se limita con un semáforo en lugar del tamaño de un pool,
+ * y se lleva la cuenta de hilos vivos y de hilos fijados (pinned) a su portador.
+ * Requiere Java 21 o superior.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class EjecutorVirtual {
+    
+    private static final String EVENTO_FIJADO = "jdk.VirtualThreadPinned";
+    
+    private final ExecutorService ejecutor;
+    private final Semaphore permisos;
+    private final int limiteConcurrencia;
+    private final AtomicInteger hilosActivos;
+    private final AtomicLong hilosFijados;
+    private RecordingStream monitorFijados;
+    
+    /**
+     * Constructor del ejecutor virtual
+     * @param limiteConcurrencia máximo de tareas atendiéndose a la vez
+     */
+    public EjecutorVirtual(int limiteConcurrencia) {
+        if (limiteConcurrencia < 1) {
+            throw new IllegalArgumentException("El límite de concurrencia debe ser positivo");
+        }
+        this.limiteConcurrencia = limiteConcurrencia;
+        this.ejecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("virtual-cliente-", 0).factory());
+        this.permisos = new Semaphore(limiteConcurrencia);
+        this.hilosActivos = new AtomicInteger();
+        this.hilosFijados = new AtomicLong();
+        iniciarMonitorFijados();
+    }
+    
+    /**
+     * Ejecuta la tarea en un hilo virtual nuevo.
+     * Si ya se alcanzó el límite de concurrencia la tarea se rechaza de inmediato,
+     * para que el llamador pueda descartar la conexión en lugar de encolarla.
+     * @param tarea tarea a ejecutar
+     * @throws RejectedExecutionException si no quedan permisos de concurrencia
+     */
+    public void ejecutar(Runnable tarea) {
+        if (!permisos.tryAcquire()) {
+            throw new RejectedExecutionException("Límite de concurrencia alcanzado");
+        }
+        try {
+            ejecutor.execute(() -> {
+                hilosActivos.incrementAndGet();
+                try {
+                    tarea.run();
+                } finally {
+                    hilosActivos.decrementAndGet();
+                    permisos.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Deja de aceptar tareas y espera brevemente a que terminen las actuales
+     */
+    public void cerrar() {
+        ejecutor.shutdown();
+        try {
+            ejecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (monitorFijados != null) {
+            monitorFijados.close();
+        }
+    }
+    
+    /**
+     * Escucha el evento JFR de hilos virtuales fijados para contarlos
+     */
+    private void iniciarMonitorFijados() {
+        try {
+            monitorFijados = new RecordingStream();
+            monitorFijados.enable(EVENTO_FIJADO).withoutThreshold();
+            monitorFijados.onEvent(EVENTO_FIJADO, evento -> hilosFijados.incrementAndGet());
+            monitorFijados.setMaxAge(Duration.ofSeconds(10));
+            monitorFijados.startAsync();
+        } catch (RuntimeException e) {
+            System.err.println("No se pudo iniciar el monitor de hilos fijados: " + e.getMessage());
+            monitorFijados = null;
+        }
+    }
+    
+    /** @return hilos virtuales vivos atendiendo clientes */
+    public int getHilosActivos() { return hilosActivos.get(); }
+    
+    /** @return veces que un hilo virtual quedó fijado a su hilo portador */
+    public long getHilosFijados() { return hilosFijados.get(); }
+    
+    /** @return permisos de concurrencia libres */
+    public int getPermisosDisponibles() { return permisos.availablePermits(); }
+    
+    public int getLimiteConcurrencia() { return limiteConcurrencia; }
+}
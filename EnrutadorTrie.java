@@ -0,0 +1,332 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Enrutador HTTP basado en un trie de segmentos.
+ * Los patrones se registran como "/buscar/id/{id}" o "/mediciones/{n:int}" y luego
+ * se compilan: cada nodo ordena sus hijos literales por hash para buscarlos por
+ * búsqueda binaria, comparando la ruta por regiones sin crear subcadenas.
+ * El costo de resolver una ruta depende de su número de segmentos, no de
+ * cuántas rutas haya registradas
+ * Cumple con SRP: Solo resuelve rutas y métodos, no genera respuestas
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class EnrutadorTrie {
+    
+    private static final String TIPO_TEXTO = "texto";
+    private static final String TIPO_ENTERO = "int";
+    private static final int MAX_DIGITOS = 18;
+    
+    private final Nodo raiz = new Nodo();
+    private int maxParametros;
+    private boolean compilado;
+    
+    /**
+     * Registra un manejador para un método y un patrón de ruta.
+     * Los segmentos {nombre} aceptan cualquier texto no vacío y {nombre:int} solo dígitos.
+     * Los segmentos literales tienen prioridad sobre los parámetros
+     * @param metodo método HTTP, por ejemplo "GET"
+     * @param patron patrón que empieza con '/'
+     * @param manejador manejador a invocar
+     * @return este enrutador, para encadenar registros
+     * @throws IllegalArgumentException si el patrón es inválido o ya está registrado
+     * @throws IllegalStateException si el enrutador ya fue compilado
+     */
+    public EnrutadorTrie registrar(String metodo, String patron, ManejadorRuta manejador) {
+        if (compilado) {
+            throw new IllegalStateException("El enrutador ya fue compilado");
+        }
+        if (patron.isEmpty() || patron.charAt(0) != '/') {
+            throw new IllegalArgumentException("El patrón debe empezar con '/': " + patron);
+        }
+        Nodo actual = raiz;
+        List<String> nombres = new ArrayList<>();
+        if (patron.length() > 1) {
+            for (String segmento : patron.substring(1).split("/", -1)) {
+                actual = segmento.startsWith("{") && segmento.endsWith("}")
+                        ? actual.hijoParametro(segmento.substring(1, segmento.length() - 1), nombres, patron)
+                        : actual.hijoLiteral(segmento, patron);
+            }
+        }
+        if (actual.manejadores.putIfAbsent(metodo, manejador) != null) {
+            throw new IllegalArgumentException("Ruta duplicada: " + metodo + " " + patron);
+        }
+        actual.nombres = nombres.toArray(new String[0]);
+        actual.patron = patron;
+        maxParametros = Math.max(maxParametros, nombres.size());
+        return this;
+    }
+    
+    /**
+     * Congela el trie y precalcula las tablas de búsqueda. Debe llamarse una vez,
+     * después de todos los registros y antes de publicar el enrutador a otros hilos
+     * @return este enrutador
+     */
+    public EnrutadorTrie compilar() {
+        raiz.compilar();
+        compilado = true;
+        return this;
+    }
+    
+    /**
+     * Resuelve una ruta para un método
+     * @param metodo método HTTP de la solicitud
+     * @param ruta ruta de la solicitud, con cadena de consulta opcional
+     * @return coincidencia (con o sin manejador para el método), o null si ninguna ruta coincide
+     * @throws IllegalStateException si el enrutador no fue compilado
+     */
+    public Coincidencia buscar(String metodo, String ruta) {
+        if (!compilado) {
+            throw new IllegalStateException("El enrutador no ha sido compilado");
+        }
+        if (ruta.isEmpty() || ruta.charAt(0) != '/') {
+            return null;
+        }
+        int interrogacion = ruta.indexOf('?');
+        int finRuta = interrogacion < 0 ? ruta.length() : interrogacion;
+        ParametrosRuta parametros = new ParametrosRuta(ruta, maxParametros, interrogacion < 0 ? -1 : interrogacion + 1);
+        Nodo nodo = finRuta == 1 ? raiz : raiz.resolver(ruta, 1, finRuta, parametros);
+        if (nodo == null || nodo.manejadores.isEmpty()) {
+            return null;
+        }
+        parametros.asignarNombres(nodo.nombres);
+        return new Coincidencia(nodo.manejadorPara(metodo), parametros, nodo.permitidos, nodo.patron);
+    }
+    
+    /**
+     * Convierte una región de dígitos en número sin crear una subcadena
+     */
+    static long leerEntero(String texto, int inicio, int fin) {
+        long valor = 0;
+        for (int i = inicio; i < fin; i++) {
+            valor = valor * 10 + (texto.charAt(i) - '0');
+        }
+        return valor;
+    }
+    
+    /**
+     * Hash de una región, idéntico a String.hashCode() de la subcadena equivalente
+     */
+    private static int hashRegion(String texto, int inicio, int fin) {
+        int hash = 0;
+        for (int i = inicio; i < fin; i++) {
+            hash = 31 * hash + texto.charAt(i);
+        }
+        return hash;
+    }
+    
+    private static boolean esEntero(String texto, int inicio, int fin) {
+        if (fin - inicio > MAX_DIGITOS) {
+            return false;
+        }
+        for (int i = inicio; i < fin; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Resultado de una búsqueda en el enrutador
+     */
+    public static final class Coincidencia {
+        private final ManejadorRuta manejador;
+        private final ParametrosRuta parametros;
+        private final RespuestaHttp.Encabezado permitidos;
+        private final String patron;
+        
+        private Coincidencia(ManejadorRuta manejador, ParametrosRuta parametros,
+                             RespuestaHttp.Encabezado permitidos, String patron) {
+            this.manejador = manejador;
+            this.parametros = parametros;
+            this.permitidos = permitidos;
+            this.patron = patron;
+        }
+        
+        /**
+         * @return manejador para el método, o null si la ruta existe pero no admite el método (405)
+         */
+        public ManejadorRuta getManejador() { return manejador; }
+        public ParametrosRuta getParametros() { return parametros; }
+        
+        /**
+         * @return encabezado Allow precodificado con los métodos que admite la ruta
+         */
+        public RespuestaHttp.Encabezado getPermitidos() { return permitidos; }
+        
+        /**
+         * @return patrón registrado que coincidió, por ejemplo "/detalles/{id}"
+         */
+        public String getPatron() { return patron; }
+    }
+    
+    /**
+     * Nodo del trie: un segmento de ruta con sus hijos literales, un hijo
+     * parámetro opcional y los manejadores por método si el patrón termina aquí
+     */
+    private static final class Nodo {
+        private final Map<String, Nodo> literales = new LinkedHashMap<>();
+        private final Map<String, ManejadorRuta> manejadores = new LinkedHashMap<>();
+        private Nodo parametro;
+        private String nombreParametro;
+        private String tipoParametro;
+        private int indiceParametro;
+        private String[] nombres;
+        private String patron;
+        
+        // Tablas compiladas
+        private int[] hashes;
+        private String[] claves;
+        private Nodo[] hijos;
+        private String[] metodos;
+        private ManejadorRuta[] porMetodo;
+        private RespuestaHttp.Encabezado permitidos;
+        
+        Nodo hijoLiteral(String segmento, String patron) {
+            if (segmento.isEmpty()) {
+                throw new IllegalArgumentException("Segmento vacío en el patrón: " + patron);
+            }
+            return literales.computeIfAbsent(segmento, s -> new Nodo());
+        }
+        
+        Nodo hijoParametro(String declaracion, List<String> nombres, String patron) {
+            int dosPuntos = declaracion.indexOf(':');
+            String nombre = dosPuntos < 0 ? declaracion : declaracion.substring(0, dosPuntos);
+            String tipo = dosPuntos < 0 ? TIPO_TEXTO : declaracion.substring(dosPuntos + 1);
+            if (nombre.isEmpty() || (!TIPO_TEXTO.equals(tipo) && !TIPO_ENTERO.equals(tipo))) {
+                throw new IllegalArgumentException("Parámetro inválido {" + declaracion + "} en: " + patron);
+            }
+            if (nombres.contains(nombre)) {
+                throw new IllegalArgumentException("Parámetro repetido {" + nombre + "} en: " + patron);
+            }
+            if (parametro == null) {
+                parametro = new Nodo();
+                nombreParametro = nombre;
+                tipoParametro = tipo;
+            } else if (!nombreParametro.equals(nombre) || !tipoParametro.equals(tipo)) {
+                throw new IllegalArgumentException("Conflicto de parámetros {" + nombreParametro + "} y {"
+                                                   + declaracion + "} en: " + patron);
+            }
+            parametro.indiceParametro = nombres.size();
+            nombres.add(nombre);
+            return parametro;
+        }
+        
+        void compilar() {
+            List<Map.Entry<String, Nodo>> entradas = new ArrayList<>(literales.entrySet());
+            entradas.sort(Comparator.comparingInt(e -> e.getKey().hashCode()));
+            hashes = new int[entradas.size()];
+            claves = new String[entradas.size()];
+            hijos = new Nodo[entradas.size()];
+            for (int i = 0; i < entradas.size(); i++) {
+                claves[i] = entradas.get(i).getKey();
+                hashes[i] = claves[i].hashCode();
+                hijos[i] = entradas.get(i).getValue();
+                hijos[i].compilar();
+            }
+            if (parametro != null) {
+                parametro.compilar();
+            }
+            metodos = manejadores.keySet().toArray(new String[0]);
+            porMetodo = manejadores.values().toArray(new ManejadorRuta[0]);
+            if (!manejadores.isEmpty()) {
+                permitidos = new RespuestaHttp.Encabezado("Allow", String.join(", ", metodos));
+            }
+        }
+        
+        /**
+         * Resuelve recursivamente la región [inicio, finRuta) de la ruta.
+         * Si un literal coincide pero su subárbol no, se intenta el parámetro
+         */
+        Nodo resolver(String ruta, int inicio, int finRuta, ParametrosRuta parametros) {
+            int fin = ruta.indexOf('/', inicio);
+            if (fin < 0 || fin > finRuta) {
+                fin = finRuta;
+            }
+            Nodo literal = literal(ruta, inicio, fin);
+            if (literal != null) {
+                Nodo encontrado = literal.continuar(ruta, fin, finRuta, parametros);
+                if (encontrado != null) {
+                    return encontrado;
+                }
+            }
+            if (parametro != null && fin > inicio
+                    && (TIPO_TEXTO.equals(tipoParametro) || esEntero(ruta, inicio, fin))) {
+                parametros.marcar(parametro.indiceParametro, inicio, fin);
+                return parametro.continuar(ruta, fin, finRuta, parametros);
+            }
+            return null;
+        }
+        
+        private Nodo continuar(String ruta, int fin, int finRuta, ParametrosRuta parametros) {
+            if (fin == finRuta) {
+                return manejadores.isEmpty() ? null : this;
+            }
+            return resolver(ruta, fin + 1, finRuta, parametros);
+        }
+        
+        private Nodo literal(String ruta, int inicio, int fin) {
+            if (hashes.length == 0) {
+                return null;
+            }
+            int hash = hashRegion(ruta, inicio, fin);
+            int i = Arrays.binarySearch(hashes, hash);
+            if (i < 0) {
+                return null;
+            }
+            // Retrocede al primer hash igual y prueba cada colisión
+            while (i > 0 && hashes[i - 1] == hash) {
+                i--;
+            }
+            int longitud = fin - inicio;
+            for (; i < hashes.length && hashes[i] == hash; i++) {
+                if (claves[i].length() == longitud && ruta.regionMatches(inicio, claves[i], 0, longitud)) {
+                    return hijos[i];
+                }
+            }
+            return null;
+        }
+        
+        ManejadorRuta manejadorPara(String metodo) {
+            for (int i = 0; i < metodos.length; i++) {
+                if (metodos[i].equals(metodo)) {
+                    return porMetodo[i];
+                }
+            }
+            return null;
+        }
+    }
+}
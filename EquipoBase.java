@@ -40,6 +40,7 @@ public abstract class EquipoBase implements Equipo {
     protected String fabricante;
     protected double consumoElectrico;
     protected String resumenCaracteristicas;
+    private ObservadorCambios observador;
     
     /**
      * Constructor para la clase base
@@ -107,6 +108,24 @@ public abstract class EquipoBase implements Equipo {
         );
     }
     
+    /**
+     * Registra quién debe enterarse de los cambios de estado del equipo
+     * @param observador observador a notificar, o null para ninguno
+     */
+    public void setObservadorCambios(ObservadorCambios observador) {
+        this.observador = observador;
+    }
+    
+    /**
+     * Avisa al observador que el estado visible del equipo cambió.
+     * Las subclases lo llaman al final de cada operación que modifica su estado
+     */
+    protected void notificarCambio() {
+        if (observador != null) {
+            observador.equipoModificado(this);
+        }
+    }
+    
     /**
      * Compara equipos por consumo eléctrico para ordenamiento
      * @param otro equipo a comparar
@@ -0,0 +1,82 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+/**
+ * Error de protocolo HTTP/2 con su código de error (RFC 9113, sección 7).
+ * Un error de conexión se responde con GOAWAY y un error de flujo con RST_STREAM
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class ErrorHttp2Exception extends IllegalArgumentException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final int SIN_ERROR = 0x0;
+    public static final int PROTOCOLO = 0x1;
+    public static final int INTERNO = 0x2;
+    public static final int CONTROL_FLUJO = 0x3;
+    public static final int FLUJO_CERRADO = 0x5;
+    public static final int TAMANO_MARCO = 0x6;
+    public static final int FLUJO_RECHAZADO = 0x7;
+    public static final int CANCELADO = 0x8;
+    public static final int COMPRESION = 0x9;
+    /** ENHANCE_YOUR_CALM: el cliente genera una carga excesiva */
+    public static final int CALMA = 0xb;
+    
+    private final int codigo;
+    private final int idFlujo;
+    
+    /**
+     * Constructor para un error de conexión
+     * @param codigo código de error HTTP/2
+     * @param mensaje descripción del error
+     */
+    public ErrorHttp2Exception(int codigo, String mensaje) {
+        this(codigo, 0, mensaje);
+    }
+    
+    /**
+     * Constructor para un error que afecta solo a un flujo
+     * @param codigo código de error HTTP/2
+     * @param idFlujo flujo afectado, 0 si el error es de toda la conexión
+     * @param mensaje descripción del error
+     */
+    public ErrorHttp2Exception(int codigo, int idFlujo, String mensaje) {
+        super(mensaje);
+        this.codigo = codigo;
+        this.idFlujo = idFlujo;
+    }
+    
+    /**
+     * @return true si el error obliga a cerrar la conexión completa
+     */
+    public boolean isDeConexion() {
+        return idFlujo == 0;
+    }
+    
+    public int getCodigo() { return codigo; }
+    public int getIdFlujo() { return idFlujo; }
+}
@@ -92,6 +92,7 @@ public class Fotopuerta extends EquipoBase implements Calibrable, Medible {
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        notificarCambio();
     }
     
     @Override
@@ -118,6 +119,7 @@ public class Fotopuerta extends EquipoBase implements Calibrable, Medible {
         if (min >= 0.001 && max <= 10.0 && min < max) {
             this.rangoMin = min;
             this.rangoMax = max;
+            notificarCambio();
         } else {
             throw new IllegalArgumentException("Rango inválido para fotopuerta (0.001s - 10s)");
         }
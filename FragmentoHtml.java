@@ -0,0 +1,43 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+/**
+ * Trozo de HTML que se escribe directamente en la salida, sin escaparse.
+ * Es el tipo de ranura para contenido anidado (por ejemplo, las tarjetas de un
+ * listado) generado a su vez con plantillas.
+ * Cumple con ISP: Solo define cómo escribir el trozo
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface FragmentoHtml {
+    
+    /**
+     * Escribe el trozo en la salida
+     * @param salida buffer de destino
+     */
+    void escribir(SalidaHtml salida);
+}
@@ -88,6 +88,7 @@ public class Generador extends EquipoBase implements Calibrable {
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        notificarCambio();
     }
     
     @Override
@@ -0,0 +1,636 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga HTTP/1.1 para medir rendimiento y latencia de cola del servidor.
+ * Cada conexión es un hilo con un socket keep-alive propio que pide rutas al azar
+ * según una mezcla con pesos.
+ * 
+ * En modo cerrado cada conexión envía la siguiente solicitud en cuanto recibe la
+ * respuesta anterior, así que la tasa la impone el servidor. En modo abierto cada
+ * conexión sigue un calendario fijo (tasa / conexiones solicitudes por segundo) y
+ * la latencia se mide desde el instante programado, no desde el envío real: si el
+ * servidor se atrasa, la espera acumulada cuenta en la latencia en lugar de
+ * desaparecer (corrección de la omisión coordinada). También se informa la
+ * latencia de servicio sin corregir para poder compararlas.
+ * 
+ * Al terminar imprime el rendimiento y los percentiles p50/p99/p999 y escribe un
+ * archivo JSON con la configuración y los resultados, para comparar versiones.
+ * Solo las respuestas 2xx entran en el rendimiento y en los histogramas: un 429 o
+ * un 503 cuesta mucho menos que atender la solicitud y mezclarlo abarataría las
+ * cifras. Las demás se cuentan aparte, por código y por ruta.
+ * 
+ * Uso: java GeneradorCarga [clave=valor ...]
+ *   puerto=8080          puerto del servidor
+ *   servidor=nio         arranca un ServidorWebCompleto local con ese motor (clasico | virtual | nio)
+ *                        y sin límites de tasa, salvo que se fijen con -D; sin esta opción se usa
+ *                        el servidor que ya escucha en el puerto
+ *   aplicacion=web       web | api; con "api" el servidor local es un ServidorAPI y la mezcla
+ *                        por defecto usa sus rutas
+ *   modo=cerrado         cerrado | abierto
+ *   conexiones=16        conexiones simultáneas
+ *   keepalive=si         si | no; con "no" cada solicitud pide "Connection: close" y abre una
+ *                        conexión nueva, para medir la tasa de aceptación del servidor
+ *   tasa=1000            solicitudes por segundo en total (solo modo abierto)
+ *   duracion=20          segundos medidos
+ *   calentamiento=5      segundos previos que no se miden
+ *   mezcla=inicio:10,equipos:30,ordenar:10,buscar:25,detalles:25
+ *                        (api: api-equipos:30,api-estadisticas:20,api-buscar:25,api-detalles:25)
+ *   salida=resultado-carga.json
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class GeneradorCarga {
+    
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] NOMBRES_PERCENTILES = {"p50", "p90", "p99", "p999"};
+    private static final int TIEMPO_ESPERA_MS = 10_000;
+    private static final String MEZCLA_WEB = "inicio:10,equipos:30,ordenar:10,buscar:25,detalles:25";
+    private static final String MEZCLA_API = "api-equipos:30,api-estadisticas:20,api-buscar:25,api-detalles:25";
+    
+    private final Map<String, String> opciones;
+    private final Objetivo[] objetivos;
+    private final int[] pesosAcumulados;
+    private final HistogramaLatencia latencia = new HistogramaLatencia();
+    private final HistogramaLatencia latenciaServicio = new HistogramaLatencia();
+    private final Map<String, HistogramaLatencia> latenciaPorRuta = new LinkedHashMap<>();
+    private final Map<String, LongAdder> noExitosasPorRuta = new LinkedHashMap<>();
+    private final Map<Integer, LongAdder> codigos = new ConcurrentHashMap<>();
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder noEnviadas = new LongAdder();
+    private final LongAdder reconexiones = new LongAdder();
+    
+    private final int puerto;
+    private final boolean abierto;
+    private final int conexiones;
+    private final boolean persistente;
+    private final double tasa;
+    private final long duracionNanos;
+    private final long calentamientoNanos;
+    
+    private GeneradorCarga(Map<String, String> opciones) {
+        this.opciones = opciones;
+        this.puerto = Integer.parseInt(opciones.getOrDefault("puerto", "8080"));
+        String modo = opciones.getOrDefault("modo", "cerrado");
+        if (!modo.equals("cerrado") && !modo.equals("abierto")) {
+            throw new IllegalArgumentException("Modo desconocido: " + modo + " (cerrado | abierto)");
+        }
+        this.abierto = modo.equals("abierto");
+        this.conexiones = Integer.parseInt(opciones.getOrDefault("conexiones", "16"));
+        String keepalive = opciones.getOrDefault("keepalive", "si");
+        if (!keepalive.equals("si") && !keepalive.equals("no")) {
+            throw new IllegalArgumentException("Valor de keepalive desconocido: " + keepalive + " (si | no)");
+        }
+        this.persistente = keepalive.equals("si");
+        this.tasa = Double.parseDouble(opciones.getOrDefault("tasa", "1000"));
+        this.duracionNanos = (long) (Double.parseDouble(opciones.getOrDefault("duracion", "20")) * 1e9);
+        this.calentamientoNanos = (long) (Double.parseDouble(opciones.getOrDefault("calentamiento", "5")) * 1e9);
+        
+        String mezclaPorDefecto = esApi(opciones) ? MEZCLA_API : MEZCLA_WEB;
+        String[] partes = opciones.getOrDefault("mezcla", mezclaPorDefecto).split(",");
+        this.objetivos = new Objetivo[partes.length];
+        this.pesosAcumulados = new int[partes.length];
+        int acumulado = 0;
+        for (int i = 0; i < partes.length; i++) {
+            String[] nombreYPeso = partes[i].split(":");
+            objetivos[i] = crearObjetivo(nombreYPeso[0].trim(), persistente);
+            acumulado += Integer.parseInt(nombreYPeso[1].trim());
+            pesosAcumulados[i] = acumulado;
+            latenciaPorRuta.put(objetivos[i].patron, new HistogramaLatencia());
+            noExitosasPorRuta.put(objetivos[i].patron, new LongAdder());
+        }
+        if (acumulado <= 0) {
+            throw new IllegalArgumentException("La mezcla debe tener algún peso positivo");
+        }
+    }
+    
+    /**
+     * Método principal del generador de carga
+     * @param args opciones clave=valor (ver la documentación de la clase)
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (String argumento : args) {
+            int igual = argumento.indexOf('=');
+            if (igual <= 0) {
+                throw new IllegalArgumentException("Se esperaba clave=valor: " + argumento);
+            }
+            opciones.put(argumento.substring(0, igual), argumento.substring(igual + 1));
+        }
+        
+        ServidorWebCompleto servidor = null;
+        if (opciones.containsKey("servidor")) {
+            servidor = arrancarServidor(Integer.parseInt(opciones.getOrDefault("puerto", "8080")),
+                                        opciones.get("servidor"), esApi(opciones));
+        } else if (CatalogoEquipos.getInstance().obtenerCantidad() == 0) {
+            // El catálogo precargado es el mismo que sirve el servidor: de él salen IDs y nombres
+            CatalogoEquipos.getInstance().inicializar();
+        }
+        
+        GeneradorCarga generador = new GeneradorCarga(opciones);
+        try {
+            generador.ejecutar();
+        } finally {
+            if (servidor != null) {
+                servidor.detener(1000);
+            }
+        }
+    }
+    
+    /**
+     * @return true si la opción "aplicacion" pide la API JSON
+     * @throws IllegalArgumentException si la aplicación no es web ni api
+     */
+    private static boolean esApi(Map<String, String> opciones) {
+        String aplicacion = opciones.getOrDefault("aplicacion", "web");
+        if (!aplicacion.equals("web") && !aplicacion.equals("api")) {
+            throw new IllegalArgumentException("Aplicación desconocida: " + aplicacion + " (web | api)");
+        }
+        return aplicacion.equals("api");
+    }
+    
+    /**
+     * Arranca un servidor en este proceso y espera a que acepte conexiones.
+     * Todas las conexiones del generador salen de la misma IP, así que los límites
+     * de tasa se desactivan salvo que se hayan fijado con -D: si no, se mediría el limitador
+     */
+    private static ServidorWebCompleto arrancarServidor(int puerto, String motor, boolean api)
+            throws InterruptedException {
+        MotorServidor tipo = MotorServidor.valueOf(motor.trim().toUpperCase());
+        for (String clase : new String[] {"busqueda", "ordenar"}) {
+            if (System.getProperty("servidor.limite." + clase + ".tasa") == null) {
+                System.setProperty("servidor.limite." + clase + ".tasa", "0");
+            }
+        }
+        ServidorWebCompleto servidor = api ? new ServidorAPI(puerto, new ControladorWeb(), tipo)
+                                           : new ServidorWebCompleto(puerto, new ControladorWeb(), tipo);
+        Thread hilo = new Thread(servidor::iniciar, "servidor-local");
+        hilo.setDaemon(true);
+        hilo.start();
+        
+        long limite = System.nanoTime() + 10_000_000_000L;
+        boolean listo = false;
+        while (!listo && System.nanoTime() < limite) {
+            try {
+                new Socket("localhost", puerto).close();
+                listo = true;
+            } catch (IOException e) {
+                Thread.sleep(50);
+            }
+        }
+        if (!listo) {
+            throw new IllegalStateException("El servidor local no respondió en el puerto " + puerto);
+        }
+        return servidor;
+    }
+    
+    /**
+     * Lanza las conexiones, espera a que terminen e informa los resultados
+     */
+    private void ejecutar() throws IOException, InterruptedException {
+        System.out.printf("Modo %s, %d conexiones%s%s, %.0f s de calentamiento y %.0f s medidos%n",
+                          abierto ? "abierto" : "cerrado", conexiones, persistente ? "" : " sin keep-alive",
+                          abierto ? String.format(", %.0f solicitudes/s", tasa) : "",
+                          calentamientoNanos / 1e9, duracionNanos / 1e9);
+        
+        long inicio = System.nanoTime() + 100_000_000L;
+        long inicioMedicion = inicio + calentamientoNanos;
+        long fin = inicioMedicion + duracionNanos;
+        long[] ultimaRespuesta = new long[conexiones];
+        
+        List<Thread> hilos = new ArrayList<>();
+        for (int i = 0; i < conexiones; i++) {
+            int indice = i;
+            Thread hilo = new Thread(() -> ultimaRespuesta[indice] = cargar(indice, inicio, inicioMedicion, fin),
+                                     "carga-" + i);
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        
+        long ultima = inicioMedicion;
+        for (long instante : ultimaRespuesta) {
+            ultima = Math.max(ultima, instante);
+        }
+        informar((ultima - inicioMedicion) / 1e9);
+    }
+    
+    /**
+     * Bucle de una conexión
+     * @return instante de la última respuesta recibida
+     */
+    private long cargar(int indice, long inicio, long inicioMedicion, long fin) {
+        SplittableRandom azar = new SplittableRandom(indice * 0x9E3779B97F4A7C15L);
+        // En modo abierto cada conexión lleva su calendario, desfasado para repartir los envíos
+        long intervalo = abierto ? (long) (1e9 * conexiones / tasa) : 0;
+        long programada = inicio + intervalo * indice / conexiones;
+        // Si el servidor se atrasa mucho, se deja de enviar al doble de la duración
+        long limite = fin + duracionNanos;
+        long ultimaRespuesta = 0;
+        ClienteHttp cliente = null;
+        
+        while (programada < fin && System.nanoTime() < limite) {
+            Objetivo objetivo = elegir(azar);
+            LockSupport.parkNanos(programada - System.nanoTime());
+            long envio = System.nanoTime();
+            long referencia = abierto ? programada : envio;
+            try {
+                if (cliente == null) {
+                    cliente = new ClienteHttp(puerto);
+                }
+                int codigo = cliente.solicitar(objetivo.elegirSolicitud(azar));
+                ultimaRespuesta = System.nanoTime();
+                if (referencia >= inicioMedicion) {
+                    registrar(objetivo, codigo, ultimaRespuesta - referencia, ultimaRespuesta - envio);
+                }
+                if (cliente.debeCerrarse()) {
+                    cliente.cerrar();
+                    cliente = null;
+                    reconexiones.increment();
+                }
+            } catch (IOException e) {
+                if (referencia >= inicioMedicion) {
+                    errores.increment();
+                }
+                if (cliente != null) {
+                    cliente.cerrar();
+                    cliente = null;
+                }
+            }
+            programada = abierto ? programada + intervalo : System.nanoTime();
+        }
+        if (cliente != null) {
+            cliente.cerrar();
+        }
+        // Envíos del calendario que no llegaron a hacerse antes del límite
+        if (abierto && programada < fin) {
+            noEnviadas.add((fin - programada + intervalo - 1) / intervalo);
+        }
+        return ultimaRespuesta;
+    }
+    
+    private Objetivo elegir(SplittableRandom azar) {
+        int valor = azar.nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        int i = 0;
+        while (pesosAcumulados[i] <= valor) {
+            i++;
+        }
+        return objetivos[i];
+    }
+    
+    private void registrar(Objetivo objetivo, int codigo, long latenciaNanos, long servicioNanos) {
+        codigos.computeIfAbsent(codigo, c -> new LongAdder()).increment();
+        if (codigo < 200 || codigo >= 300) {
+            noExitosasPorRuta.get(objetivo.patron).increment();
+            return;
+        }
+        latencia.registrar(latenciaNanos / 1000);
+        latenciaServicio.registrar(servicioNanos / 1000);
+        latenciaPorRuta.get(objetivo.patron).registrar(latenciaNanos / 1000);
+    }
+    
+    private long contarNoExitosas() {
+        long total = 0;
+        for (LongAdder contador : noExitosasPorRuta.values()) {
+            total += contador.sum();
+        }
+        return total;
+    }
+    
+    /**
+     * Imprime el resumen y escribe el archivo de resultados
+     * @param segundosMedidos ventana medida, hasta la última respuesta recibida
+     */
+    private void informar(double segundosMedidos) throws IOException {
+        HistogramaLatencia.Foto total = latencia.fotografiar();
+        HistogramaLatencia.Foto servicio = latenciaServicio.fotografiar();
+        double rendimiento = segundosMedidos > 0 ? total.getTotal() / segundosMedidos : 0;
+        
+        System.out.printf("%d respuestas 2xx, %d otras respuestas, %d errores, %d no enviadas, %d reconexiones%n",
+                          total.getTotal(), contarNoExitosas(), errores.sum(), noEnviadas.sum(), reconexiones.sum());
+        System.out.printf("Rendimiento: %.1f respuestas 2xx/s%n", rendimiento);
+        if (contarNoExitosas() > 0) {
+            System.out.println("Respuestas por código: " + new TreeMap<>(codigos));
+        }
+        System.out.println("latencia (ms)            p50       p99      p999");
+        imprimirFila(abierto ? "corregida" : "total", total);
+        if (abierto) {
+            imprimirFila("servicio", servicio);
+        }
+        for (Map.Entry<String, HistogramaLatencia> ruta : latenciaPorRuta.entrySet()) {
+            imprimirFila(ruta.getKey(), ruta.getValue().fotografiar());
+        }
+        
+        Path salida = Path.of(opciones.getOrDefault("salida", "resultado-carga.json"));
+        try (Writer escritor = Files.newBufferedWriter(salida, StandardCharsets.UTF_8)) {
+            escritor.write(generarJSON(total, servicio, rendimiento, segundosMedidos));
+        }
+        System.out.println("Resultados en " + salida.toAbsolutePath());
+    }
+    
+    private static void imprimirFila(String nombre, HistogramaLatencia.Foto foto) {
+        System.out.printf("%-24s %8.3f  %8.3f  %8.3f%n", nombre, foto.cuantil(0.5) / 1000.0,
+                          foto.cuantil(0.99) / 1000.0, foto.cuantil(0.999) / 1000.0);
+    }
+    
+    private String generarJSON(HistogramaLatencia.Foto total, HistogramaLatencia.Foto servicio,
+                               double rendimiento, double segundosMedidos) {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"fecha\": \"").append(Instant.now()).append("\",\n");
+        json.append("  \"configuracion\": {");
+        boolean primero = true;
+        for (Map.Entry<String, String> opcion : opciones.entrySet()) {
+            json.append(primero ? "" : ", ").append('"').append(escapar(opcion.getKey())).append("\": \"")
+                .append(escapar(opcion.getValue())).append('"');
+            primero = false;
+        }
+        json.append("},\n");
+        json.append("  \"modo\": \"").append(abierto ? "abierto" : "cerrado").append("\",\n");
+        json.append("  \"conexiones\": ").append(conexiones).append(",\n");
+        if (abierto) {
+            json.append("  \"tasaObjetivo\": ").append(tasa).append(",\n");
+        }
+        json.append("  \"segundosMedidos\": ").append(String.format("%.3f", segundosMedidos)).append(",\n");
+        json.append("  \"respuestas\": ").append(total.getTotal()).append(",\n");
+        json.append("  \"noExitosas\": ").append(contarNoExitosas()).append(",\n");
+        json.append("  \"errores\": ").append(errores.sum()).append(",\n");
+        json.append("  \"noEnviadas\": ").append(noEnviadas.sum()).append(",\n");
+        json.append("  \"reconexiones\": ").append(reconexiones.sum()).append(",\n");
+        json.append("  \"rendimiento\": ").append(String.format("%.1f", rendimiento)).append(",\n");
+        json.append("  \"codigos\": {");
+        primero = true;
+        for (Map.Entry<Integer, LongAdder> codigo : new TreeMap<>(codigos).entrySet()) {
+            json.append(primero ? "" : ", ").append('"').append(codigo.getKey()).append("\": ")
+                .append(codigo.getValue().sum());
+            primero = false;
+        }
+        json.append("},\n");
+        json.append("  \"latenciaMs\": ").append(percentilesJSON(total)).append(",\n");
+        json.append("  \"latenciaServicioMs\": ").append(percentilesJSON(servicio)).append(",\n");
+        json.append("  \"rutas\": {\n");
+        primero = true;
+        for (Map.Entry<String, HistogramaLatencia> ruta : latenciaPorRuta.entrySet()) {
+            HistogramaLatencia.Foto foto = ruta.getValue().fotografiar();
+            json.append(primero ? "" : ",\n").append("    \"").append(escapar(ruta.getKey()))
+                .append("\": {\"respuestas\": ").append(foto.getTotal())
+                .append(", \"noExitosas\": ").append(noExitosasPorRuta.get(ruta.getKey()).sum())
+                .append(", \"latenciaMs\": ").append(percentilesJSON(foto)).append('}');
+            primero = false;
+        }
+        json.append("\n  }\n}\n");
+        return json.toString();
+    }
+    
+    private static String percentilesJSON(HistogramaLatencia.Foto foto) {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            json.append('"').append(NOMBRES_PERCENTILES[i]).append("\": ")
+                .append(foto.cuantil(PERCENTILES[i]) / 1000.0).append(", ");
+        }
+        double media = foto.getTotal() == 0 ? 0 : foto.getSumaMicros() / 1000.0 / foto.getTotal();
+        return json.append("\"media\": ").append(String.format("%.3f", media)).append('}').toString();
+    }
+    
+    private static String escapar(String texto) {
+        return texto.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+    
+    /**
+     * Crea el objetivo de un nombre de la mezcla; las rutas con parámetro toman
+     * los valores del catálogo precargado
+     * @param persistente false para pedir "Connection: close" en cada solicitud
+     */
+    private static Objetivo crearObjetivo(String nombre, boolean persistente) {
+        List<Equipo> equipos = CatalogoEquipos.getInstance().obtenerTodos();
+        List<String> rutas = new ArrayList<>();
+        switch (nombre) {
+            case "inicio":
+                return new Objetivo("/", List.of("/"), persistente);
+            case "equipos":
+                return new Objetivo("/equipos", List.of("/equipos"), persistente);
+            case "ordenar":
+                return new Objetivo("/ordenar", List.of("/ordenar"), persistente);
+            case "buscar":
+                // Búsqueda parcial: primera palabra del nombre de cada equipo
+                for (Equipo equipo : equipos) {
+                    String palabra = equipo.getNombre().split(" ")[0];
+                    rutas.add("/buscar/nombre/" + URLEncoder.encode(palabra, StandardCharsets.UTF_8).replace("+", "%20"));
+                }
+                return new Objetivo("/buscar/nombre/{nombre}", rutas, persistente);
+            case "detalles":
+                for (Equipo equipo : equipos) {
+                    rutas.add("/detalles/" + equipo.getId());
+                }
+                return new Objetivo("/detalles/{id}", rutas, persistente);
+            case "api-equipos":
+                return new Objetivo("/api/equipos", List.of("/api/equipos"), persistente);
+            case "api-estadisticas":
+                return new Objetivo("/api/estadisticas", List.of("/api/estadisticas"), persistente);
+            case "api-buscar":
+                for (Equipo equipo : equipos) {
+                    rutas.add("/api/buscar/id/" + equipo.getId());
+                }
+                return new Objetivo("/api/buscar/id/{id}", rutas, persistente);
+            case "api-detalles":
+                for (Equipo equipo : equipos) {
+                    rutas.add("/api/detalles/" + equipo.getId());
+                }
+                return new Objetivo("/api/detalles/{id}", rutas, persistente);
+            default:
+                throw new IllegalArgumentException("Ruta desconocida en la mezcla: " + nombre
+                        + " (inicio | equipos | ordenar | buscar | detalles"
+                        + " | api-equipos | api-estadisticas | api-buscar | api-detalles)");
+        }
+    }
+    
+    /**
+     * Patrón de ruta de la mezcla con las solicitudes HTTP ya serializadas
+     */
+    private static final class Objetivo {
+        
+        private final String patron;
+        private final byte[][] solicitudes;
+        
+        Objetivo(String patron, List<String> rutas, boolean persistente) {
+            if (rutas.isEmpty()) {
+                throw new IllegalStateException("El catálogo está vacío: no hay valores para " + patron);
+            }
+            this.patron = patron;
+            this.solicitudes = new byte[rutas.size()][];
+            for (int i = 0; i < rutas.size(); i++) {
+                solicitudes[i] = ("GET " + rutas.get(i) + " HTTP/1.1\r\nHost: localhost\r\n"
+                        + (persistente ? "" : "Connection: close\r\n") + "\r\n")
+                        .getBytes(StandardCharsets.US_ASCII);
+            }
+        }
+        
+        byte[] elegirSolicitud(SplittableRandom azar) {
+            return solicitudes[solicitudes.length == 1 ? 0 : azar.nextInt(solicitudes.length)];
+        }
+    }
+    
+    /**
+     * Conexión HTTP/1.1 keep-alive mínima: envía una solicitud y consume la
+     * respuesta completa, con Content-Length o Transfer-Encoding: chunked
+     */
+    private static final class ClienteHttp {
+        
+        private final Socket socket;
+        private final InputStream entrada;
+        private final OutputStream salida;
+        private final StringBuilder linea = new StringBuilder(128);
+        private boolean cerrarDespues;
+        
+        ClienteHttp(int puerto) throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(TIEMPO_ESPERA_MS);
+            socket.connect(new InetSocketAddress("localhost", puerto), TIEMPO_ESPERA_MS);
+            entrada = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+            salida = socket.getOutputStream();
+        }
+        
+        /**
+         * @return código de estado de la respuesta
+         */
+        int solicitar(byte[] solicitud) throws IOException {
+            salida.write(solicitud);
+            salida.flush();
+            
+            String estado = leerLinea();
+            if (!estado.startsWith("HTTP/1.") || estado.length() < 12) {
+                throw new IOException("Línea de estado inválida: " + estado);
+            }
+            int codigo = Integer.parseInt(estado.substring(9, 12));
+            long longitud = 0;
+            boolean fragmentado = false;
+            cerrarDespues = false;
+            String encabezado = leerLinea();
+            while (!encabezado.isEmpty()) {
+                int dosPuntos = encabezado.indexOf(':');
+                String nombre = dosPuntos < 0 ? encabezado : encabezado.substring(0, dosPuntos);
+                String valor = dosPuntos < 0 ? "" : encabezado.substring(dosPuntos + 1).trim();
+                if (nombre.equalsIgnoreCase("Content-Length")) {
+                    longitud = Long.parseLong(valor);
+                } else if (nombre.equalsIgnoreCase("Transfer-Encoding")) {
+                    fragmentado = valor.equalsIgnoreCase("chunked");
+                } else if (nombre.equalsIgnoreCase("Connection")) {
+                    cerrarDespues = valor.equalsIgnoreCase("close");
+                }
+                encabezado = leerLinea();
+            }
+            
+            if (fragmentado) {
+                long fragmento = leerTamanoFragmento();
+                while (fragmento > 0) {
+                    saltar(fragmento);
+                    leerLinea();
+                    fragmento = leerTamanoFragmento();
+                }
+                // Trailers opcionales hasta la línea vacía
+                String trailer = leerLinea();
+                while (!trailer.isEmpty()) {
+                    trailer = leerLinea();
+                }
+            } else {
+                saltar(longitud);
+            }
+            return codigo;
+        }
+        
+        boolean debeCerrarse() {
+            return cerrarDespues;
+        }
+        
+        void cerrar() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // La conexión se descarta de todos modos
+            }
+        }
+        
+        private long leerTamanoFragmento() throws IOException {
+            String tamano = leerLinea();
+            int extension = tamano.indexOf(';');
+            return Long.parseLong(extension < 0 ? tamano.trim() : tamano.substring(0, extension).trim(), 16);
+        }
+        
+        private String leerLinea() throws IOException {
+            linea.setLength(0);
+            int b = entrada.read();
+            while (b != '\n') {
+                if (b < 0) {
+                    throw new EOFException("Conexión cerrada por el servidor");
+                }
+                if (b != '\r') {
+                    linea.append((char) b);
+                }
+                b = entrada.read();
+            }
+            return linea.toString();
+        }
+        
+        private void saltar(long bytes) throws IOException {
+            long restantes = bytes;
+            while (restantes > 0) {
+                long saltados = entrada.skip(restantes);
+                if (saltados <= 0) {
+                    if (entrada.read() < 0) {
+                        throw new EOFException("Cuerpo incompleto");
+                    }
+                    saltados = 1;
+                }
+                restantes -= saltados;
+            }
+        }
+    }
+}
@@ -36,4 +36,13 @@ public interface GeneradorRespuesta {
     String generarRespuestaExito(String mensaje, Object data);
     String generarRespuestaError(String mensaje);
     String generarRespuestaLista(String mensaje, List<?> items);
+    
+    /**
+     * Genera la respuesta de una página de resultados con los cursores para
+     * pedir la siguiente ("next") y la anterior ("prev")
+     * @param mensaje mensaje descriptivo
+     * @param pagina página de resultados
+     * @return respuesta con los elementos, el total y los cursores
+     */
+    String generarRespuestaPagina(String mensaje, Pagina<?> pagina);
 }
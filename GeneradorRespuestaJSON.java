@@ -94,16 +94,78 @@ public class GeneradorRespuestaJSON implements GeneradorRespuesta {
         return json.toString();
     }
     
+    @Override
+    public String generarRespuestaPagina(String mensaje, Pagina<?> pagina) {
+        List<?> items = pagina.getElementos();
+        StringBuilder json = new StringBuilder();
+        json.append(String.format(
+            "{\"success\":true,\"message\":\"%s (%d de %d elemento(s))\",\"data\":[",
+            escaparJSON(mensaje), items.size(), pagina.getTotal()
+        ));
+        
+        for (int i = 0; i < items.size(); i++) {
+            Object item = items.get(i);
+            if (item instanceof Representable) {
+                json.append(((Representable) item).toJSON());
+            } else {
+                json.append("\"").append(escaparJSON(item.toString())).append("\"");
+            }
+            
+            if (i < items.size() - 1) {
+                json.append(",");
+            }
+        }
+        
+        json.append("],\"total\":").append(pagina.getTotal());
+        json.append(",\"next\":").append(cursorJSON(pagina.getCursorSiguiente()));
+        json.append(",\"prev\":").append(cursorJSON(pagina.getCursorAnterior()));
+        json.append("}");
+        return json.toString();
+    }
+    
+    private String cursorJSON(String cursor) {
+        return cursor == null ? "null" : "\"" + escaparJSON(cursor) + "\"";
+    }
+    
     /**
-     * Escapa caracteres especiales para JSON
-     * @param texto texto a escapar
+     * Escapa un texto para ponerlo entre comillas en JSON (RFC 8259): comillas,
+     * barra invertida y caracteres de control, además de U+2028 y U+2029, que
+     * JavaScript no admite sin escapar dentro de una cadena
+     * @param texto texto a escapar, que puede venir del cliente
      * @return texto escapado
      */
     private String escaparJSON(String texto) {
         if (texto == null) return "";
-        return texto.replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
+        int i = 0;
+        while (i < texto.length() && !requiereEscape(texto.charAt(i))) {
+            i++;
+        }
+        if (i == texto.length()) {
+            return texto;
+        }
+        StringBuilder escapado = new StringBuilder(texto.length() + 16).append(texto, 0, i);
+        for (; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"': escapado.append("\\\""); break;
+                case '\\': escapado.append("\\\\"); break;
+                case '\n': escapado.append("\\n"); break;
+                case '\r': escapado.append("\\r"); break;
+                case '\t': escapado.append("\\t"); break;
+                case '\b': escapado.append("\\b"); break;
+                case '\f': escapado.append("\\f"); break;
+                default:
+                    if (requiereEscape(c)) {
+                        escapado.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escapado.append(c);
+                    }
+            }
+        }
+        return escapado.toString();
+    }
+    
+    private static boolean requiereEscape(char c) {
+        return c < 0x20 || c == '"' || c == '\\' || c == 0x2028 || c == 0x2029;
     }
 }
@@ -0,0 +1,147 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sockets de escucha del servidor en un mismo puerto, uno por hilo aceptador.
+ * Con más de un aceptador cada socket se abre con SO_REUSEPORT y es el núcleo del
+ * sistema operativo quien reparte las conexiones entrantes entre ellos, para que
+ * varios núcleos acepten conexiones nuevas a la vez. La ganancia frente a un solo
+ * aceptador no está medida todavía, por eso el valor por defecto sigue siendo 1.
+ * Si la plataforma no admite SO_REUSEPORT se escucha con un solo socket.
+ * Cumple con SRP: Solo abre, cuenta y cierra los sockets; quién atiende cada
+ * conexión lo decide el motor de E/S
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class GrupoAceptadores {
+    
+    private final int puerto;
+    private final ServerSocketChannel[] canales;
+    private final LongAdder[] aceptadas;
+    
+    /**
+     * Constructor del grupo; los sockets se abren después con abrir()
+     * @param puerto puerto en el que escucharán todos los sockets
+     * @param cantidad aceptadores deseados
+     */
+    public GrupoAceptadores(int puerto, int cantidad) {
+        if (cantidad < 1) {
+            throw new IllegalArgumentException("Se requiere al menos un aceptador");
+        }
+        if (cantidad > 1 && !admiteReutilizarPuerto()) {
+            System.err.println("SO_REUSEPORT no está disponible en esta plataforma; se usará un solo aceptador");
+            cantidad = 1;
+        }
+        this.puerto = puerto;
+        this.canales = new ServerSocketChannel[cantidad];
+        this.aceptadas = new LongAdder[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            aceptadas[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Crea el grupo con la cantidad de la propiedad de sistema "servidor.aceptadores" (por defecto 1)
+     * @param puerto puerto en el que escuchará el servidor
+     * @return grupo de aceptadores configurado
+     */
+    public static GrupoAceptadores desdePropiedades(int puerto) {
+        return new GrupoAceptadores(puerto, Integer.getInteger("servidor.aceptadores", 1));
+    }
+    
+    private static boolean admiteReutilizarPuerto() {
+        try (ServerSocketChannel prueba = ServerSocketChannel.open()) {
+            return prueba.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Abre y enlaza los sockets de escucha en modo bloqueante.
+     * Con un solo aceptador no se pide SO_REUSEPORT, de modo que un puerto
+     * ocupado por otro proceso se sigue detectando al arrancar
+     * @throws IOException si algún socket no se puede enlazar; los ya abiertos se cierran
+     */
+    public void abrir() throws IOException {
+        try {
+            for (int i = 0; i < canales.length; i++) {
+                canales[i] = ServerSocketChannel.open();
+                if (canales.length > 1) {
+                    canales[i].setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                }
+                canales[i].bind(new InetSocketAddress(puerto));
+            }
+        } catch (IOException e) {
+            cerrar();
+            throw e;
+        }
+    }
+    
+    /**
+     * Cierra todos los sockets de escucha; los hilos bloqueados en accept() despiertan con error
+     */
+    public void cerrar() {
+        for (ServerSocketChannel canal : canales) {
+            try {
+                if (canal != null && canal.isOpen()) {
+                    canal.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Error al cerrar socket de escucha: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Registra una conexión aceptada por un aceptador
+     * @param indice índice del aceptador
+     */
+    public void registrarAceptada(int indice) {
+        aceptadas[indice].increment();
+    }
+    
+    /**
+     * @param indice índice del aceptador
+     * @return socket de escucha del aceptador, null antes de abrir()
+     */
+    public ServerSocketChannel getCanal(int indice) { return canales[indice]; }
+    
+    /** @return cantidad de aceptadores efectiva */
+    public int getCantidad() { return canales.length; }
+    
+    /**
+     * @param indice índice del aceptador
+     * @return conexiones aceptadas por ese aceptador
+     */
+    public long getAceptadas(int indice) { return aceptadas[indice].sum(); }
+}
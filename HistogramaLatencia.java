@@ -0,0 +1,202 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias log-lineal (al estilo HDR) de memoria fija.
+ * Cada octava [2^e, 2^(e+1)) de microsegundos se divide en 8 sub-cubetas, así que
+ * el error relativo de cualquier cuantil es menor a 1/8, desde 1 µs hasta horas,
+ * con 272 cubetas en total. Los límites de octava son exactos, lo que permite
+ * exportar cubetas acumuladas "le" en potencias de dos sin aproximar.
+ * Para no competir por la misma línea de caché, cada hilo suma en una franja
+ * según su identificador (como LongAdder) y la lectura suma todas las franjas.
+ * Cumple con SRP: Solo acumula y resume latencias, no sabe de rutas ni de formatos
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class HistogramaLatencia {
+    
+    private static final int BITS_SUBCUBETA = 3;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int MAX_EXPONENTE = 35;
+    
+    /** Cubetas de cada franja, incluida la primera octava lineal */
+    public static final int CUBETAS = (MAX_EXPONENTE - BITS_SUBCUBETA + 2) * SUBCUBETAS;
+    
+    // Cubetas más la suma de latencias, redondeado a 8 longs para separar las franjas por línea de caché
+    private static final int ANCHO_FRANJA = (CUBETAS + 1 + 7) & ~7;
+    private static final int INDICE_SUMA = CUBETAS;
+    
+    private final AtomicLongArray franjas;
+    private final int mascaraFranjas;
+    
+    /**
+     * Constructor con tantas franjas como el doble de procesadores, en potencia de dos
+     */
+    public HistogramaLatencia() {
+        this(Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1);
+    }
+    
+    /**
+     * Constructor con un número explícito de franjas
+     * @param numeroFranjas franjas de contadores, potencia de dos
+     */
+    public HistogramaLatencia(int numeroFranjas) {
+        if (numeroFranjas < 1 || Integer.bitCount(numeroFranjas) != 1) {
+            throw new IllegalArgumentException("Las franjas deben ser una potencia de dos: " + numeroFranjas);
+        }
+        this.franjas = new AtomicLongArray(numeroFranjas * ANCHO_FRANJA);
+        this.mascaraFranjas = numeroFranjas - 1;
+    }
+    
+    /**
+     * Registra una latencia
+     * @param micros latencia en microsegundos
+     */
+    public void registrar(long micros) {
+        int base = ((int) Thread.currentThread().threadId() & mascaraFranjas) * ANCHO_FRANJA;
+        franjas.getAndIncrement(base + indice(micros));
+        franjas.getAndAdd(base + INDICE_SUMA, Math.max(0, micros));
+    }
+    
+    /**
+     * Cubeta de un valor. Se indexa por valor - 1 para que cada cubeta incluya su
+     * límite superior, como exige la semántica "le" (menor o igual)
+     */
+    static int indice(long micros) {
+        long x = micros - 1;
+        if (x < 2 * SUBCUBETAS) {
+            return x < 0 ? 0 : (int) x;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(x);
+        if (exponente > MAX_EXPONENTE) {
+            return CUBETAS - 1;
+        }
+        int sub = (int) (x >>> (exponente - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return (exponente - BITS_SUBCUBETA + 1) * SUBCUBETAS + sub;
+    }
+    
+    /**
+     * Mayor valor, en microsegundos, que cae en una cubeta
+     * @param indice índice de la cubeta
+     * @return límite superior inclusivo
+     */
+    static long limiteSuperior(int indice) {
+        if (indice < 2 * SUBCUBETAS) {
+            return indice + 1;
+        }
+        int exponente = indice / SUBCUBETAS + BITS_SUBCUBETA - 1;
+        int sub = indice % SUBCUBETAS;
+        return (long) (SUBCUBETAS + sub + 1) << (exponente - BITS_SUBCUBETA);
+    }
+    
+    /**
+     * Cantidad de cubetas cuyos valores son todos menores o iguales a 2^k microsegundos
+     * @param k exponente, entre 4 y 36
+     * @return número de cubetas desde el inicio
+     */
+    static int cubetasHastaPotencia(int k) {
+        return (k - BITS_SUBCUBETA + 1) * SUBCUBETAS;
+    }
+    
+    /**
+     * Suma todas las franjas en una foto coherente para exportarla
+     * @return foto del histograma
+     */
+    public Foto fotografiar() {
+        long[] cubetas = new long[CUBETAS];
+        long suma = 0;
+        for (int base = 0; base < franjas.length(); base += ANCHO_FRANJA) {
+            for (int i = 0; i < CUBETAS; i++) {
+                cubetas[i] += franjas.get(base + i);
+            }
+            suma += franjas.get(base + INDICE_SUMA);
+        }
+        return new Foto(cubetas, suma);
+    }
+    
+    /**
+     * Conteos de un instante; la cuenta total sale de las propias cubetas
+     * para que siempre coincida con la cubeta "+Inf"
+     */
+    public static final class Foto {
+        
+        private final long[] cubetas;
+        private final long sumaMicros;
+        private final long total;
+        
+        private Foto(long[] cubetas, long sumaMicros) {
+            this.cubetas = cubetas;
+            this.sumaMicros = sumaMicros;
+            long cuenta = 0;
+            for (long c : cubetas) {
+                cuenta += c;
+            }
+            this.total = cuenta;
+        }
+        
+        /**
+         * Valores registrados menores o iguales a 2^k microsegundos
+         * @param k exponente de la potencia de dos, entre 4 y 36
+         * @return conteo acumulado
+         */
+        public long acumuladoHastaPotencia(int k) {
+            long acumulado = 0;
+            int limite = Math.min(CUBETAS, cubetasHastaPotencia(k));
+            for (int i = 0; i < limite; i++) {
+                acumulado += cubetas[i];
+            }
+            return acumulado;
+        }
+        
+        /**
+         * Estima un cuantil con el límite superior de la cubeta que lo contiene
+         * @param q cuantil entre 0 y 1
+         * @return latencia en microsegundos, 0 si no hay registros
+         */
+        public long cuantil(double q) {
+            if (total == 0) {
+                return 0;
+            }
+            long objetivo = Math.max(1, (long) Math.ceil(q * total));
+            long acumulado = 0;
+            for (int i = 0; i < CUBETAS; i++) {
+                acumulado += cubetas[i];
+                if (acumulado >= objetivo) {
+                    return limiteSuperior(i);
+                }
+            }
+            return limiteSuperior(CUBETAS - 1);
+        }
+        
+        /** @return cantidad de latencias registradas */
+        public long getTotal() { return total; }
+        
+        /** @return suma de las latencias en microsegundos */
+        public long getSumaMicros() { return sumaMicros; }
+    }
+}
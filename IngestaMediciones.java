@@ -0,0 +1,508 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Receptor del cuerpo de POST /mediciones/{id}: interpreta mediciones en NDJSON
+ * o CSV a medida que llegan del socket, sin acumular el cuerpo. Cada línea
+ * completa se interpreta directamente sobre el buffer recibido (solo las que
+ * quedan partidas entre dos lecturas se copian a un buffer de línea) y los
+ * números se convierten desde los bytes, sin crear cadenas, a lotes de arreglos
+ * primitivos que se entregan al AlmacenMediciones.
+ * 
+ * Formatos por Content-Type:
+ *   application/x-ndjson  un objeto por línea: {"marca":1700000000000,"valor":9.81};
+ *                         "marca" (ms) es opcional y los demás campos se ignoran
+ *   text/csv              "marca,valor" o solo "valor" por línea; una primera línea
+ *                         no numérica se toma como encabezado
+ * Sin marca se usa el instante de llegada. Las líneas inválidas se cuentan y se saltan.
+ * Cumple con SRP: Solo parsea y agrupa; el enmarcado lo resuelve DecodificadorCuerpo
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class IngestaMediciones implements ReceptorCuerpo {
+    
+    /** Mediciones que se acumulan antes de entregarlas al almacén */
+    private static final int LOTE = 4096;
+    /** Longitud máxima de una línea; las más largas se rechazan */
+    private static final int LINEA_MAXIMA = 4096;
+    private static final byte[] CLAVE_MARCA = "marca".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLAVE_VALOR = "valor".getBytes(StandardCharsets.US_ASCII);
+    private static final double[] POTENCIAS_DIEZ = new double[23];
+    
+    static {
+        POTENCIAS_DIEZ[0] = 1;
+        for (int i = 1; i < POTENCIAS_DIEZ.length; i++) {
+            POTENCIAS_DIEZ[i] = POTENCIAS_DIEZ[i - 1] * 10;
+        }
+    }
+    
+    /**
+     * Formatos de cuerpo admitidos
+     */
+    public enum Formato {
+        NDJSON, CSV;
+        
+        /**
+         * Obtiene el formato de un Content-Type, ignorando sus parámetros
+         * @param tipo valor del encabezado Content-Type
+         * @return formato correspondiente, o null si no se admite
+         */
+        public static Formato de(String tipo) {
+            if (tipo == null) {
+                return null;
+            }
+            int parametros = tipo.indexOf(';');
+            String medio = (parametros < 0 ? tipo : tipo.substring(0, parametros)).trim().toLowerCase(Locale.ROOT);
+            switch (medio) {
+                case "application/x-ndjson":
+                case "application/ndjson":
+                case "application/jsonl":
+                case "application/json":
+                    return NDJSON;
+                case "text/csv":
+                    return CSV;
+                default:
+                    return null;
+            }
+        }
+    }
+    
+    private final String id;
+    private final Formato formato;
+    private final AlmacenMediciones almacen;
+    private final byte[] linea = new byte[LINEA_MAXIMA];
+    private final long[] marcas = new long[LOTE];
+    private final double[] valores = new double[LOTE];
+    private int longitudLinea;
+    private boolean lineaDesbordada;
+    private int enLote;
+    private long lineas;
+    private long aceptadas;
+    private long rechazadas;
+    private long primeraRechazada;
+    private long bytes;
+    private long inicioNanos;
+    private long finNanos;
+    private long llegadaMs;
+    private double numero;
+    
+    /**
+     * Constructor de la ingesta
+     * @param id ID del equipo al que pertenecen las mediciones
+     * @param formato formato del cuerpo
+     * @param almacen almacén donde se guardan los lotes
+     */
+    public IngestaMediciones(String id, Formato formato, AlmacenMediciones almacen) {
+        this.id = id;
+        this.formato = formato;
+        this.almacen = almacen;
+    }
+    
+    @Override
+    public void recibir(ByteBuffer datos) {
+        if (inicioNanos == 0) {
+            inicioNanos = System.nanoTime();
+        }
+        llegadaMs = System.currentTimeMillis();
+        bytes += datos.remaining();
+        if (!datos.hasArray()) {
+            byte[] copia = new byte[datos.remaining()];
+            datos.get(copia);
+            recibir(ByteBuffer.wrap(copia));
+            return;
+        }
+        byte[] arreglo = datos.array();
+        int i = datos.arrayOffset() + datos.position();
+        int limite = datos.arrayOffset() + datos.limit();
+        while (i < limite) {
+            int finLinea = i;
+            while (finLinea < limite && arreglo[finLinea] != '\n') {
+                finLinea++;
+            }
+            if (finLinea == limite) {
+                acumular(arreglo, i, limite - i);
+                break;
+            }
+            if (longitudLinea == 0 && !lineaDesbordada) {
+                // La línea entera está en el buffer recibido: se interpreta sin copiarla
+                procesarLinea(arreglo, i, finLinea);
+            } else {
+                acumular(arreglo, i, finLinea - i);
+                procesarLinea(linea, 0, longitudLinea);
+            }
+            longitudLinea = 0;
+            lineaDesbordada = false;
+            i = finLinea + 1;
+        }
+        datos.position(datos.limit());
+    }
+    
+    @Override
+    public void terminar() {
+        if (longitudLinea > 0 || lineaDesbordada) {
+            // Última línea sin salto final
+            procesarLinea(linea, 0, longitudLinea);
+            longitudLinea = 0;
+            lineaDesbordada = false;
+        }
+        vaciarLote();
+        finNanos = System.nanoTime();
+        almacen.registrarIngesta(rechazadas, bytes);
+    }
+    
+    /**
+     * Guarda el tramo de una línea partida entre lecturas
+     */
+    private void acumular(byte[] origen, int desde, int cantidad) {
+        if (lineaDesbordada || longitudLinea + cantidad > LINEA_MAXIMA) {
+            lineaDesbordada = true;
+            return;
+        }
+        System.arraycopy(origen, desde, linea, longitudLinea, cantidad);
+        longitudLinea += cantidad;
+    }
+    
+    private void procesarLinea(byte[] b, int desde, int hasta) {
+        if (hasta > desde && b[hasta - 1] == '\r') {
+            hasta--;
+        }
+        int inicio = saltarEspacios(b, desde, hasta);
+        if (inicio == hasta && !lineaDesbordada) {
+            return;
+        }
+        lineas++;
+        boolean valida = !lineaDesbordada
+            && (formato == Formato.CSV ? interpretarCSV(b, inicio, hasta) : interpretarJSON(b, inicio, hasta));
+        if (!valida) {
+            if (formato == Formato.CSV && lineas == 1 && !lineaDesbordada && esEncabezado(b[inicio])) {
+                return;
+            }
+            rechazadas++;
+            if (primeraRechazada == 0) {
+                primeraRechazada = lineas;
+            }
+        }
+    }
+    
+    private static boolean esEncabezado(byte primero) {
+        return Character.isLetter(primero) || primero == '"';
+    }
+    
+    /**
+     * Interpreta "valor" o "marca,valor"; las columnas adicionales se ignoran
+     */
+    private boolean interpretarCSV(byte[] b, int desde, int hasta) {
+        int coma = buscar(b, desde, hasta, (byte) ',');
+        if (coma < 0) {
+            if (!campoNumerico(b, desde, hasta)) {
+                return false;
+            }
+            agregar(llegadaMs, numero);
+            return true;
+        }
+        if (!campoNumerico(b, desde, coma) || !esEntero(numero)) {
+            return false;
+        }
+        long marca = (long) numero;
+        int finValor = buscar(b, coma + 1, hasta, (byte) ',');
+        if (!campoNumerico(b, coma + 1, finValor < 0 ? hasta : finValor)) {
+            return false;
+        }
+        agregar(marca, numero);
+        return true;
+    }
+    
+    /**
+     * @return true si el campo, sin espacios alrededor, es exactamente un número
+     */
+    private boolean campoNumerico(byte[] b, int desde, int hasta) {
+        int fin = leerNumero(b, saltarEspacios(b, desde, hasta), hasta);
+        return fin >= 0 && saltarEspacios(b, fin, hasta) == hasta;
+    }
+    
+    /**
+     * Interpreta un objeto JSON plano buscando "marca" y "valor" en su primer nivel
+     */
+    private boolean interpretarJSON(byte[] b, int desde, int hasta) {
+        if (b[desde] != '{') {
+            return false;
+        }
+        long marca = llegadaMs;
+        double valor = 0;
+        boolean conValor = false;
+        int i = saltarEspacios(b, desde + 1, hasta);
+        if (i < hasta && b[i] == '}') {
+            return false;
+        }
+        while (true) {
+            if (i >= hasta || b[i] != '"') {
+                return false;
+            }
+            int inicioClave = i + 1;
+            int finClave = finCadena(b, inicioClave, hasta);
+            if (finClave < 0) {
+                return false;
+            }
+            i = saltarEspacios(b, finClave + 1, hasta);
+            if (i >= hasta || b[i] != ':') {
+                return false;
+            }
+            i = saltarEspacios(b, i + 1, hasta);
+            if (esClave(b, inicioClave, finClave, CLAVE_VALOR)) {
+                i = leerNumero(b, i, hasta);
+                valor = numero;
+                conValor = true;
+            } else if (esClave(b, inicioClave, finClave, CLAVE_MARCA)) {
+                i = leerNumero(b, i, hasta);
+                if (i >= 0 && !esEntero(numero)) {
+                    return false;
+                }
+                marca = (long) numero;
+            } else {
+                i = saltarValor(b, i, hasta);
+            }
+            if (i < 0) {
+                return false;
+            }
+            i = saltarEspacios(b, i, hasta);
+            if (i < hasta && b[i] == ',') {
+                i = saltarEspacios(b, i + 1, hasta);
+            } else if (i < hasta && b[i] == '}') {
+                break;
+            } else {
+                return false;
+            }
+        }
+        if (!conValor || saltarEspacios(b, i + 1, hasta) != hasta) {
+            return false;
+        }
+        agregar(marca, valor);
+        return true;
+    }
+    
+    private void agregar(long marca, double valor) {
+        marcas[enLote] = marca;
+        valores[enLote] = valor;
+        enLote++;
+        aceptadas++;
+        if (enLote == LOTE) {
+            vaciarLote();
+        }
+    }
+    
+    private void vaciarLote() {
+        almacen.agregar(id, marcas, valores, enLote);
+        enLote = 0;
+    }
+    
+    /**
+     * Lee un número decimal desde los bytes y lo deja en "numero". Con hasta 15 cifras
+     * significativas y un exponente decimal de hasta 22 el resultado es exacto con una
+     * sola multiplicación o división; los demás casos se delegan en Double.parseDouble
+     * @return índice siguiente al número, o -1 si no hay un número válido y finito
+     */
+    private int leerNumero(byte[] b, int desde, int hasta) {
+        int i = desde;
+        boolean negativo = false;
+        if (i < hasta && (b[i] == '-' || b[i] == '+')) {
+            negativo = b[i] == '-';
+            i++;
+        }
+        long mantisa = 0;
+        int significativas = 0;
+        int exponente = 0;
+        boolean truncada = false;
+        boolean conDigitos = false;
+        while (i < hasta && b[i] >= '0' && b[i] <= '9') {
+            conDigitos = true;
+            if (significativas < 18) {
+                mantisa = mantisa * 10 + (b[i] - '0');
+                if (mantisa != 0) {
+                    significativas++;
+                }
+            } else {
+                exponente++;
+                truncada = true;
+            }
+            i++;
+        }
+        if (i < hasta && b[i] == '.') {
+            i++;
+            while (i < hasta && b[i] >= '0' && b[i] <= '9') {
+                conDigitos = true;
+                if (significativas < 18) {
+                    mantisa = mantisa * 10 + (b[i] - '0');
+                    if (mantisa != 0) {
+                        significativas++;
+                    }
+                    exponente--;
+                } else {
+                    truncada = true;
+                }
+                i++;
+            }
+        }
+        if (!conDigitos) {
+            return -1;
+        }
+        if (i < hasta && (b[i] == 'e' || b[i] == 'E')) {
+            i++;
+            boolean exponenteNegativo = false;
+            if (i < hasta && (b[i] == '-' || b[i] == '+')) {
+                exponenteNegativo = b[i] == '-';
+                i++;
+            }
+            int inicioExponente = i;
+            int valorExponente = 0;
+            while (i < hasta && b[i] >= '0' && b[i] <= '9') {
+                valorExponente = Math.min(valorExponente * 10 + (b[i] - '0'), 100_000);
+                i++;
+            }
+            if (i == inicioExponente) {
+                return -1;
+            }
+            exponente += exponenteNegativo ? -valorExponente : valorExponente;
+        }
+        double resultado;
+        if (!truncada && significativas <= 15 && exponente >= -22 && exponente <= 22) {
+            resultado = exponente >= 0 ? mantisa * POTENCIAS_DIEZ[exponente] : mantisa / POTENCIAS_DIEZ[-exponente];
+            resultado = negativo ? -resultado : resultado;
+        } else {
+            resultado = Double.parseDouble(new String(b, desde, i - desde, StandardCharsets.ISO_8859_1));
+        }
+        if (!Double.isFinite(resultado)) {
+            return -1;
+        }
+        numero = resultado;
+        return i;
+    }
+    
+    private static boolean esEntero(double valor) {
+        return valor == Math.rint(valor) && Math.abs(valor) <= Long.MAX_VALUE;
+    }
+    
+    private static int saltarEspacios(byte[] b, int desde, int hasta) {
+        int i = desde;
+        while (i < hasta && (b[i] == ' ' || b[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static int buscar(byte[] b, int desde, int hasta, byte objetivo) {
+        for (int i = desde; i < hasta; i++) {
+            if (b[i] == objetivo) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * @return índice de las comillas que cierran la cadena, -1 si no cierra en la línea
+     */
+    private static int finCadena(byte[] b, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            if (b[i] == '\\') {
+                i++;
+            } else if (b[i] == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static boolean esClave(byte[] b, int desde, int hasta, byte[] clave) {
+        if (hasta - desde != clave.length) {
+            return false;
+        }
+        for (int i = 0; i < clave.length; i++) {
+            if (b[desde + i] != clave[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Salta un valor JSON que no interesa: cadena, literal, número, objeto o arreglo anidado
+     * @return índice siguiente al valor, -1 si está mal formado
+     */
+    private static int saltarValor(byte[] b, int desde, int hasta) {
+        int profundidad = 0;
+        int i = desde;
+        while (i < hasta) {
+            byte c = b[i];
+            if (c == '"') {
+                i = finCadena(b, i + 1, hasta);
+                if (i < 0) {
+                    return -1;
+                }
+                if (profundidad == 0) {
+                    return i + 1;
+                }
+            } else if (c == '{' || c == '[') {
+                profundidad++;
+            } else if (c == '}' || c == ']') {
+                if (profundidad == 0) {
+                    return i > desde ? i : -1;
+                }
+                if (--profundidad == 0) {
+                    return i + 1;
+                }
+            } else if (profundidad == 0 && (c == ',' || c == ' ' || c == '\t')) {
+                return i > desde ? i : -1;
+            }
+            i++;
+        }
+        return profundidad == 0 && i > desde ? i : -1;
+    }
+    
+    /**
+     * Resume la ingesta terminada: conteos y rendimiento desde el primer byte del cuerpo
+     * @return objeto JSON con el resultado
+     */
+    public String resumenJSON() {
+        double segundos = inicioNanos == 0 ? 0 : (finNanos - inicioNanos) / 1e9;
+        return String.format(Locale.ROOT,
+            "{\"id\":\"%s\",\"formato\":\"%s\",\"lineas\":%d,\"aceptadas\":%d,\"rechazadas\":%d,"
+            + "\"primeraRechazada\":%s,\"bytes\":%d,\"segundos\":%.6f,"
+            + "\"medicionesPorSegundo\":%.1f,\"megabytesPorSegundo\":%.2f}",
+            id, formato.name().toLowerCase(Locale.ROOT), lineas, aceptadas, rechazadas,
+            primeraRechazada == 0 ? "null" : Long.toString(primeraRechazada), bytes, segundos,
+            segundos > 0 ? aceptadas / segundos : 0.0, segundos > 0 ? bytes / segundos / 1e6 : 0.0);
+    }
+    
+    /** @return mediciones aceptadas en esta ingesta */
+    public long getAceptadas() { return aceptadas; }
+    
+    /** @return líneas rechazadas en esta ingesta */
+    public long getRechazadas() { return rechazadas; }
+}
@@ -0,0 +1,246 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lector de solicitudes HTTP sobre un flujo bloqueante.
+ * Trabaja con bytes para poder leer o descartar cuerpos sin desincronizar
+ * las solicitudes siguientes de la misma conexión (pipelining).
+ * Aplica los límites de tamaño de línea, tamaño de cabecera y plazo de llegada
+ * para no retener hilos ni memoria con clientes lentos o abusivos. Con el socket,
+ * cada lectura de la cabecera o del cuerpo que pueda bloquear espera como máximo lo
+ * que le queda a su plazo, así que un cliente que envía un byte a la vez no retiene el hilo.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class LectorSolicitudHttp {
+    
+    private static final int BYTES_ENTRE_REVISIONES = 256;
+    private static final int TAMANO_BLOQUE_CUERPO = 16 * 1024;
+    
+    private final InputStream entrada;
+    private final ByteArrayOutputStream linea;
+    private final LimitesSolicitud limites;
+    private final Socket socket;
+    private long inicioSolicitud;
+    private int tiempoInactividadMs;
+    private boolean plazoAplicado;
+    private int bytesCabecera;
+    private byte[] bloqueCuerpo;
+    
+    /**
+     * Constructor del lector sin socket: el plazo de la cabecera solo se revisa
+     * entre lecturas, que pueden bloquear tanto como permita el flujo
+     * @param entrada flujo de entrada, idealmente con buffer
+     * @param limites límites de tamaño y plazo de la cabecera
+     */
+    public LectorSolicitudHttp(InputStream entrada, LimitesSolicitud limites) {
+        this(entrada, limites, null);
+    }
+    
+    /**
+     * Constructor del lector sobre un socket bloqueante
+     * @param entrada flujo de entrada del socket, idealmente con buffer
+     * @param limites límites de tamaño y plazo de la cabecera
+     * @param socket socket cuyo SO_TIMEOUT se acorta al plazo restante mientras llegan
+     *               la cabecera o el cuerpo y se restaura al terminarlos, o null
+     */
+    public LectorSolicitudHttp(InputStream entrada, LimitesSolicitud limites, Socket socket) {
+        this.entrada = entrada;
+        this.linea = new ByteArrayOutputStream(256);
+        this.limites = limites;
+        this.socket = socket;
+    }
+    
+    /**
+     * Lee la siguiente solicitud de la conexión
+     * @return SolicitudHttp leída, o null si el cliente cerró la conexión
+     * @throws IOException si falla la lectura o vence el tiempo de inactividad antes de la solicitud
+     * @throws SolicitudRechazadaException si la cabecera excede los límites o llega demasiado lento
+     */
+    public SolicitudHttp leer() throws IOException {
+        inicioSolicitud = 0;
+        bytesCabecera = 0;
+        if (socket != null) {
+            // Tiempo de inactividad entre solicitudes; se restaura al terminar la cabecera
+            tiempoInactividadMs = socket.getSoTimeout();
+        }
+        try {
+            String lineaSolicitud = leerLinea(true);
+            // Tolerar líneas vacías entre solicitudes (RFC 7230, sección 3.5)
+            while (lineaSolicitud != null && lineaSolicitud.isEmpty()) {
+                inicioSolicitud = 0;
+                restaurarInactividad();
+                lineaSolicitud = leerLinea(true);
+            }
+            if (lineaSolicitud == null) {
+                return null;
+            }
+            
+            SolicitudHttp solicitud = new SolicitudHttp(lineaSolicitud);
+            String encabezado;
+            while ((encabezado = leerLinea(false)) != null && !encabezado.isEmpty()) {
+                solicitud.agregarEncabezado(encabezado);
+            }
+            return solicitud;
+        } catch (SocketTimeoutException e) {
+            if (inicioSolicitud == 0) {
+                throw e; // Conexión inactiva entre solicitudes
+            }
+            // La solicitud ya empezó: el cliente se detuvo a mitad de la cabecera
+            throw new SolicitudRechazadaException(408, "Cabecera incompleta");
+        } finally {
+            restaurarInactividad();
+        }
+    }
+    
+    /**
+     * Lee el cuerpo de la solicitud hacia su decodificador, que lo entrega a su
+     * receptor o lo descarta, y deja el flujo en la solicitud siguiente. Nunca se
+     * piden más bytes de los que el decodificador sabe que pertenecen al cuerpo.
+     * El cuerpo completo debe llegar dentro de su plazo, contado desde ahora
+     * @param cuerpo decodificador del enmarcado del cuerpo
+     * @throws IOException si la conexión se cierra antes
+     * @throws SolicitudRechazadaException si el cuerpo excede el máximo, su enmarcado es
+     *                                     inválido o no llega dentro del plazo (408)
+     */
+    public void leerCuerpo(DecodificadorCuerpo cuerpo) throws IOException {
+        if (bloqueCuerpo == null && !cuerpo.isTerminado()) {
+            bloqueCuerpo = new byte[TAMANO_BLOQUE_CUERPO];
+        }
+        long inicio = System.currentTimeMillis();
+        if (socket != null) {
+            tiempoInactividadMs = socket.getSoTimeout();
+        }
+        try {
+            while (!cuerpo.isTerminado()) {
+                if (socket != null && entrada.available() == 0) {
+                    // Una pausa más larga que la inactividad permitida tampoco se espera
+                    acotarLectura(inicio + limites.getTiempoCuerpoMs(), tiempoInactividadMs);
+                }
+                int leidos = entrada.read(bloqueCuerpo, 0, (int) Math.min(bloqueCuerpo.length, cuerpo.getPendientes()));
+                if (leidos < 0) {
+                    throw new IOException("Conexión cerrada dentro del cuerpo");
+                }
+                cuerpo.consumir(ByteBuffer.wrap(bloqueCuerpo, 0, leidos));
+                limites.verificarPlazoCuerpo(inicio, System.currentTimeMillis());
+            }
+        } catch (SocketTimeoutException e) {
+            // El cliente se detuvo a mitad del cuerpo hasta agotar el plazo
+            throw new SolicitudRechazadaException(408, "Cuerpo incompleto");
+        } finally {
+            restaurarInactividad();
+        }
+    }
+    
+    /**
+     * Indica si ya hay bytes de otra solicitud esperando (pipelining)
+     * @return true si se puede leer sin bloquear
+     */
+    public boolean hayDatosPendientes() throws IOException {
+        return entrada.available() > 0;
+    }
+    
+    /**
+     * Lee una línea terminada en LF, quitando el CR final, sin pasar de los límites
+     * @param esLineaSolicitud true mientras se espera la línea de solicitud
+     * @return línea en UTF-8, o null si el flujo terminó antes de cualquier byte
+     */
+    private String leerLinea(boolean esLineaSolicitud) throws IOException {
+        linea.reset();
+        int b = leerByte();
+        if (b < 0) {
+            return null;
+        }
+        if (inicioSolicitud == 0) {
+            inicioSolicitud = System.currentTimeMillis();
+        }
+        while (b >= 0 && b != '\n') {
+            linea.write(b);
+            if (linea.size() % BYTES_ENTRE_REVISIONES == 0) {
+                verificarLimites(esLineaSolicitud);
+            }
+            b = leerByte();
+        }
+        verificarLimites(esLineaSolicitud);
+        bytesCabecera += linea.size() + 1;
+        byte[] bytes = linea.toByteArray();
+        int longitud = bytes.length;
+        if (longitud > 0 && bytes[longitud - 1] == '\r') {
+            longitud--;
+        }
+        return new String(bytes, 0, longitud, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Lee un byte de la cabecera. Si ya empezó la solicitud y el buffer está vacío,
+     * la lectura irá al socket: antes se acorta su SO_TIMEOUT a lo que le queda al plazo
+     * @return byte leído, o -1 si el flujo terminó
+     * @throws SolicitudRechazadaException 408 si el plazo ya venció
+     */
+    private int leerByte() throws IOException {
+        if (socket != null && inicioSolicitud != 0 && entrada.available() == 0) {
+            limites.verificarPlazo(inicioSolicitud, System.currentTimeMillis());
+            acotarLectura(inicioSolicitud + limites.getTiempoCabeceraMs(), 0);
+        }
+        return entrada.read();
+    }
+    
+    /**
+     * Acorta el SO_TIMEOUT del socket a lo que falta para el vencimiento de un plazo
+     * @param venceMs instante en que vence el plazo
+     * @param maximoMs espera máxima de cada lectura aunque falte más para el plazo, o 0 sin máximo
+     */
+    private void acotarLectura(long venceMs, int maximoMs) throws IOException {
+        long restante = venceMs - System.currentTimeMillis();
+        if (maximoMs > 0) {
+            restante = Math.min(restante, maximoMs);
+        }
+        // SO_TIMEOUT = 0 significa sin límite: como mínimo se espera 1 ms
+        socket.setSoTimeout((int) Math.max(1, restante));
+        plazoAplicado = true;
+    }
+    
+    private void restaurarInactividad() throws IOException {
+        if (plazoAplicado && !socket.isClosed()) {
+            socket.setSoTimeout(tiempoInactividadMs);
+        }
+        plazoAplicado = false;
+    }
+    
+    private void verificarLimites(boolean esLineaSolicitud) {
+        limites.verificarLinea(linea.size(), esLineaSolicitud);
+        limites.verificarCabecera(bytesCabecera + linea.size());
+        limites.verificarPlazo(inicioSolicitud, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,264 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de tasa por cliente con una cubeta de fichas por clase de ruta.
+ * Cada cubeta se guarda como un solo long, el instante teórico en que volvería a
+ * estar llena (algoritmo GCRA, equivalente a una cubeta de fichas): consumir una
+ * ficha es adelantarlo un intervalo con compareAndSet, sin bloqueos ni
+ * asignaciones para los clientes ya conocidos.
+ * Un temporizador elimina a los clientes cuyas cubetas ya se llenaron, porque
+ * olvidarlos no cambia nada; así la memoria depende de los clientes activos y no
+ * de todos los que pasaron. Si aun así se llega al máximo de clientes, los nuevos
+ * comparten una cubeta común hasta que se libere lugar.
+ * Cumple con SRP: Solo decide si una solicitud cabe en el presupuesto; la respuesta
+ * 429 la arma el servidor
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class LimitadorTasa {
+    
+    private static final String CLIENTE_DESBORDADO = "*";
+    
+    private final Map<String, Presupuesto> presupuestosPorPatron = new HashMap<>();
+    private final Map<String, Presupuesto> presupuestos = new LinkedHashMap<>();
+    private final ConcurrentHashMap<String, Cubetas> clientes = new ConcurrentHashMap<>();
+    private final int maxClientes;
+    private final long periodoLimpiezaMs;
+    private Cubetas desbordados;
+    private ScheduledExecutorService limpieza;
+    
+    /**
+     * Constructor del limitador
+     * @param maxClientes clientes con cubetas propias a la vez
+     * @param periodoLimpiezaMs cada cuánto se eliminan los clientes con cubetas llenas
+     */
+    public LimitadorTasa(int maxClientes, long periodoLimpiezaMs) {
+        this.maxClientes = maxClientes;
+        this.periodoLimpiezaMs = periodoLimpiezaMs;
+    }
+    
+    /**
+     * Crea el limitador con las clases "ordenar" (/ordenar) y "busqueda"
+     * (/buscar/id/{id} y /buscar/nombre/{nombre}), más sus equivalentes bajo /api, configuradas con las propiedades
+     * servidor.limite.CLASE.tasa (solicitudes por segundo, 0 = sin límite) y
+     * servidor.limite.CLASE.rafaga, más servidor.limite.clientes.max y
+     * servidor.limite.limpieza.ms
+     * @return limitador configurado
+     */
+    public static LimitadorTasa desdePropiedades() {
+        return new LimitadorTasa(Integer.getInteger("servidor.limite.clientes.max", 100_000),
+                                 Long.getLong("servidor.limite.limpieza.ms", 10_000))
+            .registrarClase("ordenar", tasa("ordenar", "2"), Integer.getInteger("servidor.limite.ordenar.rafaga", 10),
+                            "/ordenar", "/api/ordenar")
+            .registrarClase("busqueda", tasa("busqueda", "20"), Integer.getInteger("servidor.limite.busqueda.rafaga", 40),
+                            "/buscar/id/{id}", "/buscar/nombre/{nombre}",
+                            "/api/buscar/id/{id}", "/api/buscar/nombre/{nombre}");
+    }
+    
+    private static double tasa(String clase, String defecto) {
+        return Double.parseDouble(System.getProperty("servidor.limite." + clase + ".tasa", defecto));
+    }
+    
+    /**
+     * Registra una clase de rutas con su propio presupuesto por cliente.
+     * Debe llamarse antes de iniciar el servidor
+     * @param nombre nombre de la clase, usado en las métricas
+     * @param tasa solicitudes por segundo sostenidas; 0 o menos la deja sin límite
+     * @param rafaga solicitudes seguidas que se admiten con la cubeta llena
+     * @param patrones patrones de ruta del enrutador que pertenecen a la clase
+     * @return este mismo limitador para encadenar llamadas
+     */
+    public LimitadorTasa registrarClase(String nombre, double tasa, int rafaga, String... patrones) {
+        if (tasa <= 0) {
+            return this;
+        }
+        if (rafaga < 1) {
+            throw new IllegalArgumentException("La ráfaga de " + nombre + " debe ser al menos 1");
+        }
+        Presupuesto presupuesto = new Presupuesto(presupuestos.size(), (long) (1e9 / tasa), rafaga);
+        presupuestos.put(nombre, presupuesto);
+        for (String patron : patrones) {
+            presupuestosPorPatron.put(patron, presupuesto);
+        }
+        desbordados = new Cubetas(presupuestos.size());
+        return this;
+    }
+    
+    /**
+     * Consume una ficha de la cubeta del cliente para la clase de la ruta
+     * @param cliente dirección del cliente
+     * @param patron patrón de ruta que atendería la solicitud
+     * @return 0 si la solicitud se admite; si no, nanosegundos hasta que haya una ficha
+     */
+    public long consumir(String cliente, String patron) {
+        Presupuesto presupuesto = patron == null ? null : presupuestosPorPatron.get(patron);
+        if (presupuesto == null) {
+            return 0;
+        }
+        Cubetas cubetas = clientes.get(cliente);
+        if (cubetas == null) {
+            cubetas = registrarCliente(cliente);
+        }
+        long espera = cubetas.consumir(presupuesto, System.nanoTime());
+        if (espera > 0) {
+            presupuesto.limitadas.increment();
+        }
+        return espera;
+    }
+    
+    private Cubetas registrarCliente(String cliente) {
+        if (clientes.size() >= maxClientes) {
+            return desbordados;
+        }
+        return clientes.computeIfAbsent(cliente, c -> new Cubetas(presupuestos.size()));
+    }
+    
+    /**
+     * Inicia el temporizador que elimina los clientes inactivos
+     */
+    public synchronized void iniciar() {
+        if (limpieza != null || presupuestos.isEmpty()) {
+            return;
+        }
+        limpieza = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "limitador-tasa");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        limpieza.scheduleAtFixedRate(this::eliminarInactivos, periodoLimpiezaMs, periodoLimpiezaMs,
+                                     TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Detiene el temporizador de limpieza
+     */
+    public synchronized void cerrar() {
+        if (limpieza != null) {
+            limpieza.shutdownNow();
+            limpieza = null;
+        }
+    }
+    
+    /**
+     * Elimina los clientes con todas sus cubetas llenas: recrearlos después da
+     * el mismo resultado. Una ficha consumida justo durante la eliminación se pierde,
+     * lo que a lo sumo regala una solicitud a ese cliente
+     */
+    void eliminarInactivos() {
+        long ahora = System.nanoTime();
+        clientes.forEach((cliente, cubetas) -> {
+            if (cubetas.estanLlenas(ahora)) {
+                clientes.remove(cliente, cubetas);
+            }
+        });
+    }
+    
+    /**
+     * @param clase nombre de la clase de rutas
+     * @return solicitudes rechazadas de esa clase, 0 si no existe o no tiene límite
+     */
+    public long getLimitadas(String clase) {
+        Presupuesto presupuesto = presupuestos.get(clase);
+        return presupuesto == null ? 0 : presupuesto.limitadas.sum();
+    }
+    
+    /** @return clientes con cubetas propias en este momento */
+    public int getClientes() {
+        return clientes.size();
+    }
+    
+    /**
+     * Tasa y ráfaga de una clase de rutas
+     */
+    private static final class Presupuesto {
+        
+        private final int indice;
+        private final long intervaloNanos;
+        private final long rafagaNanos;
+        private final LongAdder limitadas = new LongAdder();
+        
+        Presupuesto(int indice, long intervaloNanos, int rafaga) {
+            this.indice = indice;
+            this.intervaloNanos = Math.max(1, intervaloNanos);
+            this.rafagaNanos = this.intervaloNanos * rafaga;
+        }
+    }
+    
+    /**
+     * Cubetas de un cliente, una por clase: cada posición guarda el instante
+     * teórico en que la cubeta vuelve a estar llena
+     */
+    private static final class Cubetas {
+        
+        private final AtomicLongArray llenaEn;
+        
+        Cubetas(int clases) {
+            llenaEn = new AtomicLongArray(clases);
+            for (int i = 0; i < clases; i++) {
+                llenaEn.set(i, Long.MIN_VALUE);
+            }
+        }
+        
+        /**
+         * Adelanta el instante de llenado un intervalo si no se pasa de la ráfaga
+         * @return 0 si se consumió la ficha, o nanosegundos hasta la siguiente
+         */
+        long consumir(Presupuesto presupuesto, long ahora) {
+            int i = presupuesto.indice;
+            long actual;
+            long siguiente;
+            do {
+                actual = llenaEn.get(i);
+                siguiente = Math.max(actual, ahora) + presupuesto.intervaloNanos;
+                long exceso = siguiente - ahora - presupuesto.rafagaNanos;
+                if (exceso > 0) {
+                    return exceso;
+                }
+            } while (!llenaEn.compareAndSet(i, actual, siguiente));
+            return 0;
+        }
+        
+        boolean estanLlenas(long ahora) {
+            for (int i = 0; i < llenaEn.length(); i++) {
+                if (llenaEn.get(i) > ahora) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
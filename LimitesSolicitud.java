@@ -0,0 +1,131 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+/**
+ * Límites aplicados a la cabecera de cada solicitud para protegerse de
+ * clientes lentos (slowloris) y de cabeceras desmedidas, y tamaño y plazo del cuerpo.
+ * El plazo del cuerpo también acota cuánto puede tardar el cliente en aceptar
+ * cada parte de una respuesta pendiente, para que quien no lee no retenga la conexión.
+ * Los valores se toman de propiedades de sistema: servidor.cabecera.max, servidor.linea.max,
+ * servidor.cabecera.timeout, servidor.cuerpo.max y servidor.cuerpo.timeout
+ * Cumple con SRP: Solo valida tamaños y plazos, no lee ni responde
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class LimitesSolicitud {
+    
+    private final int maxCabecera;
+    private final int maxLinea;
+    private final int tiempoCabeceraMs;
+    private final long maxCuerpo;
+    private final int tiempoCuerpoMs;
+    
+    /**
+     * Constructor con límites explícitos
+     * @param maxCabecera bytes máximos de la cabecera completa
+     * @param maxLinea bytes máximos de una línea (solicitud o encabezado)
+     * @param tiempoCabeceraMs tiempo máximo para recibir la cabecera completa
+     * @param maxCuerpo bytes máximos del cuerpo, ya sin el enmarcado de fragmentos
+     * @param tiempoCuerpoMs tiempo máximo para recibir el cuerpo completo una vez leída la cabecera
+     */
+    public LimitesSolicitud(int maxCabecera, int maxLinea, int tiempoCabeceraMs, long maxCuerpo, int tiempoCuerpoMs) {
+        if (maxCabecera < 1 || maxLinea < 1 || tiempoCabeceraMs < 1 || maxCuerpo < 0 || tiempoCuerpoMs < 1) {
+            throw new IllegalArgumentException("Los límites de solicitud deben ser positivos");
+        }
+        this.maxCabecera = maxCabecera;
+        this.maxLinea = maxLinea;
+        this.tiempoCabeceraMs = tiempoCabeceraMs;
+        this.maxCuerpo = maxCuerpo;
+        this.tiempoCuerpoMs = tiempoCuerpoMs;
+    }
+    
+    /**
+     * Crea los límites a partir de las propiedades de sistema
+     * @return límites configurados (por defecto 8 KB, 4 KB, 10 s, 64 MB de cuerpo y 60 s para recibirlo)
+     */
+    public static LimitesSolicitud desdePropiedades() {
+        return new LimitesSolicitud(Integer.getInteger("servidor.cabecera.max", 8192),
+                                    Integer.getInteger("servidor.linea.max", 4096),
+                                    Integer.getInteger("servidor.cabecera.timeout", 10000),
+                                    Long.getLong("servidor.cuerpo.max", 64L * 1024 * 1024),
+                                    Integer.getInteger("servidor.cuerpo.timeout", 60000));
+    }
+    
+    /**
+     * Verifica la longitud de una línea
+     * @param longitud bytes de la línea sin CRLF
+     * @param esLineaSolicitud true para la primera línea (método, ruta y versión)
+     * @throws SolicitudRechazadaException 414 si la línea de solicitud es muy larga, 431 si lo es un encabezado
+     */
+    public void verificarLinea(int longitud, boolean esLineaSolicitud) {
+        if (longitud > maxLinea) {
+            throw esLineaSolicitud
+                ? new SolicitudRechazadaException(414, "Línea de solicitud demasiado larga")
+                : new SolicitudRechazadaException(431, "Encabezado demasiado largo");
+        }
+    }
+    
+    /**
+     * Verifica el tamaño acumulado de la cabecera
+     * @param bytes bytes recibidos de la cabecera
+     * @throws SolicitudRechazadaException 431 si se excede el máximo
+     */
+    public void verificarCabecera(int bytes) {
+        if (bytes > maxCabecera) {
+            throw new SolicitudRechazadaException(431, "Cabecera demasiado grande");
+        }
+    }
+    
+    /**
+     * Verifica que la cabecera no lleve más del plazo permitido llegando
+     * @param inicioMs instante en que llegó el primer byte de la solicitud
+     * @param ahoraMs instante actual
+     * @throws SolicitudRechazadaException 408 si se venció el plazo
+     */
+    public void verificarPlazo(long inicioMs, long ahoraMs) {
+        if (ahoraMs - inicioMs > tiempoCabeceraMs) {
+            throw new SolicitudRechazadaException(408, "Cabecera recibida demasiado lento");
+        }
+    }
+    
+    /**
+     * Verifica que el cuerpo no lleve más del plazo permitido llegando
+     * @param inicioMs instante en que terminó la cabecera
+     * @param ahoraMs instante actual
+     * @throws SolicitudRechazadaException 408 si se venció el plazo
+     */
+    public void verificarPlazoCuerpo(long inicioMs, long ahoraMs) {
+        if (ahoraMs - inicioMs > tiempoCuerpoMs) {
+            throw new SolicitudRechazadaException(408, "Cuerpo recibido demasiado lento");
+        }
+    }
+    
+    public int getMaxCabecera() { return maxCabecera; }
+    public int getMaxLinea() { return maxLinea; }
+    public int getTiempoCabeceraMs() { return tiempoCabeceraMs; }
+    public long getMaxCuerpo() { return maxCuerpo; }
+    public int getTiempoCuerpoMs() { return tiempoCuerpoMs; }
+}
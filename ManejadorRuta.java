@@ -0,0 +1,43 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+/**
+ * Manejador de una ruta registrada en el enrutador
+ * Cumple con ISP: Solo atiende una ruta ya resuelta, sin conocer el enrutamiento
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface ManejadorRuta {
+    
+    /**
+     * Atiende una solicitud cuya ruta coincidió con el patrón registrado
+     * @param solicitud solicitud completa con encabezados
+     * @param parametros parámetros de ruta y de consulta extraídos
+     * @return respuesta HTTP a enviar
+     */
+    RespuestaHttp manejar(SolicitudHttp solicitud, ParametrosRuta parametros);
+}
@@ -0,0 +1,52 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+/**
+ * Interfaz para el enrutamiento de solicitudes HTTP
+ * Cumple con DIP: Los motores de E/S dependen de esta abstracción y no del servidor concreto
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface ManejadorSolicitudes {
+    
+    /**
+     * Procesa una solicitud ya parseada
+     * @param solicitud línea de solicitud y encabezados
+     * @return respuesta HTTP a enviar
+     */
+    RespuestaHttp procesarSolicitud(SolicitudHttp solicitud);
+    
+    /**
+     * Elige el destino del cuerpo antes de leerlo. El motor lee el cuerpo completo
+     * hacia el receptor y solo después llama a procesarSolicitud
+     * @param solicitud solicitud con la cabecera ya leída
+     * @return receptor que consumirá el cuerpo, o null para descartarlo
+     */
+    default ReceptorCuerpo recibirCuerpo(SolicitudHttp solicitud) {
+        return null;
+    }
+}
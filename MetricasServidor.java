@@ -0,0 +1,289 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Métricas del servidor en el formato de texto de Prometheus.
+ * Por cada patrón de ruta lleva solicitudes por código, bytes enviados y un
+ * histograma de latencia; además exporta contadores e indicadores que otras
+ * clases registran como funciones (colas, hilos, catálogo, cachés).
+ * El registro en el camino de cada solicitud solo toca contadores repartidos
+ * (LongAdder y las franjas del histograma), sin bloqueos ni asignaciones.
+ * Cumple con SRP: Solo acumula y da formato, no decide qué se mide
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class MetricasServidor {
+    
+    /** Ruta con la que se cuentan las solicitudes que no coinciden con ningún patrón */
+    public static final String SIN_RUTA = "ninguna";
+    
+    private static final String CONTADOR = "counter";
+    private static final String INDICADOR = "gauge";
+    private static final int MAX_CODIGO = 600;
+    // Cubetas "le" de 64 µs (2^6) a 16,8 s (2^24), exactas por caer en límites de octava
+    private static final int MIN_POTENCIA = 6;
+    private static final int MAX_POTENCIA = 24;
+    private static final String[] LIMITES_LE = new String[MAX_POTENCIA + 1];
+    private static final double[] CUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+    
+    static {
+        for (int k = MIN_POTENCIA; k <= MAX_POTENCIA; k++) {
+            LIMITES_LE[k] = segundos(new StringBuilder(), 1L << k).toString();
+        }
+    }
+    
+    private final ConcurrentHashMap<String, MetricasRuta> rutas = new ConcurrentHashMap<>();
+    private final Map<String, Familia> familias = new LinkedHashMap<>();
+    
+    /**
+     * Registra una solicitud respondida bajo su patrón de ruta
+     * @param solicitud solicitud atendida, con el patrón asignado por el enrutador
+     * @param respuesta respuesta enviada
+     */
+    public void registrar(SolicitudHttp solicitud, RespuestaHttp respuesta) {
+        String ruta = solicitud.getPatronRuta() != null ? solicitud.getPatronRuta() : SIN_RUTA;
+        MetricasRuta metricas = rutas.get(ruta);
+        if (metricas == null) {
+            metricas = rutas.computeIfAbsent(ruta, r -> new MetricasRuta());
+        }
+        metricas.contarCodigo(respuesta.getCodigo());
+        metricas.bytes.add(respuesta.getBytesCuerpo());
+        metricas.latencia.registrar((System.nanoTime() - solicitud.getInicioNanos()) / 1000);
+    }
+    
+    /**
+     * Registra un contador que se lee al exportar
+     * @param nombre nombre de la métrica, terminado en _total
+     * @param ayuda descripción para la línea HELP
+     * @param etiquetas etiquetas ya formateadas (ej: tipo="id"), o cadena vacía
+     * @param valor función que entrega el valor actual
+     */
+    public synchronized void registrarContador(String nombre, String ayuda, String etiquetas, LongSupplier valor) {
+        familia(nombre, ayuda, CONTADOR).series.add(new Serie(etiquetas, valor));
+    }
+    
+    /**
+     * Registra un indicador (gauge) que se lee al exportar
+     * @param nombre nombre de la métrica
+     * @param ayuda descripción para la línea HELP
+     * @param etiquetas etiquetas ya formateadas, o cadena vacía
+     * @param valor función que entrega el valor actual
+     */
+    public synchronized void registrarIndicador(String nombre, String ayuda, String etiquetas, LongSupplier valor) {
+        familia(nombre, ayuda, INDICADOR).series.add(new Serie(etiquetas, valor));
+    }
+    
+    private Familia familia(String nombre, String ayuda, String tipo) {
+        Familia familia = familias.computeIfAbsent(nombre, n -> new Familia(ayuda, tipo));
+        if (!familia.tipo.equals(tipo)) {
+            throw new IllegalArgumentException("La métrica " + nombre + " ya está registrada como " + familia.tipo);
+        }
+        return familia;
+    }
+    
+    /**
+     * Genera el texto de exposición (versión 0.0.4) con todas las métricas
+     * @return métricas en formato Prometheus
+     */
+    public synchronized String exportar() {
+        StringBuilder texto = new StringBuilder(4096);
+        Map<String, MetricasRuta> ordenadas = new TreeMap<>(rutas);
+        
+        encabezado(texto, "servidor_solicitudes_total", "Solicitudes respondidas por ruta y código", CONTADOR);
+        for (Map.Entry<String, MetricasRuta> ruta : ordenadas.entrySet()) {
+            for (int codigo = 0; codigo < MAX_CODIGO; codigo++) {
+                LongAdder cuenta = ruta.getValue().porCodigo.get(codigo);
+                if (cuenta != null) {
+                    texto.append("servidor_solicitudes_total{ruta=\"");
+                    escapar(texto, ruta.getKey());
+                    texto.append("\",codigo=\"").append(codigo).append("\"} ").append(cuenta.sum()).append('\n');
+                }
+            }
+        }
+        
+        encabezado(texto, "servidor_bytes_enviados_total", "Bytes de cuerpo enviados por ruta", CONTADOR);
+        for (Map.Entry<String, MetricasRuta> ruta : ordenadas.entrySet()) {
+            texto.append("servidor_bytes_enviados_total{ruta=\"");
+            escapar(texto, ruta.getKey());
+            texto.append("\"} ").append(ruta.getValue().bytes.sum()).append('\n');
+        }
+        
+        List<HistogramaLatencia.Foto> fotos = new ArrayList<>(ordenadas.size());
+        for (MetricasRuta metricas : ordenadas.values()) {
+            fotos.add(metricas.latencia.fotografiar());
+        }
+        exportarHistogramas(texto, ordenadas, fotos);
+        exportarCuantiles(texto, ordenadas, fotos);
+        
+        for (Map.Entry<String, Familia> familia : familias.entrySet()) {
+            encabezado(texto, familia.getKey(), familia.getValue().ayuda, familia.getValue().tipo);
+            for (Serie serie : familia.getValue().series) {
+                texto.append(familia.getKey());
+                if (!serie.etiquetas.isEmpty()) {
+                    texto.append('{').append(serie.etiquetas).append('}');
+                }
+                texto.append(' ').append(serie.valor.getAsLong()).append('\n');
+            }
+        }
+        return texto.toString();
+    }
+    
+    private void exportarHistogramas(StringBuilder texto, Map<String, MetricasRuta> ordenadas,
+                                     List<HistogramaLatencia.Foto> fotos) {
+        encabezado(texto, "servidor_latencia_segundos",
+                   "Latencia desde que se recibe la cabecera hasta que se envía la respuesta", "histogram");
+        int i = 0;
+        for (String ruta : ordenadas.keySet()) {
+            HistogramaLatencia.Foto foto = fotos.get(i++);
+            for (int k = MIN_POTENCIA; k <= MAX_POTENCIA; k++) {
+                texto.append("servidor_latencia_segundos_bucket{ruta=\"");
+                escapar(texto, ruta);
+                texto.append("\",le=\"").append(LIMITES_LE[k]).append("\"} ")
+                     .append(foto.acumuladoHastaPotencia(k)).append('\n');
+            }
+            texto.append("servidor_latencia_segundos_bucket{ruta=\"");
+            escapar(texto, ruta);
+            texto.append("\",le=\"+Inf\"} ").append(foto.getTotal()).append('\n');
+            texto.append("servidor_latencia_segundos_sum{ruta=\"");
+            escapar(texto, ruta);
+            segundos(texto.append("\"} "), foto.getSumaMicros()).append('\n');
+            texto.append("servidor_latencia_segundos_count{ruta=\"");
+            escapar(texto, ruta);
+            texto.append("\"} ").append(foto.getTotal()).append('\n');
+        }
+    }
+    
+    /**
+     * Cuantiles estimados desde el histograma completo (error menor a 1/8), que son
+     * más finos que las cubetas "le" exportadas
+     */
+    private void exportarCuantiles(StringBuilder texto, Map<String, MetricasRuta> ordenadas,
+                                   List<HistogramaLatencia.Foto> fotos) {
+        encabezado(texto, "servidor_latencia_cuantil_segundos",
+                   "Cuantiles de latencia por ruta desde el inicio del servidor", INDICADOR);
+        int i = 0;
+        for (String ruta : ordenadas.keySet()) {
+            HistogramaLatencia.Foto foto = fotos.get(i++);
+            for (double cuantil : CUANTILES) {
+                texto.append("servidor_latencia_cuantil_segundos{ruta=\"");
+                escapar(texto, ruta);
+                texto.append("\",quantile=\"").append(cuantil).append("\"} ");
+                segundos(texto, foto.cuantil(cuantil)).append('\n');
+            }
+        }
+    }
+    
+    /**
+     * Escribe microsegundos como segundos en notación decimal, sin exponente
+     * ni ceros sobrantes (64 µs se escribe 0.000064 y no 6.4E-5)
+     */
+    private static StringBuilder segundos(StringBuilder texto, long micros) {
+        texto.append(micros / 1_000_000);
+        long fraccion = micros % 1_000_000;
+        if (fraccion != 0) {
+            int longitud = texto.length();
+            texto.append('.').append(1_000_000 + fraccion).deleteCharAt(longitud + 1);
+            while (texto.charAt(texto.length() - 1) == '0') {
+                texto.setLength(texto.length() - 1);
+            }
+        }
+        return texto;
+    }
+    
+    private static void encabezado(StringBuilder texto, String nombre, String ayuda, String tipo) {
+        texto.append("# HELP ").append(nombre).append(' ').append(ayuda).append('\n');
+        texto.append("# TYPE ").append(nombre).append(' ').append(tipo).append('\n');
+    }
+    
+    /**
+     * Escapa barra invertida, comillas y saltos de línea en el valor de una etiqueta
+     */
+    private static void escapar(StringBuilder texto, String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '\\' || c == '"') {
+                texto.append('\\').append(c);
+            } else if (c == '\n') {
+                texto.append("\\n");
+            } else {
+                texto.append(c);
+            }
+        }
+    }
+    
+    /**
+     * Contadores de un patrón de ruta; los de cada código se crean al primer uso
+     */
+    private static final class MetricasRuta {
+        private final AtomicReferenceArray<LongAdder> porCodigo = new AtomicReferenceArray<>(MAX_CODIGO);
+        private final LongAdder bytes = new LongAdder();
+        private final HistogramaLatencia latencia = new HistogramaLatencia();
+        
+        void contarCodigo(int codigo) {
+            int indice = codigo >= 0 && codigo < MAX_CODIGO ? codigo : 0;
+            LongAdder cuenta = porCodigo.get(indice);
+            if (cuenta == null) {
+                porCodigo.compareAndSet(indice, null, new LongAdder());
+                cuenta = porCodigo.get(indice);
+            }
+            cuenta.increment();
+        }
+    }
+    
+    /**
+     * Métrica registrada por otra clase: ayuda, tipo y sus series
+     */
+    private static final class Familia {
+        private final String ayuda;
+        private final String tipo;
+        private final List<Serie> series = new ArrayList<>();
+        
+        Familia(String ayuda, String tipo) {
+            this.ayuda = ayuda;
+            this.tipo = tipo;
+        }
+    }
+    
+    private static final class Serie {
+        private final String etiquetas;
+        private final LongSupplier valor;
+        
+        Serie(String etiquetas, LongSupplier valor) {
+            this.etiquetas = etiquetas;
+            this.valor = valor;
+        }
+    }
+}
@@ -0,0 +1,896 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Motor HTTP no bloqueante basado en ServerSocketChannel y Selector.
+ * Un hilo aceptador reparte las conexiones entre unos pocos bucles de eventos,
+ * que parsean las solicitudes de forma incremental y escriben las respuestas desde ByteBuffers.
+ * Las conexiones son persistentes (HTTP/1.1 keep-alive) y las solicitudes encadenadas
+ * se responden en orden. Una conexión que empieza con el prefacio HTTP/2 o pide
+ * "Upgrade: h2c" pasa a manejarse con una SesionHttp2 en el mismo bucle.
+ * Al superar el máximo de conexiones abiertas las nuevas se descartan con 503, y las
+ * cabeceras que exceden los límites de tamaño o de plazo se rechazan antes de parsearlas.
+ * Al drenar, cada bucle cierra sus conexiones inactivas y deja terminar las respuestas en curso.
+ * Un cuerpo en streaming que espera eventos externos aparca su conexión sin ocupar al
+ * bucle; el productor la reanuda con un aviso cuando tiene el siguiente fragmento.
+ * Con varios aceptadores (SO_REUSEPORT) cada uno tiene su propio socket de escucha y
+ * su propio subconjunto de bucles, así que no comparten estado al aceptar.
+ * Cumple con SRP: Solo se encarga de la E/S, el enrutamiento lo hace el ManejadorSolicitudes
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class MotorNIO {
+    
+    private static final int TAMANO_BUFFER_LECTURA = 16 * 1024;
+    private static final long INTERVALO_REVISION_MS = 1000;
+    private static final ByteBuffer[] SIN_SALIDA = new ByteBuffer[0];
+    
+    private final GrupoAceptadores aceptadores;
+    private final ManejadorSolicitudes manejador;
+    private final int tiempoInactividadMs;
+    private final int maxSolicitudesPorConexion;
+    private final LimitesSolicitud limites;
+    private final ContadoresAdmision contadores;
+    private final ControlDrenaje drenaje;
+    private final ObservadorSolicitudes observador;
+    private final int maxConexiones;
+    private final int maxFlujosHttp2;
+    private final int maxSolicitudesHttp2;
+    private final AtomicInteger conexionesAbiertas = new AtomicInteger();
+    private final BucleEventos[] bucles;
+    private final Aceptador[] hilosAceptadores;
+    private volatile boolean activo;
+    private volatile boolean drenando;
+    
+    /**
+     * Constructor del motor NIO
+     * @param aceptadores sockets de escucha; cada aceptador recibe al menos un bucle propio
+     * @param numeroBucles cantidad de hilos de bucle de eventos
+     * @param manejador enrutador que genera las respuestas y elige el destino de cada cuerpo
+     * @param tiempoInactividadMs espera máxima entre solicitudes de una conexión persistente
+     * @param maxSolicitudesPorConexion solicitudes atendidas antes de cerrar la conexión
+     * @param limites límites de tamaño y plazo de la cabecera
+     * @param contadores contadores donde se registran descartes y rechazos
+     * @param drenaje control donde se cuentan las solicitudes en curso
+     * @param observador recibe cada solicitud respondida (métricas y registro de accesos)
+     * @param maxConexiones conexiones abiertas a la vez antes de descartar con 503
+     * @param maxFlujosHttp2 flujos HTTP/2 abiertos a la vez por conexión
+     * @param maxSolicitudesHttp2 flujos HTTP/2 atendidos antes de despedir la conexión
+     */
+    public MotorNIO(GrupoAceptadores aceptadores, int numeroBucles, ManejadorSolicitudes manejador,
+                    int tiempoInactividadMs, int maxSolicitudesPorConexion,
+                    LimitesSolicitud limites, ContadoresAdmision contadores, ControlDrenaje drenaje,
+                    ObservadorSolicitudes observador, int maxConexiones,
+                    int maxFlujosHttp2, int maxSolicitudesHttp2) {
+        if (numeroBucles < 1) {
+            throw new IllegalArgumentException("Se requiere al menos un bucle de eventos");
+        }
+        this.aceptadores = aceptadores;
+        this.manejador = manejador;
+        this.tiempoInactividadMs = tiempoInactividadMs;
+        this.maxSolicitudesPorConexion = maxSolicitudesPorConexion;
+        this.limites = limites;
+        this.contadores = contadores;
+        this.drenaje = drenaje;
+        this.observador = observador;
+        this.maxConexiones = maxConexiones;
+        this.maxFlujosHttp2 = maxFlujosHttp2;
+        this.maxSolicitudesHttp2 = maxSolicitudesHttp2;
+        this.bucles = new BucleEventos[Math.max(numeroBucles, aceptadores.getCantidad())];
+        this.hilosAceptadores = new Aceptador[aceptadores.getCantidad()];
+    }
+    
+    /**
+     * Abre los canales de escucha y atiende conexiones hasta que se llame a iniciarDrenaje() o detener().
+     * Este método es bloqueante: el hilo que lo invoca actúa como primer aceptador
+     * y los demás aceptadores corren en hilos propios.
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public void iniciar() throws IOException {
+        aceptadores.abrir();
+        activo = true;
+        
+        for (int i = 0; i < bucles.length; i++) {
+            bucles[i] = new BucleEventos(Selector.open());
+            Thread hilo = new Thread(bucles[i], "nio-bucle-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+        
+        for (int i = 0; i < hilosAceptadores.length; i++) {
+            hilosAceptadores[i] = new Aceptador(i, aceptadores.getCanal(i));
+        }
+        for (int i = 1; i < hilosAceptadores.length; i++) {
+            Thread hilo = new Thread(hilosAceptadores[i], "nio-aceptador-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+        hilosAceptadores[0].run();
+    }
+    
+    /**
+     * Deja de aceptar conexiones y pide a los bucles que drenen las suyas:
+     * las inactivas se cierran, las respuestas en curso terminan con "Connection: close"
+     * y las sesiones HTTP/2 se despiden con GOAWAY
+     */
+    public void iniciarDrenaje() {
+        drenando = true;
+        cerrarAceptacion();
+        despertarBucles();
+    }
+    
+    /**
+     * Detiene la aceptación y los bucles de eventos, cerrando las conexiones que sigan abiertas
+     */
+    public void detener() {
+        activo = false;
+        cerrarAceptacion();
+        despertarBucles();
+    }
+    
+    private void cerrarAceptacion() {
+        for (Aceptador aceptador : hilosAceptadores) {
+            if (aceptador != null) {
+                aceptador.selector.wakeup();
+            }
+        }
+        aceptadores.cerrar();
+    }
+    
+    private void despertarBucles() {
+        for (BucleEventos bucle : bucles) {
+            if (bucle != null) {
+                bucle.selector.wakeup();
+            }
+        }
+    }
+    
+    /**
+     * Intenta una sola escritura del 503 para no retrasar al aceptador
+     */
+    private void descartarPorCarga(SocketChannel canal) {
+        contadores.registrarDescarte();
+        try {
+            canal.write(RespuestaHttp.rechazo(503).aBuffers(false, 0));
+        } catch (IOException e) {
+            // El cliente ya no escucha; solo queda cerrar
+        }
+        cerrarCanal(canal);
+    }
+    
+    /**
+     * Obtiene las conexiones abiertas en los bucles de eventos
+     * @return cantidad de conexiones
+     */
+    public int getConexionesAbiertas() {
+        return conexionesAbiertas.get();
+    }
+    
+    /**
+     * Hilo aceptador con su socket de escucha, su Selector y los bucles de eventos
+     * cuyo índice coincide con el suyo módulo la cantidad de aceptadores
+     */
+    private final class Aceptador implements Runnable {
+        
+        private final int indice;
+        private final ServerSocketChannel canalServidor;
+        private final Selector selector;
+        private final BucleEventos[] propios;
+        private int siguienteBucle;
+        
+        Aceptador(int indice, ServerSocketChannel canalServidor) throws IOException {
+            this.indice = indice;
+            this.canalServidor = canalServidor;
+            this.selector = Selector.open();
+            canalServidor.configureBlocking(false);
+            canalServidor.register(selector, SelectionKey.OP_ACCEPT);
+            int paso = hilosAceptadores.length;
+            this.propios = new BucleEventos[(bucles.length - indice + paso - 1) / paso];
+            for (int i = 0; i < propios.length; i++) {
+                propios[i] = bucles[indice + i * paso];
+            }
+        }
+        
+        @Override
+        public void run() {
+            while (activo && !drenando) {
+                try {
+                    selector.select();
+                    selector.selectedKeys().clear();
+                    aceptarPendientes();
+                } catch (IOException e) {
+                    if (activo && !drenando) {
+                        System.err.println("Error al aceptar conexión: " + e.getMessage());
+                    }
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar selector: " + e.getMessage());
+            }
+        }
+        
+        /**
+         * Acepta todas las conexiones en espera y las reparte en round-robin entre sus bucles.
+         * Sobre el máximo de conexiones abiertas responde 503 y cierra
+         */
+        private void aceptarPendientes() throws IOException {
+            SocketChannel canal;
+            while (activo && !drenando && (canal = canalServidor.accept()) != null) {
+                aceptadores.registrarAceptada(indice);
+                canal.configureBlocking(false);
+                if (conexionesAbiertas.get() >= maxConexiones) {
+                    descartarPorCarga(canal);
+                    continue;
+                }
+                conexionesAbiertas.incrementAndGet();
+                propios[siguienteBucle].registrar(canal);
+                siguienteBucle = (siguienteBucle + 1) % propios.length;
+            }
+        }
+    }
+    
+    /**
+     * Bucle de eventos con su propio Selector
+     */
+    private final class BucleEventos implements Runnable {
+        
+        private final Selector selector;
+        private final Queue<SocketChannel> pendientes = new ConcurrentLinkedQueue<>();
+        private final Queue<ConexionNIO> reanudables = new ConcurrentLinkedQueue<>();
+        
+        BucleEventos(Selector selector) {
+            this.selector = selector;
+        }
+        
+        /**
+         * Entrega un canal recién aceptado a este bucle
+         */
+        void registrar(SocketChannel canal) {
+            pendientes.add(canal);
+            selector.wakeup();
+        }
+        
+        /**
+         * Pide continuar una respuesta aparcada; se puede llamar desde cualquier hilo
+         */
+        void reanudar(ConexionNIO conexion) {
+            reanudables.add(conexion);
+            selector.wakeup();
+        }
+        
+        @Override
+        public void run() {
+            while (activo) {
+                try {
+                    selector.select(INTERVALO_REVISION_MS);
+                    registrarPendientes();
+                    reanudarAparcadas();
+                    Iterator<SelectionKey> claves = selector.selectedKeys().iterator();
+                    while (claves.hasNext()) {
+                        SelectionKey clave = claves.next();
+                        claves.remove();
+                        atender(clave);
+                    }
+                    cerrarInactivas();
+                    if (drenando) {
+                        drenar();
+                    }
+                } catch (IOException e) {
+                    if (activo) {
+                        System.err.println("Error en bucle de eventos: " + e.getMessage());
+                    }
+                }
+            }
+            cerrarTodo();
+        }
+        
+        private void registrarPendientes() {
+            SocketChannel canal;
+            while ((canal = pendientes.poll()) != null) {
+                try {
+                    SelectionKey clave = canal.register(selector, SelectionKey.OP_READ);
+                    clave.attach(new ConexionNIO(this, canal, clave));
+                } catch (IOException e) {
+                    conexionesAbiertas.decrementAndGet();
+                    cerrarCanal(canal);
+                }
+            }
+        }
+        
+        private void reanudarAparcadas() {
+            ConexionNIO conexion;
+            while ((conexion = reanudables.poll()) != null) {
+                try {
+                    conexion.reanudar();
+                } catch (IOException e) {
+                    conexion.cerrar();
+                }
+            }
+        }
+        
+        private void atender(SelectionKey clave) {
+            ConexionNIO conexion = (ConexionNIO) clave.attachment();
+            try {
+                if (clave.isValid() && clave.isReadable()) {
+                    conexion.leer();
+                }
+                if (clave.isValid() && clave.isWritable()) {
+                    conexion.escribir();
+                }
+            } catch (IOException e) {
+                conexion.cerrar();
+            }
+        }
+        
+        /**
+         * Cierra las conexiones persistentes que superaron el tiempo de inactividad
+         * o que no aceptan su respuesta pendiente, y rechaza las que llevan demasiado
+         * tiempo enviando una cabecera o un cuerpo
+         */
+        private void cerrarInactivas() {
+            long ahora = System.currentTimeMillis();
+            for (SelectionKey clave : selector.keys()) {
+                ConexionNIO conexion = (ConexionNIO) clave.attachment();
+                if (conexion == null) {
+                    continue;
+                }
+                try {
+                    conexion.revisarPlazos(ahora);
+                } catch (IOException e) {
+                    conexion.cerrar();
+                }
+            }
+        }
+        
+        /**
+         * Aplica el drenaje a cada conexión; se repite en cada vuelta del bucle
+         * para alcanzar también a las conexiones registradas después de iniciarlo
+         */
+        private void drenar() {
+            for (SelectionKey clave : selector.keys()) {
+                ConexionNIO conexion = (ConexionNIO) clave.attachment();
+                if (conexion == null || !clave.isValid()) {
+                    continue;
+                }
+                try {
+                    conexion.drenar();
+                } catch (IOException e) {
+                    conexion.cerrar();
+                }
+            }
+        }
+        
+        private void cerrarTodo() {
+            for (SelectionKey clave : selector.keys()) {
+                cerrarCanal(clave.channel());
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar selector: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Estado de una conexión persistente: buffer de lectura con parseo incremental,
+     * cuerpo en recepción y respuesta en curso, o la sesión HTTP/2
+     * si la conexión cambió de protocolo
+     */
+    private final class ConexionNIO {
+        
+        private final BucleEventos bucle;
+        private final SocketChannel canal;
+        private final SelectionKey clave;
+        private final String cliente;
+        private final ByteBuffer entrada = ByteBuffer.allocate(TAMANO_BUFFER_LECTURA);
+        private ByteBuffer[] salida;
+        private RespuestaHttp enCurso;
+        private SolicitudHttp solicitudActual;
+        private RespuestaHttp respuestaActual;
+        private SesionHttp2 http2;
+        private int posicionEscaneo;
+        private DecodificadorCuerpo cuerpo;
+        private int inicioLinea;
+        private long inicioCabecera;
+        private long inicioCuerpo;
+        private long ultimaEscritura;
+        private int atendidas;
+        private int flujosContados;
+        private boolean mantenerConexion = true;
+        private boolean aparcada;
+        private long ultimaActividad = System.currentTimeMillis();
+        
+        ConexionNIO(BucleEventos bucle, SocketChannel canal, SelectionKey clave) {
+            this.bucle = bucle;
+            this.canal = canal;
+            this.clave = clave;
+            this.cliente = RegistroAccesos.direccionCliente(canal);
+        }
+        
+        /**
+         * Lee lo disponible y atiende las solicitudes que ya estén completas
+         */
+        void leer() throws IOException {
+            if (canal.read(entrada) < 0) {
+                cerrar();
+                return;
+            }
+            ultimaActividad = System.currentTimeMillis();
+            if (http2 != null) {
+                recibirHttp2();
+                return;
+            }
+            if (aparcada) {
+                // Un flujo de eventos no termina: lo que envíe el cliente nunca se atendería
+                entrada.clear();
+                posicionEscaneo = 0;
+                inicioLinea = 0;
+                return;
+            }
+            procesarDisponibles();
+        }
+        
+        /**
+         * Continúa la respuesta aparcada si sigue esperando; un aviso tardío de una
+         * espera ya resuelta no hace nada
+         */
+        void reanudar() throws IOException {
+            if (aparcada && canal.isOpen()) {
+                escribir();
+            }
+        }
+        
+        /**
+         * Continúa la respuesta en curso; al terminarla sigue con las solicitudes encadenadas
+         */
+        void escribir() throws IOException {
+            if (http2 != null) {
+                enviarHttp2();
+                return;
+            }
+            if (!enviarPendiente()) {
+                return;
+            }
+            if (!mantenerConexion && cuerpo == null) {
+                cerrar();
+                return;
+            }
+            clave.interestOps(SelectionKey.OP_READ);
+            procesarDisponibles();
+        }
+        
+        /**
+         * Atiende en orden las solicitudes completas del buffer mientras no haya
+         * una respuesta pendiente de enviar. El cuerpo de cada solicitud se entrega
+         * a su receptor (o se descarta) a medida que llega, y se responde al terminarlo
+         */
+        private void procesarDisponibles() throws IOException {
+            while (salida == null && canal.isOpen()) {
+                if (cuerpo != null) {
+                    try {
+                        recibirCuerpo();
+                    } catch (SolicitudRechazadaException e) {
+                        rechazar(e.getCodigo());
+                        return;
+                    }
+                    if (cuerpo != null) {
+                        return;
+                    }
+                    responder();
+                    continue;
+                }
+                
+                SolicitudHttp solicitud;
+                try {
+                    int finEncabezados = buscarFinEncabezados();
+                    if (finEncabezados < 0) {
+                        if (entrada.position() > 0 && inicioCabecera == 0) {
+                            inicioCabecera = System.currentTimeMillis();
+                        }
+                        // Una cabecera que llena el buffer tampoco cabe en los límites
+                        limites.verificarCabecera(entrada.hasRemaining() ? entrada.position() : Integer.MAX_VALUE);
+                        return;
+                    }
+                    limites.verificarCabecera(finEncabezados);
+                    solicitud = SolicitudHttp.parsear(new String(
+                        entrada.array(), 0, finEncabezados - 4, StandardCharsets.UTF_8));
+                    solicitud.setCliente(cliente);
+                    consumir(finEncabezados);
+                } catch (SolicitudRechazadaException e) {
+                    rechazar(e.getCodigo());
+                    return;
+                } catch (IllegalArgumentException e) {
+                    rechazar(400);
+                    return;
+                }
+                inicioCabecera = 0;
+                if (SesionHttp2.esPrefacio(solicitud) || SesionHttp2.solicitaUpgrade(solicitud)) {
+                    iniciarHttp2(solicitud);
+                    return;
+                }
+                ReceptorCuerpo receptor = manejador.recibirCuerpo(solicitud);
+                DecodificadorCuerpo decodificador;
+                try {
+                    decodificador = receptor != null || solicitud.tieneCuerpo()
+                        ? DecodificadorCuerpo.de(solicitud, receptor, limites.getMaxCuerpo()) : null;
+                } catch (SolicitudRechazadaException e) {
+                    rechazar(e.getCodigo());
+                    return;
+                }
+                boolean pendiente = decodificador != null && !decodificador.isTerminado();
+                // Un cuerpo que nadie usará y que el cliente aún no envía (Expect: 100-continue)
+                // no se pide: se responde y se cierra la conexión
+                boolean omitirCuerpo = pendiente && receptor == null && solicitud.isEsperaContinuar();
+                atendidas++;
+                
+                mantenerConexion = activo && !drenando && solicitud.isMantenerConexion() && !omitirCuerpo
+                                   && atendidas < maxSolicitudesPorConexion;
+                drenaje.iniciarSolicitud();
+                solicitudActual = solicitud;
+                if (pendiente && !omitirCuerpo) {
+                    cuerpo = decodificador;
+                    inicioCuerpo = System.currentTimeMillis();
+                    if (receptor != null && solicitud.isEsperaContinuar()) {
+                        salida = RespuestaHttp.continuar();
+                        if (!enviarPendiente()) {
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                responder();
+            }
+        }
+        
+        /**
+         * Entrega al decodificador la parte recibida del cuerpo en curso
+         * @throws SolicitudRechazadaException si el cuerpo excede el máximo o su enmarcado es inválido
+         */
+        private void recibirCuerpo() {
+            entrada.flip();
+            try {
+                cuerpo.consumir(entrada);
+            } finally {
+                entrada.compact();
+                posicionEscaneo = 0;
+                inicioLinea = 0;
+            }
+            if (cuerpo.isTerminado()) {
+                cuerpo = null;
+            }
+        }
+        
+        /**
+         * Genera la respuesta de la solicitud en curso, ya con su cuerpo recibido, y empieza a enviarla
+         */
+        private void responder() throws IOException {
+            RespuestaHttp respuesta = manejador.procesarSolicitud(solicitudActual);
+            respuestaActual = respuesta;
+            enCurso = respuesta;
+            salida = respuesta.aBuffers(mantenerConexion, tiempoInactividadMs / 1000);
+            if (!enviarPendiente()) {
+                return;
+            }
+            if (!mantenerConexion) {
+                cerrar();
+            }
+        }
+        
+        /**
+         * Escribe la respuesta en curso; los cuerpos en streaming se generan
+         * fragmento a fragmento a medida que el socket los acepta, y los de archivo
+         * se transfieren detrás de la cabecera hasta donde el socket admita
+         * @return true si la respuesta terminó de enviarse
+         */
+        private boolean enviarPendiente() throws IOException {
+            aparcada = false;
+            ultimaEscritura = System.currentTimeMillis();
+            while (salida != null) {
+                canal.write(salida);
+                if (RespuestaHttp.quedanBytes(salida)
+                        || enCurso != null && !enCurso.transferirArchivo(canal)) {
+                    clave.interestOps(SelectionKey.OP_WRITE);
+                    return false;
+                }
+                if (enCurso != null && !enCurso.isListo()) {
+                    aparcar();
+                    return false;
+                }
+                salida = enCurso != null ? enCurso.siguienteFragmento() : null;
+            }
+            enCurso = null;
+            if (cuerpo == null) {
+                // El 100 Continue no cierra la solicitud: falta recibir su cuerpo
+                terminarSolicitud();
+            }
+            ultimaActividad = System.currentTimeMillis();
+            return true;
+        }
+        
+        /**
+         * Deja la respuesta en espera del siguiente fragmento sin ocupar al bucle.
+         * Se sigue leyendo para notar que el cliente cerró la conexión
+         */
+        private void aparcar() {
+            aparcada = true;
+            salida = SIN_SALIDA;
+            clave.interestOps(SelectionKey.OP_READ);
+            enCurso.alEstarListo(() -> bucle.reanudar(this));
+        }
+        
+        /**
+         * Cambia la conexión a HTTP/2. Con "Upgrade: h2c" primero se envía el 101
+         * y la solicitud original se atiende como flujo 1
+         * @param solicitud solicitud que inició el cambio de protocolo
+         */
+        private void iniciarHttp2(SolicitudHttp solicitud) throws IOException {
+            http2 = new SesionHttp2(manejador, maxFlujosHttp2, limites.getMaxCabecera(), maxSolicitudesHttp2);
+            http2.setAlCompletar((atendida, respuesta) -> observador.solicitudCompletada(atendida, respuesta, cliente));
+            http2.setCliente(cliente);
+            if (drenando) {
+                http2.despedir();
+            }
+            if (SesionHttp2.esPrefacio(solicitud)) {
+                http2.omitirLineaPrefacio();
+            } else {
+                salida = RespuestaHttp.cambioDeProtocolo("h2c");
+                http2.iniciarDesdeUpgrade(solicitud);
+            }
+            // Lo que ya llegó detrás de la solicitud pertenece a la sesión
+            entrada.flip();
+            http2.recibir(entrada);
+            entrada.clear();
+            enviarHttp2();
+        }
+        
+        /**
+         * Entrega a la sesión lo leído (la sesión lo consume completo) y envía su respuesta
+         */
+        private void recibirHttp2() throws IOException {
+            entrada.flip();
+            http2.recibir(entrada);
+            entrada.clear();
+            if (salida == null) {
+                enviarHttp2();
+            } else {
+                contarFlujosHttp2();
+            }
+        }
+        
+        /**
+         * Escribe la salida de la sesión hasta agotarla o hasta que el socket no
+         * acepte más. Mientras queda salida pendiente se sigue leyendo, para
+         * recibir los WINDOW_UPDATE y PING del cliente
+         */
+        private void enviarHttp2() throws IOException {
+            if (salida == null) {
+                salida = siguienteSalidaHttp2();
+            }
+            while (salida != null) {
+                canal.write(salida);
+                if (RespuestaHttp.quedanBytes(salida)) {
+                    clave.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                salida = siguienteSalidaHttp2();
+            }
+            clave.interestOps(SelectionKey.OP_READ);
+            contarFlujosHttp2();
+            if (http2.isTerminada()) {
+                cerrar();
+            }
+        }
+        
+        /**
+         * Lleva a las solicitudes en curso la diferencia de flujos abiertos desde la última cuenta
+         */
+        private void contarFlujosHttp2() {
+            int activos = http2.getFlujosActivos();
+            drenaje.ajustarEnCurso(activos - flujosContados);
+            flujosContados = activos;
+        }
+        
+        /**
+         * Cierra la cuenta de la solicitud cuya respuesta terminó (o se cortó) y la registra;
+         * la que se cortó mientras llegaba su cuerpo no tiene respuesta que registrar
+         */
+        private void terminarSolicitud() {
+            if (solicitudActual != null) {
+                drenaje.terminarSolicitud();
+                if (respuestaActual != null) {
+                    observador.solicitudCompletada(solicitudActual, respuestaActual, cliente);
+                }
+                solicitudActual = null;
+                respuestaActual = null;
+            }
+        }
+        
+        /**
+         * Cierra la conexión si espera su siguiente solicitud; si está respondiendo
+         * la cierra al terminar. Una sesión HTTP/2 se despide con GOAWAY y se cierra
+         * cuando completa sus flujos
+         */
+        void drenar() throws IOException {
+            if (http2 != null) {
+                http2.despedir();
+                if (salida == null) {
+                    if (http2.getFlujosActivos() == 0) {
+                        drenaje.registrarInactivaCerrada();
+                    }
+                    enviarHttp2();
+                }
+                return;
+            }
+            mantenerConexion = false;
+            if (salida == null && cuerpo == null) {
+                drenaje.registrarInactivaCerrada();
+                cerrar();
+            }
+        }
+        
+        private ByteBuffer[] siguienteSalidaHttp2() {
+            ByteBuffer bytes = http2.generarSalida();
+            return bytes != null ? new ByteBuffer[] { bytes } : null;
+        }
+        
+        /**
+         * Responde el rechazo después de las respuestas ya encoladas y cierra al terminar
+         * @param codigo código HTTP del rechazo
+         */
+        private void rechazar(int codigo) throws IOException {
+            contadores.registrarRechazo(codigo);
+            entrada.clear();
+            posicionEscaneo = 0;
+            inicioLinea = 0;
+            mantenerConexion = false;
+            enCurso = null;
+            cuerpo = null;
+            salida = RespuestaHttp.rechazo(codigo).aBuffers(false, 0);
+            if (enviarPendiente()) {
+                cerrar();
+            }
+        }
+        
+        /**
+         * Quita bytes ya procesados del inicio del buffer
+         */
+        private void consumir(int bytes) {
+            entrada.flip();
+            entrada.position(bytes);
+            entrada.compact();
+            posicionEscaneo = 0;
+            inicioLinea = 0;
+        }
+        
+        /**
+         * Busca CRLFCRLF continuando desde donde quedó la lectura anterior,
+         * verificando de paso la longitud de cada línea
+         * @return índice posterior al fin de encabezados, -1 si aún no llegan completos
+         * @throws SolicitudRechazadaException si una línea excede el máximo
+         */
+        private int buscarFinEncabezados() {
+            int limite = entrada.position();
+            for (int i = posicionEscaneo; i < limite; i++) {
+                if (entrada.get(i) != '\n') {
+                    continue;
+                }
+                limites.verificarLinea(i - inicioLinea, inicioLinea == 0);
+                inicioLinea = i + 1;
+                if (i >= 3 && entrada.get(i - 1) == '\r'
+                        && entrada.get(i - 2) == '\n' && entrada.get(i - 3) == '\r') {
+                    return i + 1;
+                }
+            }
+            limites.verificarLinea(limite - inicioLinea, inicioLinea == 0);
+            posicionEscaneo = limite;
+            return -1;
+        }
+        
+        /**
+         * Rechaza con 408 la cabecera que no termina de llegar a tiempo y cierra
+         * la conexión que lleva más del tiempo permitido esperando una solicitud
+         */
+        void revisarPlazos(long ahora) throws IOException {
+            if (salida != null) {
+                if (aparcada) {
+                    // Los cuerpos que se vuelven listos sin un evento (latidos, fin por drenaje) no avisan
+                    if (enCurso.isListo()) {
+                        escribir();
+                    }
+                } else if (ahora - ultimaEscritura > limites.getTiempoCuerpoMs()) {
+                    // El cliente no acepta la respuesta pendiente: no se le espera más
+                    cerrar();
+                }
+                return;
+            }
+            if (http2 != null) {
+                if (ahora - ultimaActividad > tiempoInactividadMs) {
+                    // Sesión inactiva: se despide con GOAWAY y se cierra sin esperar más
+                    http2.despedir();
+                    enviarHttp2();
+                    cerrar();
+                }
+                return;
+            }
+            if (cuerpo != null) {
+                try {
+                    limites.verificarPlazoCuerpo(inicioCuerpo, ahora);
+                } catch (SolicitudRechazadaException e) {
+                    rechazar(e.getCodigo());
+                    return;
+                }
+            }
+            if (inicioCabecera != 0) {
+                try {
+                    limites.verificarPlazo(inicioCabecera, ahora);
+                } catch (SolicitudRechazadaException e) {
+                    rechazar(e.getCodigo());
+                }
+            } else if (ahora - ultimaActividad > tiempoInactividadMs) {
+                cerrar();
+            }
+        }
+        
+        void cerrar() {
+            if (canal.isOpen()) {
+                conexionesAbiertas.decrementAndGet();
+            }
+            if (enCurso != null) {
+                enCurso.abortarStreaming();
+                enCurso = null;
+            }
+            aparcada = false;
+            terminarSolicitud();
+            if (http2 != null) {
+                http2.abandonar();
+            }
+            drenaje.ajustarEnCurso(-flujosContados);
+            flujosContados = 0;
+            clave.cancel();
+            cerrarCanal(canal);
+        }
+    }
+    
+    private static void cerrarCanal(Channel canal) {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar canal: " + e.getMessage());
+        }
+    }
+}
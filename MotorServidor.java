@@ -0,0 +1,56 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+/**
+ * Motores de E/S disponibles para el servidor web.
+ * Se selecciona al arrancar con la propiedad de sistema "servidor.motor"
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public enum MotorServidor {
+    
+    /** accept() bloqueante y un pool fijo de hilos por conexión */
+    CLASICO,
+    
+    /** accept() bloqueante y un hilo virtual por conexión, limitado por semáforo (Java 21+) */
+    VIRTUAL,
+    
+    /** Selector no bloqueante con pocos bucles de eventos */
+    NIO;
+    
+    /**
+     * Obtiene el motor configurado en las propiedades de sistema
+     * @return MotorServidor configurado, CLASICO si no se indicó ninguno
+     */
+    public static MotorServidor desdePropiedades() {
+        String valor = System.getProperty("servidor.motor", "clasico");
+        try {
+            return valueOf(valor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Motor de servidor desconocido: " + valor);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+/**
+ * Interfaz para quien necesita enterarse de que un equipo cambió de estado
+ * Cumple con DIP: Los equipos notifican a esta abstracción, no al catálogo concreto
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface ObservadorCambios {
+    
+    /**
+     * Se invoca después de que el equipo modificó su estado visible
+     * @param equipo equipo que cambió
+     */
+    void equipoModificado(Equipo equipo);
+}
@@ -0,0 +1,44 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+/**
+ * Interfaz para quien necesita enterarse de cada solicitud ya respondida,
+ * como el registro de accesos y las métricas
+ * Cumple con DIP: Los motores de E/S notifican a esta abstracción y no al servidor concreto
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+@FunctionalInterface
+public interface ObservadorSolicitudes {
+    
+    /**
+     * Se invoca cuando la respuesta terminó de enviarse (o de encolarse, en HTTP/2)
+     * @param solicitud solicitud atendida
+     * @param respuesta respuesta enviada
+     * @param cliente dirección del cliente
+     */
+    void solicitudCompletada(SolicitudHttp solicitud, RespuestaHttp respuesta, String cliente);
+}
@@ -0,0 +1,97 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.Comparator;
+
+/**
+ * Órdenes en los que se pueden paginar los equipos. Cada uno es un orden total:
+ * la clave de orden y, para desempatar, el ID
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public enum OrdenEquipos {
+    
+    /** Por ID, el orden de /equipos y de las búsquedas */
+    ID("id", Comparator.comparing(Equipo::getId)) {
+        @Override
+        String clave(Equipo equipo) {
+            return "";
+        }
+        
+        @Override
+        int compararClave(Equipo equipo, String clave) {
+            return 0;
+        }
+    },
+    
+    /** Por consumo eléctrico, de menor a mayor, el orden de /ordenar */
+    CONSUMO("consumo", Comparator.comparingDouble(Equipo::getConsumoElectrico).thenComparing(Equipo::getId)) {
+        @Override
+        String clave(Equipo equipo) {
+            return Double.toString(equipo.getConsumoElectrico());
+        }
+        
+        @Override
+        int compararClave(Equipo equipo, String clave) {
+            return Double.compare(equipo.getConsumoElectrico(), Double.parseDouble(clave));
+        }
+    };
+    
+    private final String nombre;
+    private final Comparator<Equipo> comparador;
+    
+    OrdenEquipos(String nombre, Comparator<Equipo> comparador) {
+        this.nombre = nombre;
+        this.comparador = comparador;
+    }
+    
+    /**
+     * @param equipo equipo de referencia
+     * @return clave de orden como texto, tal como se guarda en el cursor
+     */
+    abstract String clave(Equipo equipo);
+    
+    abstract int compararClave(Equipo equipo, String clave);
+    
+    /**
+     * Compara un equipo con la posición de un cursor
+     * @return negativo si el equipo va antes, 0 si es el mismo, positivo si va después
+     */
+    int compararConCursor(Equipo equipo, CursorPagina cursor) {
+        int porClave = compararClave(equipo, cursor.getClave());
+        return porClave != 0 ? porClave : equipo.getId().compareTo(cursor.getId());
+    }
+    
+    /**
+     * Crea el cursor que apunta a un equipo de este orden
+     */
+    String cursor(Equipo equipo, boolean haciaAtras) {
+        return CursorPagina.codificar(nombre, haciaAtras, clave(equipo), equipo.getId());
+    }
+    
+    public String getNombre() { return nombre; }
+    public Comparator<Equipo> getComparador() { return comparador; }
+}
@@ -35,4 +35,12 @@ import java.util.Comparator;
 public interface Ordenable {
     void ordenarPorConsumo();
     void ordenar(Comparator<? super Equipo> comparador);
+    
+    /**
+     * Obtiene una página de equipos ordenados por consumo sin reordenar el catálogo
+     * @param limite elementos por página
+     * @param cursor cursor de una página anterior, o null para la primera
+     * @return página con los cursores para seguir recorriendo
+     */
+    Pagina<Equipo> obtenerPaginaPorConsumo(int limite, String cursor);
 }
@@ -96,6 +96,7 @@ public class Osciloscopio extends EquipoBase implements Calibrable, Medible {
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        notificarCambio();
     }
     
     @Override
@@ -123,6 +124,7 @@ public class Osciloscopio extends EquipoBase implements Calibrable, Medible {
         if (min >= -voltajeMaximo && max <= voltajeMaximo && min < max) {
             this.rangoMin = min;
             this.rangoMax = max;
+            notificarCambio();
         } else {
             throw new IllegalArgumentException(
                 String.format("Rango inválido para osciloscopio (%.1fV - %.1fV)", 
@@ -0,0 +1,75 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.List;
+
+/**
+ * Página de resultados de una consulta paginada por cursor.
+ * Los cursores son opacos para el cliente: se devuelven tal cual en la
+ * siguiente consulta para pedir la página de después o la de antes
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public final class Pagina<T> {
+    
+    /** Elementos por página cuando el cliente no indica un límite */
+    public static final int LIMITE_POR_DEFECTO = 50;
+    /** Elementos máximos por página, para acotar el trabajo de cada solicitud */
+    public static final int LIMITE_MAXIMO = 500;
+    
+    private final List<T> elementos;
+    private final int total;
+    private final String cursorSiguiente;
+    private final String cursorAnterior;
+    
+    /**
+     * Constructor de la página
+     * @param elementos elementos de la página, en orden
+     * @param total elementos que cumplen la consulta en todas las páginas
+     * @param cursorSiguiente cursor de la página siguiente, o null si es la última
+     * @param cursorAnterior cursor de la página anterior, o null si es la primera
+     */
+    public Pagina(List<T> elementos, int total, String cursorSiguiente, String cursorAnterior) {
+        this.elementos = List.copyOf(elementos);
+        this.total = total;
+        this.cursorSiguiente = cursorSiguiente;
+        this.cursorAnterior = cursorAnterior;
+    }
+    
+    /**
+     * Acota un límite pedido por el cliente al rango admitido
+     * @param limite límite pedido; 0 o negativo usa el límite por defecto
+     * @return límite entre 1 y LIMITE_MAXIMO
+     */
+    public static int normalizarLimite(int limite) {
+        return limite <= 0 ? LIMITE_POR_DEFECTO : Math.min(limite, LIMITE_MAXIMO);
+    }
+    
+    public List<T> getElementos() { return elementos; }
+    public int getTotal() { return total; }
+    public String getCursorSiguiente() { return cursorSiguiente; }
+    public String getCursorAnterior() { return cursorAnterior; }
+}
@@ -0,0 +1,449 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.List;
+
+/**
+ * Páginas HTML del sistema, definidas como plantillas precompiladas.
+ * Cada página se interpreta una vez al crear esta clase; generar una página
+ * solo copia sus trozos estáticos y escribe los datos escapados.
+ * Cumple con SRP: Solo genera el HTML, no sabe de HTTP ni de cachés
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class PaginasHtml {
+    
+    private static final PlantillaHtml PRINCIPAL = PlantillaHtml.compilar("""
+        <!DOCTYPE html>
+        <html lang="es">
+        <head>
+            <meta charset="UTF-8">
+            <meta name="viewport" content="width=device-width, initial-scale=1.0">
+            <title>Sistema de Laboratorio de Física - UVG</title>
+            <link rel="stylesheet" href="{{rutaCSS}}">
+        </head>
+        <body>
+            <div class="container">
+                <header>
+                    <h1>🔬 Sistema de Laboratorio de Física</h1>
+                    <p>Universidad del Valle de Guatemala - Gestión de Equipos</p>
+                    <p><strong>Desarrollado por:</strong> Daniel López - 242159</p>
+                </header>
+        
+                <nav class="menu">
+                    <a href="/equipos" class="btn-primary">📋 Ver Todos los Equipos</a>
+                    <a href="/ordenar" class="btn-accent">⚡ Ordenar por Consumo</a>
+                </nav>
+        
+                <section class="busqueda">
+                    <h3>🔍 Buscar Equipos</h3>
+        
+                    <div class="form-group">
+                        <h4>Buscar por ID:</h4>
+                        <form method="get" style="display: flex; gap: 1rem; align-items: center;">
+                            <input type="text" name="id" placeholder="Ejemplo: PEN001" required style="flex: 1; padding: 10px; border: 2px solid #bdc3c7; border-radius: 8px;">
+                            <button type="button" class="btn-secondary" onclick="buscarPorId(this.form)">Buscar</button>
+                        </form>
+                    </div>
+        
+                    <div class="form-group">
+                        <h4>Buscar por Nombre:</h4>
+                        <form method="get" style="display: flex; gap: 1rem; align-items: center;">
+                            <input type="text" name="nombre" placeholder="Ejemplo: Péndulo" required style="flex: 1; padding: 10px; border: 2px solid #bdc3c7; border-radius: 8px;">
+                            <button type="button" class="btn-secondary" onclick="buscarPorNombre(this.form)">Buscar</button>
+                        </form>
+                    </div>
+                </section>
+        
+                <section class="info">
+                    <h3>📊 Información del Sistema</h3>
+                    <div class="estadisticas">
+                        <div class="stat-item">
+                            <strong>Total de Equipos:</strong> {{totalEquipos}}
+                        </div>
+                        <div class="stat-item">
+                            <strong>Tipos Disponibles:</strong> Péndulos, Fotopuertas, Osciloscopios, Generadores, Simuladores
+                        </div>
+                        <div class="stat-item">
+                            <strong>Principios Implementados:</strong> SOLID, MVC, Factory, Singleton
+                        </div>
+                    </div>
+                </section>
+        
+                <footer>
+                    <p>&copy; 2025 Universidad del Valle de Guatemala - CC2008 Programación Orientada a Objetos</p>
+                </footer>
+            </div>
+        
+            <script>
+                function buscarPorId(form) {
+                    const id = form.id.value.trim();
+                    if (id) {
+                        window.location.href = '/buscar/id/' + encodeURIComponent(id);
+                    }
+                }
+        
+                function buscarPorNombre(form) {
+                    const nombre = form.nombre.value.trim();
+                    if (nombre) {
+                        window.location.href = '/buscar/nombre/' + encodeURIComponent(nombre);
+                    }
+                }
+            </script>
+        </body>
+        </html>""", "rutaCSS", "totalEquipos");
+    
+    private static final PlantillaHtml INICIO_LISTADO = PlantillaHtml.compilar("""
+        <!DOCTYPE html>
+        <html lang="es">
+        <head>
+            <meta charset="UTF-8">
+            <meta name="viewport" content="width=device-width, initial-scale=1.0">
+            <title>{{titulo}} - Sistema de Laboratorio</title>
+            <link rel="stylesheet" href="{{rutaCSS}}">
+        </head>
+        <body>
+            <div class="container">
+                <header>
+                    <h1>🔬 {{titulo}}</h1>
+                    <p>Universidad del Valle de Guatemala</p>
+                </header>
+        
+                <nav class="menu">
+                    <a href="{{volverUrl}}" class="btn-secondary">🏠 Volver al Menú Principal</a>
+                    <a href="/equipos" class="btn-primary">📋 Ver Todos</a>
+                    <a href="/ordenar" class="btn-accent">⚡ Ordenar por Consumo</a>
+                </nav>
+        
+                <section class="resultados">
+                    <div class="mensaje exito">
+                        ✅ Se encontraron {{total}} equipo(s)
+                    </div>
+        
+        """, "titulo", "rutaCSS", "volverUrl", "total");
+    
+    private static final PlantillaHtml TARJETA = PlantillaHtml.compilar("""
+                    <div class="equipo-card">
+                        <div class="equipo-header">
+                            <span class="equipo-id">{{id}}</span>
+                            <span class="equipo-consumo">⚡ {{consumo}}W</span>
+                        </div>
+                        <div class="equipo-nombre">{{nombre}}</div>
+                        <div class="equipo-info">
+                            <div class="equipo-detalle">
+                                <strong>🏷️ Tipo:</strong>
+                                {{tipo}}
+                            </div>
+                            <div class="equipo-detalle">
+                                <strong>🏭 Fabricante:</strong>
+                                {{fabricante}}
+                            </div>
+                            <div class="equipo-detalle">
+                                <strong>📋 Características:</strong>
+                                {{caracteristicas}}
+                            </div>
+                        </div>
+                        <a href="/detalles/{{id}}" class="btn-detalles">
+                            🔍 Ver Detalles Completos
+                        </a>
+                    </div>
+        """, "id", "consumo", "nombre", "tipo", "fabricante", "caracteristicas");
+    
+    private static final PlantillaHtml PAGINACION = PlantillaHtml.compilar("""
+                    <nav class="menu">
+                        {{anterior}}
+                        {{siguiente}}
+                    </nav>
+        """, "anterior", "siguiente");
+    
+    private static final PlantillaHtml ENLACE_PAGINA = PlantillaHtml.compilar(
+        "<a href=\"{{url}}\" rel=\"{{relacion}}\" class=\"btn-primary\">{{texto}}</a>",
+        "url", "relacion", "texto");
+    
+    private static final PlantillaHtml FIN_LISTADO = PlantillaHtml.compilar("""
+                </section>
+                <footer>
+                    <p>&copy; 2025 Universidad del Valle de Guatemala - Daniel López (242159)</p>
+                </footer>
+            </div>
+        </body>
+        </html>""");
+    
+    private static final PlantillaHtml DETALLES = PlantillaHtml.compilar("""
+        <!DOCTYPE html>
+        <html lang="es">
+        <head>
+            <meta charset="UTF-8">
+            <meta name="viewport" content="width=device-width, initial-scale=1.0">
+            <title>Detalles: {{nombre}} - Sistema de Laboratorio</title>
+            <link rel="stylesheet" href="{{rutaCSS}}">
+        </head>
+        <body>
+            <div class="container">
+                <header>
+                    <h1>🔍 Detalles del Equipo</h1>
+                    <p>Universidad del Valle de Guatemala</p>
+                </header>
+        
+                <nav class="menu">
+                    <a href="/" class="btn-secondary">🏠 Menú Principal</a>
+                    <a href="/equipos" class="btn-primary">📋 Ver Todos</a>
+                </nav>
+        
+                <section class="detalles-completos">
+                    <div class="equipo-card-detalle">
+                        <div class="equipo-header">
+                            <span class="equipo-id">{{id}}</span>
+                            <span class="equipo-consumo">⚡ {{consumo}}W</span>
+                        </div>
+                        <h2>{{nombre}}</h2>
+        
+                        <div class="detalles-equipo">
+                            <pre>{{detalles}}</pre>
+                        </div>
+        
+                        <div class="acciones">
+                            <a href="javascript:history.back()" class="btn-secondary">← Volver</a>
+                            <a href="/equipos" class="btn-primary">Ver Todos los Equipos</a>
+                        </div>
+                    </div>
+                </section>
+        
+                <footer>
+                    <p>&copy; 2025 Universidad del Valle de Guatemala - Daniel López (242159)</p>
+                </footer>
+            </div>
+        </body>
+        </html>""", "nombre", "rutaCSS", "id", "consumo", "detalles");
+    
+    private static final PlantillaHtml ERROR = PlantillaHtml.compilar("""
+        <!DOCTYPE html>
+        <html lang="es">
+        <head>
+            <meta charset="UTF-8">
+            <meta name="viewport" content="width=device-width, initial-scale=1.0">
+            <title>Error - Sistema de Laboratorio</title>
+            <link rel="stylesheet" href="{{rutaCSS}}">
+        </head>
+        <body>
+            <div class="container">
+                <header>
+                    <h1>❌ Error</h1>
+                    <p>Universidad del Valle de Guatemala</p>
+                </header>
+        
+                <section class="error">
+                    <div class="mensaje error">
+                        {{mensaje}}
+                    </div>
+        
+                    <div class="acciones">
+                        <a href="{{volverUrl}}" class="btn-primary">🏠 Volver al Menú Principal</a>
+                        <a href="/equipos" class="btn-secondary">📋 Ver Todos los Equipos</a>
+                    </div>
+                </section>
+        
+                <footer>
+                    <p>&copy; 2025 Universidad del Valle de Guatemala - Daniel López (242159)</p>
+                </footer>
+            </div>
+        </body>
+        </html>""", "rutaCSS", "mensaje", "volverUrl");
+    
+    private static final PlantillaHtml ERROR_BREVE = PlantillaHtml.compilar(
+        "<html><body><h1>{{codigo}} - {{mensaje}}</h1><a href=\"/\">Volver al inicio</a></body></html>",
+        "codigo", "mensaje");
+    
+    private static final PlantillaHtml ERROR_SERVIDOR = PlantillaHtml.compilar(
+        "<html><body><h1>500 - Error del servidor</h1><p>{{detalle}}</p><a href=\"/\">Volver al inicio</a></body></html>",
+        "detalle");
+    
+    private final String rutaCSS;
+    
+    /**
+     * Constructor de las páginas
+     * @param rutaCSS URL de la hoja de estilos enlazada desde todas las páginas
+     */
+    public PaginasHtml(String rutaCSS) {
+        this.rutaCSS = rutaCSS;
+    }
+    
+    /**
+     * Genera la página principal con menú
+     * @param totalEquipos cantidad de equipos del catálogo
+     * @return bytes UTF-8 de la página
+     */
+    public byte[] principal(int totalEquipos) {
+        return PRINCIPAL.aBytes(rutaCSS, totalEquipos);
+    }
+    
+    /**
+     * Genera página con listado de equipos
+     * @param equipos equipos a mostrar
+     * @param titulo título de la página
+     * @param volverUrl enlace de regreso
+     * @return bytes UTF-8 de la página
+     */
+    public byte[] listado(List<Equipo> equipos, String titulo, String volverUrl) {
+        return listado(equipos, equipos.size(), titulo, volverUrl, null, null);
+    }
+    
+    /**
+     * Genera una página de un listado paginado, con enlaces a la anterior y la siguiente
+     * @param equipos equipos de esta página
+     * @param total equipos del listado completo
+     * @param titulo título de la página
+     * @param volverUrl enlace de regreso
+     * @param anteriorUrl enlace a la página anterior, o null si es la primera
+     * @param siguienteUrl enlace a la página siguiente, o null si es la última
+     * @return bytes UTF-8 de la página
+     */
+    public byte[] listado(List<Equipo> equipos, int total, String titulo, String volverUrl,
+                          String anteriorUrl, String siguienteUrl) {
+        SalidaHtml salida = new SalidaHtml(2048 + equipos.size() * 1536);
+        inicioListado(salida, titulo, volverUrl, total);
+        for (Equipo equipo : equipos) {
+            tarjeta(salida, equipo);
+        }
+        finListado(salida, anteriorUrl, siguienteUrl);
+        return salida.toByteArray();
+    }
+    
+    /**
+     * Crea el cuerpo de un listado que se genera por fragmentos de tamaño acotado:
+     * primero el esqueleto de la página, luego las tarjetas en lotes y al final el cierre
+     * @param equipos equipos a mostrar
+     * @param titulo título de la página
+     * @param volverUrl enlace de regreso
+     * @param tamanoFragmento bytes aproximados por fragmento
+     * @return cuerpo en streaming
+     */
+    public CuerpoEnStreaming listadoEnStreaming(List<Equipo> equipos, String titulo, String volverUrl,
+                                                int tamanoFragmento) {
+        return listadoEnStreaming(equipos, equipos.size(), titulo, volverUrl, null, null, tamanoFragmento);
+    }
+    
+    /**
+     * Crea el cuerpo en streaming de una página de un listado paginado
+     * @param equipos equipos de esta página
+     * @param total equipos del listado completo
+     * @param titulo título de la página
+     * @param volverUrl enlace de regreso
+     * @param anteriorUrl enlace a la página anterior, o null si es la primera
+     * @param siguienteUrl enlace a la página siguiente, o null si es la última
+     * @param tamanoFragmento bytes aproximados por fragmento
+     * @return cuerpo en streaming
+     */
+    public CuerpoEnStreaming listadoEnStreaming(List<Equipo> equipos, int total, String titulo, String volverUrl,
+                                                String anteriorUrl, String siguienteUrl, int tamanoFragmento) {
+        return new CuerpoEnStreaming() {
+            private int siguiente;
+            private boolean inicioEnviado;
+            
+            @Override
+            public boolean escribirFragmento(SalidaHtml destino) {
+                if (!inicioEnviado) {
+                    // El esqueleto sale solo para que el navegador pida el CSS cuanto antes
+                    inicioListado(destino, titulo, volverUrl, total);
+                    inicioEnviado = true;
+                    return true;
+                }
+                while (siguiente < equipos.size() && destino.tamano() < tamanoFragmento) {
+                    tarjeta(destino, equipos.get(siguiente++));
+                }
+                if (siguiente < equipos.size()) {
+                    return true;
+                }
+                finListado(destino, anteriorUrl, siguienteUrl);
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Genera página de detalles de un equipo
+     * @param equipo equipo a mostrar
+     * @return bytes UTF-8 de la página
+     */
+    public byte[] detalles(Equipo equipo) {
+        return DETALLES.aBytes(equipo.getNombre(), rutaCSS, equipo.getId(),
+                               formatearConsumo(equipo), equipo.mostrarDetalles());
+    }
+    
+    /**
+     * Genera página de error
+     * @param mensaje mensaje a mostrar
+     * @param volverUrl enlace de regreso
+     * @return bytes UTF-8 de la página
+     */
+    public byte[] error(String mensaje, String volverUrl) {
+        return ERROR.aBytes(rutaCSS, mensaje, volverUrl);
+    }
+    
+    /**
+     * Genera la página mínima de un error HTTP (405, 500...)
+     * @param codigo código de estado
+     * @param mensaje descripción del error
+     * @return bytes UTF-8 de la página
+     */
+    public byte[] errorBreve(int codigo, String mensaje) {
+        return ERROR_BREVE.aBytes(codigo, mensaje);
+    }
+    
+    /**
+     * Genera la página de error interno
+     * @param detalle descripción de la falla
+     * @return bytes UTF-8 de la página
+     */
+    public byte[] errorServidor(String detalle) {
+        return ERROR_SERVIDOR.aBytes(detalle);
+    }
+    
+    private void inicioListado(SalidaHtml salida, String titulo, String volverUrl, int total) {
+        INICIO_LISTADO.renderizar(salida, titulo, rutaCSS, volverUrl, total);
+    }
+    
+    private void tarjeta(SalidaHtml salida, Equipo equipo) {
+        TARJETA.renderizar(salida, equipo.getId(), formatearConsumo(equipo), equipo.getNombre(),
+                           equipo.getTipo(), equipo.getFabricante(), equipo.getResumenCaracteristicas());
+    }
+    
+    private void finListado(SalidaHtml salida, String anteriorUrl, String siguienteUrl) {
+        if (anteriorUrl != null || siguienteUrl != null) {
+            PAGINACION.renderizar(salida, enlacePagina(anteriorUrl, "prev", "⬅️ Página anterior"),
+                                  enlacePagina(siguienteUrl, "next", "Página siguiente ➡️"));
+        }
+        FIN_LISTADO.renderizar(salida);
+    }
+    
+    private static FragmentoHtml enlacePagina(String url, String relacion, String texto) {
+        return url == null ? null : salida -> ENLACE_PAGINA.renderizar(salida, url, relacion, texto);
+    }
+    
+    private static String formatearConsumo(Equipo equipo) {
+        return String.format("%.2f", equipo.getConsumoElectrico());
+    }
+}
@@ -0,0 +1,166 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parámetros de ruta y de consulta de una solicitud enrutada.
+ * Durante el enrutamiento solo se guardan posiciones dentro de la ruta original;
+ * los valores se materializan (y decodifican) cuando un manejador los pide
+ * Cumple con SRP: Solo da acceso a los parámetros, no participa en la búsqueda
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class ParametrosRuta {
+    
+    private static final String[] SIN_NOMBRES = new String[0];
+    
+    private final String ruta;
+    private final int inicioConsulta;
+    private String[] nombres;
+    private final int[] inicios;
+    private final int[] fines;
+    private Map<String, String> consulta;
+    
+    /**
+     * Constructor usado por el enrutador
+     * @param ruta ruta completa de la solicitud, con su cadena de consulta
+     * @param capacidad máximo de parámetros de ruta de cualquier patrón registrado
+     * @param inicioConsulta posición del primer carácter tras '?', o -1 si no hay consulta
+     */
+    ParametrosRuta(String ruta, int capacidad, int inicioConsulta) {
+        this.ruta = ruta;
+        this.inicioConsulta = inicioConsulta;
+        this.nombres = SIN_NOMBRES;
+        this.inicios = new int[capacidad];
+        this.fines = new int[capacidad];
+    }
+    
+    void marcar(int indice, int inicio, int fin) {
+        inicios[indice] = inicio;
+        fines[indice] = fin;
+    }
+    
+    void asignarNombres(String[] nombres) {
+        this.nombres = nombres;
+    }
+    
+    /**
+     * Obtiene un parámetro de ruta decodificado
+     * @param nombre nombre declarado en el patrón, por ejemplo "id" en /detalles/{id}
+     * @return valor del segmento, o null si el patrón no lo declara
+     */
+    public String getTexto(String nombre) {
+        int indice = indiceDe(nombre);
+        if (indice < 0) {
+            return null;
+        }
+        return decodificar(ruta, inicios[indice], fines[indice]);
+    }
+    
+    /**
+     * Obtiene un parámetro declarado como {nombre:int} sin crear cadenas intermedias
+     * @param nombre nombre declarado en el patrón
+     * @return valor numérico del segmento
+     * @throws IllegalArgumentException si el patrón no declara el parámetro
+     */
+    public long getEntero(String nombre) {
+        int indice = indiceDe(nombre);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Parámetro de ruta no declarado: " + nombre);
+        }
+        return EnrutadorTrie.leerEntero(ruta, inicios[indice], fines[indice]);
+    }
+    
+    /**
+     * Obtiene un parámetro de la cadena de consulta (?clave=valor&...)
+     * @param nombre clave del parámetro
+     * @return primer valor decodificado, cadena vacía si viene sin valor, o null si no viene
+     */
+    public String getConsulta(String nombre) {
+        return getConsultas().get(nombre);
+    }
+    
+    /**
+     * Obtiene todos los parámetros de consulta; se interpretan en la primera llamada
+     * @return mapa inmodificable clave → primer valor
+     */
+    public Map<String, String> getConsultas() {
+        if (consulta == null) {
+            consulta = inicioConsulta < 0 ? Collections.emptyMap() : parsearConsulta();
+        }
+        return consulta;
+    }
+    
+    private int indiceDe(String nombre) {
+        for (int i = 0; i < nombres.length; i++) {
+            if (nombres[i].equals(nombre)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private Map<String, String> parsearConsulta() {
+        Map<String, String> valores = new HashMap<>();
+        int inicio = inicioConsulta;
+        int fin = ruta.length();
+        while (inicio < fin) {
+            int separador = ruta.indexOf('&', inicio);
+            if (separador < 0) {
+                separador = fin;
+            }
+            int igual = ruta.indexOf('=', inicio);
+            if (igual < 0 || igual > separador) {
+                igual = separador;
+            }
+            if (igual > inicio) {
+                String clave = decodificar(ruta, inicio, igual);
+                String valor = igual < separador ? decodificar(ruta, igual + 1, separador) : "";
+                valores.putIfAbsent(clave, valor);
+            }
+            inicio = separador + 1;
+        }
+        return Collections.unmodifiableMap(valores);
+    }
+    
+    private static String decodificar(String texto, int inicio, int fin) {
+        String valor = texto.substring(inicio, fin);
+        if (valor.indexOf('%') < 0 && valor.indexOf('+') < 0) {
+            return valor;
+        }
+        try {
+            return URLDecoder.decode(valor, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            // Escape %xx mal formado: se entrega el texto tal como llegó
+            return valor;
+        }
+    }
+}
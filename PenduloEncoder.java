@@ -93,6 +93,7 @@ public class PenduloEncoder extends EquipoBase implements Calibrable, Medible {
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        notificarCambio();
     }
     
     @Override
@@ -121,6 +122,7 @@ public class PenduloEncoder extends EquipoBase implements Calibrable, Medible {
         if (min >= 0 && max <= 360 && min < max) {
             this.rangoMin = min;
             this.rangoMax = max;
+            notificarCambio();
         } else {
             throw new IllegalArgumentException("Rango inválido para péndulo (0° - 360°)");
         }
@@ -0,0 +1,136 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plantilla HTML precompilada. El texto se interpreta una sola vez en trozos
+ * estáticos ya codificados en UTF-8 y ranuras {{nombre}}; renderizar solo copia
+ * esos bytes y llena las ranuras en la salida.
+ * El tipo del valor decide cómo se llena cada ranura:
+ * - FragmentoHtml: se escribe tal cual (HTML anidado de confianza)
+ * - cualquier otro valor: se convierte a texto y se escapa siempre
+ * - null: no escribe nada
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public final class PlantillaHtml {
+    
+    private static final String APERTURA = "{{";
+    private static final String CIERRE = "}}";
+    
+    private final String[] nombres;
+    private final byte[][] estaticos;
+    private final int[] ranuras;
+    
+    private PlantillaHtml(String[] nombres, byte[][] estaticos, int[] ranuras) {
+        this.nombres = nombres;
+        this.estaticos = estaticos;
+        this.ranuras = ranuras;
+    }
+    
+    /**
+     * Compila una plantilla
+     * @param fuente texto HTML con ranuras {{nombre}}
+     * @param nombres nombres de las ranuras, en el orden en que se pasarán los valores
+     * @return plantilla lista para renderizar
+     * @throws IllegalArgumentException si una ranura no está cerrada o no fue declarada
+     */
+    public static PlantillaHtml compilar(String fuente, String... nombres) {
+        List<byte[]> estaticos = new ArrayList<>();
+        List<Integer> ranuras = new ArrayList<>();
+        int desde = 0;
+        int apertura;
+        while ((apertura = fuente.indexOf(APERTURA, desde)) >= 0) {
+            int cierre = fuente.indexOf(CIERRE, apertura + APERTURA.length());
+            if (cierre < 0) {
+                throw new IllegalArgumentException("Ranura sin cerrar en la posición " + apertura);
+            }
+            String nombre = fuente.substring(apertura + APERTURA.length(), cierre).trim();
+            int indice = Arrays.asList(nombres).indexOf(nombre);
+            if (indice < 0) {
+                throw new IllegalArgumentException("Ranura no declarada: {{" + nombre + "}}");
+            }
+            estaticos.add(fuente.substring(desde, apertura).getBytes(StandardCharsets.UTF_8));
+            ranuras.add(indice);
+            desde = cierre + CIERRE.length();
+        }
+        estaticos.add(fuente.substring(desde).getBytes(StandardCharsets.UTF_8));
+        
+        return new PlantillaHtml(nombres.clone(), estaticos.toArray(new byte[0][]),
+                                 ranuras.stream().mapToInt(Integer::intValue).toArray());
+    }
+    
+    /**
+     * Escribe la plantilla en la salida
+     * @param salida buffer de destino
+     * @param valores un valor por ranura, en el orden declarado al compilar
+     * @throws IllegalArgumentException si la cantidad de valores no coincide
+     */
+    public void renderizar(SalidaHtml salida, Object... valores) {
+        if (valores.length != nombres.length) {
+            throw new IllegalArgumentException("Se esperaban " + nombres.length
+                                               + " valores y llegaron " + valores.length);
+        }
+        for (int i = 0; i < ranuras.length; i++) {
+            salida.escribir(estaticos[i]);
+            escribirValor(salida, valores[ranuras[i]]);
+        }
+        salida.escribir(estaticos[ranuras.length]);
+    }
+    
+    /**
+     * Renderiza la plantilla en un arreglo nuevo
+     * @param valores un valor por ranura, en el orden declarado al compilar
+     * @return bytes UTF-8 de la página
+     */
+    public byte[] aBytes(Object... valores) {
+        SalidaHtml salida = new SalidaHtml(tamanoEstatico() + 1024);
+        renderizar(salida, valores);
+        return salida.toByteArray();
+    }
+    
+    private static void escribirValor(SalidaHtml salida, Object valor) {
+        if (valor instanceof FragmentoHtml) {
+            ((FragmentoHtml) valor).escribir(salida);
+        } else if (valor instanceof CharSequence) {
+            salida.escribirTexto((CharSequence) valor);
+        } else if (valor != null) {
+            salida.escribirTexto(String.valueOf(valor));
+        }
+    }
+    
+    private int tamanoEstatico() {
+        int total = 0;
+        for (byte[] estatico : estaticos) {
+            total += estatico.length;
+        }
+        return total;
+    }
+}
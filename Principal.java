@@ -59,7 +59,7 @@ public class Principal {
                 System.out.println("✅ Servidor API cerrado correctamente.");
             }));
             
-            mostrarInstruccionesUso();
+            mostrarInstruccionesUso(servidorAPI.getArchivos());
             
             // Iniciar servidor API (este método es bloqueante)
             servidorAPI.iniciar();
@@ -110,8 +110,9 @@ public class Principal {
     
     /**
      * Muestra instrucciones de uso para el desarrollador
+     * @param archivos archivos estáticos del servidor API
      */
-    private static void mostrarInstruccionesUso() {
+    private static void mostrarInstruccionesUso(ArchivosEstaticos archivos) {
         System.out.println("📖 INSTRUCCIONES DE USO:");
         System.out.println("\n🖥️  OPCIÓN 1 - Live Server (Recomendado para desarrollo):");
         System.out.println("   1. Instale la extensión 'Live Server' en VS Code");
@@ -128,6 +129,15 @@ public class Principal {
         System.out.println("   4. Despliegue su API en Heroku, Railway o similar");
         System.out.println();
         
+        System.out.println("📁 OPCIÓN 3 - Mismo servidor (sin servidor aparte para el frontend):");
+        if (archivos.isActivo()) {
+            System.out.println("   • El frontend se sirve en " + URL_API + archivos.getPatron().replace("{archivo}", "index.html"));
+        } else {
+            System.out.println("   1. Inicie con -Dservidor.archivos.dir=<carpeta con index.html>");
+            System.out.println("   2. Abra " + URL_API + "/archivos/index.html");
+        }
+        System.out.println();
+        
         System.out.println("🔧 CONFIGURACIÓN:");
         System.out.println("   • API Backend: " + URL_API);
         System.out.println("   • Edite script.js para cambiar la URL de producción");
@@ -0,0 +1,50 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.ByteBuffer;
+
+/**
+ * Destino del cuerpo de una solicitud que se procesa a medida que llega, sin
+ * acumularlo completo en memoria. El motor de E/S le entrega los bytes ya sin el
+ * enmarcado (Content-Length o Transfer-Encoding: chunked) y la solicitud se
+ * enruta cuando el cuerpo terminó de llegar.
+ * Cumple con ISP: Solo define el consumo incremental del contenido
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public interface ReceptorCuerpo {
+    
+    /**
+     * Consume un tramo del cuerpo. Se invoca desde el hilo del motor, en orden
+     * @param datos bytes del cuerpo; el receptor debe consumirlos todos
+     */
+    void recibir(ByteBuffer datos);
+    
+    /**
+     * Avisa que el cuerpo llegó completo
+     */
+    void terminar();
+}
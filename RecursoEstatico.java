@@ -0,0 +1,126 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+
+/**
+ * Recurso estático (CSS, imágenes, etc.) codificado una sola vez al arrancar.
+ * Guarda los bytes, un ETag fuerte y la ruta con huella de contenido
+ * (ej: /styles.1a2b3c4d5e6f.css) que puede cachearse como inmutable.
+ * También guarda su versión gzip, comprimida una sola vez con el nivel máximo.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class RecursoEstatico {
+    
+    private static final int LONGITUD_HUELLA = 12;
+    private static final String SUFIJO_GZIP = "-gzip";
+    
+    private final String ruta;
+    private final String rutaConHuella;
+    private final String tipoContenido;
+    private final byte[] contenido;
+    private final byte[] contenidoGzip;
+    private final String etag;
+    private final RespuestaHttp.Encabezado encabezadoTipo;
+    private final RespuestaHttp.Encabezado encabezadoEtag;
+    private final RespuestaHttp.Encabezado encabezadoEtagGzip;
+    
+    /**
+     * Constructor del recurso
+     * @param ruta ruta lógica (ej: /styles.css)
+     * @param tipoContenido valor de Content-Type
+     * @param contenido texto del recurso, se codifica en UTF-8
+     */
+    public RecursoEstatico(String ruta, String tipoContenido, String contenido) {
+        this.ruta = ruta;
+        this.tipoContenido = tipoContenido;
+        this.contenido = contenido.getBytes(StandardCharsets.UTF_8);
+        this.contenidoGzip = CompresorGzip.gzip(this.contenido, Deflater.BEST_COMPRESSION);
+        
+        String hash = HexFormat.of().formatHex(sha256(this.contenido));
+        this.etag = "\"" + hash.substring(0, 32) + "\"";
+        this.encabezadoTipo = new RespuestaHttp.Encabezado("Content-Type", tipoContenido);
+        this.encabezadoEtag = new RespuestaHttp.Encabezado("ETag", etag);
+        this.encabezadoEtagGzip = new RespuestaHttp.Encabezado("ETag", getEtagGzip());
+        
+        int punto = ruta.lastIndexOf('.');
+        this.rutaConHuella = punto > 0
+            ? ruta.substring(0, punto) + "." + hash.substring(0, LONGITUD_HUELLA) + ruta.substring(punto)
+            : ruta + "." + hash.substring(0, LONGITUD_HUELLA);
+    }
+    
+    /**
+     * Evalúa If-None-Match contra el ETag del recurso.
+     * Acepta también el ETag de la variante gzip, que solo difiere en la codificación.
+     * @param ifNoneMatch valor del encabezado, puede ser null
+     * @return true si el cliente ya tiene esta versión y basta con un 304
+     */
+    public boolean coincideEtag(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2); // Comparación débil (RFC 7232, sección 3.2)
+            }
+            valor = valor.replace(SUFIJO_GZIP + "\"", "\"");
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static byte[] sha256(byte[] datos) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(datos);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+    
+    public String getRuta() { return ruta; }
+    public String getRutaConHuella() { return rutaConHuella; }
+    public String getTipoContenido() { return tipoContenido; }
+    public byte[] getContenido() { return contenido; }
+    public byte[] getContenidoGzip() { return contenidoGzip; }
+    public String getEtag() { return etag; }
+    
+    public RespuestaHttp.Encabezado getEncabezadoTipo() { return encabezadoTipo; }
+    public RespuestaHttp.Encabezado getEncabezadoEtag() { return encabezadoEtag; }
+    public RespuestaHttp.Encabezado getEncabezadoEtagGzip() { return encabezadoEtagGzip; }
+    
+    /** @return ETag de la variante gzip, distinto del original como exige un ETag fuerte */
+    public final String getEtagGzip() {
+        return etag.substring(0, etag.length() - 1) + SUFIJO_GZIP + "\"";
+    }
+}
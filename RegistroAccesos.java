@@ -0,0 +1,403 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Registro de accesos asíncrono: una línea por solicitud con fecha, cliente,
+ * método, ruta, código, bytes del cuerpo y latencia en microsegundos.
+ * Los hilos que atienden publican en un anillo de entradas preasignadas sin bloqueos
+ * (varios productores, un consumidor) y un único hilo escritor las agrupa en un
+ * ByteBuffer directo que escribe con un FileChannel, rotando el archivo por tamaño.
+ * Si el anillo está lleno la entrada se descarta y se cuenta: nunca se bloquea a quien atiende.
+ * Se configura con servidor.accesos.archivo (vacío = desactivado), servidor.accesos.capacidad,
+ * servidor.accesos.rotacion.bytes y servidor.accesos.archivos
+ * Cumple con SRP: Solo registra accesos, no decide qué solicitudes se atienden
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class RegistroAccesos {
+    
+    private static final int TAMANO_LOTE = 64 * 1024;
+    private static final int RESERVA_LINEA = 128;
+    private static final long ESPERA_ESCRITOR_NANOS = 5_000_000L;
+    private static final DateTimeFormatter FORMATO_SEGUNDO = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    
+    private final Path archivo;
+    private final long bytesRotacion;
+    private final int archivosConservados;
+    private final Entrada[] entradas;
+    private final AtomicLongArray secuencias;
+    private final int mascara;
+    private final AtomicLong siguienteProductor = new AtomicLong();
+    private final LongAdder descartadas = new LongAdder();
+    private final LongAdder escritas = new LongAdder();
+    private final ByteBuffer lote = ByteBuffer.allocateDirect(TAMANO_LOTE);
+    private final byte[] digitos = new byte[20];
+    private long siguienteConsumidor;
+    private long segundoCacheado = -1;
+    private byte[] prefijoSegundo;
+    private FileChannel canal;
+    private long bytesArchivo;
+    private Thread escritor;
+    private volatile boolean activo;
+    
+    /**
+     * Constructor del registro
+     * @param archivo archivo de accesos; null desactiva el registro
+     * @param capacidad entradas del anillo, se redondea a potencia de dos
+     * @param bytesRotacion tamaño a partir del cual se rota el archivo
+     * @param archivosConservados archivos rotados que se conservan (.1, .2, ...)
+     */
+    public RegistroAccesos(Path archivo, int capacidad, long bytesRotacion, int archivosConservados) {
+        if (capacidad < 1 || bytesRotacion < 1 || archivosConservados < 1) {
+            throw new IllegalArgumentException("La configuración del registro de accesos debe ser positiva");
+        }
+        int tamano = Integer.highestOneBit(capacidad - 1) << 1;
+        if (capacidad == 1) {
+            tamano = 1;
+        }
+        this.archivo = archivo;
+        this.bytesRotacion = bytesRotacion;
+        this.archivosConservados = archivosConservados;
+        this.entradas = new Entrada[tamano];
+        this.secuencias = new AtomicLongArray(tamano);
+        this.mascara = tamano - 1;
+        for (int i = 0; i < tamano; i++) {
+            entradas[i] = new Entrada();
+            secuencias.set(i, i);
+        }
+    }
+    
+    /**
+     * Crea el registro a partir de las propiedades de sistema
+     * @return registro configurado (por defecto desactivado, 8192 entradas, 10 MB y 5 archivos)
+     */
+    public static RegistroAccesos desdePropiedades() {
+        String ruta = System.getProperty("servidor.accesos.archivo", "").trim();
+        return new RegistroAccesos(ruta.isEmpty() ? null : Paths.get(ruta),
+                                   Integer.getInteger("servidor.accesos.capacidad", 8192),
+                                   Long.getLong("servidor.accesos.rotacion.bytes", 10L * 1024 * 1024),
+                                   Integer.getInteger("servidor.accesos.archivos", 5));
+    }
+    
+    /**
+     * Abre el archivo en modo de agregado e inicia el hilo escritor
+     * @throws IOException si no se puede abrir el archivo
+     */
+    public synchronized void iniciar() throws IOException {
+        if (archivo == null || activo) {
+            return;
+        }
+        abrir();
+        activo = true;
+        escritor = new Thread(this::escribirMientrasActivo, "registro-accesos");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+    
+    /**
+     * Detiene el hilo escritor después de escribir lo que quede en el anillo
+     */
+    public synchronized void cerrar() {
+        if (!activo) {
+            return;
+        }
+        activo = false;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Registra una solicitud ya respondida; la latencia se mide desde que se parseó
+     * @param solicitud solicitud atendida
+     * @param respuesta respuesta enviada
+     * @param cliente dirección del cliente
+     */
+    public void registrar(SolicitudHttp solicitud, RespuestaHttp respuesta, String cliente) {
+        if (!activo) {
+            return;
+        }
+        publicar(cliente != null ? cliente : "-", solicitud.getMetodo(), solicitud.getRuta(), respuesta.getCodigo(),
+                 respuesta.getBytesCuerpo(), (System.nanoTime() - solicitud.getInicioNanos()) / 1000);
+    }
+    
+    /**
+     * Obtiene la dirección IP del cliente, una sola vez por conexión
+     * @param canal canal del cliente
+     * @return dirección en texto, o "-" si no se puede determinar
+     */
+    public static String direccionCliente(SocketChannel canal) {
+        try {
+            SocketAddress direccion = canal.getRemoteAddress();
+            return direccion instanceof InetSocketAddress
+                ? ((InetSocketAddress) direccion).getAddress().getHostAddress() : "-";
+        } catch (IOException e) {
+            return "-";
+        }
+    }
+    
+    /**
+     * Reserva una entrada libre del anillo y la publica. La secuencia de cada entrada
+     * indica de quién es el turno: igual a la posición si está libre para el productor,
+     * posición + 1 cuando está lista para el escritor
+     * @return false si el anillo estaba lleno y la entrada se descartó
+     */
+    private boolean publicar(String cliente, String metodo, String ruta, int codigo, long bytes, long latenciaMicros) {
+        long posicion = siguienteProductor.get();
+        boolean reservada = false;
+        while (!reservada) {
+            long diferencia = secuencias.getAcquire((int) posicion & mascara) - posicion;
+            if (diferencia < 0) {
+                descartadas.increment();
+                return false;
+            }
+            if (diferencia == 0 && siguienteProductor.compareAndSet(posicion, posicion + 1)) {
+                reservada = true;
+            } else {
+                posicion = siguienteProductor.get();
+            }
+        }
+        int indice = (int) posicion & mascara;
+        Entrada entrada = entradas[indice];
+        entrada.instante = System.currentTimeMillis();
+        entrada.cliente = cliente;
+        entrada.metodo = metodo;
+        entrada.ruta = ruta;
+        entrada.codigo = codigo;
+        entrada.bytes = bytes;
+        entrada.latenciaMicros = latenciaMicros;
+        secuencias.setRelease(indice, posicion + 1);
+        return true;
+    }
+    
+    /**
+     * Ciclo del hilo escritor: vacía el anillo en lotes y duerme brevemente cuando no hay nada
+     */
+    private void escribirMientrasActivo() {
+        boolean continuar = true;
+        while (continuar) {
+            boolean estabaActivo = activo;
+            int leidas = vaciarAnillo();
+            if (!estabaActivo && leidas == 0) {
+                continuar = false;
+            } else if (leidas == 0) {
+                LockSupport.parkNanos(ESPERA_ESCRITOR_NANOS);
+            }
+        }
+        try {
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar registro de accesos: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Formatea las entradas listas en el lote, escribiéndolo cada vez que se llena
+     * @return entradas consumidas
+     */
+    private int vaciarAnillo() {
+        int leidas = 0;
+        int indice = (int) siguienteConsumidor & mascara;
+        while (secuencias.getAcquire(indice) == siguienteConsumidor + 1) {
+            Entrada entrada = entradas[indice];
+            if (lote.remaining() < RESERVA_LINEA + 3 * (entrada.ruta.length() + entrada.cliente.length() + entrada.metodo.length())) {
+                volcarLote();
+            }
+            formatear(entrada);
+            entrada.cliente = null;
+            entrada.metodo = null;
+            entrada.ruta = null;
+            // La entrada vuelve a estar libre para la siguiente vuelta del anillo
+            secuencias.setRelease(indice, siguienteConsumidor + entradas.length);
+            siguienteConsumidor++;
+            leidas++;
+            indice = (int) siguienteConsumidor & mascara;
+        }
+        volcarLote();
+        escritas.add(leidas);
+        return leidas;
+    }
+    
+    /**
+     * Escribe "fecha cliente método ruta código bytes latencia" en el lote
+     */
+    private void formatear(Entrada entrada) {
+        long segundo = entrada.instante / 1000;
+        if (segundo != segundoCacheado) {
+            prefijoSegundo = LocalDateTime.ofEpochSecond(segundo, 0, ZoneOffset.UTC)
+                .format(FORMATO_SEGUNDO).getBytes(StandardCharsets.US_ASCII);
+            segundoCacheado = segundo;
+        }
+        lote.put(prefijoSegundo);
+        lote.put((byte) '.');
+        int milis = (int) (entrada.instante % 1000);
+        lote.put((byte) ('0' + milis / 100)).put((byte) ('0' + milis / 10 % 10)).put((byte) ('0' + milis % 10));
+        lote.put((byte) 'Z').put((byte) ' ');
+        escribirTexto(entrada.cliente);
+        lote.put((byte) ' ');
+        escribirTexto(entrada.metodo);
+        lote.put((byte) ' ');
+        escribirTexto(entrada.ruta);
+        lote.put((byte) ' ');
+        escribirNumero(entrada.codigo);
+        lote.put((byte) ' ');
+        escribirNumero(entrada.bytes);
+        lote.put((byte) ' ');
+        escribirNumero(entrada.latenciaMicros);
+        lote.put((byte) '\n');
+    }
+    
+    /**
+     * Escribe el texto en UTF-8 sin crear arreglos intermedios; los caracteres de
+     * control y los espacios se reemplazan para mantener una línea por acceso
+     */
+    private void escribirTexto(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c <= ' ' || c == 0x7f) {
+                lote.put((byte) '_');
+            } else if (c < 0x80) {
+                lote.put((byte) c);
+            } else if (c < 0x800) {
+                lote.put((byte) (0xc0 | c >> 6)).put((byte) (0x80 | c & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                lote.put((byte) '?');
+            } else {
+                lote.put((byte) (0xe0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3f)).put((byte) (0x80 | c & 0x3f));
+            }
+        }
+    }
+    
+    private void escribirNumero(long numero) {
+        if (numero < 0) {
+            lote.put((byte) '-');
+            numero = -numero;
+        }
+        int posicion = digitos.length;
+        do {
+            digitos[--posicion] = (byte) ('0' + numero % 10);
+            numero /= 10;
+        } while (numero > 0);
+        lote.put(digitos, posicion, digitos.length - posicion);
+    }
+    
+    /**
+     * Escribe el lote en el archivo y rota si superó el tamaño configurado.
+     * Si una rotación anterior no pudo reabrir el archivo, se reintenta aquí
+     */
+    private void volcarLote() {
+        lote.flip();
+        try {
+            if (!canal.isOpen()) {
+                abrir();
+            }
+            while (lote.hasRemaining()) {
+                bytesArchivo += canal.write(lote);
+            }
+            if (bytesArchivo >= bytesRotacion) {
+                rotar();
+            }
+        } catch (IOException e) {
+            System.err.println("Error al escribir registro de accesos: " + e.getMessage());
+        }
+        lote.clear();
+    }
+    
+    /**
+     * Desplaza accesos.log.N-1 a accesos.log.N, ..., el archivo actual a .1,
+     * y abre un archivo nuevo. Si algún movimiento falla el archivo se reabre igual
+     * y se sigue agregando al actual; la rotación se reintenta en el siguiente lote
+     */
+    private void rotar() throws IOException {
+        canal.close();
+        try {
+            for (int i = archivosConservados - 1; i >= 1; i--) {
+                Path origen = rotado(i);
+                if (Files.exists(origen)) {
+                    Files.move(origen, rotado(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(archivo, rotado(1), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            abrir();
+        }
+    }
+    
+    private Path rotado(int numero) {
+        return archivo.resolveSibling(archivo.getFileName() + "." + numero);
+    }
+    
+    private void abrir() throws IOException {
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                                 StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        bytesArchivo = canal.size();
+    }
+    
+    /** @return true si el registro está escribiendo en un archivo */
+    public boolean isActivo() { return activo; }
+    
+    /** @return entradas descartadas por encontrar el anillo lleno */
+    public long getDescartadas() { return descartadas.sum(); }
+    
+    /** @return entradas ya escritas en el archivo */
+    public long getEscritas() { return escritas.sum(); }
+    
+    /**
+     * Entrada preasignada del anillo; se reutiliza en cada vuelta
+     */
+    private static final class Entrada {
+        private long instante;
+        private String cliente;
+        private String metodo;
+        private String ruta;
+        private int codigo;
+        private long bytes;
+        private long latenciaMicros;
+    }
+}
@@ -0,0 +1,155 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registro de las conexiones abiertas de los motores bloqueantes (clásico y virtual).
+ * Cada conexión está inactiva (esperando la siguiente solicitud), ocupada (atendiendo
+ * una) o cerrada; el cambio de estado es atómico para que el drenaje nunca cierre
+ * una conexión que acaba de empezar a atender una solicitud.
+ * Las inactivas se cierran cortando su entrada: el hilo bloqueado en la lectura
+ * recibe fin de flujo y termina por su cuenta, pudiendo aún escribir (GOAWAY en HTTP/2).
+ * Cumple con SRP: Solo sigue el estado de las conexiones, no las atiende
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class RegistroConexiones {
+    
+    private static final int INACTIVA = 0;
+    private static final int OCUPADA = 1;
+    private static final int CERRADA = 2;
+    
+    private final Set<Conexion> conexiones = ConcurrentHashMap.newKeySet();
+    private final ControlDrenaje drenaje;
+    private volatile boolean cerrado;
+    
+    /**
+     * Constructor del registro
+     * @param drenaje control donde se cuentan las conexiones inactivas cerradas
+     */
+    public RegistroConexiones(ControlDrenaje drenaje) {
+        this.drenaje = drenaje;
+    }
+    
+    /**
+     * Registra una conexión recién entregada a su hilo; si el registro ya
+     * se cerró la conexión se cierra de inmediato
+     * @param canal canal del cliente
+     * @return conexión registrada, inicialmente inactiva
+     */
+    public Conexion registrar(SocketChannel canal) {
+        Conexion conexion = new Conexion(canal);
+        conexiones.add(conexion);
+        if (cerrado) {
+            conexion.forzarCierre();
+        }
+        return conexion;
+    }
+    
+    /**
+     * Corta la entrada de las conexiones que esperan su siguiente solicitud
+     * @return cantidad de conexiones cortadas
+     */
+    public int cerrarInactivas() {
+        int cerradas = 0;
+        for (Conexion conexion : conexiones) {
+            if (conexion.estado.compareAndSet(INACTIVA, CERRADA)) {
+                try {
+                    conexion.canal.shutdownInput();
+                } catch (IOException e) {
+                    // El cliente ya cerró; el hilo terminará al leer
+                }
+                drenaje.registrarInactivaCerrada();
+                cerradas++;
+            }
+        }
+        return cerradas;
+    }
+    
+    /**
+     * Cierra todas las conexiones que sigan abiertas, ocupadas o no,
+     * y rechaza las que se registren después
+     */
+    public void cerrarTodas() {
+        cerrado = true;
+        for (Conexion conexion : conexiones) {
+            conexion.forzarCierre();
+        }
+    }
+    
+    /** @return conexiones abiertas registradas */
+    public int getConexionesAbiertas() { return conexiones.size(); }
+    
+    /**
+     * Conexión registrada; la usa solo el hilo que la atiende
+     */
+    public final class Conexion {
+        
+        private final SocketChannel canal;
+        private final AtomicInteger estado = new AtomicInteger(INACTIVA);
+        
+        private Conexion(SocketChannel canal) {
+            this.canal = canal;
+        }
+        
+        /**
+         * Marca la conexión como ocupada antes de atender una solicitud
+         * @return false si el drenaje ya la cerró y la solicitud no debe atenderse
+         */
+        public boolean ocupar() {
+            return estado.compareAndSet(INACTIVA, OCUPADA) || estado.get() == OCUPADA;
+        }
+        
+        /**
+         * Marca la conexión como inactiva al terminar de responder
+         */
+        public void liberar() {
+            estado.compareAndSet(OCUPADA, INACTIVA);
+        }
+        
+        /**
+         * Quita la conexión del registro; el llamador cierra el canal
+         */
+        public void cerrar() {
+            estado.set(CERRADA);
+            conexiones.remove(this);
+        }
+        
+        private void forzarCierre() {
+            estado.set(CERRADA);
+            try {
+                canal.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar socket: " + e.getMessage());
+            }
+        }
+    }
+}
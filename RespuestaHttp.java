@@ -0,0 +1,496 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Respuesta HTTP con línea de estado, lista de encabezados y cuerpo en bytes.
+ * El cuerpo se codifica en UTF-8 una sola vez, y la línea de estado y los
+ * encabezados frecuentes salen de arreglos de bytes precodificados.
+ * La respuesta se entrega como ByteBuffer[] para escribirla con una escritura
+ * agrupada (gathering write) sin copiar el cuerpo.
+ * Un cuerpo en streaming se envía con Transfer-Encoding: chunked, un fragmento a la vez.
+ * Un cuerpo de archivo va detrás de la cabecera con transferTo, sin pasar por el heap.
+ * Sobre HTTP/2 la sesión toma los encabezados y los bloques del cuerpo sin el
+ * formato de HTTP/1.1 y los envía en marcos HEADERS y DATA.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class RespuestaHttp {
+    
+    public static final Encabezado TIPO_HTML = new Encabezado("Content-Type", "text/html; charset=UTF-8");
+    public static final Encabezado TIPO_CSS = new Encabezado("Content-Type", "text/css; charset=UTF-8");
+    public static final Encabezado TIPO_JSON = new Encabezado("Content-Type", "application/json; charset=UTF-8");
+    public static final Encabezado TIPO_EVENTOS = new Encabezado("Content-Type", "text/event-stream; charset=UTF-8");
+    public static final Encabezado TIPO_METRICAS = new Encabezado("Content-Type", "text/plain; version=0.0.4; charset=UTF-8");
+    public static final Encabezado GZIP = new Encabezado("Content-Encoding", "gzip");
+    public static final Encabezado VARY_ENCODING = new Encabezado("Vary", "Accept-Encoding");
+    public static final Encabezado REINTENTAR = new Encabezado("Retry-After", "1");
+    
+    private static final byte[] SIN_CUERPO = new byte[0];
+    private static final byte[] CRLF = ascii("\r\n");
+    private static final byte[] CONTENT_LENGTH = ascii("Content-Length: ");
+    private static final byte[] CONEXION_CERRAR = ascii("Connection: close\r\n");
+    private static final byte[] CONEXION_MANTENER = ascii("Connection: keep-alive\r\nKeep-Alive: timeout=");
+    private static final byte[] TRANSFER_CHUNKED = ascii("Transfer-Encoding: chunked\r\n");
+    private static final byte[] FIN_CHUNKED = ascii("0\r\n\r\n");
+    private static final byte[][] LINEAS_ESTADO = new byte[600][];
+    
+    static {
+        registrarEstado(100, "Continue");
+        registrarEstado(101, "Switching Protocols");
+        registrarEstado(200, "OK");
+        registrarEstado(204, "No Content");
+        registrarEstado(206, "Partial Content");
+        registrarEstado(304, "Not Modified");
+        registrarEstado(400, "Bad Request");
+        registrarEstado(404, "Not Found");
+        registrarEstado(405, "Method Not Allowed");
+        registrarEstado(408, "Request Timeout");
+        registrarEstado(413, "Content Too Large");
+        registrarEstado(414, "URI Too Long");
+        registrarEstado(415, "Unsupported Media Type");
+        registrarEstado(416, "Range Not Satisfiable");
+        registrarEstado(429, "Too Many Requests");
+        registrarEstado(431, "Request Header Fields Too Large");
+        registrarEstado(500, "Internal Server Error");
+        registrarEstado(501, "Not Implemented");
+        registrarEstado(503, "Service Unavailable");
+    }
+    
+    private final int codigo;
+    private final byte[] lineaEstado;
+    private final List<Encabezado> encabezados;
+    private byte[] cuerpo;
+    private CuerpoEnStreaming cuerpoEnStreaming;
+    private SalidaHtml fragmento;
+    private long bytesEnStreaming;
+    private CuerpoArchivo cuerpoArchivo;
+    private ByteBuffer bloqueArchivo;
+    
+    /**
+     * Constructor para un código de estado con frase estándar precodificada
+     * @param codigo código de estado HTTP
+     */
+    public RespuestaHttp(int codigo) {
+        this(codigo, lineaEstadoPrecodificada(codigo));
+    }
+    
+    /**
+     * Constructor con frase de estado propia
+     * @param codigo código de estado HTTP
+     * @param razon frase de estado (ej: "OK", "Not Found")
+     */
+    public RespuestaHttp(int codigo, String razon) {
+        this(codigo, ascii("HTTP/1.1 " + codigo + " " + razon + "\r\n"));
+    }
+    
+    private RespuestaHttp(int codigo, byte[] lineaEstado) {
+        this.codigo = codigo;
+        this.lineaEstado = lineaEstado;
+        this.encabezados = new ArrayList<>(6);
+        this.cuerpo = SIN_CUERPO;
+    }
+    
+    /**
+     * Crea una respuesta HTML codificando el texto una sola vez
+     * @param codigo código de estado HTTP
+     * @param html contenido de la página
+     * @return RespuestaHttp lista para enviar
+     */
+    public static RespuestaHttp html(int codigo, String html) {
+        return new RespuestaHttp(codigo).agregarEncabezado(TIPO_HTML).conCuerpo(html);
+    }
+    
+    /**
+     * Crea la respuesta sin cuerpo con la que se rechaza una conexión o solicitud
+     * antes de enrutarla. El 503 por sobrecarga incluye Retry-After
+     * @param codigo código de estado HTTP (400, 408, 414, 431, 503...)
+     * @return RespuestaHttp lista para enviar con Connection: close
+     */
+    public static RespuestaHttp rechazo(int codigo) {
+        RespuestaHttp respuesta = new RespuestaHttp(codigo);
+        return codigo == 503 ? respuesta.agregarEncabezado(REINTENTAR) : respuesta;
+    }
+    
+    /**
+     * Respuesta 101 con la que se acepta el cambio de protocolo pedido con Upgrade
+     * @param protocolo protocolo al que se cambia (ej: "h2c")
+     * @return buffers de la respuesta completa, sin cuerpo
+     */
+    public static ByteBuffer[] cambioDeProtocolo(String protocolo) {
+        return new ByteBuffer[] {
+            ByteBuffer.wrap(LINEAS_ESTADO[101]),
+            ByteBuffer.wrap(ascii("Connection: Upgrade\r\nUpgrade: " + protocolo + "\r\n\r\n"))
+        };
+    }
+    
+    /**
+     * Respuesta provisional 100 con la que se pide al cliente que envíe el cuerpo
+     * anunciado con "Expect: 100-continue"
+     * @return buffers de la respuesta provisional
+     */
+    public static ByteBuffer[] continuar() {
+        return new ByteBuffer[] { ByteBuffer.wrap(LINEAS_ESTADO[100]), ByteBuffer.wrap(CRLF) };
+    }
+    
+    /**
+     * Agrega un encabezado precodificado
+     * @param encabezado encabezado constante
+     * @return esta misma respuesta para encadenar llamadas
+     */
+    public RespuestaHttp agregarEncabezado(Encabezado encabezado) {
+        encabezados.add(encabezado);
+        return this;
+    }
+    
+    /**
+     * Agrega un encabezado, que se codifica en este momento
+     * @param nombre nombre del encabezado
+     * @param valor valor del encabezado
+     * @return esta misma respuesta para encadenar llamadas
+     */
+    public RespuestaHttp agregarEncabezado(String nombre, String valor) {
+        return agregarEncabezado(new Encabezado(nombre, valor));
+    }
+    
+    /**
+     * Obtiene el primer encabezado con ese nombre, sin distinguir mayúsculas
+     * @param nombre nombre del encabezado
+     * @return valor o null si no existe
+     */
+    public String getEncabezado(String nombre) {
+        for (Encabezado encabezado : encabezados) {
+            if (encabezado.nombre.equalsIgnoreCase(nombre)) {
+                return encabezado.valor;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * @return encabezados en el orden en que se agregaron, sin Content-Length ni Connection
+     */
+    public List<Encabezado> getEncabezados() {
+        return Collections.unmodifiableList(encabezados);
+    }
+    
+    /**
+     * Asigna el cuerpo ya codificado; el arreglo no se copia
+     * @param cuerpo bytes del cuerpo
+     * @return esta misma respuesta para encadenar llamadas
+     */
+    public RespuestaHttp conCuerpo(byte[] cuerpo) {
+        this.cuerpo = cuerpo != null ? cuerpo : SIN_CUERPO;
+        return this;
+    }
+    
+    /**
+     * Asigna el cuerpo codificándolo en UTF-8
+     * @param texto contenido del cuerpo
+     * @return esta misma respuesta para encadenar llamadas
+     */
+    public RespuestaHttp conCuerpo(String texto) {
+        return conCuerpo(texto.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Asigna un cuerpo que se generará por fragmentos al momento de enviarlo
+     * @param cuerpoEnStreaming productor de fragmentos
+     * @return esta misma respuesta para encadenar llamadas
+     */
+    public RespuestaHttp conCuerpoEnStreaming(CuerpoEnStreaming cuerpoEnStreaming) {
+        this.cuerpoEnStreaming = cuerpoEnStreaming;
+        this.cuerpo = SIN_CUERPO;
+        return this;
+    }
+    
+    /**
+     * Asigna como cuerpo un tramo de un archivo, que se envía después de la cabecera
+     * con Content-Length y sin copiarlo a memoria
+     * @param cuerpoArchivo tramo del archivo; la respuesta lo cierra al terminar o abortar
+     * @return esta misma respuesta para encadenar llamadas
+     */
+    public RespuestaHttp conCuerpoDeArchivo(CuerpoArchivo cuerpoArchivo) {
+        this.cuerpoArchivo = cuerpoArchivo;
+        this.cuerpo = SIN_CUERPO;
+        return this;
+    }
+    
+    /**
+     * @return true si el cuerpo es un tramo de archivo
+     */
+    public boolean tieneArchivo() {
+        return cuerpoArchivo != null;
+    }
+    
+    /**
+     * @return bytes del tramo de archivo que forma el cuerpo, 0 si no hay archivo
+     */
+    public long getLongitudArchivo() {
+        return cuerpoArchivo != null ? cuerpoArchivo.getLongitud() : 0;
+    }
+    
+    /**
+     * Envía el cuerpo de archivo por el canal del cliente, una vez escrita la cabecera
+     * @param destino canal del cliente, bloqueante o no
+     * @return true si no hay archivo o ya se envió completo; false si el socket no aceptó más
+     * @throws IOException si falla la lectura del archivo o la escritura al cliente
+     */
+    public boolean transferirArchivo(WritableByteChannel destino) throws IOException {
+        return cuerpoArchivo == null || cuerpoArchivo.transferir(destino);
+    }
+    
+    /**
+     * Indica si quedan fragmentos por enviar tras la cabecera
+     * @return true si el cuerpo se envía en streaming y no ha terminado
+     */
+    public boolean isStreaming() {
+        return cuerpoEnStreaming != null;
+    }
+    
+    /**
+     * Indica si el siguiente fragmento del cuerpo en streaming se puede generar sin esperar
+     * @return true si no hay cuerpo en streaming o si su siguiente fragmento está listo
+     */
+    public boolean isListo() {
+        return cuerpoEnStreaming == null || cuerpoEnStreaming.estaListo();
+    }
+    
+    /**
+     * Pide un aviso para cuando el cuerpo en streaming tenga su siguiente fragmento listo
+     * @param aviso acción a ejecutar una sola vez
+     */
+    public void alEstarListo(Runnable aviso) {
+        if (cuerpoEnStreaming != null) {
+            cuerpoEnStreaming.alEstarListo(aviso);
+        }
+    }
+    
+    /**
+     * Descarta el resto del cuerpo en streaming y libera sus recursos; se usa
+     * cuando la conexión se corta antes de enviarlo completo
+     */
+    public void abortarStreaming() {
+        if (cuerpoEnStreaming != null) {
+            cuerpoEnStreaming.cerrar();
+            cuerpoEnStreaming = null;
+        }
+        if (cuerpoArchivo != null) {
+            cuerpoArchivo.cerrar();
+        }
+    }
+    
+    /**
+     * Genera el siguiente bloque del cuerpo en streaming o de archivo, sin formato chunked.
+     * El bloque es válido hasta la siguiente llamada, que reutiliza su memoria.
+     * @return datos del bloque, o null si el cuerpo ya terminó
+     */
+    public ByteBuffer siguienteBloque() {
+        if (cuerpoArchivo != null) {
+            return siguienteBloqueArchivo();
+        }
+        if (cuerpoEnStreaming == null) {
+            return null;
+        }
+        if (fragmento == null) {
+            fragmento = new SalidaHtml(16 * 1024);
+        }
+        // El bloque anterior ya se escribió completo: se reutiliza su buffer
+        fragmento.reiniciar();
+        
+        boolean quedan = true;
+        while (quedan && fragmento.tamano() == 0) {
+            quedan = cuerpoEnStreaming.escribirFragmento(fragmento);
+        }
+        if (!quedan) {
+            cuerpoEnStreaming = null;
+        }
+        bytesEnStreaming += fragmento.tamano();
+        return fragmento.tamano() > 0 ? fragmento.comoByteBuffer() : null;
+    }
+    
+    /**
+     * Lee el siguiente bloque del archivo. Si la lectura falla el cuerpo termina
+     * antes de su Content-Length y el cliente descarta la respuesta incompleta
+     */
+    private ByteBuffer siguienteBloqueArchivo() {
+        if (bloqueArchivo == null) {
+            bloqueArchivo = ByteBuffer.allocate(16 * 1024);
+        }
+        try {
+            return cuerpoArchivo.leerBloque(bloqueArchivo) ? bloqueArchivo : null;
+        } catch (IOException e) {
+            System.err.println("Error al leer archivo: " + e.getMessage());
+            cuerpoArchivo.cerrar();
+            return null;
+        }
+    }
+    
+    /**
+     * Genera el siguiente fragmento chunked: tamaño en hexadecimal, datos y CRLF.
+     * Tras el último fragmento incluye el chunk de tamaño cero que cierra el cuerpo.
+     * Los buffers son válidos hasta la siguiente llamada, que reutiliza su memoria.
+     * @return buffers del fragmento, o null si el cuerpo ya terminó
+     */
+    public ByteBuffer[] siguienteFragmento() {
+        if (cuerpoEnStreaming == null) {
+            return null;
+        }
+        ByteBuffer bloque = siguienteBloque();
+        if (bloque == null) {
+            return new ByteBuffer[] { ByteBuffer.wrap(FIN_CHUNKED) };
+        }
+        
+        return new ByteBuffer[] {
+            ByteBuffer.wrap(ascii(Integer.toHexString(bloque.remaining()) + "\r\n")),
+            bloque,
+            ByteBuffer.wrap(CRLF),
+            ByteBuffer.wrap(isStreaming() ? SIN_CUERPO : FIN_CHUNKED)
+        };
+    }
+    
+    /**
+     * Prepara la respuesta completa para una escritura agrupada.
+     * Agrega Content-Length (o Transfer-Encoding: chunked si el cuerpo va en
+     * streaming) y los encabezados de persistencia de conexión.
+     * @param mantener true para "keep-alive", false para "close"
+     * @param segundosInactividad tiempo que el servidor esperará la siguiente solicitud
+     * @return buffers en el orden en que deben escribirse
+     */
+    public ByteBuffer[] aBuffers(boolean mantener, int segundosInactividad) {
+        ByteBuffer[] buffers = new ByteBuffer[encabezados.size() + 5];
+        int i = 0;
+        buffers[i++] = ByteBuffer.wrap(lineaEstado);
+        for (Encabezado encabezado : encabezados) {
+            buffers[i++] = ByteBuffer.wrap(encabezado.linea);
+        }
+        if (isStreaming()) {
+            buffers[i++] = ByteBuffer.wrap(TRANSFER_CHUNKED);
+        } else if (tieneArchivo()) {
+            buffers[i++] = ByteBuffer.wrap(lineaNumerica(CONTENT_LENGTH, cuerpoArchivo.getLongitud()));
+        } else {
+            buffers[i++] = ByteBuffer.wrap(permiteCuerpo()
+                ? lineaNumerica(CONTENT_LENGTH, cuerpo.length) : SIN_CUERPO);
+        }
+        buffers[i++] = ByteBuffer.wrap(mantener
+            ? lineaNumerica(CONEXION_MANTENER, segundosInactividad) : CONEXION_CERRAR);
+        buffers[i++] = ByteBuffer.wrap(CRLF);
+        buffers[i] = ByteBuffer.wrap(getCuerpo());
+        return buffers;
+    }
+    
+    /**
+     * Indica si una escritura agrupada dejó bytes sin enviar
+     * @param buffers buffers de la escritura
+     * @return true si algún buffer conserva bytes pendientes
+     */
+    public static boolean quedanBytes(ByteBuffer[] buffers) {
+        for (int i = buffers.length - 1; i >= 0; i--) {
+            if (buffers[i].hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Las respuestas 1xx, 204 y 304 no llevan cuerpo (RFC 7230, sección 3.3)
+     * @return true si la respuesta puede llevar cuerpo y Content-Length
+     */
+    public boolean permiteCuerpo() {
+        return codigo >= 200 && codigo != 204 && codigo != 304;
+    }
+    
+    /**
+     * Construye "prefijo + número + CRLF" sin pasar por String.format
+     */
+    private static byte[] lineaNumerica(byte[] prefijo, long numero) {
+        byte[] digitos = ascii(Long.toString(numero));
+        byte[] linea = new byte[prefijo.length + digitos.length + 2];
+        System.arraycopy(prefijo, 0, linea, 0, prefijo.length);
+        System.arraycopy(digitos, 0, linea, prefijo.length, digitos.length);
+        linea[linea.length - 2] = '\r';
+        linea[linea.length - 1] = '\n';
+        return linea;
+    }
+    
+    private static byte[] lineaEstadoPrecodificada(int codigo) {
+        byte[] linea = codigo >= 0 && codigo < LINEAS_ESTADO.length ? LINEAS_ESTADO[codigo] : null;
+        if (linea == null) {
+            throw new IllegalArgumentException("Código sin frase registrada: " + codigo);
+        }
+        return linea;
+    }
+    
+    private static void registrarEstado(int codigo, String razon) {
+        LINEAS_ESTADO[codigo] = ascii("HTTP/1.1 " + codigo + " " + razon + "\r\n");
+    }
+    
+    private static byte[] ascii(String texto) {
+        return texto.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    public int getCodigo() { return codigo; }
+    public byte[] getCuerpo() { return permiteCuerpo() ? cuerpo : SIN_CUERPO; }
+    
+    /**
+     * @return bytes del cuerpo: el fijo, los fragmentos generados hasta ahora si va
+     *         en streaming o los enviados del archivo
+     */
+    public long getBytesCuerpo() {
+        return getCuerpo().length + bytesEnStreaming + (cuerpoArchivo != null ? cuerpoArchivo.getEnviados() : 0);
+    }
+    
+    /**
+     * Encabezado con su línea "Nombre: valor\r\n" ya codificada
+     */
+    public static final class Encabezado {
+        private final String nombre;
+        private final String valor;
+        private final byte[] linea;
+        
+        /**
+         * Constructor del encabezado; la línea se codifica una sola vez
+         * @param nombre nombre del encabezado
+         * @param valor valor del encabezado
+         */
+        public Encabezado(String nombre, String valor) {
+            this.nombre = nombre;
+            this.valor = valor;
+            this.linea = (nombre + ": " + valor + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        }
+        
+        public String getNombre() { return nombre; }
+        public String getValor() { return valor; }
+    }
+}
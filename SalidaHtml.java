@@ -0,0 +1,187 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Buffer de salida en bytes para generar HTML sin pasar por String.
+ * Los trozos estáticos se copian tal cual y los textos se codifican en UTF-8
+ * escapando los caracteres especiales de HTML en la misma pasada.
+ * Los bytes sin escapar permiten usarlo también para armar marcos HTTP/2.
+ * Cumple con SRP: Solo acumula bytes codificados, no conoce las páginas
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class SalidaHtml {
+    
+    private static final byte[] AMP = {'&', 'a', 'm', 'p', ';'};
+    private static final byte[] LT = {'&', 'l', 't', ';'};
+    private static final byte[] GT = {'&', 'g', 't', ';'};
+    private static final byte[] QUOT = {'&', 'q', 'u', 'o', 't', ';'};
+    private static final byte[] APOS = {'&', '#', 'x', '2', '7', ';'};
+    
+    private byte[] datos;
+    private int tamano;
+    
+    /**
+     * Constructor con capacidad inicial de 4 KB
+     */
+    public SalidaHtml() {
+        this(4096);
+    }
+    
+    /**
+     * Constructor con capacidad inicial explícita
+     * @param capacidad bytes reservados al inicio; el buffer crece si hace falta
+     */
+    public SalidaHtml(int capacidad) {
+        this.datos = new byte[Math.max(capacidad, 16)];
+    }
+    
+    /**
+     * Copia bytes ya codificados, como los trozos estáticos de una plantilla
+     * @param bytes bytes a copiar
+     * @return esta misma salida para encadenar llamadas
+     */
+    public SalidaHtml escribir(byte[] bytes) {
+        return escribir(bytes, 0, bytes.length);
+    }
+    
+    /**
+     * Copia una porción de un arreglo de bytes
+     * @param bytes arreglo de origen
+     * @param desde posición del primer byte
+     * @param longitud cantidad de bytes a copiar
+     * @return esta misma salida para encadenar llamadas
+     */
+    public SalidaHtml escribir(byte[] bytes, int desde, int longitud) {
+        asegurar(longitud);
+        System.arraycopy(bytes, desde, datos, tamano, longitud);
+        tamano += longitud;
+        return this;
+    }
+    
+    /**
+     * Escribe un byte sin interpretarlo
+     * @param valor byte en los 8 bits menos significativos
+     * @return esta misma salida para encadenar llamadas
+     */
+    public SalidaHtml escribirByte(int valor) {
+        asegurar(1);
+        datos[tamano++] = (byte) valor;
+        return this;
+    }
+    
+    /**
+     * Escribe un texto en UTF-8 escapando &amp; &lt; &gt; " y '
+     * @param texto texto a escribir; null no escribe nada
+     * @return esta misma salida para encadenar llamadas
+     */
+    public SalidaHtml escribirTexto(CharSequence texto) {
+        if (texto == null) {
+            return this;
+        }
+        int longitud = texto.length();
+        for (int i = 0; i < longitud; i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '&': escribir(AMP); break;
+                case '<': escribir(LT); break;
+                case '>': escribir(GT); break;
+                case '"': escribir(QUOT); break;
+                case '\'': escribir(APOS); break;
+                default:
+                    if (Character.isHighSurrogate(c) && i + 1 < longitud
+                            && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                        escribirCodigo(Character.toCodePoint(c, texto.charAt(++i)));
+                    } else {
+                        // Un sustituto sin pareja se reemplaza con '?', igual que String.getBytes
+                        escribirCodigo(Character.isSurrogate(c) ? '?' : c);
+                    }
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * Codifica un punto de código en UTF-8
+     */
+    private void escribirCodigo(int codigo) {
+        asegurar(4);
+        if (codigo < 0x80) {
+            datos[tamano++] = (byte) codigo;
+        } else if (codigo < 0x800) {
+            datos[tamano++] = (byte) (0xC0 | (codigo >> 6));
+            datos[tamano++] = (byte) (0x80 | (codigo & 0x3F));
+        } else if (codigo < 0x10000) {
+            datos[tamano++] = (byte) (0xE0 | (codigo >> 12));
+            datos[tamano++] = (byte) (0x80 | ((codigo >> 6) & 0x3F));
+            datos[tamano++] = (byte) (0x80 | (codigo & 0x3F));
+        } else {
+            datos[tamano++] = (byte) (0xF0 | (codigo >> 18));
+            datos[tamano++] = (byte) (0x80 | ((codigo >> 12) & 0x3F));
+            datos[tamano++] = (byte) (0x80 | ((codigo >> 6) & 0x3F));
+            datos[tamano++] = (byte) (0x80 | (codigo & 0x3F));
+        }
+    }
+    
+    private void asegurar(int adicionales) {
+        if (tamano + adicionales > datos.length) {
+            datos = Arrays.copyOf(datos, Math.max(datos.length * 2, tamano + adicionales));
+        }
+    }
+    
+    /**
+     * @return bytes escritos hasta ahora
+     */
+    public int tamano() {
+        return tamano;
+    }
+    
+    /**
+     * Vacía la salida conservando la capacidad reservada
+     */
+    public void reiniciar() {
+        tamano = 0;
+    }
+    
+    /**
+     * @return copia exacta de los bytes escritos
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(datos, tamano);
+    }
+    
+    /**
+     * Vista de los bytes escritos sin copiarlos. Deja de ser válida
+     * en cuanto se vuelve a escribir o se reinicia la salida
+     * @return ByteBuffer listo para leer
+     */
+    public ByteBuffer comoByteBuffer() {
+        return ByteBuffer.wrap(datos, 0, tamano);
+    }
+}
@@ -34,4 +34,17 @@ public interface ServicioEquipos extends Buscable<Equipo>, Ordenable {
     void agregarEquipo(Equipo equipo);
     void inicializar();
     String exportarJSON();
+    
+    /**
+     * Obtiene la versión del catálogo; aumenta con cada cambio visible
+     * (altas, reinicio, reordenamiento o cambio de estado de un equipo)
+     * @return versión monótona creciente
+     */
+    long getVersion();
+    
+    /**
+     * Obtiene el instante del último cambio que avanzó la versión
+     * @return milisegundos desde la época
+     */
+    long getUltimaModificacion();
 }
@@ -0,0 +1,252 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Servidor de la API REST en JSON para el frontend separado.
+ * Expone los métodos JSON de ControladorWeb bajo /api con CORS, respuestas
+ * condicionales (ETag/Last-Modified) y errores en JSON.
+ * Cumple con OCP: Extiende el servidor web sin modificarlo; reutiliza sus motores
+ * de E/S, su ejecutor, el limitador de tasa, el registro de accesos y las métricas
+ * 
+ * Rutas (todas GET, con consulta previa OPTIONS):
+ *   /api/equipos[?limite=N&cursor=C]       listado completo o paginado por ID
+ *   /api/ordenar[?limite=N&cursor=C]       ordenados por consumo, sin reordenar el catálogo
+ *   /api/buscar/id/{id}                   búsqueda por ID
+ *   /api/buscar/nombre/{nombre}[?limite=N&cursor=C]
+ *   /api/detalles/{id}                    detalles completos
+ *   /api/estadisticas                     totales de consumo
+ *   /metrics                              métricas del servidor
+ * 
+ * El origen permitido se toma de la propiedad "servidor.api.cors.origen" (por defecto "*")
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class ServidorAPI extends ServidorWebCompleto {
+    
+    private static final GeneradorRespuesta ERRORES = new GeneradorRespuestaJSON();
+    /** Lista fija: los encabezados que pida la consulta previa no se copian a la respuesta */
+    private static final RespuestaHttp.Encabezado ENCABEZADOS_PERMITIDOS =
+        new RespuestaHttp.Encabezado("Access-Control-Allow-Headers", "Content-Type, If-None-Match, If-Modified-Since");
+    private static final RespuestaHttp.Encabezado METODOS_PERMITIDOS =
+        new RespuestaHttp.Encabezado("Access-Control-Allow-Methods", "GET, OPTIONS");
+    private static final RespuestaHttp.Encabezado ENCABEZADOS_EXPUESTOS =
+        new RespuestaHttp.Encabezado("Access-Control-Expose-Headers", "ETag, Last-Modified, Retry-After");
+    private static final RespuestaHttp.Encabezado DURACION_PREVIA =
+        new RespuestaHttp.Encabezado("Access-Control-Max-Age", "86400");
+    
+    private final RespuestaHttp.Encabezado origenPermitido;
+    
+    /**
+     * Constructor del servidor API.
+     * El motor de E/S se toma de la propiedad de sistema "servidor.motor" (clasico | nio | virtual)
+     * @param puerto puerto en el que escuchará el servidor
+     * @param controlador controlador con los métodos JSON
+     */
+    public ServidorAPI(int puerto, ControladorWeb controlador) {
+        this(puerto, controlador, MotorServidor.desdePropiedades());
+    }
+    
+    /**
+     * Constructor con selección explícita del motor de E/S
+     * @param puerto puerto en el que escuchará el servidor
+     * @param controlador controlador con los métodos JSON
+     * @param motor motor de E/S a utilizar
+     */
+    public ServidorAPI(int puerto, ControladorWeb controlador, MotorServidor motor) {
+        super(puerto, controlador, motor);
+        this.origenPermitido = new RespuestaHttp.Encabezado("Access-Control-Allow-Origin",
+                System.getProperty("servidor.api.cors.origen", "*"));
+    }
+    
+    @Override
+    protected void anunciarInicio(int puerto, MotorServidor motor) {
+        System.out.println("🚀 Servidor API iniciado en http://localhost:" + puerto + "/api (motor " + motor + ")");
+        System.out.println("📊 Equipos cargados: " + CatalogoEquipos.getInstance().obtenerCantidad());
+        System.out.println("🔗 CORS habilitado para: " + origenPermitido.getValor());
+        if (getArchivos().isActivo()) {
+            System.out.println("📁 Archivos estáticos en: " + getArchivos().getPatron());
+        }
+        System.out.println();
+    }
+    
+    @Override
+    protected void registrarRutas(EnrutadorTrie enrutador) {
+        ControladorWeb controlador = getControlador();
+        registrar(enrutador, "/api/equipos", (solicitud, p) -> servirEquipos(solicitud, p));
+        registrar(enrutador, "/api/ordenar", (solicitud, p) -> servirOrdenados(solicitud, p));
+        registrar(enrutador, "/api/buscar/id/{id}",
+                  (solicitud, p) -> responder(controlador.buscarEquipoPorIdJSON(p.getTexto("id"))));
+        registrar(enrutador, "/api/buscar/nombre/{nombre}",
+                  (solicitud, p) -> servirBusquedaPorNombre(p.getTexto("nombre"), p));
+        registrar(enrutador, "/api/detalles/{id}",
+                  (solicitud, p) -> responder(controlador.obtenerDetallesEquipoJSON(p.getTexto("id"))));
+        registrar(enrutador, "/api/estadisticas",
+                  (solicitud, p) -> servirCacheado(solicitud, "/api/estadisticas", controlador::obtenerEstadisticasJSON));
+    }
+    
+    /**
+     * Registra una ruta GET con validación condicional y su consulta previa OPTIONS
+     */
+    private void registrar(EnrutadorTrie enrutador, String patron, ManejadorRuta manejador) {
+        enrutador.registrar("GET", patron, condicional(manejador))
+                 .registrar("OPTIONS", patron, (solicitud, p) -> responderConsultaPrevia());
+    }
+    
+    /**
+     * Agrega los encabezados CORS a toda respuesta enrutada, incluidos los errores
+     */
+    @Override
+    protected RespuestaHttp prepararRespuesta(SolicitudHttp solicitud, RespuestaHttp respuesta) {
+        return respuesta.agregarEncabezado(origenPermitido).agregarEncabezado(ENCABEZADOS_EXPUESTOS);
+    }
+    
+    /**
+     * Responde la consulta previa de CORS con los métodos y encabezados permitidos,
+     * sin importar cuáles pida el navegador; este la guarda durante Access-Control-Max-Age
+     */
+    private RespuestaHttp responderConsultaPrevia() {
+        return new RespuestaHttp(204)
+            .agregarEncabezado(METODOS_PERMITIDOS)
+            .agregarEncabezado(ENCABEZADOS_PERMITIDOS)
+            .agregarEncabezado(DURACION_PREVIA);
+    }
+    
+    /**
+     * Sirve el listado completo desde la caché, o una página si la consulta trae límite o cursor
+     */
+    private RespuestaHttp servirEquipos(SolicitudHttp solicitud, ParametrosRuta parametros) {
+        if (parametros.getConsulta("limite") == null && parametros.getConsulta("cursor") == null) {
+            return servirCacheado(solicitud, "/api/equipos", getControlador()::obtenerTodosLosEquiposJSON);
+        }
+        String cursor = parametros.getConsulta("cursor");
+        int limite;
+        try {
+            limite = leerPaginacion(parametros, OrdenEquipos.ID);
+        } catch (IllegalArgumentException e) {
+            return crearRespuestaError(400, "Cursor o límite de página inválido");
+        }
+        return responder(getControlador().obtenerPaginaEquiposJSON(limite, cursor));
+    }
+    
+    /**
+     * Sirve los equipos ordenados por consumo: la lista completa desde la caché, o una
+     * página por cursor. Ninguna de las dos reordena el catálogo compartido, así que
+     * no cambia su versión ni invalida las cachés y validadores de las demás rutas
+     */
+    private RespuestaHttp servirOrdenados(SolicitudHttp solicitud, ParametrosRuta parametros) {
+        if (parametros.getConsulta("limite") == null && parametros.getConsulta("cursor") == null) {
+            return servirCacheado(solicitud, "/api/ordenar", getControlador()::obtenerEquiposPorConsumoJSON);
+        }
+        int limite;
+        try {
+            limite = leerPaginacion(parametros, OrdenEquipos.CONSUMO);
+        } catch (IllegalArgumentException e) {
+            return crearRespuestaError(400, "Cursor o límite de página inválido");
+        }
+        return responder(getControlador().obtenerPaginaPorConsumoJSON(limite, parametros.getConsulta("cursor")));
+    }
+    
+    /**
+     * Sirve la búsqueda por nombre, paginada si la consulta trae límite o cursor
+     */
+    private RespuestaHttp servirBusquedaPorNombre(String nombre, ParametrosRuta parametros) {
+        if (parametros.getConsulta("limite") == null && parametros.getConsulta("cursor") == null) {
+            return responder(getControlador().buscarEquiposPorNombreJSON(nombre));
+        }
+        int limite;
+        try {
+            limite = leerPaginacion(parametros, OrdenEquipos.ID);
+        } catch (IllegalArgumentException e) {
+            return crearRespuestaError(400, "Cursor o límite de página inválido");
+        }
+        return responder(getControlador().buscarEquiposPorNombreJSON(nombre, limite, parametros.getConsulta("cursor")));
+    }
+    
+    /**
+     * Valida el límite y que el cursor sea del orden de la ruta antes de llegar al
+     * controlador, que solo rechaza los cursores mal formados
+     * @param orden orden de la ruta, al que debe pertenecer el cursor
+     * @return límite pedido, o 0 para usar el de por defecto
+     * @throws IllegalArgumentException si el límite no es un número o el cursor es de otro orden
+     */
+    private static int leerPaginacion(ParametrosRuta parametros, OrdenEquipos orden) {
+        String cursor = parametros.getConsulta("cursor");
+        if (cursor != null && !cursor.isEmpty()
+                && !orden.getNombre().equals(CursorPagina.decodificar(cursor).getOrden())) {
+            throw new IllegalArgumentException("El cursor pertenece a otro orden");
+        }
+        String limite = parametros.getConsulta("limite");
+        return limite == null || limite.isEmpty() ? 0 : Integer.parseInt(limite);
+    }
+    
+    /**
+     * Sirve un JSON que depende solo del catálogo desde la caché de páginas,
+     * serializándolo una vez por versión. Un resultado de error se responde con su
+     * código y no se guarda, para no servirlo como 200 hasta el siguiente cambio
+     */
+    private RespuestaHttp servirCacheado(SolicitudHttp solicitud, String clave, Supplier<ControladorWeb.Resultado> generador) {
+        long version = CatalogoEquipos.getInstance().getVersion();
+        AtomicReference<ControladorWeb.Resultado> fallido = new AtomicReference<>();
+        RespuestaHttp respuesta = servirDesdeCache(solicitud, clave, version, RespuestaHttp.TIPO_JSON, () -> {
+            ControladorWeb.Resultado resultado = generador.get();
+            if (resultado.getCodigo() != 200) {
+                fallido.set(resultado);
+                return null;
+            }
+            return resultado.getJson().getBytes(StandardCharsets.UTF_8);
+        });
+        return respuesta != null ? respuesta : responder(fallido.get());
+    }
+    
+    /**
+     * Envuelve un resultado del controlador en una respuesta con su código
+     */
+    private RespuestaHttp responder(ControladorWeb.Resultado resultado) {
+        return new RespuestaHttp(resultado.getCodigo()).agregarEncabezado(RespuestaHttp.TIPO_JSON)
+                                                       .conCuerpo(resultado.getJson());
+    }
+    
+    @Override
+    protected RespuestaHttp crearRespuesta404() {
+        return crearRespuestaError(404, "Ruta no encontrada");
+    }
+    
+    @Override
+    protected RespuestaHttp crearRespuestaError(int codigo, String mensaje) {
+        return new RespuestaHttp(codigo).agregarEncabezado(RespuestaHttp.TIPO_JSON)
+                                        .conCuerpo(ERRORES.generarRespuestaError(mensaje));
+    }
+    
+    @Override
+    protected RespuestaHttp crearRespuesta500(String error) {
+        // El detalle de la excepción queda en el servidor, no se expone al cliente
+        return crearRespuestaError(500, "Error interno del servidor");
+    }
+}
@@ -25,8 +25,18 @@
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.concurrent.*;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 /**
  * Servidor web completo que sirve HTML directamente sin JavaScript.
@@ -38,22 +48,101 @@ import java.util.List;
  */
 public class ServidorWebCompleto {
     
+    private static final byte[] HTML_404 = ("<html><body><h1>404 - Página no encontrada</h1>"
+        + "<a href=\"/\">Volver al inicio</a></body></html>").getBytes(StandardCharsets.UTF_8);
+    private static final int TAMANO_FRAGMENTO = 16 * 1024;
+    private static final int TAMANO_LECTURA_HTTP2 = 16 * 1024;
+    private static final int TAMANO_DESCARTE_RECHAZO = 16 * 1024;
+    /** Ruta de ingesta de mediciones: POST recibe lotes, GET resume lo retenido */
+    private static final String RUTA_INGESTA = "/mediciones/{id}";
+    private static final GeneradorRespuesta JSON = new GeneradorRespuestaJSON();
+    
     private final ControladorWeb controlador;
     private final int puerto;
-    private boolean activo;
-    private ServerSocket serverSocket;
-    private ExecutorService threadPool;
+    private final MotorServidor motor;
+    private final int tiempoInactividadMs;
+    private final int maxSolicitudesPorConexion;
+    private final CompresorGzip compresor;
+    private final CacheRecursosEstaticos recursos;
+    private final String rutaCSS;
+    private final int umbralStreaming;
+    private final int maxFlujosHttp2;
+    private final int maxSolicitudesHttp2;
+    private final LimitesSolicitud limites;
+    private final ContadoresAdmision contadores;
+    private final PaginasHtml paginas;
+    private final CachePaginas cachePaginas;
+    private final ControlDrenaje drenaje;
+    private final RegistroConexiones registro;
+    private final RegistroAccesos accesos;
+    private final MetricasServidor metricas;
+    private final LimitadorTasa limitador;
+    private final DifusorMediciones difusor;
+    private final GrupoAceptadores aceptadores;
+    private final AlmacenMediciones almacen;
+    private final ArchivosEstaticos archivos;
+    private final long plazoDrenajeMs;
+    private volatile boolean activo;
+    private volatile EnrutadorTrie enrutador;
+    private ThreadPoolExecutor[] pools;
+    private EjecutorVirtual ejecutorVirtual;
+    private MotorNIO motorNIO;
     
     /**
-     * Constructor del servidor web completo
+     * Constructor del servidor web completo.
+     * El motor de E/S se toma de la propiedad de sistema "servidor.motor" (clasico | nio)
      * @param puerto puerto en el que escuchará el servidor
      * @param controlador controlador web a utilizar
      */
     public ServidorWebCompleto(int puerto, ControladorWeb controlador) {
+        this(puerto, controlador, MotorServidor.desdePropiedades());
+    }
+    
+    /**
+     * Constructor con selección explícita del motor de E/S
+     * @param puerto puerto en el que escuchará el servidor
+     * @param controlador controlador web a utilizar
+     * @param motor motor de E/S a utilizar
+     */
+    public ServidorWebCompleto(int puerto, ControladorWeb controlador, MotorServidor motor) {
         this.puerto = puerto;
         this.controlador = controlador;
+        this.motor = motor;
+        this.tiempoInactividadMs = Integer.getInteger("servidor.keepalive.timeout", 5000);
+        this.maxSolicitudesPorConexion = Integer.getInteger("servidor.keepalive.max", 100);
+        this.compresor = new CompresorGzip(Integer.getInteger("servidor.gzip.umbral", 1024));
+        this.umbralStreaming = Integer.getInteger("servidor.streaming.umbral", 200);
+        this.maxFlujosHttp2 = Integer.getInteger("servidor.h2.flujos.max", 100);
+        this.maxSolicitudesHttp2 = Integer.getInteger("servidor.h2.solicitudes.max", 1000);
+        this.recursos = new CacheRecursosEstaticos(compresor);
+        this.recursos.registrar(new RecursoEstatico("/styles.css", RespuestaHttp.TIPO_CSS.getValor(), generarCSS()));
+        this.rutaCSS = recursos.rutaConHuella("/styles.css");
+        this.limites = LimitesSolicitud.desdePropiedades();
+        this.contadores = new ContadoresAdmision();
+        this.paginas = new PaginasHtml(rutaCSS);
+        this.cachePaginas = new CachePaginas(Long.getLong("servidor.cache.paginas.bytes", 4 * 1024 * 1024), compresor);
+        this.drenaje = new ControlDrenaje();
+        this.registro = new RegistroConexiones(drenaje);
+        this.accesos = RegistroAccesos.desdePropiedades();
+        this.metricas = new MetricasServidor();
+        this.limitador = LimitadorTasa.desdePropiedades();
+        this.difusor = DifusorMediciones.desdePropiedades();
+        this.aceptadores = GrupoAceptadores.desdePropiedades(puerto);
+        this.almacen = AlmacenMediciones.desdePropiedades();
+        this.archivos = ArchivosEstaticos.desdePropiedades(compresor);
+        this.plazoDrenajeMs = Long.getLong("servidor.drenaje.timeout", 10000);
         this.activo = false;
-        this.threadPool = Executors.newFixedThreadPool(10);
+        if (motor == MotorServidor.VIRTUAL) {
+            this.ejecutorVirtual = new EjecutorVirtual(Integer.getInteger("servidor.virtual.limite", 10000));
+        } else if (motor == MotorServidor.CLASICO) {
+            // Un pool por aceptador; cola acotada: al llenarse se rechaza la conexión en lugar de acumularla
+            this.pools = new ThreadPoolExecutor[aceptadores.getCantidad()];
+            for (int i = 0; i < pools.length; i++) {
+                pools[i] = new ThreadPoolExecutor(10, 10, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(Integer.getInteger("servidor.cola.limite", 100)));
+            }
+        }
+        registrarMetricas();
     }
     
     /**
@@ -61,76 +150,463 @@ public class ServidorWebCompleto {
      */
     public void iniciar() {
         try {
+            // Las rutas se registran aquí y no en el constructor: así una subclase que
+            // redefine registrarRutas ya tiene todos sus campos inicializados
+            enrutador = crearEnrutador();
             controlador.inicializarSistema();
-            serverSocket = new ServerSocket(puerto);
-            activo = true;
+            accesos.iniciar();
+            limitador.iniciar();
             
-            System.out.println("🚀 Servidor Web iniciado en http://localhost:" + puerto);
-            System.out.println("📊 Equipos cargados: " + CatalogoEquipos.getInstance().obtenerCantidad());
-            System.out.println("🌐 Abra su navegador en: http://localhost:" + puerto);
-            System.out.println();
+            anunciarInicio(puerto, motor);
             
-            while (activo) {
-                try {
-                    Socket clienteSocket = serverSocket.accept();
-                    threadPool.submit(() -> manejarCliente(clienteSocket));
-                } catch (IOException e) {
-                    if (activo) {
-                        System.err.println("Error al aceptar conexión: " + e.getMessage());
-                    }
-                }
+            if (motor == MotorServidor.NIO) {
+                int bucles = Integer.getInteger("servidor.nio.bucles",
+                        Runtime.getRuntime().availableProcessors());
+                motorNIO = new MotorNIO(aceptadores, bucles, crearManejadorNIO(),
+                                        tiempoInactividadMs, maxSolicitudesPorConexion,
+                                        limites, contadores, drenaje, this::completarSolicitud, Integer.getInteger("servidor.nio.conexiones.max", 10000),
+                                        maxFlujosHttp2, maxSolicitudesHttp2);
+                activo = true;
+                motorNIO.iniciar();
+                return;
             }
+            
+            aceptadores.abrir();
+            activo = true;
+            
+            for (int i = 1; i < aceptadores.getCantidad(); i++) {
+                int indice = i;
+                Thread hilo = new Thread(() -> aceptar(indice), "aceptador-" + i);
+                hilo.setDaemon(true);
+                hilo.start();
+            }
+            aceptar(0);
         } catch (IOException e) {
             System.err.println("Error al iniciar servidor: " + e.getMessage());
         }
     }
     
     /**
-     * Detiene el servidor
+     * Bucle de un aceptador: acepta en su socket de escucha y despacha a su propio pool
+     * @param indice índice del aceptador
      */
-    public void detener() {
-        activo = false;
+    private void aceptar(int indice) {
+        ServerSocketChannel serverSocket = aceptadores.getCanal(indice);
+        while (activo) {
+            try {
+                SocketChannel clienteSocket = serverSocket.accept();
+                aceptadores.registrarAceptada(indice);
+                despachar(clienteSocket, indice);
+            } catch (ClosedChannelException e) {
+                // detener() cerró el socket de escucha mientras esperaba en accept(); cerrado ya no acepta más
+                if (activo) {
+                    System.err.println("Error al aceptar conexión: socket de escucha cerrado");
+                }
+                return;
+            } catch (IOException e) {
+                if (activo) {
+                    System.err.println("Error al aceptar conexión: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Muestra en consola que el servidor ya escucha
+     * @param puerto puerto del servidor
+     * @param motor motor de E/S en uso
+     */
+    protected void anunciarInicio(int puerto, MotorServidor motor) {
+        System.out.println("🚀 Servidor Web iniciado en http://localhost:" + puerto + " (motor " + motor + ")");
+        System.out.println("📊 Equipos cargados: " + CatalogoEquipos.getInstance().obtenerCantidad());
+        if (archivos.isActivo()) {
+            System.out.println("📁 Archivos estáticos en: " + archivos.getPatron());
+        }
+        System.out.println("🌐 Abra su navegador en: http://localhost:" + puerto);
+        System.out.println();
+    }
+    
+    /**
+     * Detiene el servidor drenando las solicitudes en curso durante el plazo
+     * de la propiedad "servidor.drenaje.timeout" (por defecto 10 s)
+     * @return resumen con las solicitudes completadas y abortadas
+     */
+    public ControlDrenaje.Resumen detener() {
+        return detener(plazoDrenajeMs);
+    }
+    
+    /**
+     * Detiene el servidor de forma ordenada: deja de aceptar conexiones, cierra las
+     * persistentes que esperan su siguiente solicitud, espera a que terminen las
+     * solicitudes en curso (que se responden con "Connection: close" o GOAWAY)
+     * y al vencer el plazo fuerza el cierre de las conexiones restantes
+     * @param plazoMs espera máxima por las solicitudes en curso
+     * @return resumen con las solicitudes completadas y abortadas
+     */
+    public synchronized ControlDrenaje.Resumen detener(long plazoMs) {
+        if (!drenaje.isDrenando()) {
+            activo = false;
+            drenaje.iniciar();
+            if (motorNIO != null) {
+                motorNIO.iniciarDrenaje();
+            }
+            aceptadores.cerrar();
+            rechazarEnCola();
+            registro.cerrarInactivas();
+            drenaje.esperar(plazoMs);
+        }
+        ControlDrenaje.Resumen resumen = drenaje.finalizar();
+        if (motorNIO != null) {
+            motorNIO.detener();
+        }
+        registro.cerrarTodas();
+        if (pools != null) {
+            for (ThreadPoolExecutor pool : pools) {
+                // Lo que aún quedaba en cola se rechaza en lugar de abandonar el socket abierto
+                rechazarPendientes(pool.shutdownNow());
+            }
+        }
+        if (ejecutorVirtual != null) {
+            ejecutorVirtual.cerrar();
+        }
+        accesos.cerrar();
+        limitador.cerrar();
+        difusor.cerrar();
+        return resumen;
+    }
+    
+    /**
+     * Rechaza con 503 las conexiones aceptadas que esperan en la cola de los pools del
+     * motor clásico: ya no se atenderán y el cliente puede reintentar en otra instancia
+     */
+    private void rechazarEnCola() {
+        if (pools == null) {
+            return;
+        }
+        for (ThreadPoolExecutor pool : pools) {
+            List<Runnable> enCola = new ArrayList<>();
+            pool.getQueue().drainTo(enCola);
+            rechazarPendientes(enCola);
+        }
+    }
+    
+    /**
+     * Responde 503 y cierra el socket de cada tarea que no llegó a ejecutarse
+     * @param tareas tareas retiradas de la cola de un pool
+     */
+    private void rechazarPendientes(List<Runnable> tareas) {
+        for (Runnable tarea : tareas) {
+            if (tarea instanceof AtencionCliente) {
+                drenaje.registrarEnColaRechazada();
+                responderRechazoYCerrar(((AtencionCliente) tarea).clienteSocket);
+            }
+        }
+    }
+    
+    /**
+     * Entrega el socket aceptado al ejecutor del motor configurado; en el motor clásico,
+     * al pool del aceptador que lo recibió.
+     * Si el ejecutor está saturado la conexión se descarta con un 503 inmediato
+     * @param clienteSocket socket del cliente
+     * @param aceptador índice del aceptador que lo recibió
+     */
+    private void despachar(SocketChannel clienteSocket, int aceptador) {
         try {
-            if (serverSocket != null && !serverSocket.isClosed()) {
-                serverSocket.close();
+            if (ejecutorVirtual != null) {
+                ejecutorVirtual.ejecutar(new AtencionCliente(clienteSocket));
+            } else {
+                pools[aceptador].execute(new AtencionCliente(clienteSocket));
             }
-            threadPool.shutdown();
+        } catch (RejectedExecutionException e) {
+            descartarPorCarga(clienteSocket);
+        }
+    }
+    
+    /**
+     * Responde 503 con Retry-After y cierra, sin bloquear al hilo aceptador
+     * @param clienteSocket socket del cliente rechazado
+     */
+    private void descartarPorCarga(SocketChannel clienteSocket) {
+        contadores.registrarDescarte();
+        responderRechazoYCerrar(clienteSocket);
+    }
+    
+    /**
+     * Envía un 503 con Retry-After sin bloquear y cierra el socket. Antes de cerrar
+     * se descarta lo que el cliente ya envió: cerrar con datos sin leer hace que el
+     * sistema responda con RST, y el cliente perdería el 503
+     * @param clienteSocket socket del cliente rechazado
+     */
+    private static void responderRechazoYCerrar(SocketChannel clienteSocket) {
+        try {
+            clienteSocket.configureBlocking(false);
+            clienteSocket.write(RespuestaHttp.rechazo(503).aBuffers(false, 0));
+            clienteSocket.shutdownOutput();
+            // Una sola lectura, acotada: el aceptador no puede quedar atado a un cliente que no para
+            clienteSocket.read(ByteBuffer.allocate(TAMANO_DESCARTE_RECHAZO));
         } catch (IOException e) {
-            System.err.println("Error al detener servidor: " + e.getMessage());
+            // El cliente ya no escucha; solo queda cerrar
+        } finally {
+            try {
+                clienteSocket.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar socket: " + e.getMessage());
+            }
         }
     }
     
     /**
-     * Maneja las solicitudes de un cliente
-     * @param clienteSocket socket del cliente
+     * Obtiene el controlador que atiende los datos del catálogo
+     * @return controlador web del servidor
      */
-    private void manejarCliente(Socket clienteSocket) {
-        try (BufferedReader entrada = new BufferedReader(
-                new InputStreamReader(clienteSocket.getInputStream()));
-             PrintWriter salida = new PrintWriter(
-                clienteSocket.getOutputStream(), true)) {
-            
-            String linea = entrada.readLine();
-            if (linea == null) return;
-            
-            String[] partesRequest = linea.split(" ");
-            if (partesRequest.length < 2) return;
-            
-            String metodo = partesRequest[0];
-            String ruta = partesRequest[1];
-            
-            // Leer headers
-            while ((linea = entrada.readLine()) != null && !linea.isEmpty()) {
-                // Procesar headers si es necesario
+    protected ControladorWeb getControlador() {
+        return controlador;
+    }
+    
+    /**
+     * Obtiene los contadores de conexiones descartadas, expiradas y rechazadas
+     * @return contadores del control de admisión
+     */
+    public ContadoresAdmision getContadores() {
+        return contadores;
+    }
+    
+    /**
+     * Obtiene los archivos estáticos servidos desde disco
+     * @return archivos estáticos, desactivados si no se configuró un directorio
+     */
+    public ArchivosEstaticos getArchivos() {
+        return archivos;
+    }
+    
+    /**
+     * Registra como métricas los indicadores del motor, las cachés y el catálogo,
+     * que se leen en el momento de exportarlas
+     */
+    private void registrarMetricas() {
+        CatalogoEquipos catalogo = CatalogoEquipos.getInstance();
+        metricas.registrarIndicador("servidor_solicitudes_en_curso",
+                "Solicitudes atendiéndose; cada flujo HTTP/2 cuenta como una", "", drenaje::getEnCurso);
+        metricas.registrarIndicador("servidor_conexiones_abiertas", "Conexiones de clientes abiertas", "",
+                () -> motorNIO != null ? motorNIO.getConexionesAbiertas() : registro.getConexionesAbiertas());
+        if (motor == MotorServidor.CLASICO) {
+            metricas.registrarIndicador("servidor_ejecutor_cola",
+                    "Conexiones aceptadas esperando un hilo del pool", "",
+                    () -> Arrays.stream(pools).mapToInt(pool -> pool.getQueue().size()).sum());
+            metricas.registrarIndicador("servidor_ejecutor_hilos_activos",
+                    "Hilos del ejecutor atendiendo una conexión", "",
+                    () -> Arrays.stream(pools).mapToInt(ThreadPoolExecutor::getActiveCount).sum());
+        } else if (motor == MotorServidor.VIRTUAL) {
+            metricas.registrarIndicador("servidor_ejecutor_hilos_activos",
+                    "Hilos del ejecutor atendiendo una conexión", "", ejecutorVirtual::getHilosActivos);
+            metricas.registrarContador("servidor_hilos_virtuales_fijados_total",
+                    "Veces que un hilo virtual quedó fijado a su portador", "", ejecutorVirtual::getHilosFijados);
+        }
+        for (int i = 0; i < aceptadores.getCantidad(); i++) {
+            int indice = i;
+            metricas.registrarContador("servidor_conexiones_aceptadas_total",
+                    "Conexiones aceptadas por cada socket de escucha", "aceptador=\"" + i + "\"",
+                    () -> aceptadores.getAceptadas(indice));
+        }
+        metricas.registrarContador("servidor_ingesta_mediciones_total",
+                "Mediciones recibidas por POST /mediciones/{id}", "resultado=\"aceptada\"", almacen::getAceptadas);
+        metricas.registrarContador("servidor_ingesta_mediciones_total",
+                "Mediciones recibidas por POST /mediciones/{id}", "resultado=\"rechazada\"", almacen::getRechazadas);
+        metricas.registrarContador("servidor_ingesta_bytes_total",
+                "Bytes de cuerpo recibidos en ingestas terminadas", "", almacen::getBytes);
+        metricas.registrarContador("servidor_conexiones_descartadas_total",
+                "Conexiones descartadas con 503 por sobrecarga", "", contadores::getDescartadasPorCarga);
+        metricas.registrarContador("servidor_solicitudes_rechazadas_total",
+                "Solicitudes rechazadas antes de enrutarlas", "motivo=\"plazo\"", contadores::getExpiradas);
+        metricas.registrarContador("servidor_solicitudes_rechazadas_total",
+                "Solicitudes rechazadas antes de enrutarlas", "motivo=\"formato\"", contadores::getRechazadas);
+        metricas.registrarContador("servidor_solicitudes_limitadas_total",
+                "Solicitudes respondidas con 429 por clase de ruta", "clase=\"ordenar\"",
+                () -> limitador.getLimitadas("ordenar"));
+        metricas.registrarContador("servidor_solicitudes_limitadas_total",
+                "Solicitudes respondidas con 429 por clase de ruta", "clase=\"busqueda\"",
+                () -> limitador.getLimitadas("busqueda"));
+        metricas.registrarIndicador("servidor_limitador_clientes",
+                "Clientes con cubetas propias en el limitador de tasa", "", limitador::getClientes);
+        metricas.registrarContador("servidor_cache_paginas_total",
+                "Consultas a la caché de páginas", "resultado=\"acierto\"", cachePaginas::getAciertos);
+        metricas.registrarContador("servidor_cache_paginas_total",
+                "Consultas a la caché de páginas", "resultado=\"fallo\"", cachePaginas::getFallos);
+        metricas.registrarContador("servidor_cache_archivos_total",
+                "Consultas a la caché de archivos estáticos pequeños", "resultado=\"acierto\"", archivos::getAciertos);
+        metricas.registrarContador("servidor_cache_archivos_total",
+                "Consultas a la caché de archivos estáticos pequeños", "resultado=\"fallo\"", archivos::getFallos);
+        metricas.registrarIndicador("servidor_cache_archivos_bytes",
+                "Bytes ocupados por la caché de archivos estáticos", "", archivos::getBytesCache);
+        metricas.registrarContador("servidor_accesos_descartados_total",
+                "Entradas del registro de accesos descartadas por anillo lleno", "", accesos::getDescartadas);
+        metricas.registrarIndicador("servidor_sse_suscriptores",
+                "Clientes suscritos a un flujo de mediciones", "", difusor::getSuscriptores);
+        metricas.registrarIndicador("servidor_sse_canales",
+                "Equipos con un bucle de adquisición en marcha", "", difusor::getCanales);
+        metricas.registrarContador("servidor_sse_mediciones_total",
+                "Mediciones realizadas por los bucles de adquisición", "", difusor::getAdquiridas);
+        metricas.registrarContador("servidor_sse_descartadas_total",
+                "Muestras descartadas por el buffer lleno de un suscriptor", "", difusor::getDescartadas);
+        metricas.registrarIndicador("catalogo_equipos", "Equipos en el catálogo", "", catalogo::obtenerCantidad);
+        metricas.registrarIndicador("catalogo_version", "Versión del catálogo", "", catalogo::getVersion);
+        metricas.registrarContador("catalogo_busquedas_total",
+                "Búsquedas en el catálogo por tipo", "tipo=\"id\"", catalogo::getBusquedasPorId);
+        metricas.registrarContador("catalogo_busquedas_total",
+                "Búsquedas en el catálogo por tipo", "tipo=\"nombre\"", catalogo::getBusquedasPorNombre);
+    }
+    
+    /**
+     * Notifica una solicitud ya respondida a las métricas y al registro de accesos
+     * @param solicitud solicitud atendida
+     * @param respuesta respuesta enviada
+     * @param cliente dirección del cliente
+     */
+    private void completarSolicitud(SolicitudHttp solicitud, RespuestaHttp respuesta, String cliente) {
+        metricas.registrar(solicitud, respuesta);
+        accesos.registrar(solicitud, respuesta, cliente);
+    }
+    
+    /**
+     * Obtiene las solicitudes que se están atendiendo, contando cada flujo HTTP/2 como una
+     * @return cantidad de solicitudes en curso
+     */
+    public int getSolicitudesEnCurso() {
+        return drenaje.getEnCurso();
+    }
+    
+    /**
+     * Obtiene los hilos virtuales vivos atendiendo clientes
+     * @return cantidad de hilos, 0 si el motor no es VIRTUAL
+     */
+    public int getHilosVirtualesActivos() {
+        return ejecutorVirtual != null ? ejecutorVirtual.getHilosActivos() : 0;
+    }
+    
+    /**
+     * Obtiene cuántas veces un hilo virtual quedó fijado a su hilo portador
+     * @return cantidad de eventos de fijado, 0 si el motor no es VIRTUAL
+     */
+    public long getHilosVirtualesFijados() {
+        return ejecutorVirtual != null ? ejecutorVirtual.getHilosFijados() : 0;
+    }
+    
+    /**
+     * Maneja las solicitudes de un cliente sobre una conexión persistente.
+     * Atiende en orden las solicitudes encadenadas (pipelining) hasta que el cliente
+     * pida "Connection: close", venza el tiempo de inactividad o se llegue al máximo
+     * de solicitudes por conexión, o hasta que se detenga el servidor.
+     * Las respuestas se envían con escrituras agrupadas sobre el canal.
+     * @param clienteSocket canal del cliente en modo bloqueante
+     */
+    private void manejarCliente(SocketChannel clienteSocket) {
+        List<ByteBuffer> pendientes = new ArrayList<>();
+        RegistroConexiones.Conexion conexion = registro.registrar(clienteSocket);
+        String cliente = RegistroAccesos.direccionCliente(clienteSocket);
+        // El flujo no va en try-with-resources: cerrarlo cerraría el socket antes de poder
+        // enviar un rechazo desde los catch; el finally cierra ambos
+        try {
+            if (!activo) {
+                // Aceptada antes del drenaje y tomada de la cola después: se pide reintentarla
+                drenaje.registrarEnColaRechazada();
+                responderRechazoYCerrar(clienteSocket);
+                return;
             }
+            InputStream entradaSocket = new BufferedInputStream(clienteSocket.socket().getInputStream());
+            clienteSocket.socket().setSoTimeout(tiempoInactividadMs);
+            LectorSolicitudHttp lector = new LectorSolicitudHttp(entradaSocket, limites, clienteSocket.socket());
+            int atendidas = 0;
+            boolean mantenerConexion = true;
             
-            String respuesta = procesarSolicitud(metodo, ruta);
-            salida.print(respuesta);
-            salida.flush();
+            while (mantenerConexion && activo) {
+                SolicitudHttp solicitud = lector.leer();
+                if (solicitud == null) {
+                    return;
+                }
+                solicitud.setCliente(cliente);
+                if (!conexion.ocupar()) {
+                    // El drenaje cerró la conexión mientras llegaba la solicitud: se pide reintentarla
+                    Collections.addAll(pendientes, RespuestaHttp.rechazo(503).aBuffers(false, 0));
+                    escribirAgrupado(clienteSocket, pendientes);
+                    return;
+                }
+                if (SesionHttp2.esPrefacio(solicitud) || SesionHttp2.solicitaUpgrade(solicitud)) {
+                    escribirAgrupado(clienteSocket, pendientes);
+                    atenderHttp2(clienteSocket, entradaSocket, solicitud, conexion, cliente);
+                    return;
+                }
+                ReceptorCuerpo receptor = recibirCuerpo(solicitud);
+                DecodificadorCuerpo cuerpo = receptor != null || solicitud.tieneCuerpo()
+                    ? DecodificadorCuerpo.de(solicitud, receptor, limites.getMaxCuerpo()) : null;
+                // Un cuerpo que nadie usará y que el cliente aún no envía (Expect: 100-continue)
+                // no se pide: se responde y se cierra la conexión
+                boolean omitirCuerpo = cuerpo != null && receptor == null && !cuerpo.isTerminado()
+                                       && solicitud.isEsperaContinuar();
+                atendidas++;
+                
+                drenaje.iniciarSolicitud();
+                try {
+                    mantenerConexion = activo && solicitud.isMantenerConexion() && !omitirCuerpo
+                                       && atendidas < maxSolicitudesPorConexion;
+                    if (cuerpo != null && !omitirCuerpo) {
+                        if (receptor != null && solicitud.isEsperaContinuar() && !cuerpo.isTerminado()) {
+                            escribirAgrupado(clienteSocket, pendientes);
+                            escribirAgrupado(clienteSocket, RespuestaHttp.continuar());
+                        }
+                        lector.leerCuerpo(cuerpo);
+                    }
+                    RespuestaHttp respuesta = procesarSolicitud(solicitud);
+                    // Si el drenaje empezó mientras se leía el cuerpo, la respuesta ya anuncia el cierre
+                    mantenerConexion = mantenerConexion && activo;
+                    Collections.addAll(pendientes, respuesta.aBuffers(mantenerConexion, tiempoInactividadMs / 1000));
+                    
+                    if (respuesta.isStreaming()) {
+                        escribirAgrupado(clienteSocket, pendientes);
+                        ByteBuffer[] fragmento;
+                        try {
+                            while ((fragmento = respuesta.siguienteFragmento()) != null) {
+                                escribirAgrupado(clienteSocket, fragmento);
+                            }
+                        } finally {
+                            // Si el cliente se fue a mitad del cuerpo, el productor se entera aquí
+                            respuesta.abortarStreaming();
+                        }
+                    } else if (respuesta.tieneArchivo()) {
+                        escribirAgrupado(clienteSocket, pendientes);
+                        try {
+                            respuesta.transferirArchivo(clienteSocket);
+                        } finally {
+                            // Cierra el archivo también si el cliente se fue a mitad del envío
+                            respuesta.abortarStreaming();
+                        }
+                    } else if (!mantenerConexion || !activo || !lector.hayDatosPendientes()) {
+                        // Con solicitudes encadenadas en espera se agrupan las respuestas en un solo envío
+                        escribirAgrupado(clienteSocket, pendientes);
+                    }
+                    completarSolicitud(solicitud, respuesta, cliente);
+                } finally {
+                    drenaje.terminarSolicitud();
+                    conexion.liberar();
+                }
+            }
+            // Respuestas encadenadas que quedaron agrupadas cuando se detuvo el servidor
+            escribirAgrupado(clienteSocket, pendientes);
             
+        } catch (SocketTimeoutException e) {
+            // Conexión inactiva: se cierra sin responder
+        } catch (SolicitudRechazadaException e) {
+            rechazar(clienteSocket, pendientes, e.getCodigo());
+        } catch (IllegalArgumentException e) {
+            rechazar(clienteSocket, pendientes, 400);
+        } catch (ClosedChannelException e) {
+            // Al detener, el drenaje cierra las conexiones inactivas y las que pasan del plazo
+            if (!drenaje.isDrenando()) {
+                System.err.println("Error al manejar cliente: conexión cerrada (" + e + ")");
+            }
         } catch (IOException e) {
             System.err.println("Error al manejar cliente: " + e.getMessage());
         } finally {
+            conexion.cerrar();
             try {
                 clienteSocket.close();
             } catch (IOException e) {
@@ -140,375 +616,565 @@ public class ServidorWebCompleto {
     }
     
     /**
-     * Procesa las solicitudes HTTP
-     * @param metodo método HTTP
-     * @param ruta ruta solicitada
-     * @return respuesta HTTP completa
+     * Envía las respuestas ya generadas y luego el rechazo, antes de cerrar la conexión
+     * @param canal canal del cliente en modo bloqueante
+     * @param pendientes respuestas encadenadas aún sin enviar
+     * @param codigo código HTTP del rechazo
+     */
+    private void rechazar(SocketChannel canal, List<ByteBuffer> pendientes, int codigo) {
+        contadores.registrarRechazo(codigo);
+        try {
+            Collections.addAll(pendientes, RespuestaHttp.rechazo(codigo).aBuffers(false, 0));
+            escribirAgrupado(canal, pendientes);
+        } catch (IOException e) {
+            // El cliente ya no escucha; solo queda cerrar
+        }
+    }
+    
+    /**
+     * Continúa la conexión en HTTP/2, con conocimiento previo ("PRI *") o tras
+     * responder 101 a un "Upgrade: h2c". Cada lectura se entrega a la sesión y
+     * después se envía todo lo que la sesión tenga listo.
+     * La conexión cuenta como ocupada mientras tenga flujos abiertos; al detenerse
+     * el servidor se despide con GOAWAY y termina cuando se completan sus flujos
+     * @param clienteSocket socket del cliente
+     * @param entrada flujo con buffer que ya pudo haber leído el inicio de los marcos
+     * @param solicitud solicitud que inició el cambio de protocolo
+     * @param conexion conexión registrada para el drenaje
+     * @param cliente dirección del cliente para el registro de accesos
      */
-    private String procesarSolicitud(String metodo, String ruta) {
+    private void atenderHttp2(SocketChannel clienteSocket, InputStream entrada, SolicitudHttp solicitud,
+                              RegistroConexiones.Conexion conexion, String cliente) throws IOException {
+        SesionHttp2 sesion = crearSesionHttp2(cliente);
+        int flujosContados = 0;
         try {
-            if (!"GET".equals(metodo)) {
-                return crearRespuestaError(405, "Método no permitido");
+            if (SesionHttp2.esPrefacio(solicitud)) {
+                sesion.omitirLineaPrefacio();
+            } else {
+                escribirAgrupado(clienteSocket, RespuestaHttp.cambioDeProtocolo("h2c"));
+                sesion.iniciarDesdeUpgrade(solicitud);
             }
+            flujosContados = enviarHttp2(clienteSocket, sesion, conexion, flujosContados);
             
-            switch (ruta) {
-                case "/":
-                case "/index.html":
-                    return servirPaginaPrincipal();
-                case "/equipos":
-                    return servirListadoEquipos();
-                case "/ordenar":
-                    return servirEquiposOrdenados();
-                case "/styles.css":
-                    return servirCSS();
-                case "/favicon.ico":
-                    return crearRespuesta404();
-                default:
-                    if (ruta.startsWith("/buscar/id/")) {
-                        String id = ruta.substring("/buscar/id/".length());
-                        return servirBusquedaPorId(id);
-                    } else if (ruta.startsWith("/buscar/nombre/")) {
-                        String nombre = ruta.substring("/buscar/nombre/".length());
-                        nombre = URLDecoder.decode(nombre, "UTF-8");
-                        return servirBusquedaPorNombre(nombre);
-                    } else if (ruta.startsWith("/detalles/")) {
-                        String id = ruta.substring("/detalles/".length());
-                        return servirDetallesEquipo(id);
-                    } else {
-                        return crearRespuesta404();
+            byte[] lectura = new byte[TAMANO_LECTURA_HTTP2];
+            while (!sesion.isTerminada()) {
+                int leidos;
+                try {
+                    leidos = entrada.read(lectura);
+                } catch (SocketTimeoutException e) {
+                    // Conexión inactiva: se despide con GOAWAY antes de cerrar
+                    sesion.despedir();
+                    flujosContados = enviarHttp2(clienteSocket, sesion, conexion, flujosContados);
+                    return;
+                }
+                if (leidos < 0) {
+                    if (!activo) {
+                        // Entrada cortada por el drenaje: la sesión aún puede despedirse
+                        flujosContados = enviarHttp2(clienteSocket, sesion, conexion, flujosContados);
                     }
+                    return;
+                }
+                if (!activo) {
+                    // Despedirse antes de entregar la lectura para que se ignoren los flujos nuevos
+                    sesion.despedir();
+                }
+                sesion.recibir(ByteBuffer.wrap(lectura, 0, leidos));
+                flujosContados = enviarHttp2(clienteSocket, sesion, conexion, flujosContados);
+            }
+        } finally {
+            sesion.abandonar();
+            drenaje.ajustarEnCurso(-flujosContados);
+        }
+    }
+    
+    /**
+     * Envía todo lo que la sesión tenga listo y actualiza las solicitudes en curso
+     * con los flujos abiertos. Con el servidor detenido la sesión se despide antes
+     * @param contados flujos contados como en curso en la llamada anterior
+     * @return flujos abiertos ahora
+     */
+    private int enviarHttp2(SocketChannel canal, SesionHttp2 sesion,
+                            RegistroConexiones.Conexion conexion, int contados) throws IOException {
+        if (!activo) {
+            sesion.despedir();
+        }
+        ByteBuffer salida;
+        while ((salida = sesion.generarSalida()) != null) {
+            escribirAgrupado(canal, new ByteBuffer[] { salida });
+        }
+        int activos = sesion.getFlujosActivos();
+        drenaje.ajustarEnCurso(activos - contados);
+        if (activos > 0) {
+            conexion.ocupar();
+        } else {
+            conexion.liberar();
+        }
+        return activos;
+    }
+    
+    /**
+     * Manejador que el motor NIO usa para elegir el destino de cada cuerpo y luego responder
+     */
+    private ManejadorSolicitudes crearManejadorNIO() {
+        return new ManejadorSolicitudes() {
+            @Override
+            public RespuestaHttp procesarSolicitud(SolicitudHttp solicitud) {
+                return ServidorWebCompleto.this.procesarSolicitud(solicitud);
             }
             
+            @Override
+            public ReceptorCuerpo recibirCuerpo(SolicitudHttp solicitud) {
+                return ServidorWebCompleto.this.recibirCuerpo(solicitud);
+            }
+        };
+    }
+    
+    private SesionHttp2 crearSesionHttp2(String cliente) {
+        SesionHttp2 sesion = new SesionHttp2(this::procesarSolicitud, maxFlujosHttp2,
+                                             limites.getMaxCabecera(), maxSolicitudesHttp2);
+        sesion.setAlCompletar((solicitud, respuesta) -> completarSolicitud(solicitud, respuesta, cliente));
+        sesion.setCliente(cliente);
+        return sesion;
+    }
+    
+    /**
+     * Escribe todos los buffers con escrituras agrupadas (gathering write)
+     * @param canal canal del cliente en modo bloqueante
+     * @param buffers buffers a escribir; la lista queda vacía
+     */
+    private void escribirAgrupado(SocketChannel canal, List<ByteBuffer> buffers) throws IOException {
+        escribirAgrupado(canal, buffers.toArray(new ByteBuffer[0]));
+        buffers.clear();
+    }
+    
+    private void escribirAgrupado(SocketChannel canal, ByteBuffer[] buffers) throws IOException {
+        while (RespuestaHttp.quedanBytes(buffers)) {
+            canal.write(buffers);
+        }
+    }
+    
+    /**
+     * Procesa una solicitud HTTP: primero los recursos estáticos precodificados
+     * y luego el enrutamiento de páginas, comprimiendo con gzip si el cliente lo acepta
+     * @param solicitud solicitud con sus encabezados
+     * @return respuesta HTTP a enviar
+     */
+    private RespuestaHttp procesarSolicitud(SolicitudHttp solicitud) {
+        if ("GET".equals(solicitud.getMetodo())) {
+            RespuestaHttp recurso = recursos.servir(solicitud);
+            if (recurso != null) {
+                // Los recursos registrados son pocos: su ruta sirve como patrón
+                int consulta = solicitud.getRuta().indexOf('?');
+                solicitud.setPatronRuta(consulta < 0 ? solicitud.getRuta() : solicitud.getRuta().substring(0, consulta));
+                return recurso;
+            }
+        }
+        RespuestaHttp respuesta = prepararRespuesta(solicitud, enrutar(solicitud));
+        return compresor.comprimir(solicitud, respuesta);
+    }
+    
+    /**
+     * Ajusta cada respuesta enrutada antes de comprimirla. El servidor web no agrega nada
+     * @param solicitud solicitud atendida
+     * @param respuesta respuesta del manejador o de error
+     * @return respuesta a enviar
+     */
+    protected RespuestaHttp prepararRespuesta(SolicitudHttp solicitud, RespuestaHttp respuesta) {
+        return respuesta;
+    }
+    
+    /**
+     * Crea el enrutador con las métricas y las rutas propias del servidor, y lo compila
+     * @return enrutador listo para resolver solicitudes
+     */
+    private EnrutadorTrie crearEnrutador() {
+        EnrutadorTrie enrutador = new EnrutadorTrie()
+            .registrar("GET", "/metrics", (solicitud, p) -> servirMetricas())
+            .registrar("GET", "/stream/mediciones/{id}", (solicitud, p) -> servirMediciones(solicitud, p))
+            .registrar("POST", RUTA_INGESTA, (solicitud, p) -> servirIngesta(solicitud, p.getTexto("id")))
+            .registrar("GET", RUTA_INGESTA, (solicitud, p) -> servirResumenMediciones(p.getTexto("id")));
+        registrarRutas(enrutador);
+        return enrutador.compilar();
+    }
+    
+    /**
+     * Registra las páginas HTML del servidor. Se llama una vez al iniciar, con el
+     * servidor ya construido, así que una subclase que lo redefina puede usar sus campos.
+     * Las hojas de estilo se atienden antes desde la caché de recursos; se registran
+     * aquí para que otros métodos sobre ellas respondan 405 en lugar de 404
+     * @param enrutador enrutador aún sin compilar
+     */
+    protected void registrarRutas(EnrutadorTrie enrutador) {
+        enrutador
+            .registrar("GET", "/styles.css", (solicitud, p) -> recursos.servir(solicitud))
+            .registrar("GET", rutaCSS, (solicitud, p) -> recursos.servir(solicitud))
+            .registrar("GET", "/", condicional((solicitud, p) -> servirPaginaPrincipal(solicitud)))
+            .registrar("GET", "/index.html", condicional((solicitud, p) -> servirPaginaPrincipal(solicitud)))
+            .registrar("GET", "/equipos", condicional(this::servirListadoEquipos))
+            .registrar("GET", "/ordenar", condicional(this::servirEquiposOrdenados))
+            .registrar("GET", "/buscar/id/{id}", condicional((solicitud, p) -> servirBusquedaPorId(p.getTexto("id"))))
+            .registrar("GET", "/buscar/nombre/{nombre}",
+                       condicional((solicitud, p) -> servirBusquedaPorNombre(solicitud, p.getTexto("nombre"), p)))
+            .registrar("GET", "/detalles/{id}",
+                       condicional((solicitud, p) -> servirDetallesEquipo(solicitud, p.getTexto("id"))));
+    }
+    
+    /**
+     * Envuelve un manejador cuyo contenido depende solo de la ruta y del catálogo.
+     * Si la copia del cliente sigue vigente responde 304 antes de consultar el
+     * catálogo o generar HTML; si no, agrega ETag y Last-Modified a la respuesta
+     * @param manejador manejador que genera la respuesta
+     * @return manejador con validación condicional
+     */
+    protected ManejadorRuta condicional(ManejadorRuta manejador) {
+        return (solicitud, parametros) -> {
+            ValidadorCondicional validador = controlador.obtenerValidador();
+            if (validador.noModificado(solicitud)) {
+                return validador.respuestaNoModificado();
+            }
+            return validador.agregarValidadores(manejador.manejar(solicitud, parametros));
+        };
+    }
+    
+    /**
+     * Resuelve la solicitud en el enrutador. Si ninguna ruta coincide se busca un
+     * archivo estático, y si tampoco existe se responde 404; 405 con Allow si la
+     * ruta existe pero no admite el método
+     * @param solicitud solicitud con sus encabezados
+     * @return respuesta HTTP a enviar
+     */
+    private RespuestaHttp enrutar(SolicitudHttp solicitud) {
+        try {
+            EnrutadorTrie.Coincidencia coincidencia = enrutador.buscar(solicitud.getMetodo(), solicitud.getRuta());
+            if (coincidencia == null) {
+                RespuestaHttp archivo = archivos.servir(solicitud);
+                return archivo != null ? archivo : crearRespuesta404();
+            }
+            solicitud.setPatronRuta(coincidencia.getPatron());
+            if (coincidencia.getManejador() == null) {
+                return crearRespuestaError(405, "Método no permitido").agregarEncabezado(coincidencia.getPermitidos());
+            }
+            // Las consultas previas de CORS no gastan el presupuesto de la solicitud que anuncian
+            long espera = "OPTIONS".equals(solicitud.getMetodo())
+                ? 0 : limitador.consumir(solicitud.getCliente(), coincidencia.getPatron());
+            if (espera > 0) {
+                return crearRespuesta429(espera);
+            }
+            return coincidencia.getManejador().manejar(solicitud, coincidencia.getParametros());
         } catch (Exception e) {
             return crearRespuesta500(e.getMessage());
         }
     }
     
+    /**
+     * @return true si el cuerpo puede enviarse por partes: chunked en HTTP/1.1
+     *         o varios marcos DATA en HTTP/2
+     */
+    private boolean admiteStreaming(SolicitudHttp solicitud) {
+        return "HTTP/1.1".equals(solicitud.getVersion()) || SesionHttp2.VERSION.equals(solicitud.getVersion());
+    }
+    
+    /**
+     * Sirve las métricas en el formato de texto de Prometheus
+     */
+    private RespuestaHttp servirMetricas() {
+        return new RespuestaHttp(200).agregarEncabezado(RespuestaHttp.TIPO_METRICAS)
+                                     .agregarEncabezado("Cache-Control", "no-store")
+                                     .conCuerpo(metricas.exportar());
+    }
+    
+    /**
+     * Abre un flujo Server-Sent Events con las mediciones de un equipo, a la tasa
+     * pedida en "tasa" (mediciones por segundo, por defecto 1). El flujo queda abierto
+     * hasta que el cliente se va o el servidor se detiene. Solo se ofrece en HTTP/1.1:
+     * una sesión HTTP/2 no puede dejar un flujo esperando datos sin detener a los demás
+     */
+    private RespuestaHttp servirMediciones(SolicitudHttp solicitud, ParametrosRuta parametros) {
+        if (!"HTTP/1.1".equals(solicitud.getVersion())) {
+            return crearRespuestaError(400, "El flujo de mediciones requiere HTTP/1.1");
+        }
+        String id = parametros.getTexto("id");
+        Equipo equipo = CatalogoEquipos.getInstance().buscarPorId(id);
+        if (!(equipo instanceof Medible)) {
+            return crearRespuestaError(404, equipo == null ? "No se encontró equipo con ID: " + id
+                                                           : "El equipo " + equipo.getId() + " no realiza mediciones");
+        }
+        double tasa;
+        try {
+            String pedida = parametros.getConsulta("tasa");
+            tasa = pedida == null || pedida.isEmpty() ? 1 : Double.parseDouble(pedida);
+        } catch (NumberFormatException e) {
+            return crearRespuestaError(400, "Tasa de mediciones inválida");
+        }
+        if (!(tasa > 0)) {
+            return crearRespuestaError(400, "Tasa de mediciones inválida");
+        }
+        SuscripcionMediciones suscripcion = difusor.suscribir(equipo.getId(), (Medible) equipo, tasa, () -> activo);
+        return new RespuestaHttp(200).agregarEncabezado(RespuestaHttp.TIPO_EVENTOS)
+                                     .agregarEncabezado("Cache-Control", "no-store")
+                                     .conCuerpoEnStreaming(suscripcion);
+    }
+    
+    /**
+     * Elige el destino del cuerpo de una solicitud HTTP/1.1 antes de leerlo: solo
+     * un POST a /mediciones/{id} de un equipo medible y en un formato admitido
+     * recibe una ingesta; cualquier otro cuerpo se descarta
+     * @param solicitud solicitud con la cabecera ya leída
+     * @return ingesta que consumirá el cuerpo, o null para descartarlo
+     */
+    private ReceptorCuerpo recibirCuerpo(SolicitudHttp solicitud) {
+        if (!"POST".equals(solicitud.getMetodo())) {
+            return null;
+        }
+        EnrutadorTrie.Coincidencia coincidencia = enrutador.buscar("POST", solicitud.getRuta());
+        if (coincidencia == null || !RUTA_INGESTA.equals(coincidencia.getPatron())) {
+            return null;
+        }
+        String id = coincidencia.getParametros().getTexto("id");
+        if (rechazarIngesta(solicitud, id) != null) {
+            return null;
+        }
+        IngestaMediciones.Formato formato = IngestaMediciones.Formato.de(solicitud.getEncabezado("Content-Type"));
+        IngestaMediciones ingesta = new IngestaMediciones(
+                CatalogoEquipos.getInstance().buscarPorId(id).getId(), formato, almacen);
+        solicitud.setReceptorCuerpo(ingesta);
+        return ingesta;
+    }
+    
+    /**
+     * Valida el destino de una ingesta: el equipo debe existir y medir, y el cuerpo
+     * venir en NDJSON o CSV
+     * @return respuesta de error, o null si la ingesta es válida
+     */
+    private RespuestaHttp rechazarIngesta(SolicitudHttp solicitud, String id) {
+        Equipo equipo = CatalogoEquipos.getInstance().buscarPorId(id);
+        if (!(equipo instanceof Medible)) {
+            return responderJSON(404, JSON.generarRespuestaError(equipo == null
+                ? "No se encontró equipo con ID: " + id : "El equipo " + equipo.getId() + " no realiza mediciones"));
+        }
+        if (IngestaMediciones.Formato.de(solicitud.getEncabezado("Content-Type")) == null) {
+            return responderJSON(415, JSON.generarRespuestaError(
+                "Content-Type no admitido; use application/x-ndjson o text/csv"));
+        }
+        return null;
+    }
+    
+    /**
+     * Responde a una ingesta cuyo cuerpo ya se leyó completo, con los conteos y el
+     * rendimiento. Sin receptor la solicitud fue rechazada antes de leer el cuerpo,
+     * o llegó por HTTP/2, que descarta los cuerpos
+     */
+    private RespuestaHttp servirIngesta(SolicitudHttp solicitud, String id) {
+        if (solicitud.getReceptorCuerpo() instanceof IngestaMediciones) {
+            IngestaMediciones ingesta = (IngestaMediciones) solicitud.getReceptorCuerpo();
+            return responderJSON(200, JSON.generarRespuestaExito("Mediciones recibidas", ingesta.resumenJSON()));
+        }
+        RespuestaHttp rechazo = rechazarIngesta(solicitud, id);
+        return rechazo != null ? rechazo
+            : responderJSON(400, JSON.generarRespuestaError("La ingesta de mediciones requiere HTTP/1.1"));
+    }
+    
+    /**
+     * Resume las mediciones ingeridas de un equipo: total, retenidas, la última y sus estadísticas
+     */
+    private RespuestaHttp servirResumenMediciones(String id) {
+        Equipo equipo = CatalogoEquipos.getInstance().buscarPorId(id);
+        if (!(equipo instanceof Medible)) {
+            return responderJSON(404, JSON.generarRespuestaError(equipo == null
+                ? "No se encontró equipo con ID: " + id : "El equipo " + equipo.getId() + " no realiza mediciones"));
+        }
+        return responderJSON(200, JSON.generarRespuestaExito("Mediciones retenidas", almacen.resumenJSON(equipo.getId())))
+                .agregarEncabezado("Cache-Control", "no-store");
+    }
+    
+    private RespuestaHttp responderJSON(int codigo, String json) {
+        return new RespuestaHttp(codigo).agregarEncabezado(RespuestaHttp.TIPO_JSON).conCuerpo(json);
+    }
+    
     /**
      * Sirve la página principal con menú
      */
-    private String servirPaginaPrincipal() {
-        String html = generarPaginaPrincipal();
-        return crearRespuestaHTML(html);
+    private RespuestaHttp servirPaginaPrincipal(SolicitudHttp solicitud) {
+        long version = CatalogoEquipos.getInstance().getVersion();
+        return servirDesdeCache(solicitud, "principal", version,
+                                () -> paginas.principal(CatalogoEquipos.getInstance().obtenerCantidad()));
+    }
+    
+    /**
+     * Sirve una página del listado de equipos, en orden de ID
+     */
+    private RespuestaHttp servirListadoEquipos(SolicitudHttp solicitud, ParametrosRuta parametros) {
+        // La versión se lee antes de tomar los datos para no guardar contenido viejo con una versión nueva
+        long version = CatalogoEquipos.getInstance().getVersion();
+        return servirPaginado(solicitud, parametros, "/equipos", version, "Listado Completo de Equipos",
+                              CatalogoEquipos.getInstance()::obtenerPagina);
+    }
+    
+    /**
+     * Sirve una página de los equipos ordenados por consumo. El orden sale de la
+     * propia paginación, así que el catálogo compartido ya no se reordena
+     */
+    private RespuestaHttp servirEquiposOrdenados(SolicitudHttp solicitud, ParametrosRuta parametros) {
+        long version = CatalogoEquipos.getInstance().getVersion();
+        return servirPaginado(solicitud, parametros, "/ordenar", version, "Equipos Ordenados por Consumo Eléctrico",
+                              CatalogoEquipos.getInstance()::obtenerPaginaPorConsumo);
+    }
+    
+    /**
+     * Lee "limite" y "cursor" de la consulta y sirve la página pedida. Solo la primera
+     * página con el límite por defecto se guarda en la caché: las demás claves las elige el cliente
+     * @param clave clave en la caché de páginas para la primera página
+     * @param consulta obtiene la página a partir del límite y el cursor
+     */
+    private RespuestaHttp servirPaginado(SolicitudHttp solicitud, ParametrosRuta parametros, String clave,
+                                         long version, String titulo,
+                                         BiFunction<Integer, String, Pagina<Equipo>> consulta) {
+        String cursor = parametros.getConsulta("cursor");
+        int limite;
+        Pagina<Equipo> pagina;
+        try {
+            limite = leerLimite(parametros);
+            pagina = consulta.apply(limite, cursor);
+        } catch (IllegalArgumentException e) {
+            return crearRespuestaError(400, "Cursor o límite de página inválido");
+        }
+        boolean primeraPagina = (cursor == null || cursor.isEmpty()) && parametros.getConsulta("limite") == null;
+        return servirListado(solicitud, primeraPagina ? clave : null, version, pagina, titulo, "/", limite);
+    }
+    
+    /**
+     * @return límite pedido en la consulta, o 0 para usar el de por defecto
+     * @throws IllegalArgumentException si no es un número
+     */
+    private static int leerLimite(ParametrosRuta parametros) {
+        String limite = parametros.getConsulta("limite");
+        return limite == null || limite.isEmpty() ? 0 : Integer.parseInt(limite);
+    }
+    
+    /**
+     * Sirve una página de un listado de equipos. Las páginas grandes se envían por
+     * fragmentos (chunked) para no materializarlas completas en memoria; las demás
+     * salen de la caché de páginas cuando tienen clave
+     * @param solicitud solicitud HTTP del cliente
+     * @param clave clave en la caché de páginas, o null si la página no se cachea
+     * @param version versión del catálogo leída antes de obtener los equipos
+     * @param pagina equipos a mostrar y cursores de las páginas vecinas
+     * @param titulo título de la página
+     * @param volverUrl enlace de regreso
+     * @param limite límite pedido, que se conserva en los enlaces a las páginas vecinas
+     * @return respuesta con el cuerpo completo o en streaming
+     */
+    private RespuestaHttp servirListado(SolicitudHttp solicitud, String clave, long version, Pagina<Equipo> pagina,
+                                        String titulo, String volverUrl, int limite) {
+        List<Equipo> equipos = pagina.getElementos();
+        String ruta = solicitud.getRuta();
+        String base = ruta.indexOf('?') < 0 ? ruta : ruta.substring(0, ruta.indexOf('?'));
+        String anteriorUrl = urlPagina(base, pagina.getCursorAnterior(), limite);
+        String siguienteUrl = urlPagina(base, pagina.getCursorSiguiente(), limite);
+        if (admiteStreaming(solicitud) && equipos.size() >= umbralStreaming) {
+            return new RespuestaHttp(200).agregarEncabezado(RespuestaHttp.TIPO_HTML).conCuerpoEnStreaming(
+                paginas.listadoEnStreaming(equipos, pagina.getTotal(), titulo, volverUrl,
+                                           anteriorUrl, siguienteUrl, TAMANO_FRAGMENTO));
+        }
+        Supplier<byte[]> generador = () -> paginas.listado(equipos, pagina.getTotal(), titulo, volverUrl,
+                                                           anteriorUrl, siguienteUrl);
+        if (clave == null) {
+            return crearRespuestaHTML(generador.get());
+        }
+        return servirDesdeCache(solicitud, clave, version, generador);
+    }
+    
+    /**
+     * @return enlace a la página del cursor, o null si no hay cursor
+     */
+    private static String urlPagina(String base, String cursor, int limite) {
+        if (cursor == null) {
+            return null;
+        }
+        int normalizado = Pagina.normalizarLimite(limite);
+        return base + "?cursor=" + cursor + (normalizado == Pagina.LIMITE_POR_DEFECTO ? "" : "&limite=" + normalizado);
     }
     
     /**
-     * Sirve el listado completo de equipos
+     * Sirve una página HTML desde la caché de páginas
+     * @see #servirDesdeCache(SolicitudHttp, String, long, RespuestaHttp.Encabezado, Supplier)
      */
-    private String servirListadoEquipos() {
-        List<Equipo> equipos = CatalogoEquipos.getInstance().obtenerTodos();
-        String html = generarPaginaEquipos(equipos, "Listado Completo de Equipos", "/");
-        return crearRespuestaHTML(html);
+    private RespuestaHttp servirDesdeCache(SolicitudHttp solicitud, String clave, long version,
+                                           Supplier<byte[]> generador) {
+        return servirDesdeCache(solicitud, clave, version, RespuestaHttp.TIPO_HTML, generador);
     }
     
     /**
-     * Sirve los equipos ordenados por consumo
+     * Sirve un cuerpo desde la caché de páginas, generándolo solo si falta o es
+     * de otra versión del catálogo. Entrega la variante gzip ya comprimida si el cliente la acepta
+     * @param solicitud solicitud HTTP con Accept-Encoding
+     * @param clave clave del cuerpo en la caché
+     * @param version versión del catálogo leída antes de obtener los datos
+     * @param tipo encabezado Content-Type del cuerpo
+     * @param generador genera el cuerpo cuando hace falta, o null si no debe guardarse
+     * @return respuesta con el cuerpo precodificado, o null si el generador devolvió null
      */
-    private String servirEquiposOrdenados() {
-        CatalogoEquipos.getInstance().ordenarPorConsumo();
-        List<Equipo> equipos = CatalogoEquipos.getInstance().obtenerTodos();
-        String html = generarPaginaEquipos(equipos, "Equipos Ordenados por Consumo Eléctrico", "/");
-        return crearRespuestaHTML(html);
+    protected RespuestaHttp servirDesdeCache(SolicitudHttp solicitud, String clave, long version,
+                                             RespuestaHttp.Encabezado tipo, Supplier<byte[]> generador) {
+        CachePaginas.Entrada entrada = cachePaginas.obtener(clave, version, generador);
+        if (entrada == null) {
+            return null;
+        }
+        RespuestaHttp respuesta = new RespuestaHttp(200).agregarEncabezado(tipo);
+        if (entrada.getGzip() != null && compresor.aceptaGzip(solicitud)) {
+            return respuesta.agregarEncabezado(RespuestaHttp.GZIP)
+                            .agregarEncabezado(RespuestaHttp.VARY_ENCODING)
+                            .conCuerpo(entrada.getGzip());
+        }
+        return respuesta.conCuerpo(entrada.getCuerpo());
     }
     
     /**
      * Sirve búsqueda por ID
      */
-    private String servirBusquedaPorId(String id) {
+    private RespuestaHttp servirBusquedaPorId(String id) {
         Equipo equipo = CatalogoEquipos.getInstance().buscarPorId(id);
         if (equipo != null) {
-            List<Equipo> equipos = List.of(equipo);
-            String html = generarPaginaEquipos(equipos, "Resultado de Búsqueda por ID: " + id, "/");
-            return crearRespuestaHTML(html);
+            return crearRespuestaHTML(paginas.listado(List.of(equipo), "Resultado de Búsqueda por ID: " + id, "/"));
         } else {
-            String html = generarPaginaError("No se encontró equipo con ID: " + id, "/");
-            return crearRespuestaHTML(html);
+            return crearRespuestaHTML(paginas.error("No se encontró equipo con ID: " + id, "/"));
         }
     }
     
     /**
-     * Sirve búsqueda por nombre
+     * Sirve una página de la búsqueda por nombre
      */
-    private String servirBusquedaPorNombre(String nombre) {
-        List<Equipo> equipos = CatalogoEquipos.getInstance().buscarPorNombre(nombre);
-        if (!equipos.isEmpty()) {
-            String html = generarPaginaEquipos(equipos, "Resultado de Búsqueda por Nombre: " + nombre, "/");
-            return crearRespuestaHTML(html);
+    private RespuestaHttp servirBusquedaPorNombre(SolicitudHttp solicitud, String nombre, ParametrosRuta parametros) {
+        String cursor = parametros.getConsulta("cursor");
+        int limite;
+        Pagina<Equipo> pagina;
+        try {
+            limite = leerLimite(parametros);
+            pagina = CatalogoEquipos.getInstance().buscarPorNombre(nombre, limite, cursor);
+        } catch (IllegalArgumentException e) {
+            return crearRespuestaError(400, "Cursor o límite de página inválido");
+        }
+        if (pagina.getTotal() > 0) {
+            // Las búsquedas no se cachean: sus claves las elige el cliente
+            return servirListado(solicitud, null, 0, pagina, "Resultado de Búsqueda por Nombre: " + nombre, "/", limite);
         } else {
-            String html = generarPaginaError("No se encontraron equipos con nombre: " + nombre, "/");
-            return crearRespuestaHTML(html);
+            return crearRespuestaHTML(paginas.error("No se encontraron equipos con nombre: " + nombre, "/"));
         }
     }
     
     /**
      * Sirve detalles de un equipo específico
      */
-    private String servirDetallesEquipo(String id) {
+    private RespuestaHttp servirDetallesEquipo(SolicitudHttp solicitud, String id) {
+        long version = CatalogoEquipos.getInstance().getVersion();
         Equipo equipo = CatalogoEquipos.getInstance().buscarPorId(id);
         if (equipo != null) {
-            String html = generarPaginaDetalles(equipo);
-            return crearRespuestaHTML(html);
+            // La clave usa el ID canónico para que /detalles/pen001 y /detalles/PEN001 compartan entrada
+            return servirDesdeCache(solicitud, "/detalles/" + equipo.getId(), version,
+                                    () -> paginas.detalles(equipo));
         } else {
-            String html = generarPaginaError("No se encontró equipo con ID: " + id, "/");
-            return crearRespuestaHTML(html);
-        }
-    }
-    
-    /**
-     * Genera la página principal con menú
-     */
-    private String generarPaginaPrincipal() {
-        return "<!DOCTYPE html>\n" +
-               "<html lang=\"es\">\n" +
-               "<head>\n" +
-               "    <meta charset=\"UTF-8\">\n" +
-               "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n" +
-               "    <title>Sistema de Laboratorio de Física - UVG</title>\n" +
-               "    <link rel=\"stylesheet\" href=\"/styles.css\">\n" +
-               "</head>\n" +
-               "<body>\n" +
-               "    <div class=\"container\">\n" +
-               "        <header>\n" +
-               "            <h1>🔬 Sistema de Laboratorio de Física</h1>\n" +
-               "            <p>Universidad del Valle de Guatemala - Gestión de Equipos</p>\n" +
-               "            <p><strong>Desarrollado por:</strong> Daniel López - 242159</p>\n" +
-               "        </header>\n" +
-               "\n" +
-               "        <nav class=\"menu\">\n" +
-               "            <a href=\"/equipos\" class=\"btn-primary\">📋 Ver Todos los Equipos</a>\n" +
-               "            <a href=\"/ordenar\" class=\"btn-accent\">⚡ Ordenar por Consumo</a>\n" +
-               "        </nav>\n" +
-               "\n" +
-               "        <section class=\"busqueda\">\n" +
-               "            <h3>🔍 Buscar Equipos</h3>\n" +
-               "            \n" +
-               "            <div class=\"form-group\">\n" +
-               "                <h4>Buscar por ID:</h4>\n" +
-               "                <form method=\"get\" style=\"display: flex; gap: 1rem; align-items: center;\">\n" +
-               "                    <input type=\"text\" name=\"id\" placeholder=\"Ejemplo: PEN001\" required style=\"flex: 1; padding: 10px; border: 2px solid #bdc3c7; border-radius: 8px;\">\n" +
-               "                    <button type=\"button\" class=\"btn-secondary\" onclick=\"buscarPorId(this.form)\">Buscar</button>\n" +
-               "                </form>\n" +
-               "            </div>\n" +
-               "            \n" +
-               "            <div class=\"form-group\">\n" +
-               "                <h4>Buscar por Nombre:</h4>\n" +
-               "                <form method=\"get\" style=\"display: flex; gap: 1rem; align-items: center;\">\n" +
-               "                    <input type=\"text\" name=\"nombre\" placeholder=\"Ejemplo: Péndulo\" required style=\"flex: 1; padding: 10px; border: 2px solid #bdc3c7; border-radius: 8px;\">\n" +
-               "                    <button type=\"button\" class=\"btn-secondary\" onclick=\"buscarPorNombre(this.form)\">Buscar</button>\n" +
-               "                </form>\n" +
-               "            </div>\n" +
-               "        </section>\n" +
-               "\n" +
-               "        <section class=\"info\">\n" +
-               "            <h3>📊 Información del Sistema</h3>\n" +
-               "            <div class=\"estadisticas\">\n" +
-               "                <div class=\"stat-item\">\n" +
-               "                    <strong>Total de Equipos:</strong> " + CatalogoEquipos.getInstance().obtenerCantidad() + "\n" +
-               "                </div>\n" +
-               "                <div class=\"stat-item\">\n" +
-               "                    <strong>Tipos Disponibles:</strong> Péndulos, Fotopuertas, Osciloscopios, Generadores, Simuladores\n" +
-               "                </div>\n" +
-               "                <div class=\"stat-item\">\n" +
-               "                    <strong>Principios Implementados:</strong> SOLID, MVC, Factory, Singleton\n" +
-               "                </div>\n" +
-               "            </div>\n" +
-               "        </section>\n" +
-               "\n" +
-               "        <footer>\n" +
-               "            <p>&copy; 2025 Universidad del Valle de Guatemala - CC2008 Programación Orientada a Objetos</p>\n" +
-               "        </footer>\n" +
-               "    </div>\n" +
-               "\n" +
-               "    <script>\n" +
-               "        function buscarPorId(form) {\n" +
-               "            const id = form.id.value.trim();\n" +
-               "            if (id) {\n" +
-               "                window.location.href = '/buscar/id/' + encodeURIComponent(id);\n" +
-               "            }\n" +
-               "        }\n" +
-               "        \n" +
-               "        function buscarPorNombre(form) {\n" +
-               "            const nombre = form.nombre.value.trim();\n" +
-               "            if (nombre) {\n" +
-               "                window.location.href = '/buscar/nombre/' + encodeURIComponent(nombre);\n" +
-               "            }\n" +
-               "        }\n" +
-               "    </script>\n" +
-               "</body>\n" +
-               "</html>";
-    }
-    
-    /**
-     * Genera página con listado de equipos
-     */
-    private String generarPaginaEquipos(List<Equipo> equipos, String titulo, String volverUrl) {
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html>\n")
-            .append("<html lang=\"es\">\n")
-            .append("<head>\n")
-            .append("    <meta charset=\"UTF-8\">\n")
-            .append("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n")
-            .append("    <title>").append(titulo).append(" - Sistema de Laboratorio</title>\n")
-            .append("    <link rel=\"stylesheet\" href=\"/styles.css\">\n")
-            .append("</head>\n")
-            .append("<body>\n")
-            .append("    <div class=\"container\">\n")
-            .append("        <header>\n")
-            .append("            <h1>🔬 ").append(titulo).append("</h1>\n")
-            .append("            <p>Universidad del Valle de Guatemala</p>\n")
-            .append("        </header>\n")
-            .append("\n")
-            .append("        <nav class=\"menu\">\n")
-            .append("            <a href=\"").append(volverUrl).append("\" class=\"btn-secondary\">🏠 Volver al Menú Principal</a>\n")
-            .append("            <a href=\"/equipos\" class=\"btn-primary\">📋 Ver Todos</a>\n")
-            .append("            <a href=\"/ordenar\" class=\"btn-accent\">⚡ Ordenar por Consumo</a>\n")
-            .append("        </nav>\n")
-            .append("\n")
-            .append("        <section class=\"resultados\">\n")
-            .append("            <div class=\"mensaje exito\">\n")
-            .append("                ✅ Se encontraron ").append(equipos.size()).append(" equipo(s)\n")
-            .append("            </div>\n")
-            .append("\n");
-        
-        for (Equipo equipo : equipos) {
-            html.append("            <div class=\"equipo-card\">\n")
-                .append("                <div class=\"equipo-header\">\n")
-                .append("                    <span class=\"equipo-id\">").append(equipo.getId()).append("</span>\n")
-                .append("                    <span class=\"equipo-consumo\">⚡ ").append(String.format("%.2f", equipo.getConsumoElectrico())).append("W</span>\n")
-                .append("                </div>\n")
-                .append("                <div class=\"equipo-nombre\">").append(escapeHtml(equipo.getNombre())).append("</div>\n")
-                .append("                <div class=\"equipo-info\">\n")
-                .append("                    <div class=\"equipo-detalle\">\n")
-                .append("                        <strong>🏷️ Tipo:</strong>\n")
-                .append("                        ").append(escapeHtml(equipo.getTipo())).append("\n")
-                .append("                    </div>\n")
-                .append("                    <div class=\"equipo-detalle\">\n")
-                .append("                        <strong>🏭 Fabricante:</strong>\n")
-                .append("                        ").append(escapeHtml(equipo.getFabricante())).append("\n")
-                .append("                    </div>\n")
-                .append("                    <div class=\"equipo-detalle\">\n")
-                .append("                        <strong>📋 Características:</strong>\n")
-                .append("                        ").append(escapeHtml(equipo.getResumenCaracteristicas())).append("\n")
-                .append("                    </div>\n")
-                .append("                </div>\n")
-                .append("                <a href=\"/detalles/").append(equipo.getId()).append("\" class=\"btn-detalles\">\n")
-                .append("                    🔍 Ver Detalles Completos\n")
-                .append("                </a>\n")
-                .append("            </div>\n");
+            return crearRespuestaHTML(paginas.error("No se encontró equipo con ID: " + id, "/"));
         }
-        
-        html.append("        </section>\n")
-            .append("        <footer>\n")
-            .append("            <p>&copy; 2025 Universidad del Valle de Guatemala - Daniel López (242159)</p>\n")
-            .append("        </footer>\n")
-            .append("    </div>\n")
-            .append("</body>\n")
-            .append("</html>");
-        
-        return html.toString();
-    }
-    
-    /**
-     * Genera página de detalles de un equipo
-     */
-    private String generarPaginaDetalles(Equipo equipo) {
-        return "<!DOCTYPE html>\n" +
-               "<html lang=\"es\">\n" +
-               "<head>\n" +
-               "    <meta charset=\"UTF-8\">\n" +
-               "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n" +
-               "    <title>Detalles: " + escapeHtml(equipo.getNombre()) + " - Sistema de Laboratorio</title>\n" +
-               "    <link rel=\"stylesheet\" href=\"/styles.css\">\n" +
-               "</head>\n" +
-               "<body>\n" +
-               "    <div class=\"container\">\n" +
-               "        <header>\n" +
-               "            <h1>🔍 Detalles del Equipo</h1>\n" +
-               "            <p>Universidad del Valle de Guatemala</p>\n" +
-               "        </header>\n" +
-               "\n" +
-               "        <nav class=\"menu\">\n" +
-               "            <a href=\"/\" class=\"btn-secondary\">🏠 Menú Principal</a>\n" +
-               "            <a href=\"/equipos\" class=\"btn-primary\">📋 Ver Todos</a>\n" +
-               "        </nav>\n" +
-               "\n" +
-               "        <section class=\"detalles-completos\">\n" +
-               "            <div class=\"equipo-card-detalle\">\n" +
-               "                <div class=\"equipo-header\">\n" +
-               "                    <span class=\"equipo-id\">" + equipo.getId() + "</span>\n" +
-               "                    <span class=\"equipo-consumo\">⚡ " + String.format("%.2f", equipo.getConsumoElectrico()) + "W</span>\n" +
-               "                </div>\n" +
-               "                <h2>" + escapeHtml(equipo.getNombre()) + "</h2>\n" +
-               "                \n" +
-               "                <div class=\"detalles-equipo\">\n" +
-               "                    <pre>" + escapeHtml(equipo.mostrarDetalles()) + "</pre>\n" +
-               "                </div>\n" +
-               "                \n" +
-               "                <div class=\"acciones\">\n" +
-               "                    <a href=\"javascript:history.back()\" class=\"btn-secondary\">← Volver</a>\n" +
-               "                    <a href=\"/equipos\" class=\"btn-primary\">Ver Todos los Equipos</a>\n" +
-               "                </div>\n" +
-               "            </div>\n" +
-               "        </section>\n" +
-               "\n" +
-               "        <footer>\n" +
-               "            <p>&copy; 2025 Universidad del Valle de Guatemala - Daniel López (242159)</p>\n" +
-               "        </footer>\n" +
-               "    </div>\n" +
-               "</body>\n" +
-               "</html>";
-    }
-    
-    /**
-     * Genera página de error
-     */
-    private String generarPaginaError(String mensaje, String volverUrl) {
-        return "<!DOCTYPE html>\n" +
-               "<html lang=\"es\">\n" +
-               "<head>\n" +
-               "    <meta charset=\"UTF-8\">\n" +
-               "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n" +
-               "    <title>Error - Sistema de Laboratorio</title>\n" +
-               "    <link rel=\"stylesheet\" href=\"/styles.css\">\n" +
-               "</head>\n" +
-               "<body>\n" +
-               "    <div class=\"container\">\n" +
-               "        <header>\n" +
-               "            <h1>❌ Error</h1>\n" +
-               "            <p>Universidad del Valle de Guatemala</p>\n" +
-               "        </header>\n" +
-               "\n" +
-               "        <section class=\"error\">\n" +
-               "            <div class=\"mensaje error\">\n" +
-               "                " + escapeHtml(mensaje) + "\n" +
-               "            </div>\n" +
-               "            \n" +
-               "            <div class=\"acciones\">\n" +
-               "                <a href=\"" + volverUrl + "\" class=\"btn-primary\">🏠 Volver al Menú Principal</a>\n" +
-               "                <a href=\"/equipos\" class=\"btn-secondary\">📋 Ver Todos los Equipos</a>\n" +
-               "            </div>\n" +
-               "        </section>\n" +
-               "        \n" +
-               "        <footer>\n" +
-               "            <p>&copy; 2025 Universidad del Valle de Guatemala - Daniel López (242159)</p>\n" +
-               "        </footer>\n" +
-               "    </div>\n" +
-               "</body>\n" +
-               "</html>";
-    }
-    
-    /**
-     * Sirve el archivo CSS
-     */
-    private String servirCSS() {
-        String css = generarCSS();
-        return String.format(
-            "HTTP/1.1 200 OK\r\n" +
-            "Content-Type: text/css; charset=UTF-8\r\n" +
-            "Content-Length: %d\r\n" +
-            "\r\n%s",
-            css.getBytes().length, css
-        );
     }
     
     /**
@@ -805,59 +1471,51 @@ public class ServidorWebCompleto {
                "}";
     }
     
+    // Métodos auxiliares para crear respuestas HTTP
+    private RespuestaHttp crearRespuestaHTML(byte[] html) {
+        return new RespuestaHttp(200).agregarEncabezado(RespuestaHttp.TIPO_HTML).conCuerpo(html);
+    }
+    
+    protected RespuestaHttp crearRespuesta404() {
+        return new RespuestaHttp(404).agregarEncabezado(RespuestaHttp.TIPO_HTML).conCuerpo(HTML_404);
+    }
+    
+    protected RespuestaHttp crearRespuestaError(int codigo, String mensaje) {
+        return new RespuestaHttp(codigo).agregarEncabezado(RespuestaHttp.TIPO_HTML)
+                                        .conCuerpo(paginas.errorBreve(codigo, mensaje));
+    }
+    
     /**
-     * Escapa caracteres HTML para prevenir XSS
+     * Respuesta para un cliente que agotó su presupuesto en una clase de rutas
+     * @param esperaNanos tiempo hasta que vuelva a tener una ficha
      */
-    private String escapeHtml(String text) {
-        if (text == null) return "";
-        return text.replace("&", "&amp;")
-                  .replace("<", "&lt;")
-                  .replace(">", "&gt;")
-                  .replace("\"", "&quot;")
-                  .replace("'", "&#x27;");
+    private RespuestaHttp crearRespuesta429(long esperaNanos) {
+        long segundos = Math.max(1, (esperaNanos + 999_999_999L) / 1_000_000_000L);
+        return crearRespuestaError(429, "Demasiadas solicitudes; intente de nuevo en " + segundos + " s")
+                .agregarEncabezado("Retry-After", Long.toString(segundos))
+                .agregarEncabezado("Cache-Control", "no-store");
     }
     
-    // Métodos auxiliares para crear respuestas HTTP
-    private String crearRespuestaHTML(String html) {
-        return String.format(
-            "HTTP/1.1 200 OK\r\n" +
-            "Content-Type: text/html; charset=UTF-8\r\n" +
-            "Content-Length: %d\r\n" +
-            "\r\n%s",
-            html.getBytes().length, html
-        );
-    }
-    
-    private String crearRespuesta404() {
-        String html = "<html><body><h1>404 - Página no encontrada</h1><a href=\"/\">Volver al inicio</a></body></html>";
-        return String.format(
-            "HTTP/1.1 404 Not Found\r\n" +
-            "Content-Type: text/html; charset=UTF-8\r\n" +
-            "Content-Length: %d\r\n" +
-            "\r\n%s",
-            html.getBytes().length, html
-        );
-    }
-    
-    private String crearRespuestaError(int codigo, String mensaje) {
-        String html = String.format("<html><body><h1>%d - %s</h1><a href=\"/\">Volver al inicio</a></body></html>", codigo, mensaje);
-        return String.format(
-            "HTTP/1.1 %d %s\r\n" +
-            "Content-Type: text/html; charset=UTF-8\r\n" +
-            "Content-Length: %d\r\n" +
-            "\r\n%s",
-            codigo, mensaje, html.getBytes().length, html
-        );
-    }
-    
-    private String crearRespuesta500(String error) {
-        String html = String.format("<html><body><h1>500 - Error del servidor</h1><p>%s</p><a href=\"/\">Volver al inicio</a></body></html>", escapeHtml(error));
-        return String.format(
-            "HTTP/1.1 500 Internal Server Error\r\n" +
-            "Content-Type: text/html; charset=UTF-8\r\n" +
-            "Content-Length: %d\r\n" +
-            "\r\n%s",
-            html.getBytes().length, html
-        );
+    protected RespuestaHttp crearRespuesta500(String error) {
+        return new RespuestaHttp(500).agregarEncabezado(RespuestaHttp.TIPO_HTML)
+                                     .conCuerpo(paginas.errorServidor(error));
+    }
+    
+    /**
+     * Tarea que atiende una conexión aceptada. Conserva el socket para que, si la tarea
+     * se retira de la cola sin ejecutarse al detener el servidor, se pueda rechazar y cerrar
+     */
+    private final class AtencionCliente implements Runnable {
+        
+        private final SocketChannel clienteSocket;
+        
+        AtencionCliente(SocketChannel clienteSocket) {
+            this.clienteSocket = clienteSocket;
+        }
+        
+        @Override
+        public void run() {
+            manejarCliente(clienteSocket);
+        }
     }
 }
@@ -0,0 +1,982 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Sesión HTTP/2 en texto plano (h2c, RFC 9113) independiente del modelo de E/S.
+ * El motor entrega los bytes que lee con recibir() y escribe lo que devuelve
+ * generarSalida(), así la misma sesión funciona sobre sockets bloqueantes y
+ * sobre el Selector del motor NIO.
+ * Cada flujo se atiende con el mismo ManejadorSolicitudes que HTTP/1.1 en cuanto
+ * llega completo, y los cuerpos de las respuestas se intercalan por turnos en
+ * marcos DATA, sin pasar de las ventanas de control de flujo del cliente.
+ * Los flujos abiertos a la vez se limitan con SETTINGS_MAX_CONCURRENT_STREAMS:
+ * los que exceden el límite se rechazan con RST_STREAM (REFUSED_STREAM).
+ * Cumple con SRP: Solo maneja el protocolo, el enrutamiento lo hace el ManejadorSolicitudes
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class SesionHttp2 {
+    
+    /** Versión con la que se arman las solicitudes recibidas por HTTP/2 */
+    public static final String VERSION = "HTTP/2.0";
+    
+    private static final byte[] PREFACIO = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    /** Bytes del prefacio que un lector HTTP/1.1 consume como una solicitud "PRI *" sin encabezados */
+    private static final int PREFACIO_COMO_SOLICITUD = 18;
+    
+    private static final int DATA = 0x0;
+    private static final int HEADERS = 0x1;
+    private static final int PRIORITY = 0x2;
+    private static final int RST_STREAM = 0x3;
+    private static final int SETTINGS = 0x4;
+    private static final int PUSH_PROMISE = 0x5;
+    private static final int PING = 0x6;
+    private static final int GOAWAY = 0x7;
+    private static final int WINDOW_UPDATE = 0x8;
+    private static final int CONTINUATION = 0x9;
+    
+    private static final int FIN_FLUJO = 0x1;
+    private static final int ACK = 0x1;
+    private static final int FIN_CABECERAS = 0x4;
+    private static final int CON_RELLENO = 0x8;
+    private static final int CON_PRIORIDAD = 0x20;
+    
+    private static final int AJUSTE_TAMANO_TABLA = 0x1;
+    private static final int AJUSTE_PUSH = 0x2;
+    private static final int AJUSTE_MAX_FLUJOS = 0x3;
+    private static final int AJUSTE_VENTANA_INICIAL = 0x4;
+    private static final int AJUSTE_MAX_MARCO = 0x5;
+    private static final int AJUSTE_MAX_LISTA_CABECERAS = 0x6;
+    
+    private static final int CABECERA_MARCO = 9;
+    private static final int MARCO_PREDETERMINADO = 16384;
+    private static final int MARCO_MAXIMO = 16777215;
+    private static final int VENTANA_PREDETERMINADA = 65535;
+    private static final long VENTANA_MAXIMA = Integer.MAX_VALUE;
+    /** Bytes de DATA que se arman en cada llamada a generarSalida */
+    private static final int DATOS_POR_SALIDA = 64 * 1024;
+    /** Encabezados propios de la conexión HTTP/1.1, prohibidos en HTTP/2 */
+    private static final Set<String> ENCABEZADOS_DE_CONEXION =
+        Set.of("connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade");
+    
+    private final ManejadorSolicitudes manejador;
+    private BiConsumer<SolicitudHttp, RespuestaHttp> alCompletar = (solicitud, respuesta) -> { };
+    private String cliente;
+    private final int maxFlujos;
+    private final int maxListaCabeceras;
+    private final int maxSolicitudes;
+    private final DecodificadorHpack decodificador = new DecodificadorHpack(TablaHpack.TAMANO_PREDETERMINADO);
+    private final CodificadorHpack codificador = new CodificadorHpack();
+    private final Map<Integer, FlujoHttp2> flujos = new HashMap<>();
+    private final ArrayDeque<FlujoHttp2> turnos = new ArrayDeque<>();
+    private final byte[] marcoParcial = new byte[CABECERA_MARCO + MARCO_PREDETERMINADO];
+    private final SalidaHtml bloqueRecibido = new SalidaHtml(1024);
+    private final SalidaHtml bloqueEnviado = new SalidaHtml(512);
+    private final List<String> nombresRecibidos = new ArrayList<>();
+    private final List<String> valoresRecibidos = new ArrayList<>();
+    private SalidaHtml control = new SalidaHtml(1024);
+    private SalidaHtml enviando = new SalidaHtml(1024);
+    private int bytesParciales;
+    private int posicionPrefacio;
+    private int tamanoListaRecibida;
+    private boolean ajustesRecibidos;
+    private long ventanaEnvio = VENTANA_PREDETERMINADA;
+    private int ventanaInicialEnvio = VENTANA_PREDETERMINADA;
+    private int maxMarcoEnvio = MARCO_PREDETERMINADO;
+    private int ventanaRecepcion = VENTANA_PREDETERMINADA;
+    private int ultimoFlujo;
+    private int flujoConCabecerasAbiertas;
+    private int banderasCabecerasAbiertas;
+    private int atendidas;
+    private boolean despedida;
+    private boolean despedidaRecibida;
+    private boolean fallida;
+    
+    /**
+     * Constructor de la sesión; deja listo el SETTINGS inicial del servidor
+     * @param manejador enrutador que genera las respuestas
+     * @param maxFlujos flujos abiertos a la vez que se anuncian al cliente
+     * @param maxListaCabeceras tamaño máximo de la lista de encabezados de una solicitud
+     * @param maxSolicitudes flujos atendidos antes de despedir la conexión con GOAWAY
+     */
+    public SesionHttp2(ManejadorSolicitudes manejador, int maxFlujos, int maxListaCabeceras, int maxSolicitudes) {
+        this.manejador = manejador;
+        this.maxFlujos = maxFlujos;
+        this.maxListaCabeceras = maxListaCabeceras;
+        this.maxSolicitudes = maxSolicitudes;
+        // El prefacio del servidor es un SETTINGS, que debe ser su primer marco
+        escribirCabeceraMarco(control, 12, SETTINGS, 0, 0);
+        escribirAjuste(control, AJUSTE_MAX_FLUJOS, maxFlujos);
+        escribirAjuste(control, AJUSTE_MAX_LISTA_CABECERAS, maxListaCabeceras);
+    }
+    
+    /**
+     * Indica si la solicitud leída como HTTP/1.1 es en realidad el inicio del
+     * prefacio HTTP/2 de un cliente con conocimiento previo (prior knowledge)
+     * @param solicitud solicitud leída por el parser HTTP/1.1
+     * @return true si es "PRI * HTTP/2.0"
+     */
+    public static boolean esPrefacio(SolicitudHttp solicitud) {
+        return "PRI".equals(solicitud.getMetodo()) && "*".equals(solicitud.getRuta())
+               && VERSION.equals(solicitud.getVersion());
+    }
+    
+    /**
+     * Indica si la solicitud pide cambiar a h2c con "Upgrade: h2c" y trae un
+     * HTTP2-Settings válido. Las solicitudes con cuerpo se atienden en HTTP/1.1
+     * @param solicitud solicitud HTTP/1.1
+     * @return true si se puede responder 101 y continuar en HTTP/2
+     */
+    public static boolean solicitaUpgrade(SolicitudHttp solicitud) {
+        String upgrade = solicitud.getEncabezado("Upgrade");
+        String conexion = solicitud.getEncabezado("Connection");
+        String ajustes = solicitud.getEncabezado("HTTP2-Settings");
+        if (upgrade == null || conexion == null || ajustes == null || !"HTTP/1.1".equals(solicitud.getVersion())
+                || !contieneToken(upgrade, "h2c") || !contieneToken(conexion, "upgrade")
+                || solicitud.getLongitudContenido() > 0) {
+            return false;
+        }
+        try {
+            return decodificarAjustesUpgrade(ajustes).length % 6 == 0;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Indica que el lector HTTP/1.1 ya consumió "PRI * HTTP/2.0" y la línea vacía;
+     * la sesión solo espera el resto del prefacio
+     */
+    public void omitirLineaPrefacio() {
+        posicionPrefacio = PREFACIO_COMO_SOLICITUD;
+    }
+    
+    /**
+     * Continúa una conexión cambiada con "Upgrade: h2c" después del 101: aplica
+     * los ajustes de HTTP2-Settings y atiende la solicitud original como flujo 1
+     * @param solicitud solicitud HTTP/1.1 que pidió el cambio
+     */
+    public void iniciarDesdeUpgrade(SolicitudHttp solicitud) {
+        try {
+            byte[] ajustes = decodificarAjustesUpgrade(solicitud.getEncabezado("HTTP2-Settings"));
+            aplicarAjustes(ajustes, 0, ajustes.length);
+        } catch (ErrorHttp2Exception e) {
+            fallar(e.getCodigo());
+            return;
+        }
+        ultimoFlujo = 1;
+        FlujoHttp2 flujo = new FlujoHttp2(1, solicitud);
+        flujo.remotoCerrado = true;
+        flujos.put(1, flujo);
+        atender(flujo);
+    }
+    
+    /**
+     * Procesa los bytes recibidos. Los marcos completos se atienden de inmediato
+     * y el resto se guarda hasta que llegue lo que falta, así que el buffer
+     * queda consumido por completo
+     * @param datos bytes leídos del socket, respaldados por un arreglo
+     */
+    public void recibir(ByteBuffer datos) {
+        try {
+            while (datos.hasRemaining() && !fallida) {
+                if (posicionPrefacio < PREFACIO.length) {
+                    verificarPrefacio(datos);
+                } else {
+                    recibirMarco(datos);
+                }
+            }
+        } catch (ErrorHttp2Exception e) {
+            fallar(e.getCodigo());
+        }
+        datos.position(datos.limit());
+    }
+    
+    /**
+     * Arma lo siguiente que hay que enviar: primero los marcos de control y
+     * encabezados pendientes, y luego marcos DATA por turnos entre los flujos
+     * mientras las ventanas del cliente lo permitan.
+     * El buffer devuelto es válido hasta la siguiente llamada, que reutiliza su memoria
+     * @return bytes a escribir, o null si por ahora no hay nada que enviar
+     */
+    public ByteBuffer generarSalida() {
+        SalidaHtml lista = control;
+        control = enviando;
+        control.reiniciar();
+        enviando = lista;
+        if (!fallida) {
+            escribirDatos(enviando);
+        }
+        return enviando.tamano() > 0 ? enviando.comoByteBuffer() : null;
+    }
+    
+    /**
+     * Anuncia con GOAWAY que no se aceptarán flujos nuevos; los que ya están
+     * abiertos terminan de responderse
+     */
+    public void despedir() {
+        if (!despedida) {
+            escribirGoaway(ErrorHttp2Exception.SIN_ERROR);
+            despedida = true;
+        }
+    }
+    
+    /**
+     * Libera los cuerpos de las respuestas que quedaron a medias, como los archivos
+     * abiertos; se llama cuando la conexión se cierra
+     */
+    public void abandonar() {
+        for (FlujoHttp2 flujo : flujos.values()) {
+            abortarCuerpo(flujo);
+        }
+        flujos.clear();
+        turnos.clear();
+    }
+    
+    /**
+     * Asigna quién recibe cada solicitud cuando su respuesta termina de encolarse,
+     * por ejemplo el registro de accesos
+     * @param alCompletar receptor de la solicitud y su respuesta
+     */
+    public void setAlCompletar(BiConsumer<SolicitudHttp, RespuestaHttp> alCompletar) {
+        this.alCompletar = alCompletar;
+    }
+    
+    /**
+     * Asigna la dirección del cliente que se anota en cada solicitud de la sesión
+     * @param cliente dirección IP del cliente
+     */
+    public void setCliente(String cliente) {
+        this.cliente = cliente;
+    }
+    
+    /**
+     * @return true si la conexión ya no tiene nada que atender y puede cerrarse
+     *         en cuanto se envíe la salida pendiente
+     */
+    public boolean isTerminada() {
+        return fallida || ((despedida || despedidaRecibida) && flujos.isEmpty());
+    }
+    
+    /**
+     * @return flujos abiertos o con respuesta pendiente de enviar
+     */
+    public int getFlujosActivos() {
+        return flujos.size();
+    }
+    
+    private void verificarPrefacio(ByteBuffer datos) {
+        while (posicionPrefacio < PREFACIO.length && datos.hasRemaining()) {
+            if (datos.get() != PREFACIO[posicionPrefacio++]) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "Prefacio HTTP/2 inválido");
+            }
+        }
+    }
+    
+    /**
+     * Atiende el siguiente marco directamente desde el buffer si llegó completo,
+     * o lo acumula en marcoParcial hasta completarlo
+     */
+    private void recibirMarco(ByteBuffer datos) {
+        if (bytesParciales == 0 && datos.remaining() >= CABECERA_MARCO) {
+            int inicio = datos.arrayOffset() + datos.position();
+            int longitud = leerLongitud(datos.array(), inicio);
+            if (datos.remaining() >= CABECERA_MARCO + longitud) {
+                datos.position(datos.position() + CABECERA_MARCO + longitud);
+                procesarMarco(datos.array(), inicio, longitud);
+                return;
+            }
+        }
+        int esperados = bytesParciales < CABECERA_MARCO
+            ? CABECERA_MARCO : CABECERA_MARCO + leerLongitud(marcoParcial, 0);
+        int copiados = Math.min(esperados - bytesParciales, datos.remaining());
+        datos.get(marcoParcial, bytesParciales, copiados);
+        bytesParciales += copiados;
+        if (bytesParciales >= CABECERA_MARCO) {
+            int longitud = leerLongitud(marcoParcial, 0);
+            if (bytesParciales == CABECERA_MARCO + longitud) {
+                bytesParciales = 0;
+                procesarMarco(marcoParcial, 0, longitud);
+            }
+        }
+    }
+    
+    /**
+     * Atiende un marco completo; un error de flujo se responde con RST_STREAM
+     * y uno de conexión se propaga para cerrar con GOAWAY
+     */
+    private void procesarMarco(byte[] marco, int inicio, int longitud) {
+        int tipo = marco[inicio + 3] & 0xFF;
+        int banderas = marco[inicio + 4] & 0xFF;
+        int idFlujo = leerEntero32(marco, inicio + 5) & 0x7FFFFFFF;
+        int carga = inicio + CABECERA_MARCO;
+        
+        if (!ajustesRecibidos && (tipo != SETTINGS || (banderas & ACK) != 0)) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "El primer marco debe ser SETTINGS");
+        }
+        if (flujoConCabecerasAbiertas != 0 && (tipo != CONTINUATION || idFlujo != flujoConCabecerasAbiertas)) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "Se esperaba CONTINUATION");
+        }
+        try {
+            switch (tipo) {
+                case DATA: procesarDatos(marco, carga, longitud, banderas, idFlujo); break;
+                case HEADERS: procesarCabeceras(marco, carga, longitud, banderas, idFlujo); break;
+                case PRIORITY: procesarPrioridad(longitud, idFlujo); break;
+                case RST_STREAM: procesarReinicio(longitud, idFlujo); break;
+                case SETTINGS: procesarAjustes(marco, carga, longitud, banderas, idFlujo); break;
+                case PUSH_PROMISE:
+                    throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "PUSH_PROMISE de un cliente");
+                case PING: procesarPing(marco, carga, longitud, banderas, idFlujo); break;
+                case GOAWAY: procesarDespedida(longitud, idFlujo); break;
+                case WINDOW_UPDATE: procesarVentana(marco, carga, longitud, idFlujo); break;
+                case CONTINUATION: procesarContinuacion(marco, carga, longitud, banderas, idFlujo); break;
+                default:
+                    // Los tipos de marco desconocidos se ignoran (RFC 9113, sección 4.1)
+            }
+        } catch (ErrorHttp2Exception e) {
+            if (e.isDeConexion()) {
+                throw e;
+            }
+            reiniciarFlujo(e.getIdFlujo(), e.getCodigo());
+        }
+    }
+    
+    /**
+     * Los cuerpos de las solicitudes se descartan; solo cuentan para el control
+     * de flujo y para saber cuándo termina la solicitud
+     */
+    private void procesarDatos(byte[] marco, int carga, int longitud, int banderas, int idFlujo) {
+        if (idFlujo == 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "DATA sin flujo");
+        }
+        quitarRelleno(marco, carga, longitud, banderas);
+        // El control de flujo cuenta la carga completa, relleno incluido
+        ventanaRecepcion -= longitud;
+        if (ventanaRecepcion < 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.CONTROL_FLUJO, "Ventana de la conexión excedida");
+        }
+        if (ventanaRecepcion < VENTANA_PREDETERMINADA / 2) {
+            escribirVentana(0, VENTANA_PREDETERMINADA - ventanaRecepcion);
+            ventanaRecepcion = VENTANA_PREDETERMINADA;
+        }
+        
+        FlujoHttp2 flujo = flujos.get(idFlujo);
+        if (flujo == null || flujo.remotoCerrado) {
+            if (idFlujo > ultimoFlujo) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "DATA en un flujo inactivo");
+            }
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.FLUJO_CERRADO, idFlujo, "DATA en un flujo cerrado");
+        }
+        flujo.ventanaRecepcion -= longitud;
+        if (flujo.ventanaRecepcion < 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.CONTROL_FLUJO, idFlujo, "Ventana del flujo excedida");
+        }
+        if ((banderas & FIN_FLUJO) != 0) {
+            flujo.remotoCerrado = true;
+            atender(flujo);
+        } else if (flujo.ventanaRecepcion < VENTANA_PREDETERMINADA / 2) {
+            escribirVentana(idFlujo, VENTANA_PREDETERMINADA - flujo.ventanaRecepcion);
+            flujo.ventanaRecepcion = VENTANA_PREDETERMINADA;
+        }
+    }
+    
+    private void procesarCabeceras(byte[] marco, int carga, int longitud, int banderas, int idFlujo) {
+        if (idFlujo == 0 || (idFlujo & 1) == 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "HEADERS con identificador inválido");
+        }
+        int desde = carga + quitarRelleno(marco, carga, longitud, banderas);
+        int hasta = carga + longitud - ((banderas & CON_RELLENO) != 0 ? marco[carga] & 0xFF : 0);
+        if ((banderas & CON_PRIORIDAD) != 0) {
+            // La prioridad es solo una sugerencia y los turnos no la usan
+            desde += 5;
+            if (desde > hasta) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.TAMANO_MARCO, "HEADERS demasiado corto");
+            }
+        }
+        if ((banderas & FIN_CABECERAS) != 0) {
+            recibirCabeceras(idFlujo, banderas, marco, desde, hasta - desde);
+        } else {
+            bloqueRecibido.reiniciar();
+            bloqueRecibido.escribir(marco, desde, hasta - desde);
+            flujoConCabecerasAbiertas = idFlujo;
+            banderasCabecerasAbiertas = banderas;
+        }
+    }
+    
+    private void procesarContinuacion(byte[] marco, int carga, int longitud, int banderas, int idFlujo) {
+        if (flujoConCabecerasAbiertas == 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "CONTINUATION inesperado");
+        }
+        bloqueRecibido.escribir(marco, carga, longitud);
+        if (bloqueRecibido.tamano() > maxListaCabeceras + MARCO_PREDETERMINADO) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.CALMA, "Bloque de cabecera demasiado grande");
+        }
+        if ((banderas & FIN_CABECERAS) != 0) {
+            flujoConCabecerasAbiertas = 0;
+            recibirCabeceras(idFlujo, banderasCabecerasAbiertas,
+                             bloqueRecibido.comoByteBuffer().array(), 0, bloqueRecibido.tamano());
+        }
+    }
+    
+    /**
+     * Decodifica un bloque de cabecera completo y abre el flujo, o cierra el
+     * lado del cliente si son trailers de un flujo ya abierto
+     */
+    private void recibirCabeceras(int idFlujo, int banderas, byte[] bloque, int desde, int longitud) {
+        // El bloque se decodifica siempre, para mantener sincronizada la tabla dinámica
+        nombresRecibidos.clear();
+        valoresRecibidos.clear();
+        tamanoListaRecibida = 0;
+        decodificador.decodificar(bloque, desde, longitud, this::agregarCabeceraRecibida);
+        boolean finFlujo = (banderas & FIN_FLUJO) != 0;
+        
+        FlujoHttp2 existente = flujos.get(idFlujo);
+        if (existente != null) {
+            if (existente.remotoCerrado) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.FLUJO_CERRADO, idFlujo, "HEADERS en un flujo cerrado");
+            }
+            if (!finFlujo) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, idFlujo, "Trailers sin END_STREAM");
+            }
+            existente.remotoCerrado = true;
+            atender(existente);
+            return;
+        }
+        if (idFlujo <= ultimoFlujo) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.FLUJO_CERRADO, "HEADERS en un flujo ya cerrado");
+        }
+        ultimoFlujo = idFlujo;
+        if (despedida) {
+            // Tras el GOAWAY los flujos nuevos se ignoran
+            return;
+        }
+        if (flujos.size() >= maxFlujos) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.FLUJO_RECHAZADO, idFlujo, "Límite de flujos alcanzado");
+        }
+        // Una lista de encabezados demasiado grande se responde con 431, como en HTTP/1.1
+        SolicitudHttp solicitud = tamanoListaRecibida > maxListaCabeceras ? null : crearSolicitud(idFlujo);
+        FlujoHttp2 flujo = new FlujoHttp2(idFlujo, solicitud);
+        flujos.put(idFlujo, flujo);
+        if (finFlujo) {
+            flujo.remotoCerrado = true;
+            atender(flujo);
+        }
+    }
+    
+    private void agregarCabeceraRecibida(String nombre, String valor) {
+        tamanoListaRecibida += nombre.length() + valor.length() + 32;
+        if (tamanoListaRecibida <= maxListaCabeceras) {
+            nombresRecibidos.add(nombre);
+            valoresRecibidos.add(valor);
+        }
+    }
+    
+    /**
+     * Arma la SolicitudHttp con los pseudo-encabezados y valida que la lista
+     * no traiga encabezados prohibidos en HTTP/2 (RFC 9113, sección 8.2)
+     * @throws ErrorHttp2Exception de flujo si la solicitud está mal formada
+     */
+    private SolicitudHttp crearSolicitud(int idFlujo) {
+        String metodo = null;
+        String ruta = null;
+        String esquema = null;
+        String autoridad = null;
+        int i = 0;
+        for (; i < nombresRecibidos.size() && nombresRecibidos.get(i).startsWith(":"); i++) {
+            String valor = valoresRecibidos.get(i);
+            switch (nombresRecibidos.get(i)) {
+                case ":method": metodo = unico(metodo, valor, idFlujo); break;
+                case ":path": ruta = unico(ruta, valor, idFlujo); break;
+                case ":scheme": esquema = unico(esquema, valor, idFlujo); break;
+                case ":authority": autoridad = unico(autoridad, valor, idFlujo); break;
+                default: throw malformada(idFlujo, "Pseudo-encabezado desconocido");
+            }
+        }
+        if (metodo == null || esquema == null || ruta == null || ruta.isEmpty()) {
+            throw malformada(idFlujo, "Faltan pseudo-encabezados");
+        }
+        
+        SolicitudHttp solicitud = new SolicitudHttp(metodo, ruta, VERSION);
+        solicitud.setCliente(cliente);
+        if (autoridad != null) {
+            solicitud.agregarEncabezado("host", autoridad);
+        }
+        for (; i < nombresRecibidos.size(); i++) {
+            String nombre = nombresRecibidos.get(i);
+            String valor = valoresRecibidos.get(i);
+            if (nombre.startsWith(":") || tieneMayusculas(nombre) || ENCABEZADOS_DE_CONEXION.contains(nombre)
+                    || ("te".equals(nombre) && !"trailers".equals(valor))) {
+                throw malformada(idFlujo, "Encabezado no permitido en HTTP/2: " + nombre);
+            }
+            solicitud.agregarEncabezado(nombre, valor);
+        }
+        return solicitud;
+    }
+    
+    private void procesarPrioridad(int longitud, int idFlujo) {
+        if (idFlujo == 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "PRIORITY sin flujo");
+        }
+        if (longitud != 5) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.TAMANO_MARCO, idFlujo, "PRIORITY de tamaño inválido");
+        }
+    }
+    
+    private void procesarReinicio(int longitud, int idFlujo) {
+        if (longitud != 4) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.TAMANO_MARCO, "RST_STREAM de tamaño inválido");
+        }
+        if (idFlujo == 0 || idFlujo > ultimoFlujo) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "RST_STREAM en un flujo inactivo");
+        }
+        FlujoHttp2 flujo = flujos.remove(idFlujo);
+        if (flujo != null) {
+            turnos.remove(flujo);
+            abortarCuerpo(flujo);
+        }
+    }
+    
+    private void abortarCuerpo(FlujoHttp2 flujo) {
+        if (flujo.respuesta != null) {
+            flujo.respuesta.abortarStreaming();
+        }
+    }
+    
+    private void procesarAjustes(byte[] marco, int carga, int longitud, int banderas, int idFlujo) {
+        if (idFlujo != 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "SETTINGS con flujo");
+        }
+        if ((banderas & ACK) != 0) {
+            if (longitud != 0) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.TAMANO_MARCO, "SETTINGS ACK con carga");
+            }
+            return;
+        }
+        if (longitud % 6 != 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.TAMANO_MARCO, "SETTINGS de tamaño inválido");
+        }
+        aplicarAjustes(marco, carga, longitud);
+        ajustesRecibidos = true;
+        escribirCabeceraMarco(control, 0, SETTINGS, ACK, 0);
+    }
+    
+    /**
+     * Aplica los pares identificador-valor de un SETTINGS del cliente
+     */
+    private void aplicarAjustes(byte[] ajustes, int desde, int longitud) {
+        for (int i = desde; i < desde + longitud; i += 6) {
+            int identificador = ((ajustes[i] & 0xFF) << 8) | (ajustes[i + 1] & 0xFF);
+            long valor = leerEntero32(ajustes, i + 2) & 0xFFFFFFFFL;
+            switch (identificador) {
+                case AJUSTE_TAMANO_TABLA:
+                    codificador.setTamanoMaximo((int) Math.min(valor, Integer.MAX_VALUE));
+                    break;
+                case AJUSTE_PUSH:
+                    if (valor > 1) {
+                        throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "SETTINGS_ENABLE_PUSH inválido");
+                    }
+                    break;
+                case AJUSTE_VENTANA_INICIAL:
+                    if (valor > VENTANA_MAXIMA) {
+                        throw new ErrorHttp2Exception(ErrorHttp2Exception.CONTROL_FLUJO, "Ventana inicial inválida");
+                    }
+                    cambiarVentanaInicial((int) valor);
+                    break;
+                case AJUSTE_MAX_MARCO:
+                    if (valor < MARCO_PREDETERMINADO || valor > MARCO_MAXIMO) {
+                        throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "SETTINGS_MAX_FRAME_SIZE inválido");
+                    }
+                    maxMarcoEnvio = (int) valor;
+                    break;
+                default:
+                    // Los límites de flujos y de cabeceras del cliente no afectan a un
+                    // servidor sin push, y los ajustes desconocidos se ignoran
+            }
+        }
+    }
+    
+    /**
+     * Un cambio de SETTINGS_INITIAL_WINDOW_SIZE ajusta por la diferencia la
+     * ventana de todos los flujos abiertos (RFC 9113, sección 6.9.2)
+     */
+    private void cambiarVentanaInicial(int nueva) {
+        int diferencia = nueva - ventanaInicialEnvio;
+        ventanaInicialEnvio = nueva;
+        for (FlujoHttp2 flujo : flujos.values()) {
+            flujo.ventanaEnvio += diferencia;
+            if (flujo.ventanaEnvio > VENTANA_MAXIMA) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.CONTROL_FLUJO, "Ventana de flujo desbordada");
+            }
+            if (flujo.ventanaEnvio > 0 && flujo.respuesta != null) {
+                ponerEnTurno(flujo);
+            }
+        }
+    }
+    
+    private void procesarPing(byte[] marco, int carga, int longitud, int banderas, int idFlujo) {
+        if (longitud != 8) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.TAMANO_MARCO, "PING de tamaño inválido");
+        }
+        if (idFlujo != 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "PING con flujo");
+        }
+        if ((banderas & ACK) == 0) {
+            escribirCabeceraMarco(control, 8, PING, ACK, 0);
+            control.escribir(marco, carga, 8);
+        }
+    }
+    
+    private void procesarDespedida(int longitud, int idFlujo) {
+        if (idFlujo != 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "GOAWAY con flujo");
+        }
+        if (longitud < 8) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.TAMANO_MARCO, "GOAWAY de tamaño inválido");
+        }
+        despedidaRecibida = true;
+    }
+    
+    private void procesarVentana(byte[] marco, int carga, int longitud, int idFlujo) {
+        if (longitud != 4) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.TAMANO_MARCO, "WINDOW_UPDATE de tamaño inválido");
+        }
+        int incremento = leerEntero32(marco, carga) & 0x7FFFFFFF;
+        if (idFlujo == 0) {
+            if (incremento == 0) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "WINDOW_UPDATE sin incremento");
+            }
+            ventanaEnvio += incremento;
+            if (ventanaEnvio > VENTANA_MAXIMA) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.CONTROL_FLUJO, "Ventana de la conexión desbordada");
+            }
+            return;
+        }
+        FlujoHttp2 flujo = flujos.get(idFlujo);
+        if (flujo == null) {
+            if (idFlujo > ultimoFlujo) {
+                throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "WINDOW_UPDATE en un flujo inactivo");
+            }
+            // El flujo ya terminó: el aviso llegó tarde y se ignora
+            return;
+        }
+        if (incremento == 0) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, idFlujo, "WINDOW_UPDATE sin incremento");
+        }
+        flujo.ventanaEnvio += incremento;
+        if (flujo.ventanaEnvio > VENTANA_MAXIMA) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.CONTROL_FLUJO, idFlujo, "Ventana del flujo desbordada");
+        }
+        if (flujo.ventanaEnvio > 0 && flujo.respuesta != null) {
+            ponerEnTurno(flujo);
+        }
+    }
+    
+    /**
+     * Genera la respuesta de un flujo completo y encola sus encabezados.
+     * Al llegar al máximo de solicitudes por conexión se despide con GOAWAY
+     */
+    private void atender(FlujoHttp2 flujo) {
+        atendidas++;
+        RespuestaHttp respuesta = flujo.solicitud != null
+            ? manejador.procesarSolicitud(flujo.solicitud) : RespuestaHttp.rechazo(431);
+        enviarCabeceras(flujo, respuesta);
+        if (atendidas >= maxSolicitudes) {
+            despedir();
+        }
+    }
+    
+    /**
+     * Codifica :status y los encabezados de la respuesta en un bloque HPACK.
+     * Los encabezados se codifican al encolarlos para que el orden de la tabla
+     * dinámica coincida con el orden en que el cliente los decodifica
+     */
+    private void enviarCabeceras(FlujoHttp2 flujo, RespuestaHttp respuesta) {
+        bloqueEnviado.reiniciar();
+        codificador.iniciarBloque(bloqueEnviado);
+        codificador.codificar(":status", Integer.toString(respuesta.getCodigo()), true, bloqueEnviado);
+        for (RespuestaHttp.Encabezado encabezado : respuesta.getEncabezados()) {
+            String nombre = encabezado.getNombre().toLowerCase(Locale.ROOT);
+            if (!ENCABEZADOS_DE_CONEXION.contains(nombre)) {
+                codificador.codificar(nombre, encabezado.getValor(), true, bloqueEnviado);
+            }
+        }
+        byte[] cuerpo = respuesta.getCuerpo();
+        // Un archivo se envía como un cuerpo en streaming: por bloques leídos del disco
+        boolean porBloques = respuesta.isStreaming() || respuesta.tieneArchivo();
+        if (!respuesta.isStreaming() && respuesta.permiteCuerpo()) {
+            long longitud = respuesta.tieneArchivo() ? respuesta.getLongitudArchivo() : cuerpo.length;
+            codificador.codificar("content-length", Long.toString(longitud), false, bloqueEnviado);
+        }
+        
+        boolean conDatos = porBloques || cuerpo.length > 0;
+        escribirBloqueCabeceras(flujo.id, conDatos ? 0 : FIN_FLUJO);
+        if (conDatos) {
+            flujo.respuesta = respuesta;
+            flujo.cuerpo = porBloques ? null : cuerpo;
+            ponerEnTurno(flujo);
+        } else {
+            flujos.remove(flujo.id);
+            completar(flujo, respuesta);
+        }
+    }
+    
+    private void completar(FlujoHttp2 flujo, RespuestaHttp respuesta) {
+        if (flujo.solicitud != null) {
+            alCompletar.accept(flujo.solicitud, respuesta);
+        }
+    }
+    
+    /**
+     * Divide el bloque en HEADERS y los CONTINUATION que hagan falta
+     */
+    private void escribirBloqueCabeceras(int idFlujo, int banderas) {
+        byte[] bloque = bloqueEnviado.comoByteBuffer().array();
+        int total = bloqueEnviado.tamano();
+        int enviados = 0;
+        int tipo = HEADERS;
+        do {
+            int longitud = Math.min(maxMarcoEnvio, total - enviados);
+            boolean ultimo = enviados + longitud == total;
+            escribirCabeceraMarco(control, longitud, tipo,
+                                  (tipo == HEADERS ? banderas : 0) | (ultimo ? FIN_CABECERAS : 0), idFlujo);
+            control.escribir(bloque, enviados, longitud);
+            enviados += longitud;
+            tipo = CONTINUATION;
+        } while (enviados < total);
+    }
+    
+    /**
+     * Reparte marcos DATA por turnos: cada flujo con ventana disponible envía
+     * un marco y vuelve al final de la fila, hasta agotar el presupuesto de la
+     * llamada o la ventana de la conexión
+     */
+    private void escribirDatos(SalidaHtml salida) {
+        int presupuesto = DATOS_POR_SALIDA;
+        while (presupuesto > 0 && ventanaEnvio > 0 && !turnos.isEmpty()) {
+            FlujoHttp2 flujo = turnos.poll();
+            flujo.enTurno = false;
+            if (flujo.ventanaEnvio <= 0) {
+                // Vuelve a la fila cuando el cliente amplíe su ventana
+                continue;
+            }
+            int maximo = (int) Math.min(Math.min(presupuesto, maxMarcoEnvio),
+                                        Math.min(ventanaEnvio, flujo.ventanaEnvio));
+            int escritos = escribirMarcoDatos(flujo, salida, maximo);
+            presupuesto -= CABECERA_MARCO + escritos;
+            ventanaEnvio -= escritos;
+            flujo.ventanaEnvio -= escritos;
+            if (flujo.terminado) {
+                flujos.remove(flujo.id);
+                completar(flujo, flujo.respuesta);
+            } else {
+                ponerEnTurno(flujo);
+            }
+        }
+    }
+    
+    /**
+     * Escribe un marco DATA con hasta "maximo" bytes del cuerpo del flujo.
+     * Un cuerpo en streaming termina con un DATA vacío con END_STREAM
+     * @return bytes de cuerpo escritos
+     */
+    private int escribirMarcoDatos(FlujoHttp2 flujo, SalidaHtml salida, int maximo) {
+        if (flujo.cuerpo != null) {
+            int longitud = Math.min(maximo, flujo.cuerpo.length - flujo.enviados);
+            flujo.terminado = flujo.enviados + longitud == flujo.cuerpo.length;
+            escribirCabeceraMarco(salida, longitud, DATA, flujo.terminado ? FIN_FLUJO : 0, flujo.id);
+            salida.escribir(flujo.cuerpo, flujo.enviados, longitud);
+            flujo.enviados += longitud;
+            return longitud;
+        }
+        if (flujo.bloque == null || !flujo.bloque.hasRemaining()) {
+            flujo.bloque = flujo.respuesta.siguienteBloque();
+        }
+        if (flujo.bloque == null) {
+            flujo.terminado = true;
+            escribirCabeceraMarco(salida, 0, DATA, FIN_FLUJO, flujo.id);
+            return 0;
+        }
+        ByteBuffer bloque = flujo.bloque;
+        int longitud = Math.min(maximo, bloque.remaining());
+        escribirCabeceraMarco(salida, longitud, DATA, 0, flujo.id);
+        salida.escribir(bloque.array(), bloque.arrayOffset() + bloque.position(), longitud);
+        bloque.position(bloque.position() + longitud);
+        return longitud;
+    }
+    
+    private void ponerEnTurno(FlujoHttp2 flujo) {
+        if (!flujo.enTurno) {
+            flujo.enTurno = true;
+            turnos.add(flujo);
+        }
+    }
+    
+    private void reiniciarFlujo(int idFlujo, int codigo) {
+        escribirCabeceraMarco(control, 4, RST_STREAM, 0, idFlujo);
+        escribirEntero32(control, codigo);
+        FlujoHttp2 flujo = flujos.remove(idFlujo);
+        if (flujo != null) {
+            turnos.remove(flujo);
+            abortarCuerpo(flujo);
+        }
+    }
+    
+    /**
+     * Error de conexión: se envía GOAWAY con el código y se abandonan los flujos
+     */
+    private void fallar(int codigo) {
+        if (fallida) {
+            return;
+        }
+        escribirGoaway(codigo);
+        despedida = true;
+        fallida = true;
+        abandonar();
+    }
+    
+    private void escribirGoaway(int codigo) {
+        escribirCabeceraMarco(control, 8, GOAWAY, 0, 0);
+        escribirEntero32(control, ultimoFlujo);
+        escribirEntero32(control, codigo);
+    }
+    
+    private void escribirVentana(int idFlujo, int incremento) {
+        escribirCabeceraMarco(control, 4, WINDOW_UPDATE, 0, idFlujo);
+        escribirEntero32(control, incremento);
+    }
+    
+    /**
+     * Valida el relleno de un marco DATA o HEADERS
+     * @return bytes a saltar al inicio de la carga (el byte de longitud del relleno)
+     */
+    private static int quitarRelleno(byte[] marco, int carga, int longitud, int banderas) {
+        if ((banderas & CON_RELLENO) == 0) {
+            return 0;
+        }
+        if (longitud < 1 || (marco[carga] & 0xFF) >= longitud) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, "Relleno mayor que el marco");
+        }
+        return 1;
+    }
+    
+    private static int leerLongitud(byte[] marco, int inicio) {
+        int longitud = ((marco[inicio] & 0xFF) << 16) | ((marco[inicio + 1] & 0xFF) << 8) | (marco[inicio + 2] & 0xFF);
+        if (longitud > MARCO_PREDETERMINADO) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.TAMANO_MARCO, "Marco de " + longitud + " bytes");
+        }
+        return longitud;
+    }
+    
+    private static int leerEntero32(byte[] bytes, int inicio) {
+        return ((bytes[inicio] & 0xFF) << 24) | ((bytes[inicio + 1] & 0xFF) << 16)
+               | ((bytes[inicio + 2] & 0xFF) << 8) | (bytes[inicio + 3] & 0xFF);
+    }
+    
+    private static void escribirCabeceraMarco(SalidaHtml salida, int longitud, int tipo, int banderas, int idFlujo) {
+        salida.escribirByte(longitud >>> 16).escribirByte(longitud >>> 8).escribirByte(longitud)
+              .escribirByte(tipo).escribirByte(banderas);
+        escribirEntero32(salida, idFlujo);
+    }
+    
+    private static void escribirAjuste(SalidaHtml salida, int identificador, int valor) {
+        salida.escribirByte(identificador >>> 8).escribirByte(identificador);
+        escribirEntero32(salida, valor);
+    }
+    
+    private static void escribirEntero32(SalidaHtml salida, int valor) {
+        salida.escribirByte(valor >>> 24).escribirByte(valor >>> 16).escribirByte(valor >>> 8).escribirByte(valor);
+    }
+    
+    private static byte[] decodificarAjustesUpgrade(String ajustes) {
+        return Base64.getUrlDecoder().decode(ajustes.trim());
+    }
+    
+    private static boolean contieneToken(String lista, String token) {
+        for (String parte : lista.split(",")) {
+            if (parte.trim().equalsIgnoreCase(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean tieneMayusculas(String nombre) {
+        for (int i = 0; i < nombre.length(); i++) {
+            char c = nombre.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String unico(String anterior, String valor, int idFlujo) {
+        if (anterior != null) {
+            throw malformada(idFlujo, "Pseudo-encabezado repetido");
+        }
+        return valor;
+    }
+    
+    private static ErrorHttp2Exception malformada(int idFlujo, String motivo) {
+        return new ErrorHttp2Exception(ErrorHttp2Exception.PROTOCOLO, idFlujo, motivo);
+    }
+    
+    /**
+     * Estado de un flujo: solicitud recibida, ventanas de control de flujo
+     * y avance del cuerpo de la respuesta
+     */
+    private final class FlujoHttp2 {
+        
+        private final int id;
+        private final SolicitudHttp solicitud;
+        private long ventanaEnvio = ventanaInicialEnvio;
+        private int ventanaRecepcion = VENTANA_PREDETERMINADA;
+        private boolean remotoCerrado;
+        private boolean enTurno;
+        private boolean terminado;
+        private RespuestaHttp respuesta;
+        private byte[] cuerpo;
+        private int enviados;
+        private ByteBuffer bloque;
+        
+        FlujoHttp2(int id, SolicitudHttp solicitud) {
+            this.id = id;
+            this.solicitud = solicitud;
+        }
+    }
+}
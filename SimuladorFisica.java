@@ -92,6 +92,7 @@ public class SimuladorFisica extends EquipoBase implements Simulable {
                 Thread.currentThread().interrupt();
                 estadoSimulacion = "Error";
             }
+            notificarCambio();
         }
     }
     
@@ -99,6 +100,7 @@ public class SimuladorFisica extends EquipoBase implements Simulable {
     public void detenerSimulacion() {
         if ("Iniciada".equals(estadoSimulacion) || "Pausada".equals(estadoSimulacion)) {
             estadoSimulacion = "Detenida";
+            notificarCambio();
         }
     }
     
@@ -106,6 +108,7 @@ public class SimuladorFisica extends EquipoBase implements Simulable {
     public void configurarParametros(Map<String, Object> parametros) {
         if (parametros != null) {
             this.parametrosConfiguracion.putAll(parametros);
+            notificarCambio();
         }
     }
     
@@ -120,6 +123,7 @@ public class SimuladorFisica extends EquipoBase implements Simulable {
     public void pausarSimulacion() {
         if ("Iniciada".equals(estadoSimulacion)) {
             estadoSimulacion = "Pausada";
+            notificarCambio();
         }
     }
     
@@ -129,6 +133,7 @@ public class SimuladorFisica extends EquipoBase implements Simulable {
     public void reanudarSimulacion() {
         if ("Pausada".equals(estadoSimulacion)) {
             estadoSimulacion = "Iniciada";
+            notificarCambio();
         }
     }
     
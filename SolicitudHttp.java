@@ -0,0 +1,228 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Representa la línea de solicitud y los encabezados de una petición HTTP/1.x.
+ * Las solicitudes HTTP/2 se arman con sus pseudo-encabezados y la versión "HTTP/2.0"
+ * Cumple con SRP: Solo interpreta la cabecera, no la enruta ni la responde
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class SolicitudHttp {
+    
+    private final String metodo;
+    private final String ruta;
+    private final String version;
+    private final Map<String, String> encabezados;
+    private final long inicioNanos = System.nanoTime();
+    private String patronRuta;
+    private String cliente;
+    private ReceptorCuerpo receptorCuerpo;
+    
+    /**
+     * Constructor a partir de la línea de solicitud
+     * @param lineaSolicitud línea "METODO RUTA VERSION"
+     * @throws IllegalArgumentException si la línea no tiene método y ruta
+     */
+    public SolicitudHttp(String lineaSolicitud) {
+        String[] partesRequest = lineaSolicitud.split(" ");
+        if (partesRequest.length < 2) {
+            throw new IllegalArgumentException("Línea de solicitud inválida: " + lineaSolicitud);
+        }
+        this.metodo = partesRequest[0];
+        this.ruta = partesRequest[1];
+        this.version = partesRequest.length > 2 ? partesRequest[2] : "HTTP/1.0";
+        this.encabezados = new HashMap<>();
+    }
+    
+    /**
+     * Constructor a partir de las partes ya separadas, como los
+     * pseudo-encabezados :method y :path de HTTP/2
+     * @param metodo método HTTP
+     * @param ruta ruta solicitada, con su consulta
+     * @param version versión del protocolo (ej: "HTTP/2.0")
+     */
+    public SolicitudHttp(String metodo, String ruta, String version) {
+        this.metodo = metodo;
+        this.ruta = ruta;
+        this.version = version;
+        this.encabezados = new HashMap<>();
+    }
+    
+    /**
+     * Interpreta un bloque completo de cabecera separado por CRLF
+     * @param cabecera línea de solicitud y encabezados, sin la línea vacía final
+     * @return SolicitudHttp parseada
+     */
+    public static SolicitudHttp parsear(String cabecera) {
+        String[] lineas = cabecera.split("\r\n");
+        SolicitudHttp solicitud = new SolicitudHttp(lineas[0]);
+        for (int i = 1; i < lineas.length; i++) {
+            solicitud.agregarEncabezado(lineas[i]);
+        }
+        return solicitud;
+    }
+    
+    /**
+     * Agrega una línea "Nombre: valor"; los nombres se guardan en minúsculas
+     * @param linea línea de encabezado
+     */
+    public void agregarEncabezado(String linea) {
+        int separador = linea.indexOf(':');
+        if (separador > 0) {
+            agregarEncabezado(linea.substring(0, separador).trim(), linea.substring(separador + 1).trim());
+        }
+    }
+    
+    /**
+     * Agrega un encabezado ya separado en nombre y valor. Un Content-Length repetido
+     * no reemplaza al anterior: se acumula como lista para que getLongitudContenido
+     * pueda rechazar los valores en conflicto
+     * @param nombre nombre del encabezado
+     * @param valor valor del encabezado
+     */
+    public void agregarEncabezado(String nombre, String valor) {
+        String clave = nombre.toLowerCase();
+        if (clave.equals("content-length")) {
+            encabezados.merge(clave, valor, (anterior, nuevo) -> anterior + ", " + nuevo);
+        } else {
+            encabezados.put(clave, valor);
+        }
+    }
+    
+    /**
+     * Obtiene un encabezado sin distinguir mayúsculas
+     * @param nombre nombre del encabezado
+     * @return valor o null si no viene
+     */
+    public String getEncabezado(String nombre) {
+        return encabezados.get(nombre.toLowerCase());
+    }
+    
+    /**
+     * Indica si el cliente quiere reutilizar la conexión.
+     * HTTP/1.1 la mantiene salvo "Connection: close"; HTTP/1.0 solo con "keep-alive"
+     * @return true si la conexión debe mantenerse abierta
+     */
+    public boolean isMantenerConexion() {
+        String conexion = getEncabezado("Connection");
+        if ("HTTP/1.1".equals(version)) {
+            return conexion == null || !conexion.toLowerCase().contains("close");
+        }
+        return conexion != null && conexion.toLowerCase().contains("keep-alive");
+    }
+    
+    /**
+     * Obtiene la longitud del cuerpo declarada. Varios Content-Length (repetidos o
+     * como lista) solo se aceptan si todos dicen lo mismo (RFC 9112, sección 6.3):
+     * con valores distintos no se sabe dónde empieza la solicitud siguiente
+     * @return bytes del cuerpo, 0 si no viene Content-Length
+     * @throws SolicitudRechazadaException 400 si un valor no es un número válido
+     *         o si los valores no coinciden
+     */
+    public long getLongitudContenido() {
+        String valor = getEncabezado("Content-Length");
+        if (valor == null) {
+            return 0;
+        }
+        long longitud = -1;
+        for (String parte : valor.split(",")) {
+            long actual = parsearLongitud(parte.trim());
+            if (longitud >= 0 && actual != longitud) {
+                throw new SolicitudRechazadaException(400, "Content-Length con valores distintos: " + valor);
+            }
+            longitud = actual;
+        }
+        return longitud;
+    }
+    
+    private static long parsearLongitud(String valor) {
+        try {
+            long longitud = Long.parseLong(valor);
+            if (longitud < 0) {
+                throw new NumberFormatException(valor);
+            }
+            return longitud;
+        } catch (NumberFormatException e) {
+            throw new SolicitudRechazadaException(400, "Content-Length inválido: " + valor);
+        }
+    }
+    
+    /**
+     * Indica si la solicitud anuncia un cuerpo, por longitud o por fragmentos
+     * @return true si viene Transfer-Encoding o un Content-Length distinto de 0
+     */
+    public boolean tieneCuerpo() {
+        return getEncabezado("Transfer-Encoding") != null || getLongitudContenido() > 0;
+    }
+    
+    /**
+     * Indica si el cliente espera un "100 Continue" antes de enviar el cuerpo
+     * @return true con "Expect: 100-continue" en HTTP/1.1
+     */
+    public boolean isEsperaContinuar() {
+        String expectativa = getEncabezado("Expect");
+        return "HTTP/1.1".equals(version) && expectativa != null && expectativa.equalsIgnoreCase("100-continue");
+    }
+    
+    public String getMetodo() { return metodo; }
+    public String getRuta() { return ruta; }
+    public String getVersion() { return version; }
+    
+    /** @return instante de System.nanoTime() en que se terminó de recibir la cabecera */
+    public long getInicioNanos() { return inicioNanos; }
+    
+    /** @return patrón de ruta que atendió la solicitud (ej: "/detalles/{id}"), o null si ninguno */
+    public String getPatronRuta() { return patronRuta; }
+    
+    /**
+     * Asigna el patrón con el que el enrutador resolvió la solicitud, para agrupar
+     * métricas por ruta sin una serie por cada valor de parámetro
+     * @param patronRuta patrón registrado
+     */
+    public void setPatronRuta(String patronRuta) { this.patronRuta = patronRuta; }
+    
+    /** @return dirección IP del cliente que envió la solicitud, o null si no se conoce */
+    public String getCliente() { return cliente; }
+    
+    /**
+     * Asigna la dirección del cliente; la pone el motor de E/S que recibió la solicitud
+     * @param cliente dirección IP del cliente
+     */
+    public void setCliente(String cliente) { this.cliente = cliente; }
+    
+    /** @return receptor que consumió el cuerpo de la solicitud, o null si se descartó */
+    public ReceptorCuerpo getReceptorCuerpo() { return receptorCuerpo; }
+    
+    /**
+     * Asigna el receptor del cuerpo; lo pone el manejador antes de que el motor lea el cuerpo
+     * @param receptorCuerpo receptor del cuerpo
+     */
+    public void setReceptorCuerpo(ReceptorCuerpo receptorCuerpo) { this.receptorCuerpo = receptorCuerpo; }
+}
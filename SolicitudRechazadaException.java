@@ -0,0 +1,51 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+/**
+ * Solicitud que se rechaza antes de enrutarla por exceder los límites del
+ * servidor o por llegar demasiado lento. Lleva el código HTTP con el que
+ * debe responderse antes de cerrar la conexión.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class SolicitudRechazadaException extends IllegalArgumentException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final int codigo;
+    
+    /**
+     * Constructor de la excepción
+     * @param codigo código HTTP de la respuesta (408, 414, 431...)
+     * @param mensaje descripción del motivo
+     */
+    public SolicitudRechazadaException(int codigo, String mensaje) {
+        super(mensaje);
+        this.codigo = codigo;
+    }
+    
+    public int getCodigo() { return codigo; }
+}
@@ -0,0 +1,203 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Suscripción de un cliente al flujo de mediciones de un equipo, enviada como
+ * cuerpo text/event-stream (Server-Sent Events). Las muestras esperan en un buffer
+ * acotado; si el cliente no las lee a tiempo se descarta la más antigua, de modo
+ * que nunca recibe datos viejos, y el evento siguiente informa cuántas perdió.
+ * Sin mediciones durante el intervalo de latido se envía un comentario para
+ * mantener viva la conexión y descubrir a tiempo a los clientes que ya se fueron.
+ * Cumple con SRP: Solo encola y formatea eventos; la adquisición la hace DifusorMediciones
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class SuscripcionMediciones implements CuerpoEnStreaming {
+    
+    /** El navegador reintenta a los 3 s si la conexión se corta */
+    private static final byte[] PREAMBULO = "retry: 3000\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LATIDO = ": latido\n\n".getBytes(StandardCharsets.UTF_8);
+    /** Espera máxima de un motor bloqueante antes de volver a revisar si el servidor sigue activo */
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** Bytes a partir de los cuales se deja de agrupar eventos en un fragmento */
+    private static final int FRAGMENTO_MAXIMO = 8 * 1024;
+    
+    private final DifusorMediciones difusor;
+    private final String id;
+    private final long periodoNanos;
+    private final long latidoNanos;
+    private final BooleanSupplier activo;
+    private final ArrayBlockingQueue<DifusorMediciones.Muestra> buffer;
+    private final AtomicReference<Runnable> aviso = new AtomicReference<>();
+    private final AtomicBoolean terminada = new AtomicBoolean();
+    private volatile long descartadas;
+    private volatile long ultimoEnvio;
+    private boolean preambuloEnviado;
+    private long proximaMuestra;
+    
+    /**
+     * @param difusor difusor que alimenta la suscripción
+     * @param id ID canónico del equipo
+     * @param periodoNanos intervalo pedido entre mediciones
+     * @param capacidad muestras que puede haber sin enviar
+     * @param latidoNanos silencio máximo antes de enviar un latido
+     * @param activo indica si el servidor sigue atendiendo
+     */
+    SuscripcionMediciones(DifusorMediciones difusor, String id, long periodoNanos, int capacidad,
+                          long latidoNanos, BooleanSupplier activo) {
+        this.difusor = difusor;
+        this.id = id;
+        this.periodoNanos = periodoNanos;
+        this.latidoNanos = latidoNanos;
+        this.activo = activo;
+        this.buffer = new ArrayBlockingQueue<>(capacidad);
+        this.ultimoEnvio = System.nanoTime();
+        this.proximaMuestra = ultimoEnvio;
+    }
+    
+    /**
+     * Entrega una muestra del bucle de adquisición si ya le toca a este suscriptor.
+     * Solo la llama el hilo de adquisición
+     * @param muestra muestra recién tomada
+     * @param ahora instante de la muestra según System.nanoTime()
+     * @param periodoCanal período del bucle, que da la tolerancia para no saltarse muestras por jitter
+     */
+    void ofrecer(DifusorMediciones.Muestra muestra, long ahora, long periodoCanal) {
+        if (ahora + periodoCanal / 2 < proximaMuestra) {
+            return;
+        }
+        // Tras un atraso largo se reinicia el calendario en lugar de recuperar muestras de golpe
+        proximaMuestra = proximaMuestra + periodoNanos < ahora ? ahora + periodoNanos : proximaMuestra + periodoNanos;
+        while (!buffer.offer(muestra)) {
+            if (buffer.poll() != null) {
+                descartadas++;
+                difusor.registrarDescarte();
+            }
+        }
+        avisar();
+    }
+    
+    @Override
+    public boolean escribirFragmento(SalidaHtml destino) {
+        if (!preambuloEnviado) {
+            preambuloEnviado = true;
+            destino.escribir(PREAMBULO);
+            ultimoEnvio = System.nanoTime();
+            return true;
+        }
+        boolean escrito = false;
+        try {
+            while (!escrito && !isTerminada()) {
+                long silencio = System.nanoTime() - ultimoEnvio;
+                DifusorMediciones.Muestra muestra = silencio >= latidoNanos ? buffer.poll()
+                    : buffer.poll(Math.min(latidoNanos - silencio, ESPERA_MAXIMA_NANOS), TimeUnit.NANOSECONDS);
+                if (muestra != null) {
+                    escribirEventos(destino, muestra);
+                    escrito = true;
+                } else if (System.nanoTime() - ultimoEnvio >= latidoNanos) {
+                    destino.escribir(LATIDO);
+                    escrito = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!escrito) {
+            cerrar();
+            return false;
+        }
+        ultimoEnvio = System.nanoTime();
+        return true;
+    }
+    
+    /**
+     * Escribe la muestra y las que ya esperan en el buffer, agrupadas en un solo fragmento
+     */
+    private void escribirEventos(SalidaHtml destino, DifusorMediciones.Muestra primera) {
+        DifusorMediciones.Muestra muestra = primera;
+        while (muestra != null) {
+            // escribirTexto escapa para HTML; el evento se escribe como bytes sin escapar
+            String evento = "id: " + muestra.secuencia + "\nevent: medicion\ndata: {\"id\":\"" + id
+                + "\",\"secuencia\":" + muestra.secuencia + ",\"marca\":" + muestra.marcaMs
+                + ",\"valor\":" + (Double.isFinite(muestra.valor) ? Double.toString(muestra.valor) : "null")
+                + ",\"descartadas\":" + descartadas + "}\n\n";
+            destino.escribir(evento.getBytes(StandardCharsets.UTF_8));
+            muestra = destino.tamano() < FRAGMENTO_MAXIMO ? buffer.poll() : null;
+        }
+    }
+    
+    @Override
+    public boolean estaListo() {
+        return !preambuloEnviado || !buffer.isEmpty() || isTerminada()
+               || System.nanoTime() - ultimoEnvio >= latidoNanos;
+    }
+    
+    @Override
+    public void alEstarListo(Runnable aviso) {
+        this.aviso.set(aviso);
+        // Una muestra pudo llegar entre la consulta a estaListo y el registro del aviso
+        if (estaListo()) {
+            avisar();
+        }
+    }
+    
+    private void avisar() {
+        Runnable pendiente = aviso.getAndSet(null);
+        if (pendiente != null) {
+            pendiente.run();
+        }
+    }
+    
+    /**
+     * Da de baja la suscripción; es idempotente
+     */
+    @Override
+    public void cerrar() {
+        if (terminada.compareAndSet(false, true)) {
+            difusor.desuscribir(this);
+        }
+    }
+    
+    private boolean isTerminada() {
+        return terminada.get() || !activo.getAsBoolean();
+    }
+    
+    /** @return ID canónico del equipo */
+    public String getId() { return id; }
+    
+    /** @return intervalo pedido entre mediciones */
+    public long getPeriodoNanos() { return periodoNanos; }
+    
+    /** @return muestras descartadas por buffer lleno */
+    public long getDescartadas() { return descartadas; }
+}
@@ -0,0 +1,212 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tabla de índices de HPACK: la tabla estática de 61 entradas (RFC 7541,
+ * apéndice A) seguida de la tabla dinámica, que guarda las cabeceras más
+ * recientes dentro de un límite de tamaño. Codificador y decodificador
+ * usan cada uno su propia instancia.
+ * Los textos se manejan en ISO-8859-1, así cada carácter ocupa un byte.
+ * Cumple con SRP: Solo indexa cabeceras, no conoce el formato de los bloques
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class TablaHpack {
+    
+    /** Tamaño inicial de la tabla dinámica (SETTINGS_HEADER_TABLE_SIZE) */
+    public static final int TAMANO_PREDETERMINADO = 4096;
+    
+    /** Cada entrada cuenta 32 bytes además de su nombre y su valor */
+    private static final int SOBRECARGA_ENTRADA = 32;
+    
+    private static final String[][] ESTATICA = {
+        {":authority", ""}, {":method", "GET"}, {":method", "POST"}, {":path", "/"},
+        {":path", "/index.html"}, {":scheme", "http"}, {":scheme", "https"}, {":status", "200"},
+        {":status", "204"}, {":status", "206"}, {":status", "304"}, {":status", "400"},
+        {":status", "404"}, {":status", "500"}, {"accept-charset", ""}, {"accept-encoding", "gzip, deflate"},
+        {"accept-language", ""}, {"accept-ranges", ""}, {"accept", ""}, {"access-control-allow-origin", ""},
+        {"age", ""}, {"allow", ""}, {"authorization", ""}, {"cache-control", ""},
+        {"content-disposition", ""}, {"content-encoding", ""}, {"content-language", ""}, {"content-length", ""},
+        {"content-location", ""}, {"content-range", ""}, {"content-type", ""}, {"cookie", ""},
+        {"date", ""}, {"etag", ""}, {"expect", ""}, {"expires", ""},
+        {"from", ""}, {"host", ""}, {"if-match", ""}, {"if-modified-since", ""},
+        {"if-none-match", ""}, {"if-range", ""}, {"if-unmodified-since", ""}, {"last-modified", ""},
+        {"link", ""}, {"location", ""}, {"max-forwards", ""}, {"proxy-authenticate", ""},
+        {"proxy-authorization", ""}, {"range", ""}, {"referer", ""}, {"refresh", ""},
+        {"retry-after", ""}, {"server", ""}, {"set-cookie", ""}, {"strict-transport-security", ""},
+        {"transfer-encoding", ""}, {"user-agent", ""}, {"vary", ""}, {"via", ""},
+        {"www-authenticate", ""}
+    };
+    
+    private static final Map<String, Integer> INDICE_EXACTO = new HashMap<>();
+    private static final Map<String, Integer> INDICE_NOMBRE = new HashMap<>();
+    
+    static {
+        for (int i = ESTATICA.length - 1; i >= 0; i--) {
+            INDICE_EXACTO.put(clave(ESTATICA[i][0], ESTATICA[i][1]), i + 1);
+            INDICE_NOMBRE.put(ESTATICA[i][0], i + 1);
+        }
+    }
+    
+    private String[] nombres = new String[16];
+    private String[] valores = new String[16];
+    private int primera;
+    private int cantidad;
+    private int tamano;
+    private int tamanoMaximo;
+    
+    /**
+     * Constructor de la tabla
+     * @param tamanoMaximo tamaño máximo de la tabla dinámica en bytes
+     */
+    public TablaHpack(int tamanoMaximo) {
+        this.tamanoMaximo = tamanoMaximo;
+    }
+    
+    /**
+     * Obtiene el nombre de una entrada
+     * @param indice índice HPACK, empezando en 1
+     * @return nombre de la cabecera
+     * @throws ErrorHttp2Exception si el índice no existe
+     */
+    public String getNombre(int indice) {
+        return indice <= ESTATICA.length ? ESTATICA[verificar(indice) - 1][0] : nombres[posicion(verificar(indice))];
+    }
+    
+    /**
+     * Obtiene el valor de una entrada
+     * @param indice índice HPACK, empezando en 1
+     * @return valor de la cabecera
+     * @throws ErrorHttp2Exception si el índice no existe
+     */
+    public String getValor(int indice) {
+        return indice <= ESTATICA.length ? ESTATICA[verificar(indice) - 1][1] : valores[posicion(verificar(indice))];
+    }
+    
+    /**
+     * Busca una cabecera, primero con su valor y luego solo por nombre
+     * @param nombre nombre en minúsculas
+     * @param valor valor de la cabecera
+     * @return índice positivo si coincide completa, negativo si solo coincide
+     *         el nombre, 0 si no está en la tabla
+     */
+    public int buscar(String nombre, String valor) {
+        Integer exacto = INDICE_EXACTO.get(clave(nombre, valor));
+        if (exacto != null) {
+            return exacto;
+        }
+        int soloNombre = 0;
+        for (int i = 0; i < cantidad; i++) {
+            int p = (primera + i) % nombres.length;
+            if (nombres[p].equals(nombre)) {
+                if (valores[p].equals(valor)) {
+                    return ESTATICA.length + 1 + i;
+                }
+                if (soloNombre == 0) {
+                    soloNombre = -(ESTATICA.length + 1 + i);
+                }
+            }
+        }
+        if (soloNombre != 0) {
+            return soloNombre;
+        }
+        Integer nombreEstatico = INDICE_NOMBRE.get(nombre);
+        return nombreEstatico != null ? -nombreEstatico : 0;
+    }
+    
+    /**
+     * Agrega una entrada al inicio de la tabla dinámica, desalojando las más
+     * antiguas hasta que quepa. Una entrada mayor que la tabla la deja vacía
+     * @param nombre nombre de la cabecera
+     * @param valor valor de la cabecera
+     */
+    public void agregar(String nombre, String valor) {
+        int tamanoEntrada = nombre.length() + valor.length() + SOBRECARGA_ENTRADA;
+        desalojarHasta(tamanoMaximo - tamanoEntrada);
+        if (tamanoEntrada > tamanoMaximo) {
+            return;
+        }
+        if (cantidad == nombres.length) {
+            crecer();
+        }
+        primera = (primera - 1 + nombres.length) % nombres.length;
+        nombres[primera] = nombre;
+        valores[primera] = valor;
+        cantidad++;
+        tamano += tamanoEntrada;
+    }
+    
+    /**
+     * Cambia el tamaño máximo, desalojando lo que ya no quepa
+     * @param tamanoMaximo nuevo tamaño máximo en bytes
+     */
+    public void setTamanoMaximo(int tamanoMaximo) {
+        this.tamanoMaximo = tamanoMaximo;
+        desalojarHasta(tamanoMaximo);
+    }
+    
+    public int getTamanoMaximo() { return tamanoMaximo; }
+    
+    private void desalojarHasta(int tamanoObjetivo) {
+        while (cantidad > 0 && tamano > Math.max(tamanoObjetivo, 0)) {
+            int ultima = (primera + cantidad - 1) % nombres.length;
+            tamano -= nombres[ultima].length() + valores[ultima].length() + SOBRECARGA_ENTRADA;
+            nombres[ultima] = null;
+            valores[ultima] = null;
+            cantidad--;
+        }
+    }
+    
+    private void crecer() {
+        String[] nuevosNombres = new String[nombres.length * 2];
+        String[] nuevosValores = new String[valores.length * 2];
+        for (int i = 0; i < cantidad; i++) {
+            nuevosNombres[i] = nombres[(primera + i) % nombres.length];
+            nuevosValores[i] = valores[(primera + i) % valores.length];
+        }
+        nombres = nuevosNombres;
+        valores = nuevosValores;
+        primera = 0;
+    }
+    
+    private int verificar(int indice) {
+        if (indice < 1 || indice > ESTATICA.length + cantidad) {
+            throw new ErrorHttp2Exception(ErrorHttp2Exception.COMPRESION, "Índice HPACK inválido: " + indice);
+        }
+        return indice;
+    }
+    
+    private int posicion(int indice) {
+        return (primera + indice - ESTATICA.length - 1) % nombres.length;
+    }
+    
+    private static String clave(String nombre, String valor) {
+        return nombre + '\n' + valor;
+    }
+}
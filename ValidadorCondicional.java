@@ -0,0 +1,152 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Validadores de las respuestas cuyo contenido depende solo de la ruta y del catálogo.
+ * Evalúa If-None-Match e If-Modified-Since (RFC 7232) antes de generar la respuesta,
+ * de modo que un cliente que sondea un catálogo sin cambios recibe un 304 sin cuerpo.
+ * Cumple con SRP: Solo calcula validadores y decide si basta con un 304
+ * 
+ * El ETag es débil porque una misma versión se entrega con o sin gzip y con
+ * fragmentos distintos; ambas variantes son equivalentes para el cliente.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public final class ValidadorCondicional {
+    
+    /** Distingue procesos distintos: la versión del catálogo vuelve a empezar en cada arranque */
+    private static final String INSTANCIA = Long.toString(System.currentTimeMillis(), 36);
+    private static final DateTimeFormatter FECHA_HTTP =
+        DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+    private static final RespuestaHttp.Encabezado CACHE_REVALIDAR =
+        new RespuestaHttp.Encabezado("Cache-Control", "no-cache");
+    
+    private final String etag;
+    private final long segundoModificacion;
+    private final String ultimaModificacion;
+    
+    /**
+     * @param version versión del catálogo
+     * @param ultimaModificacion instante del último cambio en milisegundos, leído antes que la versión
+     */
+    public ValidadorCondicional(long version, long ultimaModificacion) {
+        this.etag = "W/\"" + INSTANCIA + "-" + Long.toString(version, 36) + "\"";
+        this.segundoModificacion = ultimaModificacion / 1000;
+        // Un cambio en el segundo en curso aún puede repetirse dentro del mismo segundo,
+        // que es la resolución de Last-Modified; hasta que pase solo vale el ETag
+        this.ultimaModificacion = segundoModificacion < System.currentTimeMillis() / 1000
+            ? FECHA_HTTP.format(Instant.ofEpochSecond(segundoModificacion)) : null;
+    }
+    
+    /**
+     * Toma los validadores del estado actual del servicio. La última modificación se lee
+     * antes que la versión: si un cambio ocurre en medio, Last-Modified queda más antiguo
+     * que el contenido y el cliente solo pierde un 304, nunca recibe uno indebido
+     * @param servicio servicio de equipos
+     * @return validadores del catálogo actual
+     */
+    public static ValidadorCondicional de(ServicioEquipos servicio) {
+        long ultimaModificacion = servicio.getUltimaModificacion();
+        return new ValidadorCondicional(servicio.getVersion(), ultimaModificacion);
+    }
+    
+    /**
+     * Decide si la copia del cliente sigue vigente. If-None-Match tiene prioridad;
+     * If-Modified-Since solo se evalúa sin él y se ignora si la fecha es inválida
+     * o posterior al reloj del servidor (RFC 9110, sección 13.1.3)
+     * @param solicitud solicitud con sus encabezados condicionales
+     * @return true si basta con responder 304
+     */
+    public boolean noModificado(SolicitudHttp solicitud) {
+        String ifNoneMatch = solicitud.getEncabezado("If-None-Match");
+        if (ifNoneMatch != null) {
+            return coincideEtag(ifNoneMatch);
+        }
+        String ifModifiedSince = solicitud.getEncabezado("If-Modified-Since");
+        if (ifModifiedSince == null || ultimaModificacion == null) {
+            return false;
+        }
+        try {
+            long desde = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                                      .toEpochSecond();
+            return desde <= System.currentTimeMillis() / 1000 && segundoModificacion <= desde;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * @return respuesta 304 sin cuerpo con los validadores vigentes
+     */
+    public RespuestaHttp respuestaNoModificado() {
+        return agregarEncabezados(new RespuestaHttp(304));
+    }
+    
+    /**
+     * Agrega ETag, Last-Modified y Cache-Control a una respuesta exitosa;
+     * las demás se devuelven sin tocar
+     * @param respuesta respuesta generada por el manejador
+     * @return la misma respuesta
+     */
+    public RespuestaHttp agregarValidadores(RespuestaHttp respuesta) {
+        return respuesta.getCodigo() == 200 ? agregarEncabezados(respuesta) : respuesta;
+    }
+    
+    private RespuestaHttp agregarEncabezados(RespuestaHttp respuesta) {
+        respuesta.agregarEncabezado("ETag", etag).agregarEncabezado(CACHE_REVALIDAR);
+        if (ultimaModificacion != null) {
+            respuesta.agregarEncabezado("Last-Modified", ultimaModificacion);
+        }
+        return respuesta;
+    }
+    
+    /**
+     * Comparación débil (RFC 7232, sección 2.3.2): se ignora el prefijo W/
+     */
+    private boolean coincideEtag(String ifNoneMatch) {
+        String propio = etag.substring(2);
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(propio)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public String getEtag() { return etag; }
+    public String getUltimaModificacion() { return ultimaModificacion; }
+}
@@ -0,0 +1,92 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+package rendimiento;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Búsquedas del catálogo por ID y por nombre a distintos tamaños.
+ * Ambas recorren la lista completa, así que se espera un costo lineal; el ID
+ * buscado está a la mitad del catálogo y el nombre coincide con uno de cada
+ * seis equipos aproximadamente.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkCatalogo {
+    
+    @Param({"10", "1000", "100000", "1000000"})
+    private int tamano;
+    
+    private Object catalogo;
+    private String idBuscado;
+    private String nombreBuscado;
+    
+    /**
+     * Crea el catálogo del tamaño indicado
+     */
+    @Setup
+    public void preparar() {
+        catalogo = EnlaceServidor.crearCatalogo(EnlaceServidor.crearEquipos(tamano));
+        int mitad = tamano / 2;
+        idBuscado = String.format((mitad & 1) == 0 ? "PEN%07d" : "FPU%07d", mitad);
+        nombreBuscado = "láser";
+    }
+    
+    /**
+     * @return equipo encontrado
+     */
+    @Benchmark
+    public Object buscarPorId() throws Throwable {
+        return (Object) EnlaceServidor.BUSCAR_POR_ID.invokeExact(catalogo, idBuscado);
+    }
+    
+    /**
+     * @return equipos cuyo nombre contiene el texto buscado
+     */
+    @Benchmark
+    public List<?> buscarPorNombre() throws Throwable {
+        return (List<?>) EnlaceServidor.BUSCAR_POR_NOMBRE.invokeExact(catalogo, nombreBuscado);
+    }
+}
@@ -0,0 +1,119 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+package rendimiento;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolución de rutas con EnrutadorTrie a medida que crece el número de rutas
+ * registradas, comparada con una cadena lineal de startsWith/substring como la
+ * que usaba el servidor antes del trie. Se registran las rutas del servidor y
+ * rutas sintéticas "/moduloN/recurso/{id:int}" hasta la cantidad pedida; la
+ * ruta sintética es la última registrada, el peor caso para la cadena lineal.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkEnrutador {
+    
+    @Param({"8", "64", "256", "1024"})
+    private int rutas;
+    
+    @Param({"detalles", "busqueda", "sintetica", "inexistente"})
+    private String caso;
+    
+    private Object enrutador;
+    private List<String> prefijos;
+    private String ruta;
+    
+    /**
+     * Registra y compila las rutas, y arma los prefijos de la cadena lineal
+     */
+    @Setup
+    public void preparar() throws Throwable {
+        Object vacio = EnlaceServidor.crearManejadorVacio();
+        Object nuevo = (Object) EnlaceServidor.NUEVO_ENRUTADOR.invokeExact();
+        prefijos = new ArrayList<>(List.of("/equipos", "/ordenar", "/buscar/id/", "/buscar/nombre/", "/detalles/"));
+        for (String patron : new String[] {"/", "/equipos", "/ordenar", "/buscar/id/{id}",
+                                           "/buscar/nombre/{nombre}", "/detalles/{id}"}) {
+            nuevo = (Object) EnlaceServidor.REGISTRAR_RUTA.invokeExact(nuevo, "GET", patron, vacio);
+        }
+        for (int i = 0; i < rutas - 6; i++) {
+            nuevo = (Object) EnlaceServidor.REGISTRAR_RUTA.invokeExact(
+                    nuevo, "GET", "/modulo" + i + "/recurso/{id:int}", vacio);
+            prefijos.add("/modulo" + i + "/recurso/");
+        }
+        enrutador = (Object) EnlaceServidor.COMPILAR_ENRUTADOR.invokeExact(nuevo);
+        
+        switch (caso) {
+            case "detalles": ruta = "/detalles/PEN001"; break;
+            case "busqueda": ruta = "/buscar/nombre/P%C3%A9ndulo?orden=consumo"; break;
+            case "sintetica": ruta = "/modulo" + (rutas - 7) + "/recurso/42"; break;
+            default: ruta = "/no/existe";
+        }
+    }
+    
+    /**
+     * @return coincidencia del trie, o null si ninguna ruta coincide
+     */
+    @Benchmark
+    public Object trie() throws Throwable {
+        return (Object) EnlaceServidor.BUSCAR_RUTA.invokeExact(enrutador, "GET", ruta);
+    }
+    
+    /**
+     * @return resto de la ruta tras el primer prefijo que coincide, o null
+     */
+    @Benchmark
+    public String cadenaLineal() {
+        for (int i = 0; i < prefijos.size(); i++) {
+            String prefijo = prefijos.get(i);
+            if (ruta.startsWith(prefijo)) {
+                return ruta.substring(prefijo.length());
+            }
+        }
+        return null;
+    }
+}
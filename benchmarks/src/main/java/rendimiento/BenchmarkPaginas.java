@@ -0,0 +1,81 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+package rendimiento;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generación de la página de listado de equipos, la que sirve /equipos cuando
+ * no hay copia en la caché de páginas. El servidor la genera con
+ * PaginasHtml.listado desde que las páginas usan plantillas precompiladas.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkPaginas {
+    
+    @Param({"10", "1000"})
+    private int cantidad;
+    
+    private List<Object> equipos;
+    private Object paginas;
+    
+    /**
+     * Crea los equipos y las páginas
+     */
+    @Setup
+    public void preparar() throws Throwable {
+        equipos = EnlaceServidor.crearEquipos(cantidad);
+        paginas = (Object) EnlaceServidor.NUEVAS_PAGINAS.invokeExact("/styles.css");
+    }
+    
+    /**
+     * @return bytes de la página de listado
+     */
+    @Benchmark
+    public byte[] generarPaginaEquipos() throws Throwable {
+        return (byte[]) EnlaceServidor.LISTADO.invokeExact(
+                paginas, (List<?>) equipos, "Lista Completa de Equipos", "/");
+    }
+}
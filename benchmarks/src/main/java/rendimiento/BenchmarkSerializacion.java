@@ -0,0 +1,90 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+package rendimiento;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialización JSON: un equipo con EquipoBase.toJSON y una lista completa con
+ * GeneradorRespuestaJSON.generarRespuestaLista, como las usa ControladorWeb.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkSerializacion {
+    
+    @Param({"10", "1000"})
+    private int cantidad;
+    
+    private Object equipo;
+    private List<Object> equipos;
+    private Object generador;
+    
+    /**
+     * Crea los equipos y el generador de respuestas
+     */
+    @Setup
+    public void preparar() throws Throwable {
+        equipos = EnlaceServidor.crearEquipos(cantidad);
+        equipo = equipos.get(0);
+        generador = (Object) EnlaceServidor.NUEVO_GENERADOR_JSON.invokeExact();
+    }
+    
+    /**
+     * @return JSON de un equipo
+     */
+    @Benchmark
+    public String equipoToJSON() throws Throwable {
+        return (String) EnlaceServidor.A_JSON.invokeExact(equipo);
+    }
+    
+    /**
+     * @return respuesta JSON con la lista de equipos
+     */
+    @Benchmark
+    public String generarRespuestaLista() throws Throwable {
+        return (String) EnlaceServidor.GENERAR_RESPUESTA_LISTA.invokeExact(
+                generador, "Equipos obtenidos correctamente", (List<?>) equipos);
+    }
+}
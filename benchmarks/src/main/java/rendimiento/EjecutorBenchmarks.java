@@ -0,0 +1,62 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+package rendimiento;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada del jar de benchmarks. Acepta las mismas opciones que la
+ * línea de comandos de JMH y siempre agrega el perfilador de GC, para que cada
+ * resultado traiga junto al rendimiento los bytes asignados por operación
+ * (gc.alloc.rate.norm). Si no se pide otro formato, deja los resultados en
+ * jmh-resultado.json para compararlos entre versiones.
+ * Uso: java -jar benchmarks.jar [opciones de JMH] [filtro de benchmarks]
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+public class EjecutorBenchmarks {
+    
+    /**
+     * Método principal
+     * @param args opciones de JMH
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions opcionesLinea = new CommandLineOptions(args);
+        ChainedOptionsBuilder opciones = new OptionsBuilder()
+                .parent(opcionesLinea)
+                .addProfiler(GCProfiler.class);
+        if (!opcionesLinea.getResultFormat().hasValue()) {
+            opciones.resultFormat(ResultFormatType.JSON).result("jmh-resultado.json");
+        }
+        new Runner(opciones.build()).run();
+    }
+}
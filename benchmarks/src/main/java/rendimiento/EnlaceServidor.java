@@ -0,0 +1,214 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+package rendimiento;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleProxies;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acceso a las clases del laboratorio desde los benchmarks.
+ * JMH exige que los benchmarks estén en un paquete con nombre, y desde un paquete
+ * con nombre no se pueden importar las clases del paquete por defecto, así que
+ * se llega a ellas con MethodHandles. Los tipos del laboratorio se ven como Object
+ * y los del JDK se conservan; al ser constantes static final, el JIT inlinea
+ * la llamada y el costo medido es el del método, no el del enlace.
+ * Cumple con SRP: Solo resuelve y expone los métodos medidos
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+final class EnlaceServidor {
+    
+    /** ()CatalogoEquipos: catálogo aislado, no la instancia única */
+    static final MethodHandle NUEVO_CATALOGO = constructor("CatalogoEquipos");
+    /** (CatalogoEquipos)List: lista interna de equipos del catálogo */
+    static final MethodHandle EQUIPOS_CATALOGO = campo("CatalogoEquipos", "equipos");
+    /** (CatalogoEquipos, String)Equipo */
+    static final MethodHandle BUSCAR_POR_ID = metodo("CatalogoEquipos", "buscarPorId", String.class);
+    /** (CatalogoEquipos, String)List */
+    static final MethodHandle BUSCAR_POR_NOMBRE = metodo("CatalogoEquipos", "buscarPorNombre", String.class);
+    /** (EquipoBase)String */
+    static final MethodHandle A_JSON = metodo("EquipoBase", "toJSON");
+    /** ()GeneradorRespuestaJSON */
+    static final MethodHandle NUEVO_GENERADOR_JSON = constructor("GeneradorRespuestaJSON");
+    /** (GeneradorRespuestaJSON, String, List)String */
+    static final MethodHandle GENERAR_RESPUESTA_LISTA =
+            metodo("GeneradorRespuestaJSON", "generarRespuestaLista", String.class, List.class);
+    /** (String)PaginasHtml */
+    static final MethodHandle NUEVAS_PAGINAS = constructor("PaginasHtml", String.class);
+    /** (PaginasHtml, List, String, String)byte[] */
+    static final MethodHandle LISTADO = metodo("PaginasHtml", "listado", List.class, String.class, String.class);
+    /** ()EnrutadorTrie */
+    static final MethodHandle NUEVO_ENRUTADOR = constructor("EnrutadorTrie");
+    /** (EnrutadorTrie, String, String, ManejadorRuta)EnrutadorTrie */
+    static final MethodHandle REGISTRAR_RUTA = metodo("EnrutadorTrie", "registrar",
+            String.class, String.class, clase("ManejadorRuta"));
+    /** (EnrutadorTrie)EnrutadorTrie */
+    static final MethodHandle COMPILAR_ENRUTADOR = metodo("EnrutadorTrie", "compilar");
+    /** (EnrutadorTrie, String, String)EnrutadorTrie.Coincidencia */
+    static final MethodHandle BUSCAR_RUTA = metodo("EnrutadorTrie", "buscar", String.class, String.class);
+    
+    private static final MethodHandle CREAR_PENDULO = metodo("EquipoFactory", "crearPendulo",
+            String.class, String.class, String.class, double.class, String.class,
+            double.class, int.class, double.class);
+    private static final MethodHandle CREAR_FOTOPUERTA = metodo("EquipoFactory", "crearFotopuerta",
+            String.class, String.class, String.class, double.class, String.class,
+            double.class, String.class, double.class);
+    
+    private static final String[] NOMBRES_PENDULO = {
+        "Péndulo Simple Digital", "Péndulo Físico Avanzado", "Péndulo de Torsión", "Péndulo Doble Caótico"
+    };
+    private static final String[] NOMBRES_FOTOPUERTA = {
+        "Fotopuerta Dual Infrarroja", "Fotopuerta Láser Precisión", "Fotopuerta de Banda Ancha"
+    };
+    
+    private EnlaceServidor() {
+    }
+    
+    /**
+     * Crea equipos sintéticos con IDs únicos, alternando péndulos y fotopuertas
+     * para que las llamadas a toJSON no sean monomórficas
+     * @param cantidad equipos a crear
+     * @return lista de equipos
+     */
+    static List<Object> crearEquipos(int cantidad) {
+        List<Object> equipos = new ArrayList<>(cantidad);
+        try {
+            for (int i = 0; i < cantidad; i++) {
+                if ((i & 1) == 0) {
+                    equipos.add((Object) CREAR_PENDULO.invokeExact(
+                            String.format("PEN%07d", i), NOMBRES_PENDULO[(i >> 1) % NOMBRES_PENDULO.length],
+                            "PASCO Scientific", 25.5 + i % 7,
+                            "Péndulo con encoder rotatorio de alta precisión para estudios de movimiento armónico",
+                            0.75, 3600, 1000.0));
+                } else {
+                    equipos.add((Object) CREAR_FOTOPUERTA.invokeExact(
+                            String.format("FPU%07d", i), NOMBRES_FOTOPUERTA[(i >> 1) % NOMBRES_FOTOPUERTA.length],
+                            "Vernier Software", 15.0 + i % 5,
+                            "Fotopuerta para medición precisa de velocidad y aceleración",
+                            0.1, "Infrarrojo", 0.5));
+                }
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("No se pudieron crear los equipos", e);
+        }
+        return equipos;
+    }
+    
+    /**
+     * Crea un ManejadorRuta que no hace nada y devuelve null, para registrar rutas
+     * cuyo manejador nunca se invoca
+     * @return manejador vacío
+     */
+    static Object crearManejadorVacio() {
+        Class<?> interfaz = clase("ManejadorRuta");
+        Method manejar = interfaz.getMethods()[0];
+        return MethodHandleProxies.asInterfaceInstance(interfaz, MethodHandles.empty(
+                MethodType.methodType(manejar.getReturnType(), manejar.getParameterTypes())));
+    }
+    
+    /**
+     * Crea un catálogo aislado con los equipos dados. Se llena la lista interna
+     * directamente porque agregarEquipo revisa duplicados con contains, y con un
+     * millón de equipos la preparación tardaría horas
+     * @param equipos equipos del catálogo
+     * @return catálogo
+     */
+    @SuppressWarnings("unchecked")
+    static Object crearCatalogo(List<Object> equipos) {
+        try {
+            Object catalogo = (Object) NUEVO_CATALOGO.invokeExact();
+            ((List<Object>) (List<?>) EQUIPOS_CATALOGO.invokeExact(catalogo)).addAll(equipos);
+            return catalogo;
+        } catch (Throwable e) {
+            throw new IllegalStateException("No se pudo crear el catálogo", e);
+        }
+    }
+    
+    private static Class<?> clase(String nombre) {
+        try {
+            return Class.forName(nombre);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private static MethodHandle constructor(String clase, Class<?>... parametros) {
+        try {
+            Constructor<?> constructor = Class.forName(clase).getDeclaredConstructor(parametros);
+            constructor.setAccessible(true);
+            return ocultarTipos(MethodHandles.lookup().unreflectConstructor(constructor));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private static MethodHandle campo(String clase, String nombre) {
+        try {
+            Field campo = Class.forName(clase).getDeclaredField(nombre);
+            campo.setAccessible(true);
+            return ocultarTipos(MethodHandles.lookup().unreflectGetter(campo));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private static MethodHandle metodo(String clase, String nombre, Class<?>... parametros) {
+        try {
+            Method metodo = Class.forName(clase).getMethod(nombre, parametros);
+            return ocultarTipos(MethodHandles.lookup().unreflect(metodo));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    /**
+     * Cambia a Object los tipos del paquete por defecto, que no se pueden nombrar aquí
+     */
+    private static MethodHandle ocultarTipos(MethodHandle manejador) {
+        MethodType tipo = manejador.type();
+        for (int i = 0; i < tipo.parameterCount(); i++) {
+            if (delPaqueteDefecto(tipo.parameterType(i))) {
+                tipo = tipo.changeParameterType(i, Object.class);
+            }
+        }
+        if (delPaqueteDefecto(tipo.returnType())) {
+            tipo = tipo.changeReturnType(Object.class);
+        }
+        return manejador.asType(tipo);
+    }
+    
+    private static boolean delPaqueteDefecto(Class<?> clase) {
+        return !clase.isPrimitive() && !clase.isArray() && clase.getPackageName().isEmpty();
+    }
+}
@@ -0,0 +1,145 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Pruebas de los archivos estáticos: rangos de bytes, 416, If-Range y rutas fuera
+ * del directorio, tanto desde la caché como con transferTo
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class ArchivosEstaticosTest {
+    
+    private static final Pattern ETAG = Pattern.compile("ETag: (\"[^\"]+\")");
+    
+    @TempDir
+    Path directorio;
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void rangosDeBytesDesdeLaCacheYDesdeElDisco(MotorServidor motor) throws Exception {
+        // El pequeño queda en la caché; el grande supera el máximo por archivo y va por transferTo
+        String pequeno = contenido(300);
+        String grande = contenido(200 * 1024);
+        Files.writeString(directorio.resolve("pequeno.csv"), pequeno);
+        Files.writeString(directorio.resolve("grande.csv"), grande);
+        
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor,
+                Map.of("servidor.archivos.dir", directorio.toString()));
+             Socket socket = servidor.conectar(5000)) {
+            for (String nombre : new String[] {"pequeno.csv", "grande.csv"}) {
+                String texto = nombre.startsWith("pequeno") ? pequeno : grande;
+                int longitud = texto.length();
+                String ruta = "/archivos/" + nombre;
+                
+                String completo = pedir(socket, ruta, "");
+                assertTrue(completo.startsWith("HTTP/1.1 200"), completo);
+                assertTrue(completo.contains("Accept-Ranges: bytes\r\n"), completo);
+                assertEquals(texto, ServidorDePrueba.cuerpo(completo));
+                
+                String medio = pedir(socket, ruta, "Range: bytes=100-199\r\n");
+                assertTrue(medio.startsWith("HTTP/1.1 206"), medio);
+                assertTrue(medio.contains("Content-Range: bytes 100-199/" + longitud + "\r\n"), medio);
+                assertEquals(texto.substring(100, 200), ServidorDePrueba.cuerpo(medio));
+                
+                String sufijo = pedir(socket, ruta, "Range: bytes=-10\r\n");
+                assertEquals(texto.substring(longitud - 10), ServidorDePrueba.cuerpo(sufijo));
+                
+                String abierto = pedir(socket, ruta, "Range: bytes=" + (longitud - 5) + "-\r\n");
+                assertEquals(texto.substring(longitud - 5), ServidorDePrueba.cuerpo(abierto));
+                
+                String fuera = pedir(socket, ruta, "Range: bytes=" + longitud + "-\r\n");
+                assertTrue(fuera.startsWith("HTTP/1.1 416"), fuera);
+                assertTrue(fuera.contains("Content-Range: bytes */" + longitud + "\r\n"), fuera);
+                
+                // Varios rangos o un If-Range vencido: se responde el archivo completo
+                assertTrue(pedir(socket, ruta, "Range: bytes=0-1,5-6\r\n").startsWith("HTTP/1.1 200"));
+                assertTrue(pedir(socket, ruta, "Range: bytes=0-9\r\nIf-Range: \"otro\"\r\n").startsWith("HTTP/1.1 200"));
+                
+                Matcher etag = ETAG.matcher(completo);
+                assertTrue(etag.find(), completo);
+                assertTrue(pedir(socket, ruta, "Range: bytes=0-9\r\nIf-Range: " + etag.group(1) + "\r\n")
+                               .startsWith("HTTP/1.1 206"));
+                assertTrue(pedir(socket, ruta, "If-None-Match: " + etag.group(1) + "\r\n").startsWith("HTTP/1.1 304"));
+            }
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void noSirveArchivosOcultosNiFueraDelDirectorio(MotorServidor motor) throws Exception {
+        Path publico = Files.createDirectory(directorio.resolve("publico"));
+        Files.writeString(publico.resolve(".oculto"), "secreto");
+        Files.writeString(directorio.resolve("fuera.txt"), "secreto");
+        Files.writeString(publico.resolve("index.html"), "<p>inicio</p>");
+        
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor,
+                Map.of("servidor.archivos.dir", publico.toString()))) {
+            assertTrue(servidor.solicitar("GET", "/archivos/").contains("<p>inicio</p>"));
+            assertTrue(servidor.solicitar("GET", "/archivos/.oculto").startsWith("HTTP/1.1 404"));
+            assertTrue(servidor.solicitar("GET", "/archivos/../fuera.txt").startsWith("HTTP/1.1 404"));
+            assertTrue(servidor.solicitar("GET", "/archivos/%2E%2E/fuera.txt").startsWith("HTTP/1.1 404"));
+            assertTrue(servidor.solicitar("GET", "/archivos/..%2Ffuera.txt").startsWith("HTTP/1.1 404"));
+        }
+    }
+    
+    /**
+     * Envía un GET por la conexión persistente y lee su respuesta
+     */
+    private static String pedir(Socket socket, String ruta, String encabezados) throws Exception {
+        OutputStream salida = socket.getOutputStream();
+        salida.write(("GET " + ruta + " HTTP/1.1\r\nHost: localhost\r\n" + encabezados + "\r\n")
+                     .getBytes(StandardCharsets.US_ASCII));
+        InputStream entrada = socket.getInputStream();
+        return ServidorDePrueba.leerRespuesta(entrada);
+    }
+    
+    private static String contenido(int longitud) {
+        StringBuilder texto = new StringBuilder(longitud);
+        for (int i = 0; texto.length() < longitud; i++) {
+            texto.append(i).append(',');
+        }
+        texto.setLength(longitud);
+        return texto.toString();
+    }
+}
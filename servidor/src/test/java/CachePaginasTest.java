@@ -0,0 +1,127 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la caché de páginas: validez por versión del catálogo y desalojo por bytes
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class CachePaginasTest {
+    
+    private final AtomicInteger generadas = new AtomicInteger();
+    
+    @Test
+    void mismaVersionSeSirveSinVolverAGenerar() {
+        CachePaginas cache = new CachePaginas(1 << 20, new CompresorGzip(1024));
+        
+        CachePaginas.Entrada primera = cache.obtener("/equipos", 1, pagina("v1"));
+        CachePaginas.Entrada segunda = cache.obtener("/equipos", 1, pagina("v1"));
+        
+        assertSame(primera, segunda);
+        assertEquals(1, generadas.get());
+        assertEquals(1, cache.getAciertos());
+        assertEquals(1, cache.getFallos());
+    }
+    
+    @Test
+    void otraVersionDelCatalogoVuelveAGenerarLaPagina() {
+        CachePaginas cache = new CachePaginas(1 << 20, new CompresorGzip(1024));
+        cache.obtener("/equipos", 1, pagina("v1"));
+        
+        CachePaginas.Entrada nueva = cache.obtener("/equipos", 2, pagina("v2"));
+        
+        assertEquals(2, nueva.getVersion());
+        assertArrayEquals("v2".getBytes(StandardCharsets.UTF_8), nueva.getCuerpo());
+        assertSame(nueva, cache.obtener("/equipos", 2, pagina("v2")));
+        assertEquals(2, generadas.get());
+    }
+    
+    @Test
+    void unaVersionViejaNoReemplazaAUnaMasReciente() {
+        CachePaginas cache = new CachePaginas(1 << 20, new CompresorGzip(1024));
+        CachePaginas.Entrada reciente = cache.obtener("/equipos", 5, pagina("v5"));
+        
+        // Un hilo que leyó la versión antes del cambio termina de generar después
+        cache.obtener("/equipos", 4, pagina("v4"));
+        
+        assertSame(reciente, cache.obtener("/equipos", 5, pagina("v5")));
+    }
+    
+    @Test
+    void desalojaLaMenosUsadaAlPasarDelMaximoDeBytes() {
+        CachePaginas cache = new CachePaginas(250, new CompresorGzip(1_000_000));
+        CachePaginas.Entrada a = cache.obtener("/a", 1, pagina("a".repeat(100)));
+        cache.obtener("/b", 1, pagina("b".repeat(100)));
+        cache.obtener("/a", 1, pagina("a".repeat(100)));
+        
+        cache.obtener("/c", 1, pagina("c".repeat(100)));
+        
+        assertEquals(200, cache.getBytesUsados());
+        assertSame(a, cache.obtener("/a", 1, pagina("a".repeat(100))));
+        int antes = generadas.get();
+        cache.obtener("/b", 1, pagina("b".repeat(100)));
+        assertEquals(antes + 1, generadas.get());
+    }
+    
+    @Test
+    void guardaLaVarianteGzipSoloSiLaPaginaEsComprimible() {
+        CachePaginas cache = new CachePaginas(1 << 20, new CompresorGzip(1024));
+        
+        assertNull(cache.obtener("/corta", 1, pagina("<p>corta</p>")).getGzip());
+        assertNotNull(cache.obtener("/larga", 1, pagina("<p>larga</p>".repeat(200))).getGzip());
+    }
+    
+    @Test
+    void paginaMayorQueElMaximoNoSeGuarda() {
+        CachePaginas cache = new CachePaginas(50, new CompresorGzip(1_000_000));
+        
+        cache.obtener("/grande", 1, pagina("x".repeat(100)));
+        cache.obtener("/grande", 1, pagina("x".repeat(100)));
+        
+        assertEquals(0, cache.getBytesUsados());
+        assertEquals(2, generadas.get());
+    }
+    
+    private Supplier<byte[]> pagina(String html) {
+        return () -> {
+            generadas.incrementAndGet();
+            return html.getBytes(StandardCharsets.UTF_8);
+        };
+    }
+}
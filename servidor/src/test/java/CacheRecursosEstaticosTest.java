@@ -0,0 +1,159 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Pruebas de los recursos estáticos precodificados: ruta con huella, ETag fuerte
+ * y su variante gzip, revalidación 304 y Cache-Control según la ruta
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class CacheRecursosEstaticosTest {
+    
+    private static final String CSS = "body { margin: 0; }\n".repeat(100);
+    private static final Pattern HOJA = Pattern.compile("href=\"(/styles\\.[0-9a-f]{12}\\.css)\"");
+    
+    private final RecursoEstatico recurso = new RecursoEstatico("/styles.css", "text/css; charset=UTF-8", CSS);
+    private final CacheRecursosEstaticos cache = crearCache(recurso);
+    
+    @Test
+    void laHuellaDependeDelContenido() {
+        RecursoEstatico otro = new RecursoEstatico("/styles.css", "text/css; charset=UTF-8", CSS + "p {}\n");
+        
+        assertTrue(recurso.getRutaConHuella().matches("/styles\\.[0-9a-f]{12}\\.css"), recurso.getRutaConHuella());
+        assertNotEquals(recurso.getRutaConHuella(), otro.getRutaConHuella());
+        assertNotEquals(recurso.getEtag(), otro.getEtag());
+        assertEquals(recurso.getRutaConHuella(), cache.rutaConHuella("/styles.css"));
+        assertEquals("/otro.css", cache.rutaConHuella("/otro.css"));
+    }
+    
+    @Test
+    void etagFuerteConVarianteGzipDistinta() {
+        RespuestaHttp plana = cache.servir(solicitud("/styles.css", null, null));
+        RespuestaHttp comprimida = cache.servir(solicitud("/styles.css", "gzip", null));
+        
+        assertEquals(recurso.getEtag(), plana.getEncabezado("ETag"));
+        assertFalse(recurso.getEtag().startsWith("W/"));
+        assertNull(plana.getEncabezado("Content-Encoding"));
+        assertEquals(recurso.getEtagGzip(), comprimida.getEncabezado("ETag"));
+        assertEquals("gzip", comprimida.getEncabezado("Content-Encoding"));
+        assertEquals("Accept-Encoding", comprimida.getEncabezado("Vary"));
+        assertTrue(recurso.getEtagGzip().endsWith("-gzip\""), recurso.getEtagGzip());
+    }
+    
+    @Test
+    void revalidaConCualquieraDeLosDosEtag() {
+        assertEquals(304, cache.servir(solicitud("/styles.css", null, recurso.getEtag())).getCodigo());
+        assertEquals(304, cache.servir(solicitud("/styles.css", "gzip", recurso.getEtagGzip())).getCodigo());
+        assertEquals(304, cache.servir(solicitud("/styles.css", null, "\"viejo\", " + recurso.getEtag())).getCodigo());
+        assertEquals(304, cache.servir(solicitud("/styles.css", null, "*")).getCodigo());
+        assertEquals(200, cache.servir(solicitud("/styles.css", null, "\"viejo\"")).getCodigo());
+        assertEquals(0, cache.servir(solicitud("/styles.css", null, recurso.getEtag())).getCuerpo().length);
+    }
+    
+    @Test
+    void laConsultaNoImpideEncontrarElRecurso() {
+        RespuestaHttp respuesta = cache.servir(solicitud("/styles.css?v=1", null, null));
+        RespuestaHttp conHuella = cache.servir(solicitud(recurso.getRutaConHuella() + "?v=1", null, null));
+        
+        assertEquals(200, respuesta.getCodigo());
+        assertEquals("no-cache", respuesta.getEncabezado("Cache-Control"));
+        assertEquals("public, max-age=31536000, immutable", conHuella.getEncabezado("Cache-Control"));
+        assertNull(cache.servir(solicitud("/otro.css?v=1", null, null)));
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void servidorEnlazaYSirveLaHojaConHuella(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of())) {
+            Matcher enlace = HOJA.matcher(servidor.solicitar("GET", "/"));
+            assertTrue(enlace.find());
+            String conHuella = enlace.group(1);
+            
+            String inmutable = servidor.solicitar("GET", conHuella);
+            assertTrue(inmutable.startsWith("HTTP/1.1 200"), inmutable);
+            assertTrue(inmutable.contains("Cache-Control: public, max-age=31536000, immutable\r\n"), inmutable);
+            String etag = encabezado(inmutable, "ETag");
+            assertTrue(etag.startsWith("\""), etag);
+            
+            String logica = servidor.solicitar("GET", "/styles.css");
+            assertTrue(logica.contains("Cache-Control: no-cache\r\n"), logica);
+            assertEquals(etag, encabezado(logica, "ETag"));
+            assertEquals(ServidorDePrueba.cuerpo(inmutable), ServidorDePrueba.cuerpo(logica));
+            
+            String comprimida = servidor.solicitar("GET", "/styles.css", "Accept-Encoding: gzip\r\n");
+            String etagGzip = encabezado(comprimida, "ETag");
+            assertEquals(etag.substring(0, etag.length() - 1) + "-gzip\"", etagGzip);
+            
+            String noModificada = servidor.solicitar("GET", "/styles.css", "If-None-Match: " + etag + "\r\n");
+            assertTrue(noModificada.startsWith("HTTP/1.1 304"), noModificada);
+            assertEquals("", ServidorDePrueba.cuerpo(noModificada));
+            assertTrue(servidor.solicitar("GET", conHuella, "Accept-Encoding: gzip\r\nIf-None-Match: " + etagGzip + "\r\n")
+                               .startsWith("HTTP/1.1 304"));
+            
+            String conConsulta = servidor.solicitar("GET", "/styles.css?v=1");
+            assertTrue(conConsulta.startsWith("HTTP/1.1 200"), conConsulta);
+            assertEquals(ServidorDePrueba.cuerpo(logica), ServidorDePrueba.cuerpo(conConsulta));
+        }
+    }
+    
+    private static CacheRecursosEstaticos crearCache(RecursoEstatico recurso) {
+        CacheRecursosEstaticos cache = new CacheRecursosEstaticos(new CompresorGzip(1024));
+        cache.registrar(recurso);
+        return cache;
+    }
+    
+    private static SolicitudHttp solicitud(String ruta, String aceptadas, String etag) {
+        SolicitudHttp solicitud = new SolicitudHttp("GET " + ruta + " HTTP/1.1");
+        if (aceptadas != null) {
+            solicitud.agregarEncabezado("Accept-Encoding", aceptadas);
+        }
+        if (etag != null) {
+            solicitud.agregarEncabezado("If-None-Match", etag);
+        }
+        return solicitud;
+    }
+    
+    private static String encabezado(String respuesta, String nombre) {
+        Matcher valor = Pattern.compile(nombre + ": ([^\r]*)\r\n").matcher(respuesta);
+        assertTrue(valor.find(), respuesta);
+        return valor.group(1);
+    }
+}
@@ -0,0 +1,151 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Pruebas de la negociación gzip y de la compresión de respuestas
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class CompresorGzipTest {
+    
+    private static final String TEXTO = "<p>equipo</p>".repeat(200);
+    
+    private final CompresorGzip compresor = new CompresorGzip(1024);
+    
+    @Test
+    void negociaSegunAcceptEncodingYRespetaQCero() {
+        assertTrue(compresor.aceptaGzip(solicitud("gzip, deflate")));
+        assertTrue(compresor.aceptaGzip(solicitud("x-gzip")));
+        assertTrue(compresor.aceptaGzip(solicitud("br;q=1.0, *;q=0.5")));
+        assertFalse(compresor.aceptaGzip(solicitud("gzip;q=0")));
+        assertFalse(compresor.aceptaGzip(solicitud("gzip;q=0, *")));
+        assertFalse(compresor.aceptaGzip(solicitud("identity")));
+        assertFalse(compresor.aceptaGzip(solicitud(null)));
+    }
+    
+    @Test
+    void soloComprimeTextoQueSuperaElUmbral() {
+        RespuestaHttp pequena = html("<p>corto</p>");
+        RespuestaHttp sinGzip = new RespuestaHttp(200).agregarEncabezado(RespuestaHttp.TIPO_HTML).conCuerpo(TEXTO);
+        
+        assertNull(compresor.comprimir(solicitud("gzip"), pequena).getEncabezado("Content-Encoding"));
+        assertNull(compresor.comprimir(solicitud("identity"), sinGzip).getEncabezado("Content-Encoding"));
+        assertEquals("Accept-Encoding", sinGzip.getEncabezado("Vary"));
+    }
+    
+    @Test
+    void servidorEntregaLaMismaPaginaComprimida() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.CLASICO, Map.of())) {
+            String plana = ServidorDePrueba.cuerpo(servidor.solicitar("GET", "/"));
+            byte[] respuesta = pedirCrudo(servidor, "/", "gzip");
+            String cabecera = new String(respuesta, 0, finCabecera(respuesta), StandardCharsets.US_ASCII);
+            byte[] cuerpo = Arrays.copyOfRange(respuesta, finCabecera(respuesta) + 4, respuesta.length);
+            
+            assertTrue(cabecera.contains("Content-Encoding: gzip"), cabecera);
+            assertTrue(cabecera.contains("Vary: Accept-Encoding"), cabecera);
+            assertEquals(plana, new String(descomprimir(cuerpo), StandardCharsets.UTF_8));
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void servidorComprimeLasRespuestasEnrutadasSoloSiSeNegocia(MotorServidor motor) throws Exception {
+        // La búsqueda no pasa por la caché de páginas: la comprime CompresorGzip.comprimir
+        String ruta = "/buscar/nombre/e";
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of("servidor.limite.busqueda.tasa", "0"))) {
+            String plana = servidor.solicitar("GET", ruta);
+            assertTrue(plana.startsWith("HTTP/1.1 200"), plana);
+            assertTrue(ServidorDePrueba.cuerpo(plana).getBytes(StandardCharsets.UTF_8).length >= 1024, plana);
+            
+            byte[] respuesta = pedirCrudo(servidor, ruta, "gzip");
+            String cabecera = new String(respuesta, 0, finCabecera(respuesta), StandardCharsets.US_ASCII);
+            byte[] cuerpo = Arrays.copyOfRange(respuesta, finCabecera(respuesta) + 4, respuesta.length);
+            assertTrue(cabecera.startsWith("HTTP/1.1 200"), cabecera);
+            assertTrue(cabecera.contains("Content-Encoding: gzip\r\n"), cabecera);
+            assertTrue(cabecera.contains("Vary: Accept-Encoding\r\n"), cabecera);
+            assertEquals(ServidorDePrueba.cuerpo(plana), new String(descomprimir(cuerpo), StandardCharsets.UTF_8));
+            
+            String rechazada = servidor.solicitar("GET", ruta, "Accept-Encoding: gzip;q=0\r\n");
+            assertFalse(rechazada.contains("Content-Encoding"), rechazada);
+            assertTrue(rechazada.contains("Vary: Accept-Encoding\r\n"), rechazada);
+            assertEquals(ServidorDePrueba.cuerpo(plana), ServidorDePrueba.cuerpo(rechazada));
+        }
+    }
+    
+    private static byte[] pedirCrudo(ServidorDePrueba servidor, String ruta, String aceptadas) throws Exception {
+        try (Socket socket = servidor.conectar(5000)) {
+            OutputStream salida = socket.getOutputStream();
+            salida.write(("GET " + ruta + " HTTP/1.1\r\nHost: localhost\r\nAccept-Encoding: " + aceptadas
+                          + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            return socket.getInputStream().readAllBytes();
+        }
+    }
+    
+    private static SolicitudHttp solicitud(String aceptadas) {
+        SolicitudHttp solicitud = new SolicitudHttp("GET / HTTP/1.1");
+        if (aceptadas != null) {
+            solicitud.agregarEncabezado("Accept-Encoding", aceptadas);
+        }
+        return solicitud;
+    }
+    
+    private static RespuestaHttp html(String texto) {
+        return new RespuestaHttp(200).agregarEncabezado(RespuestaHttp.TIPO_HTML).conCuerpo(texto);
+    }
+    
+    private static byte[] descomprimir(byte[] datos) throws Exception {
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(datos))) {
+            return entrada.readAllBytes();
+        }
+    }
+    
+    private static int finCabecera(byte[] respuesta) {
+        for (int i = 0; i + 3 < respuesta.length; i++) {
+            if (respuesta[i] == '\r' && respuesta[i + 1] == '\n' && respuesta[i + 2] == '\r' && respuesta[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return respuesta.length;
+    }
+}
@@ -0,0 +1,173 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Pruebas de las conexiones persistentes: solicitudes encadenadas (pipelining)
+ * sobre una sola conexión y el rechazo de un enmarcado ambiguo del cuerpo, con el
+ * que se podría colar una solicitud dentro del cuerpo de otra, y el plazo del cuerpo
+ * para un cliente que lo envía gota a gota
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class ConexionPersistenteTest {
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void solicitudesEncadenadasSeRespondenEnOrden(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of());
+             Socket socket = servidor.conectar(5000)) {
+            enviar(socket, "GET /buscar/id/PEN001 HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                           + "GET /no-existe HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                           + "GET /styles.css HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n");
+            InputStream entrada = socket.getInputStream();
+            
+            String primera = ServidorDePrueba.leerRespuesta(entrada);
+            String segunda = ServidorDePrueba.leerRespuesta(entrada);
+            String tercera = ServidorDePrueba.leerRespuesta(entrada);
+            
+            assertTrue(primera.startsWith("HTTP/1.1 200"), primera);
+            assertTrue(primera.contains("Connection: keep-alive"), primera);
+            assertTrue(segunda.startsWith("HTTP/1.1 404"), segunda);
+            assertTrue(tercera.startsWith("HTTP/1.1 200"), tercera);
+            assertTrue(tercera.contains("Connection: close"), tercera);
+            assertNull(ServidorDePrueba.leerRespuesta(entrada));
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void cuerpoDescartadoNoDesincronizaLaSiguienteSolicitud(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of());
+             Socket socket = servidor.conectar(5000)) {
+            // El cuerpo se parece a una solicitud: si no se descartara, se respondería como tal
+            enviar(socket, "GET /styles.css HTTP/1.1\r\nHost: localhost\r\nContent-Length: 23\r\n"
+                           + "Content-Length: 23\r\n\r\nGET /no-existe HTTP/1.1"
+                           + "GET /styles.css HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n");
+            InputStream entrada = socket.getInputStream();
+            
+            String primera = ServidorDePrueba.leerRespuesta(entrada);
+            String segunda = ServidorDePrueba.leerRespuesta(entrada);
+            
+            assertTrue(primera.startsWith("HTTP/1.1 200"), primera);
+            assertTrue(segunda.startsWith("HTTP/1.1 200"), segunda);
+            assertNull(ServidorDePrueba.leerRespuesta(entrada));
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void contentLengthRepetidoConValoresDistintosRecibe400(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of());
+             Socket socket = servidor.conectar(5000)) {
+            // Con el último valor, los 5 bytes del cuerpo serían el inicio de otra solicitud
+            enviar(socket, "GET /styles.css HTTP/1.1\r\nHost: localhost\r\nContent-Length: 5\r\n"
+                           + "Content-Length: 0\r\n\r\n"
+                           + "GET /styles.css HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            
+            String respuesta = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            
+            assertTrue(respuesta.startsWith("HTTP/1.1 400"), respuesta);
+            assertEquals(respuesta.indexOf("HTTP/1.1 "), respuesta.lastIndexOf("HTTP/1.1 "),
+                         "Se respondió a la solicitud colada en el cuerpo: " + respuesta);
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void listaDeContentLengthConValoresDistintosRecibe400(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of());
+             Socket socket = servidor.conectar(5000)) {
+            enviar(socket, "GET /styles.css HTTP/1.1\r\nHost: localhost\r\nContent-Length: 0, 5\r\n\r\nhola!");
+            
+            String respuesta = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            
+            assertTrue(respuesta.startsWith("HTTP/1.1 400"), respuesta);
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void cuerpoQueLlegaGotaAGotaRecibe408AlVencerSuPlazo(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of("servidor.cuerpo.timeout", "500"));
+             Socket socket = servidor.conectar(5000)) {
+            enviar(socket, "POST /mediciones/FPU001 HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/csv\r\n"
+                           + "Content-Length: 1000\r\n\r\nvalor\n");
+            // Cada byte llega antes de la inactividad permitida, pero el cuerpo completo tardaría 100 s
+            Thread goteo = gotear(socket, "1\n".repeat(497).getBytes(StandardCharsets.US_ASCII), 100);
+            
+            long inicio = System.nanoTime();
+            String respuesta = ServidorDePrueba.leerRespuesta(socket.getInputStream());
+            long transcurridoMs = (System.nanoTime() - inicio) / 1_000_000;
+            goteo.interrupt();
+            
+            assertTrue(respuesta.startsWith("HTTP/1.1 408"), respuesta);
+            assertTrue(transcurridoMs < 4000, "El 408 tardó " + transcurridoMs + " ms");
+        }
+    }
+    
+    /**
+     * Envía los bytes de a uno con una pausa entre cada uno, en un hilo aparte,
+     * hasta terminarlos o hasta que el servidor cierre la conexión
+     */
+    static Thread gotear(Socket socket, byte[] datos, long pausaMs) {
+        Thread hilo = new Thread(() -> {
+            try {
+                OutputStream salida = socket.getOutputStream();
+                for (byte b : datos) {
+                    Thread.sleep(pausaMs);
+                    salida.write(b);
+                    salida.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // El servidor cerró la conexión o la prueba terminó
+            }
+        }, "goteo-prueba");
+        hilo.setDaemon(true);
+        hilo.start();
+        return hilo;
+    }
+    
+    private static void enviar(Socket socket, String texto) throws Exception {
+        OutputStream salida = socket.getOutputStream();
+        salida.write(texto.getBytes(StandardCharsets.US_ASCII));
+        salida.flush();
+    }
+}
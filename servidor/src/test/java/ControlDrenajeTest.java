@@ -0,0 +1,181 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Pruebas del drenaje al detener el servidor: solicitudes en curso que terminan
+ * dentro del plazo o se abortan al vencer, conexiones en cola y cierre silencioso
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class ControlDrenajeTest {
+    
+    /** Hilos del pool de cada aceptador del motor clásico */
+    private static final int HILOS_POOL = 10;
+    private static final String CUERPO = "valor\n1.5\n2.5\n4\n";
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void solicitudEnCursoTerminaDentroDelPlazo(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of());
+             Socket socket = servidor.conectar(5000)) {
+            OutputStream salida = iniciarPostLento(socket);
+            
+            CompletableFuture<ControlDrenaje.Resumen> detencion =
+                CompletableFuture.supplyAsync(() -> servidor.getServidor().detener(5000));
+            Thread.sleep(300);
+            assertFalse(detencion.isDone(), "El drenaje no esperó a la solicitud en curso");
+            
+            salida.write(CUERPO.substring(4).getBytes(StandardCharsets.US_ASCII));
+            String respuesta = ServidorDePrueba.leerRespuesta(socket.getInputStream());
+            assertTrue(respuesta.startsWith("HTTP/1.1 200"), respuesta);
+            assertTrue(respuesta.contains("Connection: close\r\n"), respuesta);
+            
+            ControlDrenaje.Resumen resumen = detencion.get(5, TimeUnit.SECONDS);
+            assertEquals(1, resumen.getDrenadas(), resumen.toString());
+            assertEquals(0, resumen.getAbortadas(), resumen.toString());
+            assertTrue(resumen.getDuracionMs() < 5000, resumen.toString());
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void solicitudQueNoTerminaSeAbortaAlVencerElPlazo(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of());
+             Socket socket = servidor.conectar(5000)) {
+            iniciarPostLento(socket);
+            
+            long inicio = System.nanoTime();
+            ControlDrenaje.Resumen resumen = servidor.getServidor().detener(400);
+            long transcurridoMs = (System.nanoTime() - inicio) / 1_000_000;
+            
+            assertEquals(0, resumen.getDrenadas(), resumen.toString());
+            assertEquals(1, resumen.getAbortadas(), resumen.toString());
+            assertTrue(transcurridoMs >= 400, "El drenaje terminó antes del plazo: " + transcurridoMs + " ms");
+            // Al vencer el plazo se cierra la conexión sin respuesta
+            assertTrue(cerradaSinRespuesta(socket.getInputStream()));
+        }
+    }
+    
+    /**
+     * Envía los encabezados de un POST y solo el comienzo de su cuerpo, de modo que
+     * la solicitud quede en curso esperando el resto
+     */
+    private static OutputStream iniciarPostLento(Socket socket) throws Exception {
+        OutputStream salida = socket.getOutputStream();
+        salida.write(("POST /mediciones/FPU001 HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/csv\r\n"
+                      + "Content-Length: " + CUERPO.length() + "\r\n\r\n" + CUERPO.substring(0, 4))
+                     .getBytes(StandardCharsets.US_ASCII));
+        salida.flush();
+        Thread.sleep(200);
+        return salida;
+    }
+    
+    private static boolean cerradaSinRespuesta(InputStream entrada) {
+        try {
+            return entrada.read() < 0;
+        } catch (IOException e) {
+            return true; // Reinicio de la conexión
+        }
+    }
+    
+    @Test
+    void conexionEnColaRecibe503AlDetener() throws Exception {
+        List<Socket> ocupadas = new ArrayList<>();
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.CLASICO,
+                                                              Map.of("servidor.keepalive.timeout", "30000"))) {
+            // Conexiones inactivas que ocupan todos los hilos del pool esperando su solicitud
+            for (int i = 0; i < HILOS_POOL; i++) {
+                ocupadas.add(servidor.conectar(5000));
+            }
+            try (Socket enCola = servidor.conectar(5000)) {
+                enCola.getOutputStream().write("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                                               .getBytes(StandardCharsets.US_ASCII));
+                Thread.sleep(300);
+                
+                ControlDrenaje.Resumen resumen = servidor.getServidor().detener(1000);
+                
+                InputStream entrada = enCola.getInputStream();
+                String respuesta = new String(entrada.readAllBytes(), StandardCharsets.US_ASCII);
+                assertTrue(respuesta.startsWith("HTTP/1.1 503"), "Se esperaba 503 y llegó: " + respuesta);
+                assertEquals(1, resumen.getEnColaRechazadas());
+            }
+        } finally {
+            for (Socket socket : ocupadas) {
+                socket.close();
+            }
+        }
+    }
+    
+    @Test
+    void cerrarConexionesInactivasAlDetenerNoEsUnError() throws Exception {
+        List<Socket> inactivas = new ArrayList<>();
+        ByteArrayOutputStream errores = new ByteArrayOutputStream();
+        PrintStream salidaErrores = System.err;
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.CLASICO,
+                                                              Map.of("servidor.keepalive.timeout", "30000"))) {
+            for (int i = 0; i < 3; i++) {
+                Socket socket = servidor.conectar(5000);
+                socket.getOutputStream().write("GET /styles.css HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                                               .getBytes(StandardCharsets.US_ASCII));
+                assertTrue(ServidorDePrueba.leerRespuesta(socket.getInputStream()).startsWith("HTTP/1.1 200"));
+                inactivas.add(socket);
+            }
+            
+            System.setErr(new PrintStream(errores, true, StandardCharsets.UTF_8));
+            servidor.getServidor().detener(1000);
+            Thread.sleep(200);
+        } finally {
+            System.setErr(salidaErrores);
+            for (Socket socket : inactivas) {
+                socket.close();
+            }
+        }
+        
+        assertFalse(errores.toString(StandardCharsets.UTF_8).contains("Error al"), errores.toString(StandardCharsets.UTF_8));
+    }
+}
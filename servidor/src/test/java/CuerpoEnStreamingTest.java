@@ -0,0 +1,110 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Pruebas del listado enviado con Transfer-Encoding: chunked en los motores clásico y NIO
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class CuerpoEnStreamingTest {
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void listadoEnFragmentosEsIgualAlListadoCompleto(MotorServidor motor) throws Exception {
+        String completo;
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of("servidor.streaming.umbral", "100000"))) {
+            String respuesta = servidor.solicitar("GET", "/equipos");
+            assertTrue(respuesta.contains("Content-Length: "), respuesta);
+            completo = ServidorDePrueba.cuerpo(respuesta);
+        }
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of("servidor.streaming.umbral", "1"));
+             Socket socket = servidor.conectar(5000)) {
+            socket.getOutputStream().write("GET /equipos HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                                           .getBytes(StandardCharsets.US_ASCII));
+            InputStream entrada = socket.getInputStream();
+            
+            String cabecera = leerCabecera(entrada);
+            assertTrue(cabecera.contains("Transfer-Encoding: chunked"), cabecera);
+            assertFalse(cabecera.contains("Content-Length"), cabecera);
+            
+            // El esqueleto sale en su propio fragmento, antes que las tarjetas
+            ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+            int fragmentos = 0;
+            int tamano;
+            while ((tamano = Integer.parseInt(ServidorDePrueba.leerLinea(entrada).trim(), 16)) > 0) {
+                cuerpo.write(entrada.readNBytes(tamano));
+                assertEquals("", ServidorDePrueba.leerLinea(entrada));
+                fragmentos++;
+            }
+            assertEquals("", ServidorDePrueba.leerLinea(entrada));
+            assertTrue(fragmentos >= 2, "Fragmentos: " + fragmentos);
+            assertEquals(completo, cuerpo.toString(StandardCharsets.UTF_8));
+            
+            // La conexión sigue abierta para la siguiente solicitud
+            socket.getOutputStream().write("GET /styles.css HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                                           .getBytes(StandardCharsets.US_ASCII));
+            assertTrue(ServidorDePrueba.leerRespuesta(entrada).startsWith("HTTP/1.1 200"));
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void clienteHttp10RecibeElListadoSinFragmentar(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of("servidor.streaming.umbral", "1"));
+             Socket socket = servidor.conectar(5000)) {
+            socket.getOutputStream().write("GET /equipos HTTP/1.0\r\nHost: localhost\r\n\r\n"
+                                           .getBytes(StandardCharsets.US_ASCII));
+            String respuesta = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            
+            assertTrue(respuesta.startsWith("HTTP/1.1 200"), respuesta);
+            assertFalse(respuesta.contains("Transfer-Encoding"), respuesta);
+            assertTrue(respuesta.contains("Content-Length: "), respuesta);
+        }
+    }
+    
+    private static String leerCabecera(InputStream entrada) throws Exception {
+        StringBuilder cabecera = new StringBuilder();
+        String linea;
+        while (!(linea = ServidorDePrueba.leerLinea(entrada)).isEmpty()) {
+            cabecera.append(linea).append("\r\n");
+        }
+        return cabecera.toString();
+    }
+}
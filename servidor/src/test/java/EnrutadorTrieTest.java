@@ -0,0 +1,128 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del enrutador: prioridad de literales, parámetros tipados y 405
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class EnrutadorTrieTest {
+    
+    private static final ManejadorRuta DETALLES = (solicitud, p) -> new RespuestaHttp(200);
+    private static final ManejadorRuta TODOS = (solicitud, p) -> new RespuestaHttp(200);
+    private static final ManejadorRuta MEDICION = (solicitud, p) -> new RespuestaHttp(200);
+    private static final ManejadorRuta CREAR = (solicitud, p) -> new RespuestaHttp(201);
+    
+    private final EnrutadorTrie enrutador = new EnrutadorTrie()
+        .registrar("GET", "/equipos/{id}", DETALLES)
+        .registrar("GET", "/equipos/todos", TODOS)
+        .registrar("GET", "/equipos/{id}/mediciones/{n:int}", MEDICION)
+        .registrar("GET", "/equipos/todos/resumen", TODOS)
+        .registrar("POST", "/equipos/{id}", CREAR)
+        .compilar();
+    
+    @Test
+    void elSegmentoLiteralTienePrioridadSobreElParametro() {
+        EnrutadorTrie.Coincidencia literal = enrutador.buscar("GET", "/equipos/todos");
+        EnrutadorTrie.Coincidencia parametro = enrutador.buscar("GET", "/equipos/PEN001");
+        
+        assertSame(TODOS, literal.getManejador());
+        assertEquals("/equipos/todos", literal.getPatron());
+        assertSame(DETALLES, parametro.getManejador());
+        assertEquals("PEN001", parametro.getParametros().getTexto("id"));
+    }
+    
+    @Test
+    void siElLiteralNoLlevaANingunaRutaSePruebaElParametro() {
+        EnrutadorTrie.Coincidencia coincidencia = enrutador.buscar("GET", "/equipos/todos/mediciones/42");
+        
+        assertSame(MEDICION, coincidencia.getManejador());
+        assertEquals("todos", coincidencia.getParametros().getTexto("id"));
+        assertEquals(42, coincidencia.getParametros().getEntero("n"));
+    }
+    
+    @Test
+    void parametroEnteroSoloAceptaDigitos() {
+        assertNull(enrutador.buscar("GET", "/equipos/PEN001/mediciones/abc"));
+        assertNull(enrutador.buscar("GET", "/equipos/PEN001/mediciones/" + "9".repeat(19)));
+        assertNull(enrutador.buscar("GET", "/equipos/"));
+        assertNull(enrutador.buscar("GET", "/inexistente"));
+    }
+    
+    @Test
+    void decodificaParametrosYLeeLaConsulta() {
+        ParametrosRuta parametros = enrutador.buscar("GET", "/equipos/P%C3%A9ndulo%201?limite=5&cursor=abc")
+                                             .getParametros();
+        
+        assertEquals("Péndulo 1", parametros.getTexto("id"));
+        assertEquals(Map.of("limite", "5", "cursor", "abc"), parametros.getConsultas());
+    }
+    
+    @Test
+    void metodoNoRegistradoDaCoincidenciaSinManejadorConAllow() {
+        EnrutadorTrie.Coincidencia coincidencia = enrutador.buscar("DELETE", "/equipos/PEN001");
+        
+        assertNotNull(coincidencia);
+        assertNull(coincidencia.getManejador());
+        assertEquals("GET, POST", coincidencia.getPermitidos().getValor());
+    }
+    
+    @Test
+    void rechazaPatronesInvalidosODuplicados() {
+        EnrutadorTrie nuevo = new EnrutadorTrie().registrar("GET", "/a/{id}", DETALLES);
+        
+        assertThrows(IllegalArgumentException.class, () -> nuevo.registrar("GET", "/a/{id}", TODOS));
+        assertThrows(IllegalArgumentException.class, () -> nuevo.registrar("GET", "/a/{otro}/x", TODOS));
+        assertThrows(IllegalArgumentException.class, () -> nuevo.registrar("GET", "/b/{n:float}", TODOS));
+        assertThrows(IllegalArgumentException.class, () -> nuevo.registrar("GET", "sin-barra", TODOS));
+        assertThrows(IllegalStateException.class, () -> nuevo.buscar("GET", "/a/1"));
+        nuevo.compilar();
+        assertThrows(IllegalStateException.class, () -> nuevo.registrar("GET", "/c", TODOS));
+    }
+    
+    @Test
+    void servidorRespondeMetodoNoPermitidoCon405YAllow() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.CLASICO, Map.of())) {
+            String respuesta = servidor.solicitar("DELETE", "/equipos");
+            
+            assertTrue(respuesta.startsWith("HTTP/1.1 405"), respuesta);
+            assertTrue(respuesta.contains("Allow: GET\r\n"), respuesta);
+            assertTrue(servidor.solicitar("GET", "/buscar/id").startsWith("HTTP/1.1 404"));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del escape de textos dentro de las respuestas JSON
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class GeneradorRespuestaJSONTest {
+    
+    private final GeneradorRespuestaJSON generador = new GeneradorRespuestaJSON();
+    
+    @Test
+    void escapaBarraInvertidaYComillas() {
+        assertEquals("{\"success\":false,\"message\":\"a\\\\ \\\"b\\\"\",\"data\":null}",
+                     generador.generarRespuestaError("a\\ \"b\""));
+    }
+    
+    @Test
+    void escapaCaracteresDeControl() {
+        assertEquals("{\"success\":false,\"message\":\"x\\u0001\\b\\f\\n\\r\\t\\u001fy\",\"data\":null}",
+                     generador.generarRespuestaError("x\u0001\b\f\n\r\t\u001Fy"));
+    }
+    
+    @Test
+    void escapaSeparadoresDeLineaDeJavaScript() {
+        assertEquals("{\"success\":false,\"message\":\"\\u2028\\u2029\",\"data\":null}",
+                     generador.generarRespuestaError("\u2028\u2029"));
+    }
+    
+    @Test
+    void dejaIntactoElTextoSinCaracteresEspeciales() {
+        assertEquals("{\"success\":true,\"message\":\"Péndulo 2 (1 elemento(s))\",\"data\":[\"ok\"]}",
+                     generador.generarRespuestaLista("Péndulo 2", List.of("ok")));
+    }
+}
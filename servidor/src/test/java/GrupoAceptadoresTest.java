@@ -0,0 +1,98 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Pruebas del reparto de conexiones entre varios aceptadores con SO_REUSEPORT,
+ * contado por aceptador en /metrics
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class GrupoAceptadoresTest {
+    
+    private static final Pattern ACEPTADAS =
+        Pattern.compile("servidor_conexiones_aceptadas_total\\{aceptador=\"(\\d+)\"\\} (\\d+)");
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void variosAceptadoresSeRepartenLasConexiones(MotorServidor motor) throws Exception {
+        int conexiones = 64;
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of("servidor.aceptadores", "4"))) {
+            for (int i = 0; i < conexiones; i++) {
+                assertTrue(servidor.solicitar("GET", "/").startsWith("HTTP/1.1 200"));
+            }
+            
+            String metricas = servidor.solicitar("GET", "/metrics");
+            Matcher contador = ACEPTADAS.matcher(metricas);
+            int aceptadores = 0;
+            int conAlguna = 0;
+            long total = 0;
+            while (contador.find()) {
+                long aceptadas = Long.parseLong(contador.group(2));
+                aceptadores++;
+                total += aceptadas;
+                if (aceptadas > 0) {
+                    conAlguna++;
+                }
+            }
+            assertEquals(4, aceptadores, metricas);
+            assertTrue(total >= conexiones, metricas);
+            // El núcleo reparte por la tupla de origen: 64 puertos de origen distintos
+            // caen en un solo socket con probabilidad 4 / 4^64
+            assertTrue(conAlguna > 1, metricas);
+        }
+    }
+    
+    @Test
+    void unSoloAceptadorLoCuentaTodo() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.NIO, Map.of("servidor.aceptadores", "1"))) {
+            servidor.solicitar("GET", "/");
+            Matcher contador = ACEPTADAS.matcher(servidor.solicitar("GET", "/metrics"));
+            assertTrue(contador.find());
+            assertEquals("0", contador.group(1));
+            assertTrue(Long.parseLong(contador.group(2)) >= 2);
+            assertFalse(contador.find());
+        }
+    }
+    
+    @Test
+    void rechazaCeroAceptadores() {
+        assertThrows(IllegalArgumentException.class, () -> new GrupoAceptadores(8080, 0));
+    }
+}
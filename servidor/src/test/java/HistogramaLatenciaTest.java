@@ -0,0 +1,152 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de las cubetas del histograma de latencias y de su exportación en /metrics
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class HistogramaLatenciaTest {
+    
+    @Test
+    void cadaValorCaeEnLaCubetaQueLoIncluyeConErrorMenorAUnOctavo() {
+        for (long micros = 1; micros < 1_000_000; micros += 1 + micros / 64) {
+            int indice = HistogramaLatencia.indice(micros);
+            long superior = HistogramaLatencia.limiteSuperior(indice);
+            
+            assertTrue(superior >= micros, micros + " excede su cubeta " + superior);
+            assertTrue(indice == 0 || HistogramaLatencia.limiteSuperior(indice - 1) < micros,
+                       micros + " cabía en la cubeta anterior");
+            assertTrue(superior - micros <= micros / 8, micros + " con límite " + superior);
+        }
+    }
+    
+    @Test
+    void lasPotenciasDeDosSonLimitesExactos() {
+        for (int k = 4; k <= 30; k++) {
+            HistogramaLatencia histograma = new HistogramaLatencia(1);
+            histograma.registrar(1L << k);
+            histograma.registrar((1L << k) + 1);
+            
+            HistogramaLatencia.Foto foto = histograma.fotografiar();
+            assertEquals(1, foto.acumuladoHastaPotencia(k), "2^" + k);
+            assertEquals(2, foto.acumuladoHastaPotencia(k + 1), "2^" + (k + 1));
+        }
+    }
+    
+    @Test
+    void valoresFueraDeRangoVanALosExtremos() {
+        HistogramaLatencia histograma = new HistogramaLatencia(1);
+        histograma.registrar(0);
+        histograma.registrar(-5);
+        histograma.registrar(Long.MAX_VALUE);
+        
+        HistogramaLatencia.Foto foto = histograma.fotografiar();
+        assertEquals(3, foto.getTotal());
+        assertEquals(1, foto.cuantil(0.5));
+        assertEquals(HistogramaLatencia.limiteSuperior(HistogramaLatencia.CUBETAS - 1), foto.cuantil(1));
+    }
+    
+    @Test
+    void cuantilesDeUnaDistribucionUniforme() {
+        HistogramaLatencia histograma = new HistogramaLatencia(1);
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histograma.registrar(micros);
+        }
+        HistogramaLatencia.Foto foto = histograma.fotografiar();
+        
+        assertEquals(10_000, foto.getTotal());
+        assertEquals(10_000L * 10_001 / 2, foto.getSumaMicros());
+        assertEnRango(5_000, foto.cuantil(0.5));
+        assertEnRango(9_900, foto.cuantil(0.99));
+        assertEquals(0, new HistogramaLatencia(1).fotografiar().cuantil(0.5));
+    }
+    
+    @Test
+    void variosHilosSumanEnSusFranjasSinPerderRegistros() throws Exception {
+        HistogramaLatencia histograma = new HistogramaLatencia(4);
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < 8; h++) {
+            Thread hilo = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histograma.registrar(100);
+                }
+            });
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        
+        HistogramaLatencia.Foto foto = histograma.fotografiar();
+        assertEquals(80_000, foto.getTotal());
+        assertEquals(8_000_000, foto.getSumaMicros());
+        assertThrows(IllegalArgumentException.class, () -> new HistogramaLatencia(3));
+    }
+    
+    @Test
+    void metricasExportanCubetasAcumuladasPorRuta() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.CLASICO, Map.of())) {
+            servidor.solicitar("GET", "/detalles/PEN001");
+            servidor.solicitar("GET", "/detalles/NOEXISTE");
+            
+            String metricas = ServidorDePrueba.cuerpo(servidor.solicitar("GET", "/metrics"));
+            
+            Matcher cubeta = Pattern.compile("servidor_latencia_segundos_bucket\\{ruta=\"/detalles/\\{id\\}\",le=\"([^\"]+)\"\\} (\\d+)")
+                                    .matcher(metricas);
+            long anterior = 0;
+            int cubetas = 0;
+            while (cubeta.find()) {
+                long acumulado = Long.parseLong(cubeta.group(2));
+                assertTrue(acumulado >= anterior, "Cubetas no acumuladas: " + cubeta.group());
+                anterior = acumulado;
+                cubetas++;
+            }
+            assertEquals(20, cubetas, metricas);
+            assertEquals(2, anterior);
+            assertTrue(metricas.contains("servidor_latencia_segundos_count{ruta=\"/detalles/{id}\"} 2\n"), metricas);
+        }
+    }
+    
+    private static void assertEnRango(long esperado, long estimado) {
+        assertTrue(estimado >= esperado && estimado <= esperado + esperado / 8,
+                   "Se esperaba " + esperado + " (+1/8) y se estimó " + estimado);
+    }
+}
@@ -0,0 +1,166 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la ingesta de mediciones en NDJSON y CSV, entera y en trozos
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class IngestaMedicionesTest {
+    
+    private static final String NDJSON =
+        "{\"marca\":1700000000000,\"valor\":9.81}\n"
+        + "{\"valor\":-1.5e2,\"unidad\":\"m/s2\"}\n"
+        + "no es json\n"
+        + "{\"sensor\":{\"canal\":2},\"valor\":3,\"marca\":1700000000002}";
+    
+    private static final String CSV = "marca,valor\r\n1700000000000,1.25\r\n1700000000001,abc\r\n2.5\r\n";
+    
+    @Test
+    void ndjsonAceptaLineasValidasYCuentaLasInvalidas() {
+        AlmacenMediciones almacen = new AlmacenMediciones(16);
+        IngestaMediciones ingesta = ingerir(almacen, IngestaMediciones.Formato.NDJSON, NDJSON, Integer.MAX_VALUE);
+        
+        assertEquals(3, ingesta.getAceptadas());
+        assertEquals(1, ingesta.getRechazadas());
+        assertTrue(ingesta.resumenJSON().contains("\"lineas\":4,\"aceptadas\":3,\"rechazadas\":1,\"primeraRechazada\":3"),
+                   ingesta.resumenJSON());
+        String resumen = almacen.resumenJSON("PEN001");
+        assertTrue(resumen.contains("\"total\":3,\"retenidas\":3,\"ultimaMarca\":1700000000002,\"ultimoValor\":3.0,"
+                                    + "\"minimo\":-150.0,\"maximo\":9.81"), resumen);
+    }
+    
+    @Test
+    void csvSaltaElEncabezadoYAdmiteSoloValor() {
+        AlmacenMediciones almacen = new AlmacenMediciones(16);
+        IngestaMediciones ingesta = ingerir(almacen, IngestaMediciones.Formato.CSV, CSV, Integer.MAX_VALUE);
+        
+        assertEquals(2, ingesta.getAceptadas());
+        assertEquals(1, ingesta.getRechazadas());
+        assertTrue(almacen.resumenJSON("PEN001").contains("\"ultimoValor\":2.5"), almacen.resumenJSON("PEN001"));
+    }
+    
+    @Test
+    void elResultadoNoDependeDeComoSeCorteElCuerpo() {
+        for (int trozo : new int[] {1, 2, 3, 7, 16}) {
+            AlmacenMediciones almacen = new AlmacenMediciones(16);
+            IngestaMediciones ndjson = ingerir(almacen, IngestaMediciones.Formato.NDJSON, NDJSON, trozo);
+            IngestaMediciones csv = ingerir(almacen, IngestaMediciones.Formato.CSV, CSV, trozo);
+            
+            assertEquals(3, ndjson.getAceptadas(), "NDJSON en trozos de " + trozo);
+            assertEquals(1, ndjson.getRechazadas(), "NDJSON en trozos de " + trozo);
+            assertEquals(2, csv.getAceptadas(), "CSV en trozos de " + trozo);
+            assertEquals(1, csv.getRechazadas(), "CSV en trozos de " + trozo);
+        }
+    }
+    
+    @Test
+    void lineaDemasiadoLargaSeRechazaSinPerderLasSiguientes() {
+        AlmacenMediciones almacen = new AlmacenMediciones(16);
+        String cuerpo = "{\"valor\":1}\n{\"valor\":" + "1".repeat(5000) + "}\n{\"valor\":2}\n";
+        
+        IngestaMediciones ingesta = ingerir(almacen, IngestaMediciones.Formato.NDJSON, cuerpo, 1000);
+        
+        assertEquals(2, ingesta.getAceptadas());
+        assertEquals(1, ingesta.getRechazadas());
+    }
+    
+    @Test
+    void bufferDirectoSeInterpretaIgual() {
+        AlmacenMediciones almacen = new AlmacenMediciones(16);
+        IngestaMediciones ingesta = new IngestaMediciones("PEN001", IngestaMediciones.Formato.CSV, almacen);
+        byte[] bytes = CSV.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer directo = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        
+        ingesta.recibir(directo);
+        ingesta.terminar();
+        
+        assertEquals(2, ingesta.getAceptadas());
+        assertEquals(0, directo.remaining());
+    }
+    
+    @Test
+    void formatoSaleDelContentTypeSinSusParametros() {
+        assertEquals(IngestaMediciones.Formato.NDJSON, IngestaMediciones.Formato.de("application/x-ndjson; charset=utf-8"));
+        assertEquals(IngestaMediciones.Formato.CSV, IngestaMediciones.Formato.de("Text/CSV"));
+        assertNull(IngestaMediciones.Formato.de("text/plain"));
+        assertNull(IngestaMediciones.Formato.de(null));
+    }
+    
+    @Test
+    void servidorIngiereUnCuerpoFragmentadoYLoResume() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.NIO, Map.of());
+             Socket socket = servidor.conectar(5000)) {
+            OutputStream salida = socket.getOutputStream();
+            salida.write(("POST /mediciones/FPU001 HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/csv\r\n"
+                          + "Transfer-Encoding: chunked\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            for (String trozo : new String[] {"valor\n1.5\n2", ".5\n4\n"}) {
+                salida.write((Integer.toHexString(trozo.length()) + "\r\n" + trozo + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                salida.flush();
+                Thread.sleep(20);
+            }
+            salida.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            
+            String respuesta = ServidorDePrueba.leerRespuesta(socket.getInputStream());
+            assertTrue(respuesta.startsWith("HTTP/1.1 200"), respuesta);
+            assertTrue(respuesta.contains("\"aceptadas\":3,\"rechazadas\":0"), respuesta);
+            
+            String resumen = servidor.solicitar("GET", "/mediciones/FPU001");
+            assertTrue(resumen.contains("\"ultimoValor\":4.0,\"minimo\":1.5,\"maximo\":4.0"), resumen);
+            assertTrue(servidor.solicitar("POST", "/mediciones/GEN001", "Content-Type: text/csv\r\n")
+                               .startsWith("HTTP/1.1 404"));
+            assertTrue(servidor.solicitar("POST", "/mediciones/FPU001", "Content-Type: text/plain\r\n")
+                               .startsWith("HTTP/1.1 415"));
+        }
+    }
+    
+    /**
+     * Entrega el cuerpo a una ingesta nueva en trozos del tamaño dado
+     */
+    private static IngestaMediciones ingerir(AlmacenMediciones almacen, IngestaMediciones.Formato formato,
+                                             String cuerpo, int trozo) {
+        IngestaMediciones ingesta = new IngestaMediciones("PEN001", formato, almacen);
+        byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+        for (int desde = 0; desde < bytes.length; desde += trozo) {
+            ingesta.recibir(ByteBuffer.wrap(bytes, desde, Math.min(trozo, bytes.length - desde)));
+        }
+        ingesta.terminar();
+        return ingesta;
+    }
+}
@@ -0,0 +1,108 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del plazo de la cabecera en los motores bloqueantes: un cliente que envía
+ * la cabecera byte a byte (slowloris) debe recibir 408 al vencer el plazo, aunque
+ * cada byte llegue antes del tiempo de inactividad de la conexión.
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class LectorSolicitudHttpTest {
+    
+    private static final int PLAZO_CABECERA_MS = 1000;
+    private static final int PAUSA_ENTRE_BYTES_MS = 200;
+    
+    @Test
+    void goteoEnMotorClasicoRecibe408AlVencerElPlazo() throws Exception {
+        verificarGoteo(MotorServidor.CLASICO);
+    }
+    
+    @Test
+    void goteoEnMotorVirtualRecibe408AlVencerElPlazo() throws Exception {
+        verificarGoteo(MotorServidor.VIRTUAL);
+    }
+    
+    private void verificarGoteo(MotorServidor motor) throws Exception {
+        Map<String, String> propiedades = Map.of("servidor.cabecera.timeout", String.valueOf(PLAZO_CABECERA_MS),
+                                                 "servidor.keepalive.timeout", "5000");
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, propiedades);
+             Socket socket = servidor.conectar(5000)) {
+            Thread goteo = new Thread(() -> gotear(socket), "goteo");
+            goteo.setDaemon(true);
+            long inicio = System.nanoTime();
+            goteo.start();
+            
+            String estado = leerLineaEstado(socket.getInputStream());
+            long transcurridoMs = (System.nanoTime() - inicio) / 1_000_000;
+            
+            assertTrue(estado.startsWith("HTTP/1.1 408"), "Se esperaba 408 y llegó: " + estado);
+            // Con el plazo de 1 s la respuesta llega mucho antes que el tiempo de inactividad de 5 s
+            assertTrue(transcurridoMs < PLAZO_CABECERA_MS + 1500,
+                       "El 408 tardó " + transcurridoMs + " ms con un plazo de " + PLAZO_CABECERA_MS + " ms");
+            goteo.interrupt();
+        }
+    }
+    
+    /**
+     * Envía una cabecera que nunca termina, un byte cada PAUSA_ENTRE_BYTES_MS
+     */
+    private static void gotear(Socket socket) {
+        byte[] cabecera = ("GET /equipos HTTP/1.1\r\nHost: localhost\r\nX-Relleno: "
+                           + "a".repeat(200)).getBytes(StandardCharsets.US_ASCII);
+        try {
+            OutputStream salida = socket.getOutputStream();
+            for (byte b : cabecera) {
+                salida.write(b);
+                salida.flush();
+                Thread.sleep(PAUSA_ENTRE_BYTES_MS);
+            }
+        } catch (IOException | InterruptedException e) {
+            // El servidor cerró la conexión o terminó la prueba
+        }
+    }
+    
+    private static String leerLineaEstado(InputStream entrada) throws IOException {
+        StringBuilder linea = new StringBuilder();
+        int b;
+        while ((b = entrada.read()) >= 0 && b != '\n') {
+            linea.append((char) b);
+        }
+        return linea.toString().trim();
+    }
+}
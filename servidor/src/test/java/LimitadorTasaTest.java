@@ -0,0 +1,130 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del limitador de tasa GCRA por cliente y clase de ruta
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class LimitadorTasaTest {
+    
+    @Test
+    void admiteLaRafagaYLuegoIndicaCuantoEsperar() {
+        LimitadorTasa limitador = new LimitadorTasa(100, 10_000).registrarClase("ordenar", 1, 3, "/ordenar");
+        
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.consumir("10.0.0.1", "/ordenar"), "Solicitud " + i + " de la ráfaga");
+        }
+        long espera = limitador.consumir("10.0.0.1", "/ordenar");
+        
+        assertTrue(espera > 0 && espera <= 1_000_000_000L, "Espera: " + espera);
+        assertEquals(1, limitador.getLimitadas("ordenar"));
+    }
+    
+    @Test
+    void laCubetaSeRecuperaAlRitmoDeLaTasa() throws Exception {
+        LimitadorTasa limitador = new LimitadorTasa(100, 10_000).registrarClase("busqueda", 100, 1, "/buscar");
+        assertEquals(0, limitador.consumir("10.0.0.1", "/buscar"));
+        assertTrue(limitador.consumir("10.0.0.1", "/buscar") > 0);
+        
+        Thread.sleep(20);
+        
+        assertEquals(0, limitador.consumir("10.0.0.1", "/buscar"));
+    }
+    
+    @Test
+    void clientesYClasesTienenCubetasIndependientes() {
+        LimitadorTasa limitador = new LimitadorTasa(100, 10_000)
+            .registrarClase("ordenar", 1, 1, "/ordenar")
+            .registrarClase("busqueda", 1, 1, "/buscar");
+        
+        assertEquals(0, limitador.consumir("10.0.0.1", "/ordenar"));
+        assertEquals(0, limitador.consumir("10.0.0.1", "/buscar"));
+        assertEquals(0, limitador.consumir("10.0.0.2", "/ordenar"));
+        assertTrue(limitador.consumir("10.0.0.1", "/ordenar") > 0);
+        assertEquals(0, limitador.consumir("10.0.0.1", "/equipos"));
+        assertEquals(0, limitador.consumir("10.0.0.1", null));
+    }
+    
+    @Test
+    void tasaCeroDejaLaClaseSinLimite() {
+        LimitadorTasa limitador = new LimitadorTasa(100, 10_000).registrarClase("ordenar", 0, 1, "/ordenar");
+        
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limitador.consumir("10.0.0.1", "/ordenar"));
+        }
+        assertEquals(0, limitador.getClientes());
+        assertThrows(IllegalArgumentException.class, () -> limitador.registrarClase("mala", 1, 0, "/x"));
+    }
+    
+    @Test
+    void alLlegarAlMaximoLosClientesNuevosCompartenUnaCubeta() {
+        LimitadorTasa limitador = new LimitadorTasa(1, 10_000).registrarClase("ordenar", 1, 1, "/ordenar");
+        limitador.consumir("10.0.0.1", "/ordenar");
+        
+        assertEquals(0, limitador.consumir("10.0.0.2", "/ordenar"));
+        assertTrue(limitador.consumir("10.0.0.3", "/ordenar") > 0);
+        assertEquals(1, limitador.getClientes());
+    }
+    
+    @Test
+    void laLimpiezaOlvidaSoloALosClientesConCubetasLlenas() throws Exception {
+        LimitadorTasa limitador = new LimitadorTasa(100, 10_000)
+            .registrarClase("rapida", 1000, 1, "/rapida")
+            .registrarClase("lenta", 0.001, 1, "/lenta");
+        limitador.consumir("10.0.0.1", "/rapida");
+        limitador.consumir("10.0.0.2", "/lenta");
+        Thread.sleep(20);
+        
+        limitador.eliminarInactivos();
+        
+        assertEquals(1, limitador.getClientes());
+        assertTrue(limitador.consumir("10.0.0.2", "/lenta") > 0);
+    }
+    
+    @Test
+    void servidorResponde429ConRetryAfter() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.CLASICO,
+                Map.of("servidor.limite.ordenar.tasa", "0.5", "servidor.limite.ordenar.rafaga", "2"))) {
+            assertTrue(servidor.solicitar("GET", "/ordenar").startsWith("HTTP/1.1 200"));
+            assertTrue(servidor.solicitar("GET", "/ordenar").startsWith("HTTP/1.1 200"));
+            String limitada = servidor.solicitar("GET", "/ordenar");
+            
+            assertTrue(limitada.startsWith("HTTP/1.1 429"), limitada);
+            assertTrue(limitada.contains("Retry-After: 2\r\n"), limitada);
+            assertTrue(servidor.solicitar("GET", "/equipos").startsWith("HTTP/1.1 200"));
+        }
+    }
+}
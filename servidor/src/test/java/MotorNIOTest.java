@@ -0,0 +1,178 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Pruebas del parseo incremental del motor NIO: solicitudes que llegan en
+ * fragmentos arbitrarios, cabeceras que exceden los límites antes de completarse
+ * y plazos para cuerpos que llegan gota a gota y respuestas que el cliente no lee
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class MotorNIOTest {
+    
+    @Test
+    void solicitudQueLlegaByteAByteSeRespondeIgual() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.NIO, Map.of());
+             Socket socket = servidor.conectar(5000)) {
+            String completa = servidor.solicitar("GET", "/buscar/id/PEN001");
+            socket.setTcpNoDelay(true);
+            OutputStream salida = socket.getOutputStream();
+            
+            for (byte b : "GET /buscar/id/PEN001 HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                          .getBytes(StandardCharsets.US_ASCII)) {
+                salida.write(b);
+                salida.flush();
+                Thread.sleep(1);
+            }
+            String respuesta = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            
+            assertTrue(respuesta.startsWith("HTTP/1.1 200"), respuesta);
+            assertEquals(ServidorDePrueba.cuerpo(completa), ServidorDePrueba.cuerpo(respuesta));
+        }
+    }
+    
+    @Test
+    void fragmentosQueCortanElFinDeCabeceraYJuntanDosSolicitudes() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.NIO, Map.of());
+             Socket socket = servidor.conectar(5000)) {
+            socket.setTcpNoDelay(true);
+            OutputStream salida = socket.getOutputStream();
+            InputStream entrada = socket.getInputStream();
+            
+            String[] fragmentos = {
+                "GET /styles.css HTTP/1.1\r\nHost: localhost\r\n\r",
+                "\nGET /no-existe HTTP/1.1\r\nHo",
+                "st: localhost\r\nConnection: close\r\n\r\n"
+            };
+            for (String fragmento : fragmentos) {
+                salida.write(fragmento.getBytes(StandardCharsets.US_ASCII));
+                salida.flush();
+                Thread.sleep(50);
+            }
+            
+            assertTrue(ServidorDePrueba.leerRespuesta(entrada).startsWith("HTTP/1.1 200"));
+            assertTrue(ServidorDePrueba.leerRespuesta(entrada).startsWith("HTTP/1.1 404"));
+            assertNull(ServidorDePrueba.leerRespuesta(entrada));
+        }
+    }
+    
+    @Test
+    void encabezadoLargoSeRechazaAntesDeTerminarLaCabecera() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.NIO, Map.of("servidor.linea.max", "256"));
+             Socket socket = servidor.conectar(5000)) {
+            OutputStream salida = socket.getOutputStream();
+            salida.write(("GET / HTTP/1.1\r\nHost: localhost\r\nX-Relleno: " + "a".repeat(300))
+                         .getBytes(StandardCharsets.US_ASCII));
+            salida.flush();
+            
+            // La cabecera nunca termina: el rechazo llega por el exceso, no por la línea vacía
+            assertTrue(ServidorDePrueba.leerRespuesta(socket.getInputStream()).startsWith("HTTP/1.1 431"));
+        }
+    }
+    
+    @Test
+    void cabeceraQueNoTerminaDentroDelPlazoRecibe408() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.NIO,
+                                                              Map.of("servidor.cabecera.timeout", "200"));
+             Socket socket = servidor.conectar(5000)) {
+            OutputStream salida = socket.getOutputStream();
+            salida.write("GET / HTTP/1.1\r\nHost: loc".getBytes(StandardCharsets.US_ASCII));
+            salida.flush();
+            
+            assertTrue(ServidorDePrueba.leerRespuesta(socket.getInputStream()).startsWith("HTTP/1.1 408"));
+        }
+    }
+    
+    @Test
+    void cuerpoFragmentadoGotaAGotaRecibe408AlVencerSuPlazo() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.NIO, Map.of("servidor.cuerpo.timeout", "500"));
+             Socket socket = servidor.conectar(5000)) {
+            OutputStream salida = socket.getOutputStream();
+            salida.write(("POST /mediciones/FPU001 HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/csv\r\n"
+                          + "Transfer-Encoding: chunked\r\n\r\n6\r\nvalor\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            salida.flush();
+            // Cada fragmento de un byte mantiene viva la conexión, pero el cuerpo nunca termina
+            Thread goteo = ConexionPersistenteTest.gotear(
+                socket, "1\r\n1\r\n".repeat(200).getBytes(StandardCharsets.US_ASCII), 50);
+            
+            long inicio = System.nanoTime();
+            String respuesta = ServidorDePrueba.leerRespuesta(socket.getInputStream());
+            long transcurridoMs = (System.nanoTime() - inicio) / 1_000_000;
+            goteo.interrupt();
+            
+            assertTrue(respuesta.startsWith("HTTP/1.1 408"), respuesta);
+            assertTrue(transcurridoMs < 4000, "El 408 tardó " + transcurridoMs + " ms");
+        }
+    }
+    
+    @Test
+    void clienteQueNoLeeLaRespuestaSeDesconectaAlVencerElPlazo(@TempDir Path directorio) throws Exception {
+        int tamano = 32 * 1024 * 1024;
+        Files.write(directorio.resolve("grande.bin"), new byte[tamano]);
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(MotorServidor.NIO,
+                Map.of("servidor.archivos.dir", directorio.toString(), "servidor.cuerpo.timeout", "500"));
+             Socket socket = new Socket()) {
+            // Un buffer de recepción chico hace que la respuesta quede pendiente en el servidor
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress("localhost", servidor.getPuerto()));
+            socket.setSoTimeout(5000);
+            socket.getOutputStream().write("GET /archivos/grande.bin HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                                           .getBytes(StandardCharsets.US_ASCII));
+            Thread.sleep(3000);
+            
+            long recibidos = 0;
+            InputStream entrada = socket.getInputStream();
+            byte[] bloque = new byte[64 * 1024];
+            try {
+                int leidos;
+                while ((leidos = entrada.read(bloque)) >= 0) {
+                    recibidos += leidos;
+                }
+            } catch (IOException e) {
+                // Reinicio de la conexión cerrada por el servidor
+            }
+            assertTrue(recibidos < tamano, "Se recibió la respuesta completa: " + recibidos + " bytes");
+        }
+    }
+}
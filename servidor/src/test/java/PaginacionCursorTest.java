@@ -0,0 +1,134 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la paginación por cursor del catálogo y de la API
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class PaginacionCursorTest {
+    
+    private static final Pattern SIGUIENTE = Pattern.compile("\"next\":\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\\{\"id\":\"([^\"]+)\"");
+    
+    private static final CatalogoEquipos catalogo = CatalogoEquipos.getInstance();
+    
+    @BeforeAll
+    static void cargar() {
+        catalogo.inicializar();
+    }
+    
+    @Test
+    void recorrerHaciaAdelanteDevuelveCadaEquipoUnaVezEnOrden() {
+        List<Equipo> esperados = catalogo.obtenerTodos();
+        esperados.sort(OrdenEquipos.CONSUMO.getComparador());
+        
+        List<Equipo> recorridos = new ArrayList<>();
+        Pagina<Equipo> pagina = catalogo.obtenerPaginaPorConsumo(3, null);
+        assertNull(pagina.getCursorAnterior());
+        recorridos.addAll(pagina.getElementos());
+        while (pagina.getCursorSiguiente() != null) {
+            pagina = catalogo.obtenerPaginaPorConsumo(3, pagina.getCursorSiguiente());
+            assertNotNull(pagina.getCursorAnterior());
+            recorridos.addAll(pagina.getElementos());
+        }
+        
+        assertEquals(esperados, recorridos);
+        assertEquals(esperados.size(), pagina.getTotal());
+    }
+    
+    @Test
+    void elCursorAnteriorVuelveALaPaginaPrevia() {
+        Pagina<Equipo> primera = catalogo.obtenerPagina(3, null);
+        Pagina<Equipo> segunda = catalogo.obtenerPagina(3, primera.getCursorSiguiente());
+        
+        Pagina<Equipo> regreso = catalogo.obtenerPagina(3, segunda.getCursorAnterior());
+        
+        assertEquals(primera.getElementos(), regreso.getElementos());
+        assertNull(regreso.getCursorAnterior());
+        assertEquals(primera.getCursorSiguiente(), regreso.getCursorSiguiente());
+    }
+    
+    @Test
+    void cursoresDeOtroOrdenOMalFormadosSeRechazan() {
+        String deConsumo = catalogo.obtenerPaginaPorConsumo(2, null).getCursorSiguiente();
+        
+        assertThrows(IllegalArgumentException.class, () -> catalogo.obtenerPagina(2, deConsumo));
+        assertThrows(IllegalArgumentException.class, () -> catalogo.obtenerPagina(2, "no-es-un-cursor"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> CursorPagina.decodificar(CursorPagina.codificar("id", false, "a", "b").substring(2)));
+    }
+    
+    @Test
+    void elLimiteSeAcotaAlMaximoYCeroUsaElDeOmision() {
+        assertEquals(Pagina.LIMITE_POR_DEFECTO, Pagina.normalizarLimite(0));
+        assertEquals(Pagina.LIMITE_MAXIMO, Pagina.normalizarLimite(100_000));
+        assertEquals(7, Pagina.normalizarLimite(7));
+    }
+    
+    @Test
+    void apiRecorrePaginasConNextYRechazaCursorAjeno() throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.api(MotorServidor.NIO, Map.of())) {
+            List<String> ids = new ArrayList<>();
+            String ruta = "/api/equipos?limite=4";
+            while (ruta != null) {
+                String cuerpo = ServidorDePrueba.cuerpo(servidor.solicitar("GET", ruta));
+                Matcher id = ID.matcher(cuerpo);
+                while (id.find()) {
+                    ids.add(id.group(1));
+                }
+                Matcher siguiente = SIGUIENTE.matcher(cuerpo);
+                ruta = siguiente.find() ? "/api/equipos?limite=4&cursor=" + siguiente.group(1) : null;
+            }
+            List<String> esperados = new ArrayList<>();
+            for (Equipo equipo : catalogo.obtenerTodos()) {
+                esperados.add(equipo.getId());
+            }
+            esperados.sort(null);
+            assertEquals(esperados, ids);
+            
+            String deConsumo = catalogo.obtenerPaginaPorConsumo(2, null).getCursorSiguiente();
+            String respuesta = servidor.solicitar("GET", "/api/equipos?cursor=" + deConsumo);
+            assertTrue(respuesta.startsWith("HTTP/1.1 400"), respuesta);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Pruebas del registro de accesos asíncrono y su rotación por tamaño
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class RegistroAccesosTest {
+    
+    @TempDir
+    Path directorio;
+    
+    @Test
+    void rotacionFallidaNoDetieneElRegistro() throws Exception {
+        Path archivo = directorio.resolve("accesos.log");
+        // Un directorio no vacío en el destino hace fallar el movimiento a accesos.log.1
+        Files.createDirectories(directorio.resolve("accesos.log.1"));
+        Files.writeString(directorio.resolve("accesos.log.1").resolve("ocupado"), "x");
+        RegistroAccesos registro = new RegistroAccesos(archivo, 16, 1, 1);
+        registro.iniciar();
+        try {
+            for (int i = 0; i < 3; i++) {
+                registro.registrar(new SolicitudHttp("GET /acceso" + i + " HTTP/1.1"), new RespuestaHttp(200), "10.0.0.1");
+                esperarEscritas(registro, i + 1);
+            }
+        } finally {
+            registro.cerrar();
+        }
+        
+        List<String> lineas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+        assertEquals(3, lineas.size(), "Se perdieron accesos tras la rotación fallida: " + lineas);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(lineas.get(i).contains(" 10.0.0.1 GET /acceso" + i + " 200 "), lineas.get(i));
+        }
+    }
+    
+    @Test
+    void rotaPorTamanoYConservaLosArchivosConfigurados() throws Exception {
+        Path archivo = directorio.resolve("accesos.log");
+        RegistroAccesos registro = new RegistroAccesos(archivo, 16, 1, 2);
+        registro.iniciar();
+        try {
+            for (int i = 0; i < 4; i++) {
+                registro.registrar(new SolicitudHttp("GET /acceso" + i + " HTTP/1.1"), new RespuestaHttp(200), "-");
+                esperarEscritas(registro, i + 1);
+            }
+        } finally {
+            registro.cerrar();
+        }
+        
+        // Cada lote supera el byte de rotación: el último acceso queda en .1 y el anterior en .2
+        assertTrue(Files.readString(archivo.resolveSibling("accesos.log.1")).contains("/acceso3 "));
+        assertTrue(Files.readString(archivo.resolveSibling("accesos.log.2")).contains("/acceso2 "));
+        assertTrue(Files.notExists(archivo.resolveSibling("accesos.log.3")));
+    }
+    
+    @Test
+    void variosProductoresNoPierdenNiMezclanLineas() throws Exception {
+        Path archivo = directorio.resolve("accesos.log");
+        RegistroAccesos registro = new RegistroAccesos(archivo, 64, Long.MAX_VALUE, 1);
+        registro.iniciar();
+        int hilos = 4;
+        int porHilo = 2000;
+        List<Thread> productores = new ArrayList<>();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                String cliente = "10.0.0." + h;
+                Thread productor = new Thread(() -> {
+                    for (int i = 0; i < porHilo; i++) {
+                        registro.registrar(new SolicitudHttp("GET /equipos?i=" + i + " HTTP/1.1"),
+                                           new RespuestaHttp(200).conCuerpo("abc"), cliente);
+                    }
+                });
+                productores.add(productor);
+                productor.start();
+            }
+            for (Thread productor : productores) {
+                productor.join();
+            }
+        } finally {
+            registro.cerrar();
+        }
+        
+        // Con el anillo lleno se descarta en lugar de esperar: cada acceso se escribe o se cuenta
+        assertEquals(hilos * porHilo, registro.getEscritas() + registro.getDescartadas());
+        List<String> lineas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+        assertEquals(registro.getEscritas(), lineas.size());
+        for (String linea : lineas) {
+            assertTrue(linea.matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{3}Z 10\\.0\\.0\\.[0-3] "
+                                     + "GET /equipos\\?i=\\d+ 200 3 \\d+"), linea);
+        }
+    }
+    
+    @Test
+    void sinArchivoElRegistroQuedaDesactivado() throws Exception {
+        RegistroAccesos registro = new RegistroAccesos(null, 16, 1024, 1);
+        registro.iniciar();
+        
+        registro.registrar(new SolicitudHttp("GET / HTTP/1.1"), new RespuestaHttp(200), "-");
+        
+        assertFalse(registro.isActivo());
+        assertEquals(0, registro.getEscritas() + registro.getDescartadas());
+        registro.cerrar();
+    }
+    
+    private static void esperarEscritas(RegistroAccesos registro, long escritas) throws InterruptedException {
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (registro.getEscritas() < escritas && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        assertEquals(escritas, registro.getEscritas());
+    }
+}
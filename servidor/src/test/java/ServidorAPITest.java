@@ -0,0 +1,143 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la API JSON sobre un servidor real
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class ServidorAPITest {
+    
+    private static ServidorDePrueba servidor;
+    
+    @BeforeAll
+    static void arrancar() throws Exception {
+        servidor = ServidorDePrueba.api(MotorServidor.CLASICO, Map.of("servidor.limite.ordenar.tasa", "0"));
+    }
+    
+    @AfterAll
+    static void detener() {
+        servidor.close();
+    }
+    
+    @Test
+    void ordenarNoReordenaElCatalogoNiCambiaSuVersion() throws Exception {
+        CatalogoEquipos catalogo = CatalogoEquipos.getInstance();
+        List<Equipo> antes = catalogo.obtenerTodos();
+        long version = catalogo.getVersion();
+        
+        String completa = servidor.solicitar("GET", "/api/ordenar");
+        String pagina = servidor.solicitar("GET", "/api/ordenar?limite=2");
+        
+        assertTrue(completa.startsWith("HTTP/1.1 200"), completa);
+        assertTrue(pagina.startsWith("HTTP/1.1 200"), pagina);
+        assertTrue(ServidorDePrueba.cuerpo(pagina).contains("\"next\":\""), pagina);
+        assertEquals(antes, catalogo.obtenerTodos());
+        assertEquals(version, catalogo.getVersion());
+    }
+    
+    @Test
+    void ordenarDevuelveLosEquiposDeMenorAMayorConsumo() throws Exception {
+        List<Equipo> esperados = CatalogoEquipos.getInstance().obtenerTodos();
+        esperados.sort(OrdenEquipos.CONSUMO.getComparador());
+        
+        String cuerpo = ServidorDePrueba.cuerpo(servidor.solicitar("GET", "/api/ordenar"));
+        
+        int anterior = -1;
+        for (Equipo equipo : esperados) {
+            int posicion = cuerpo.indexOf("\"id\":\"" + equipo.getId() + "\"");
+            assertTrue(posicion > anterior, "Fuera de orden: " + equipo.getId());
+            anterior = posicion;
+        }
+    }
+    
+    @Test
+    void consultaPreviaPermiteSoloLosEncabezadosFijos() throws Exception {
+        String respuesta = servidor.solicitar("OPTIONS", "/api/equipos",
+                "Origin: https://otro.example\r\nAccess-Control-Request-Method: GET\r\n"
+                + "Access-Control-Request-Headers: X-Cualquiera, Authorization\r\n");
+        
+        assertTrue(respuesta.startsWith("HTTP/1.1 204"), respuesta);
+        assertTrue(respuesta.contains("Access-Control-Allow-Headers: Content-Type, If-None-Match, If-Modified-Since\r\n"),
+                   respuesta);
+        assertFalse(respuesta.contains("X-Cualquiera"), respuesta);
+    }
+    
+    @Test
+    void errorConBarraInvertidaYControlEnLaRutaSigueSiendoJSONValido() throws Exception {
+        String respuesta = servidor.solicitar("GET", "/api/buscar/nombre/a%5C%01");
+        
+        assertTrue(respuesta.startsWith("HTTP/1.1 404"), respuesta);
+        assertEquals("{\"success\":false,\"message\":\"No se encontraron equipos con nombre: a\\\\\\u0001\",\"data\":null}",
+                     ServidorDePrueba.cuerpo(respuesta));
+    }
+    
+    @Test
+    void elCodigoLoDaElControladorYNoElCuerpo() throws Exception {
+        assertTrue(servidor.solicitar("GET", "/api/buscar/id/PEN001").startsWith("HTTP/1.1 200"));
+        assertTrue(servidor.solicitar("GET", "/api/detalles/NOEXISTE").startsWith("HTTP/1.1 404"));
+        assertTrue(servidor.solicitar("GET", "/api/buscar/id/%20").startsWith("HTTP/1.1 400"));
+        assertTrue(servidor.solicitar("GET", "/api/buscar/nombre/%20?limite=2").startsWith("HTTP/1.1 400"));
+    }
+    
+    @Test
+    void unErrorDelControladorNoQuedaEnLaCache() throws Exception {
+        AtomicBoolean fallar = new AtomicBoolean(true);
+        ControladorWeb controlador = new ControladorWeb() {
+            @Override
+            public Resultado obtenerEstadisticasJSON() {
+                if (fallar.get()) {
+                    return new Resultado(500, "{\"success\":false,\"message\":\"falla\",\"data\":null}");
+                }
+                return super.obtenerEstadisticasJSON();
+            }
+        };
+        try (ServidorDePrueba conFallo = ServidorDePrueba.api(MotorServidor.CLASICO, Map.of(), controlador)) {
+            String error = conFallo.solicitar("GET", "/api/estadisticas");
+            assertTrue(error.startsWith("HTTP/1.1 500"), error);
+            assertTrue(conFallo.solicitar("GET", "/api/estadisticas").startsWith("HTTP/1.1 500"));
+            
+            // Con la misma versión del catálogo, la siguiente solicitud vuelve a generar
+            fallar.set(false);
+            String exito = conFallo.solicitar("GET", "/api/estadisticas");
+            assertTrue(exito.startsWith("HTTP/1.1 200"), exito);
+            assertTrue(ServidorDePrueba.cuerpo(exito).startsWith("{\"success\":true"), exito);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Servidor real levantado en un puerto libre para las pruebas que hablan HTTP
+ * por un socket. Las propiedades de sistema se fijan antes de construirlo, porque
+ * el servidor las lee en su constructor, y se restauran al detenerlo.
+ * Cumple con SRP: Solo arranca, detiene y conecta con el servidor de una prueba
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+final class ServidorDePrueba implements AutoCloseable {
+    
+    private final ServidorWebCompleto servidor;
+    private final int puerto;
+    private final Map<String, String> propiedades;
+    private final Map<String, String> anteriores = new HashMap<>();
+    
+    private ServidorDePrueba(BiFunction<Integer, ControladorWeb, ServidorWebCompleto> fabrica,
+                             Map<String, String> propiedades, ControladorWeb controlador)
+            throws IOException, InterruptedException {
+        this.propiedades = propiedades;
+        for (Map.Entry<String, String> propiedad : propiedades.entrySet()) {
+            anteriores.put(propiedad.getKey(), System.getProperty(propiedad.getKey()));
+            System.setProperty(propiedad.getKey(), propiedad.getValue());
+        }
+        try (ServerSocket libre = new ServerSocket(0)) {
+            this.puerto = libre.getLocalPort();
+        }
+        this.servidor = fabrica.apply(puerto, controlador);
+        Thread hilo = new Thread(servidor::iniciar, "servidor-prueba");
+        hilo.setDaemon(true);
+        hilo.start();
+        esperarConexiones();
+    }
+    
+    /**
+     * Arranca un ServidorWebCompleto con el motor indicado
+     * @param motor motor de E/S
+     * @param propiedades propiedades de sistema que se fijan mientras dure la prueba
+     * @return servidor aceptando conexiones
+     */
+    static ServidorDePrueba web(MotorServidor motor, Map<String, String> propiedades)
+            throws IOException, InterruptedException {
+        return new ServidorDePrueba((puerto, controlador) -> new ServidorWebCompleto(puerto, controlador, motor),
+                                    propiedades, new ControladorWeb());
+    }
+    
+    /**
+     * Arranca un ServidorAPI con el motor indicado
+     * @param motor motor de E/S
+     * @param propiedades propiedades de sistema que se fijan mientras dure la prueba
+     * @return servidor aceptando conexiones
+     */
+    static ServidorDePrueba api(MotorServidor motor, Map<String, String> propiedades)
+            throws IOException, InterruptedException {
+        return api(motor, propiedades, new ControladorWeb());
+    }
+    
+    /**
+     * Arranca un ServidorAPI con un controlador propio de la prueba
+     * @param motor motor de E/S
+     * @param propiedades propiedades de sistema que se fijan mientras dure la prueba
+     * @param controlador controlador que atiende las rutas /api
+     * @return servidor aceptando conexiones
+     */
+    static ServidorDePrueba api(MotorServidor motor, Map<String, String> propiedades, ControladorWeb controlador)
+            throws IOException, InterruptedException {
+        return new ServidorDePrueba((puerto, c) -> new ServidorAPI(puerto, c, motor), propiedades, controlador);
+    }
+    
+    private void esperarConexiones() throws InterruptedException {
+        long limite = System.nanoTime() + 10_000_000_000L;
+        while (System.nanoTime() < limite) {
+            try {
+                new Socket("localhost", puerto).close();
+                return;
+            } catch (IOException e) {
+                Thread.sleep(20);
+            }
+        }
+        throw new IllegalStateException("El servidor de prueba no respondió en el puerto " + puerto);
+    }
+    
+    /**
+     * Abre una conexión con el servidor
+     * @param tiempoLecturaMs SO_TIMEOUT del lado del cliente
+     * @return socket conectado
+     */
+    Socket conectar(int tiempoLecturaMs) throws IOException {
+        Socket socket = new Socket("localhost", puerto);
+        socket.setSoTimeout(tiempoLecturaMs);
+        return socket;
+    }
+    
+    /**
+     * Envía una solicitud con "Connection: close" y devuelve la respuesta completa
+     * @param metodo método HTTP
+     * @param ruta ruta, ya codificada para la URL
+     * @return respuesta completa (línea de estado, encabezados y cuerpo) en UTF-8
+     */
+    String solicitar(String metodo, String ruta) throws IOException {
+        return solicitar(metodo, ruta, "");
+    }
+    
+    /**
+     * Envía una solicitud con encabezados adicionales y "Connection: close"
+     * @param metodo método HTTP
+     * @param ruta ruta, ya codificada para la URL
+     * @param encabezados líneas de encabezado, cada una terminada en CRLF
+     * @return respuesta completa (línea de estado, encabezados y cuerpo) en UTF-8
+     */
+    String solicitar(String metodo, String ruta, String encabezados) throws IOException {
+        try (Socket socket = conectar(5000)) {
+            OutputStream salida = socket.getOutputStream();
+            salida.write((metodo + " " + ruta + " HTTP/1.1\r\nHost: localhost\r\n" + encabezados
+                          + "Connection: close\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            salida.flush();
+            InputStream entrada = socket.getInputStream();
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    /**
+     * Lee una sola respuesta de una conexión persistente, sin pasar a la siguiente:
+     * la cabecera hasta la línea vacía y el cuerpo según Content-Length o
+     * Transfer-Encoding: chunked. Un cuerpo fragmentado se devuelve ya sin el enmarcado
+     * @param entrada flujo de la conexión
+     * @return respuesta completa en UTF-8, o null si la conexión se cerró antes
+     */
+    static String leerRespuesta(InputStream entrada) throws IOException {
+        StringBuilder cabecera = new StringBuilder();
+        String linea;
+        while ((linea = leerLinea(entrada)) != null && !linea.isEmpty()) {
+            cabecera.append(linea).append("\r\n");
+        }
+        if (cabecera.length() == 0) {
+            return null;
+        }
+        String texto = cabecera.toString().toLowerCase();
+        byte[] cuerpo;
+        if (texto.contains("transfer-encoding: chunked")) {
+            ByteArrayOutputStream datos = new ByteArrayOutputStream();
+            int tamano;
+            while ((tamano = Integer.parseInt(leerLinea(entrada).split(";")[0].trim(), 16)) > 0) {
+                datos.write(entrada.readNBytes(tamano));
+                leerLinea(entrada);
+            }
+            while (!leerLinea(entrada).isEmpty()) {
+                // Trailers
+            }
+            cuerpo = datos.toByteArray();
+        } else {
+            int inicio = texto.indexOf("content-length: ");
+            int longitud = inicio < 0 ? 0
+                : Integer.parseInt(texto.substring(inicio + 16, texto.indexOf("\r\n", inicio)).trim());
+            cuerpo = entrada.readNBytes(longitud);
+        }
+        return cabecera + "\r\n" + new String(cuerpo, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Lee una línea terminada en CRLF
+     * @param entrada flujo de la conexión
+     * @return línea sin el CRLF, o null si el flujo terminó
+     */
+    static String leerLinea(InputStream entrada) throws IOException {
+        ByteArrayOutputStream linea = new ByteArrayOutputStream();
+        int b;
+        while ((b = entrada.read()) >= 0 && b != '\n') {
+            linea.write(b);
+        }
+        if (b < 0 && linea.size() == 0) {
+            return null;
+        }
+        String texto = linea.toString(StandardCharsets.UTF_8);
+        return texto.endsWith("\r") ? texto.substring(0, texto.length() - 1) : texto;
+    }
+    
+    /**
+     * Extrae el cuerpo de una respuesta sin fragmentar
+     * @param respuesta respuesta completa
+     * @return texto después de la línea vacía
+     */
+    static String cuerpo(String respuesta) {
+        int fin = respuesta.indexOf("\r\n\r\n");
+        return fin < 0 ? "" : respuesta.substring(fin + 4);
+    }
+    
+    ServidorWebCompleto getServidor() { return servidor; }
+    
+    int getPuerto() { return puerto; }
+    
+    /**
+     * Detiene el servidor y restaura las propiedades de sistema
+     */
+    @Override
+    public void close() {
+        try {
+            servidor.detener(1000);
+        } finally {
+            for (String clave : propiedades.keySet()) {
+                String anterior = anteriores.get(clave);
+                if (anterior == null) {
+                    System.clearProperty(clave);
+                } else {
+                    System.setProperty(clave, anterior);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Pruebas de HTTP/2 en claro (h2c) sobre un servidor real: conocimiento previo,
+ * cambio con "Upgrade: h2c" usando el cliente HTTP del JDK, rechazo de los flujos
+ * que exceden SETTINGS_MAX_CONCURRENT_STREAMS y respeto de la ventana de control
+ * de flujo del cliente. Las respuestas HTTP/2 se comparan con las de HTTP/1.1.
+ * Todas las solicitudes salen de la misma IP, así que el limitador de tasa se desactiva
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class SesionHttp2Test {
+    
+    private static final String[] RUTAS = {
+        "/", "/equipos", "/detalles/PEN001", "/buscar/id/PEN001",
+        "/buscar/nombre/P%C3%A9ndulo", "/styles.css", "/no/existe"
+    };
+    private static final Map<String, String> SIN_LIMITES = Map.of("servidor.limite.busqueda.tasa", "0",
+                                                                  "servidor.limite.ordenar.tasa", "0");
+    
+    private static final int DATA = 0x0;
+    private static final int HEADERS = 0x1;
+    private static final int RST_STREAM = 0x3;
+    private static final int SETTINGS = 0x4;
+    private static final int WINDOW_UPDATE = 0x8;
+    private static final int FIN_FLUJO = 0x1;
+    private static final int FIN_CABECERAS = 0x4;
+    private static final int AJUSTE_VENTANA_INICIAL = 0x4;
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void conocimientoPrevioRespondeIgualQueHttp11(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, SIN_LIMITES);
+             ClienteH2 cliente = new ClienteH2(servidor.conectar(5000), Map.of())) {
+            for (int i = 0; i < RUTAS.length; i++) {
+                int idFlujo = 2 * i + 1;
+                cliente.solicitar(idFlujo, RUTAS[i], true);
+                Respuesta h2 = cliente.leerRespuesta(idFlujo);
+                String h1 = servidor.solicitar("GET", RUTAS[i]);
+                
+                assertTrue(h1.startsWith("HTTP/1.1 " + h2.estado + " "), RUTAS[i] + ": " + h2.estado + " / " + h1);
+                assertEquals(ServidorDePrueba.cuerpo(h1), new String(h2.cuerpo, StandardCharsets.UTF_8), RUTAS[i]);
+            }
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void upgradeH2cAtiendeFlujosConcurrentesSobreUnaConexion(MotorServidor motor) throws Exception {
+        int solicitudes = 100;
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, SIN_LIMITES)) {
+            String base = "http://localhost:" + servidor.getPuerto();
+            HttpClient http1 = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            List<HttpResponse<byte[]>> referencias = new ArrayList<>();
+            for (String ruta : RUTAS) {
+                referencias.add(http1.send(crear(base + ruta), HttpResponse.BodyHandlers.ofByteArray()));
+            }
+            
+            // La primera solicitud hace el Upgrade; las demás comparten la conexión h2c,
+            // por debajo del límite de flujos: el cliente del JDK falla en lugar de esperar
+            HttpClient http2 = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+            HttpResponse<Void> upgrade = http2.send(crear(base + "/"), HttpResponse.BodyHandlers.discarding());
+            assertEquals(HttpClient.Version.HTTP_2, upgrade.version());
+            List<CompletableFuture<HttpResponse<byte[]>>> enCurso = new ArrayList<>();
+            for (int i = 0; i < solicitudes; i++) {
+                enCurso.add(http2.sendAsync(crear(base + RUTAS[i % RUTAS.length]),
+                                            HttpResponse.BodyHandlers.ofByteArray()));
+            }
+            
+            for (int i = 0; i < solicitudes; i++) {
+                HttpResponse<byte[]> respuesta = enCurso.get(i).join();
+                HttpResponse<byte[]> referencia = referencias.get(i % RUTAS.length);
+                String ruta = RUTAS[i % RUTAS.length];
+                assertEquals(HttpClient.Version.HTTP_2, respuesta.version(), ruta);
+                assertEquals(referencia.statusCode(), respuesta.statusCode(), ruta);
+                assertArrayEquals(referencia.body(), respuesta.body(), ruta);
+            }
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void flujoQueExcedeElMaximoRecibeRefusedStream(MotorServidor motor) throws Exception {
+        Map<String, String> propiedades = new HashMap<>(SIN_LIMITES);
+        propiedades.put("servidor.h2.flujos.max", "1");
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, propiedades);
+             ClienteH2 cliente = new ClienteH2(servidor.conectar(5000), Map.of())) {
+            // El flujo 1 queda abierto esperando su cuerpo y ocupa el único lugar
+            cliente.solicitar(1, "/equipos", false);
+            cliente.solicitar(3, "/equipos", true);
+            
+            Marco rechazo = cliente.leerHasta(RST_STREAM, 3);
+            assertEquals(ErrorHttp2Exception.FLUJO_RECHAZADO, ByteBuffer.wrap(rechazo.carga).getInt());
+            
+            // Al terminar el flujo 1 se atiende normalmente
+            cliente.escribirMarco(DATA, FIN_FLUJO, 1, new byte[0]);
+            assertEquals(200, cliente.leerRespuesta(1).estado);
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void datosNoExcedenLaVentanaDelCliente(MotorServidor motor) throws Exception {
+        int ventana = 1024;
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, SIN_LIMITES);
+             ClienteH2 cliente = new ClienteH2(servidor.conectar(5000), Map.of(AJUSTE_VENTANA_INICIAL, ventana))) {
+            byte[] esperado = ServidorDePrueba.cuerpo(servidor.solicitar("GET", "/equipos"))
+                    .getBytes(StandardCharsets.UTF_8);
+            assertTrue(esperado.length > ventana, "El listado debe superar la ventana: " + esperado.length);
+            
+            cliente.solicitar(1, "/equipos", true);
+            Marco cabeceras = cliente.leerHasta(HEADERS, 1);
+            assertEquals(0, cabeceras.banderas & FIN_FLUJO);
+            ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+            while (cuerpo.size() < ventana) {
+                cuerpo.write(cliente.leerHasta(DATA, 1).carga);
+            }
+            assertEquals(ventana, cuerpo.size());
+            // Con la ventana agotada el servidor no envía nada más hasta recibir WINDOW_UPDATE
+            cliente.socket.setSoTimeout(300);
+            assertThrows(SocketTimeoutException.class, () -> cliente.leerHasta(DATA, 1));
+            cliente.socket.setSoTimeout(5000);
+            
+            cliente.escribirMarco(WINDOW_UPDATE, 0, 1, ByteBuffer.allocate(4).putInt(esperado.length).array());
+            Marco datos;
+            do {
+                datos = cliente.leerHasta(DATA, 1);
+                cuerpo.write(datos.carga);
+            } while ((datos.banderas & FIN_FLUJO) == 0);
+            assertArrayEquals(esperado, cuerpo.toByteArray());
+        }
+    }
+    
+    private static HttpRequest crear(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+    
+    /**
+     * Marco HTTP/2 recibido
+     */
+    private static final class Marco {
+        final int tipo;
+        final int banderas;
+        final int idFlujo;
+        final byte[] carga;
+        
+        Marco(int tipo, int banderas, int idFlujo, byte[] carga) {
+            this.tipo = tipo;
+            this.banderas = banderas;
+            this.idFlujo = idFlujo;
+            this.carga = carga;
+        }
+    }
+    
+    /**
+     * Código de estado y cuerpo completo de un flujo
+     */
+    private static final class Respuesta {
+        final int estado;
+        final byte[] cuerpo;
+        
+        Respuesta(int estado, byte[] cuerpo) {
+            this.estado = estado;
+            this.cuerpo = cuerpo;
+        }
+    }
+    
+    /**
+     * Cliente h2c mínimo con conocimiento previo: envía el prefacio y marcos crudos,
+     * y decodifica las cabeceras de respuesta con el HPACK del propio servidor
+     */
+    private static final class ClienteH2 implements AutoCloseable {
+        
+        private final Socket socket;
+        private final DataInputStream entrada;
+        private final OutputStream salida;
+        private final CodificadorHpack codificador = new CodificadorHpack();
+        private final DecodificadorHpack decodificador = new DecodificadorHpack(TablaHpack.TAMANO_PREDETERMINADO);
+        
+        ClienteH2(Socket socket, Map<Integer, Integer> ajustes) throws IOException {
+            this.socket = socket;
+            this.entrada = new DataInputStream(socket.getInputStream());
+            this.salida = socket.getOutputStream();
+            salida.write("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer carga = ByteBuffer.allocate(6 * ajustes.size());
+            for (Map.Entry<Integer, Integer> ajuste : ajustes.entrySet()) {
+                carga.putShort(ajuste.getKey().shortValue()).putInt(ajuste.getValue());
+            }
+            escribirMarco(SETTINGS, 0, 0, carga.array());
+        }
+        
+        void solicitar(int idFlujo, String ruta, boolean finFlujo) throws IOException {
+            SalidaHtml bloque = new SalidaHtml(256);
+            codificador.iniciarBloque(bloque);
+            codificador.codificar(":method", "GET", true, bloque);
+            codificador.codificar(":scheme", "http", true, bloque);
+            codificador.codificar(":path", ruta, false, bloque);
+            codificador.codificar(":authority", "localhost", true, bloque);
+            escribirMarco(HEADERS, FIN_CABECERAS | (finFlujo ? FIN_FLUJO : 0), idFlujo, bloque.toByteArray());
+        }
+        
+        void escribirMarco(int tipo, int banderas, int idFlujo, byte[] carga) throws IOException {
+            ByteBuffer marco = ByteBuffer.allocate(9 + carga.length);
+            marco.put((byte) (carga.length >>> 16)).put((byte) (carga.length >>> 8)).put((byte) carga.length)
+                 .put((byte) tipo).put((byte) banderas).putInt(idFlujo).put(carga);
+            salida.write(marco.array());
+            salida.flush();
+        }
+        
+        /**
+         * Lee marcos hasta encontrar uno del tipo y flujo pedidos; los SETTINGS del
+         * servidor se confirman y el resto de los marcos de control se ignora
+         */
+        Marco leerHasta(int tipo, int idFlujo) throws IOException {
+            while (true) {
+                int longitud = (entrada.readUnsignedByte() << 16) | entrada.readUnsignedShort();
+                int tipoLeido = entrada.readUnsignedByte();
+                int banderas = entrada.readUnsignedByte();
+                int flujo = entrada.readInt() & 0x7FFFFFFF;
+                byte[] carga = new byte[longitud];
+                entrada.readFully(carga);
+                if (tipoLeido == SETTINGS && (banderas & 0x1) == 0) {
+                    escribirMarco(SETTINGS, 0x1, 0, new byte[0]);
+                }
+                if (tipoLeido == tipo && flujo == idFlujo) {
+                    return new Marco(tipoLeido, banderas, flujo, carga);
+                }
+                if (tipoLeido == RST_STREAM && flujo == idFlujo) {
+                    throw new IOException("Flujo " + idFlujo + " reiniciado: " + ByteBuffer.wrap(carga).getInt());
+                }
+            }
+        }
+        
+        Respuesta leerRespuesta(int idFlujo) throws IOException {
+            Marco cabeceras = leerHasta(HEADERS, idFlujo);
+            Map<String, String> valores = new HashMap<>();
+            decodificador.decodificar(cabeceras.carga, 0, cabeceras.carga.length, valores::put);
+            ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+            boolean fin = (cabeceras.banderas & FIN_FLUJO) != 0;
+            while (!fin) {
+                Marco datos = leerHasta(DATA, idFlujo);
+                cuerpo.write(datos.carga);
+                fin = (datos.banderas & FIN_FLUJO) != 0;
+            }
+            return new Respuesta(Integer.parseInt(valores.get(":status")), cuerpo.toByteArray());
+        }
+        
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
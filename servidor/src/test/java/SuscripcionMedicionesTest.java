@@ -0,0 +1,146 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Pruebas del flujo Server-Sent Events de mediciones en los motores clásico y NIO
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class SuscripcionMedicionesTest {
+    
+    private static final Pattern SECUENCIA = Pattern.compile("id: (\\d+)\nevent: medicion\ndata: \\{\"id\":\"PEN001\"");
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void flujoEntregaEventosEnOrdenYLiberaAlSuscriptorAlIrse(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of())) {
+            try (Socket socket = suscribir(servidor, "/stream/mediciones/pen001?tasa=20")) {
+                InputStream entrada = socket.getInputStream();
+                String cabecera = leerCabecera(entrada);
+                assertTrue(cabecera.startsWith("HTTP/1.1 200"), cabecera);
+                assertTrue(cabecera.contains("Content-Type: text/event-stream; charset=UTF-8"), cabecera);
+                assertTrue(cabecera.contains("Transfer-Encoding: chunked"), cabecera);
+                assertTrue(leerFragmento(entrada).startsWith("retry: 3000\n\n"));
+                
+                long anterior = -1;
+                int eventos = 0;
+                while (eventos < 3) {
+                    Matcher evento = SECUENCIA.matcher(leerFragmento(entrada));
+                    while (evento.find()) {
+                        long secuencia = Long.parseLong(evento.group(1));
+                        assertTrue(secuencia > anterior, secuencia + " después de " + anterior);
+                        anterior = secuencia;
+                        eventos++;
+                    }
+                }
+                assertTrue(metricas(servidor).contains("servidor_sse_suscriptores 1\n"));
+            }
+            
+            // El siguiente envío falla y el productor se entera: deja de contar al suscriptor
+            long limite = System.nanoTime() + 3_000_000_000L;
+            while (!metricas(servidor).contains("servidor_sse_suscriptores 0\n") && System.nanoTime() < limite) {
+                Thread.sleep(50);
+            }
+            assertTrue(metricas(servidor).contains("servidor_sse_suscriptores 0\n"));
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void sinMedicionesEnviaLatidosParaMantenerLaConexion(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of("servidor.sse.latido.ms", "100"));
+             Socket socket = suscribir(servidor, "/stream/mediciones/PEN001?tasa=0.1")) {
+            InputStream entrada = socket.getInputStream();
+            leerCabecera(entrada);
+            
+            boolean latido = false;
+            for (int i = 0; i < 5 && !latido; i++) {
+                latido = leerFragmento(entrada).contains(": latido\n\n");
+            }
+            assertTrue(latido);
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void rechazaEquiposSinMedicionesTasasInvalidasYHttp10(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba servidor = ServidorDePrueba.web(motor, Map.of())) {
+            assertTrue(servidor.solicitar("GET", "/stream/mediciones/GEN001").startsWith("HTTP/1.1 404"));
+            assertTrue(servidor.solicitar("GET", "/stream/mediciones/NOEXISTE").startsWith("HTTP/1.1 404"));
+            assertTrue(servidor.solicitar("GET", "/stream/mediciones/PEN001?tasa=abc").startsWith("HTTP/1.1 400"));
+            assertTrue(servidor.solicitar("GET", "/stream/mediciones/PEN001?tasa=0").startsWith("HTTP/1.1 400"));
+            try (Socket socket = servidor.conectar(5000)) {
+                socket.getOutputStream().write("GET /stream/mediciones/PEN001 HTTP/1.0\r\n\r\n"
+                                               .getBytes(StandardCharsets.US_ASCII));
+                String respuesta = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(respuesta.startsWith("HTTP/1.1 400"), respuesta);
+            }
+        }
+    }
+    
+    private static Socket suscribir(ServidorDePrueba servidor, String ruta) throws Exception {
+        Socket socket = servidor.conectar(5000);
+        socket.getOutputStream().write(("GET " + ruta + " HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+                                       .getBytes(StandardCharsets.US_ASCII));
+        return socket;
+    }
+    
+    private static String metricas(ServidorDePrueba servidor) throws Exception {
+        return ServidorDePrueba.cuerpo(servidor.solicitar("GET", "/metrics"));
+    }
+    
+    private static String leerCabecera(InputStream entrada) throws Exception {
+        StringBuilder cabecera = new StringBuilder();
+        String linea;
+        while (!(linea = ServidorDePrueba.leerLinea(entrada)).isEmpty()) {
+            cabecera.append(linea).append("\r\n");
+        }
+        return cabecera.toString();
+    }
+    
+    /**
+     * Lee un fragmento del cuerpo chunked, sin su enmarcado
+     */
+    private static String leerFragmento(InputStream entrada) throws Exception {
+        int tamano = Integer.parseInt(ServidorDePrueba.leerLinea(entrada).trim(), 16);
+        String fragmento = new String(entrada.readNBytes(tamano), StandardCharsets.UTF_8);
+        ServidorDePrueba.leerLinea(entrada);
+        return fragmento;
+    }
+}
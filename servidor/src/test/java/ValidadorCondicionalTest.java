@@ -0,0 +1,163 @@
+//======================================================================================================
+//  __   __ ____        ____   ________
+// |  | |  |\   \      /   /  /   __   \
+// |  | |  | \   \    /   /  /   /  |__|
+// |  | |  |  \   \  /   /   |   |  ___
+// |  | |  |   \   \/   /    |   | |_  |
+// |  |_|  |    \      /     |   |__|  |
+// \_______/`    \____/      \_________/
+//Universidad   del Valle    de Guatemala
+//Programación Orientada a Objetos
+//Sección 50
+//
+//Daniel López
+// ______     ______   ____    ___ ____    ___ ___     __
+//|   __  \ /  ____  \|    \  |   |    \  |   |   |   |  |
+//|  |  \  |  |____|  |     \ |   |     \ |   |   \__/   |
+//|  |   | |   ____   |      \|   |      \|   |\__    __/
+//|  |___| |  |    |  |   |\      |   |\      |   |  |
+//|________|__|    |__|___| \_____|___| \_____|   |__|
+//242159
+//
+//Laboratorio de Física
+//02/11/2025
+//======================================================================================================
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Pruebas de la evaluación de If-Modified-Since y de If-None-Match con el ETag
+ * débil del catálogo, directamente y a través de los servidores web y API
+ * 
+ * @author Daniel López - 242159
+ * @version 2.0
+ */
+class ValidadorCondicionalTest {
+    
+    private static final long MODIFICADO_MS = System.currentTimeMillis() - 60_000;
+    private static final Pattern ETAG = Pattern.compile("ETag: (W/\"[^\"]+\")\r\n");
+    
+    @Test
+    void fechaPosteriorALaModificacionRecibe304() {
+        assertTrue(evaluar(Instant.ofEpochMilli(MODIFICADO_MS).plusSeconds(30)));
+    }
+    
+    @Test
+    void fechaAnteriorALaModificacionNoRecibe304() {
+        assertFalse(evaluar(Instant.ofEpochMilli(MODIFICADO_MS).minusSeconds(30)));
+    }
+    
+    @Test
+    void fechaEnElFuturoSeIgnora() {
+        assertFalse(evaluar(Instant.now().plusSeconds(86_400)));
+    }
+    
+    @Test
+    void comodinYListasDeEtag() {
+        ValidadorCondicional validador = new ValidadorCondicional(7, MODIFICADO_MS);
+        String etag = validador.getEtag();
+        
+        assertTrue(validador.noModificado(conEtag("*")));
+        assertTrue(validador.noModificado(conEtag("\"otro\", " + etag)));
+        assertTrue(validador.noModificado(conEtag("W/\"otro\"," + etag.substring(2))));
+        assertFalse(validador.noModificado(conEtag("\"otro\", W/\"mas\"")));
+        assertFalse(validador.noModificado(conEtag(new ValidadorCondicional(8, MODIFICADO_MS).getEtag())));
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void etagDelListadoWebYDeLaApiRecibe304SinCuerpo(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba web = ServidorDePrueba.web(motor, Map.of());
+             ServidorDePrueba api = ServidorDePrueba.api(motor, Map.of())) {
+            revalidar(web, "/equipos");
+            revalidar(web, "/ordenar");
+            revalidar(api, "/api/equipos");
+            revalidar(api, "/api/estadisticas");
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void unCambioEnElCatalogoCambiaElEtag(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba web = ServidorDePrueba.web(motor, Map.of());
+             ServidorDePrueba api = ServidorDePrueba.api(motor, Map.of())) {
+            String etagWeb = etag(web.solicitar("GET", "/equipos"));
+            String etagApi = etag(api.solicitar("GET", "/api/equipos"));
+            
+            ((Calibrable) CatalogoEquipos.getInstance().buscarPorId("GEN001")).calibrar();
+            
+            String web200 = web.solicitar("GET", "/equipos", "If-None-Match: " + etagWeb + "\r\n");
+            assertTrue(web200.startsWith("HTTP/1.1 200"), web200);
+            assertNotEquals(etagWeb, etag(web200));
+            String api200 = api.solicitar("GET", "/api/equipos", "If-None-Match: " + etagApi + "\r\n");
+            assertTrue(api200.startsWith("HTTP/1.1 200"), api200);
+            assertNotEquals(etagApi, etag(api200));
+            
+            // Con el ETag nuevo vuelve a bastar el 304
+            String web304 = web.solicitar("GET", "/equipos", "If-None-Match: " + etag(web200) + "\r\n");
+            assertTrue(web304.startsWith("HTTP/1.1 304"), web304);
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(value = MotorServidor.class, names = {"CLASICO", "NIO"})
+    void servidorAceptaComodinYListasEnIfNoneMatch(MotorServidor motor) throws Exception {
+        try (ServidorDePrueba web = ServidorDePrueba.web(motor, Map.of())) {
+            String etag = etag(web.solicitar("GET", "/equipos"));
+            
+            assertTrue(web.solicitar("GET", "/equipos", "If-None-Match: *\r\n").startsWith("HTTP/1.1 304"));
+            assertTrue(web.solicitar("GET", "/equipos", "If-None-Match: \"viejo\", " + etag + "\r\n")
+                          .startsWith("HTTP/1.1 304"));
+            assertTrue(web.solicitar("GET", "/equipos", "If-None-Match: \"viejo\", W/\"otro\"\r\n")
+                          .startsWith("HTTP/1.1 200"));
+        }
+    }
+    
+    /**
+     * Pide la ruta, repite con su ETag y comprueba el 304 sin cuerpo con el mismo ETag
+     */
+    private static void revalidar(ServidorDePrueba servidor, String ruta) throws Exception {
+        String completa = servidor.solicitar("GET", ruta);
+        assertTrue(completa.startsWith("HTTP/1.1 200"), completa);
+        String etag = etag(completa);
+        
+        String noModificada = servidor.solicitar("GET", ruta, "If-None-Match: " + etag + "\r\n");
+        assertTrue(noModificada.startsWith("HTTP/1.1 304"), noModificada);
+        assertEquals("", ServidorDePrueba.cuerpo(noModificada));
+        assertEquals(etag, etag(noModificada));
+    }
+    
+    private static String etag(String respuesta) {
+        Matcher etag = ETAG.matcher(respuesta);
+        assertTrue(etag.find(), respuesta);
+        return etag.group(1);
+    }
+    
+    private static SolicitudHttp conEtag(String ifNoneMatch) {
+        SolicitudHttp solicitud = new SolicitudHttp("GET /equipos HTTP/1.1");
+        solicitud.agregarEncabezado("If-None-Match", ifNoneMatch);
+        return solicitud;
+    }
+    
+    private static boolean evaluar(Instant ifModifiedSince) {
+        SolicitudHttp solicitud = new SolicitudHttp("GET /equipos HTTP/1.1");
+        solicitud.agregarEncabezado("If-Modified-Since",
+                                    DateTimeFormatter.RFC_1123_DATE_TIME.format(ifModifiedSince.atZone(ZoneOffset.UTC)));
+        return new ValidadorCondicional(1, MODIFICADO_MS).noModificado(solicitud);
+    }
+}